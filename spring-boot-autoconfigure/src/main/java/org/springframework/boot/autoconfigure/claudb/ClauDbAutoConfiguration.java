@@ -23,10 +23,11 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.core.Ordered;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.claudb.ClauDbConnectionFactory;
 
-import com.github.tonivade.claudb.ClauDB;
 import com.github.tonivade.resp.RespServer;
 
 import lombok.NonNull;
@@ -50,14 +51,26 @@ public class ClauDbAutoConfiguration {
 	private final ClauDbProperties properties;
 	
 	/**
-	 * {@link Bean}: {@link RespServer}
+	 * {@link Bean}: {@link ClauDbServers}
 	 * 
-	 * @return {@link RespServer}
+	 * @return {@link ClauDbServers}
 	 */
 	@Bean(initMethod = "start", destroyMethod = "stop")
-	public RespServer respServer() {
+	public ClauDbServers clauDbServers() {
+		
+		return new ClauDbServers(this.properties.determinePorts());
+	}
+	
+	/**
+	 * {@link Bean}: {@link RespServer} of the first instance
+	 * 
+	 * @param clauDbServers {@link ClauDbServers}
+	 * @return {@link RespServer}
+	 */
+	@Bean(destroyMethod = "")
+	public RespServer respServer(ClauDbServers clauDbServers) {
 		
-		return ClauDB.builder().port(this.properties.determinePort()).build();
+		return clauDbServers.getServers().get(0);
 	}
 	
 	/**
@@ -72,7 +85,33 @@ public class ClauDbAutoConfiguration {
 		 */
 		public DataSourceDependsOnBeanFactoryPostProcessor() {
 			
-			super(RedisConnectionFactory.class, "clauDbServer");
+			super(RedisConnectionFactory.class, "respServer");
+		}
+	}
+	
+	/**
+	 * Loopback configuration
+	 */
+	@Configuration
+	@ConditionalOnClass(RedisConnectionFactory.class)
+	@ConditionalOnProperty(prefix = ClauDbProperties.PREFIX, name = "loopback", havingValue = "true")
+	public static class LoopbackConfiguration {
+		
+		/**
+		 * {@link Bean}: {@link ClauDbConnectionFactory}
+		 * 
+		 * @param respServer {@link RespServer}
+		 * @param properties {@link ClauDbProperties}
+		 * @return {@link ClauDbConnectionFactory}
+		 */
+		@Bean
+		@Primary
+		public ClauDbConnectionFactory clauDbConnectionFactory(RespServer respServer, ClauDbProperties properties) {
+			
+			ClauDbConnectionFactory connectionFactory = new ClauDbConnectionFactory(respServer);
+			connectionFactory.setFaultInjector(properties.getFaults());
+			
+			return connectionFactory;
 		}
 	}
 }
@@ -16,7 +16,12 @@
 
 package org.springframework.boot.autoconfigure.claudb;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
+import org.springframework.data.redis.connection.FaultInjector;
 import org.springframework.util.SocketUtils;
 
 import lombok.Data;
@@ -34,10 +39,26 @@ public class ClauDbProperties {
 	public static final String PREFIX = "spring.claudb";
 	
 	/**
-	 * Port
+	 * Port, or first port of consecutive ports of instances
 	 */
 	private int port;
 	
+	/**
+	 * Number of instances
+	 */
+	private int instances = 1;
+	
+	/**
+	 * Register {@code ClauDbConnectionFactory} handing commands to ClauDB in the same JVM
+	 */
+	private boolean loopback;
+	
+	/**
+	 * {@link FaultInjector} of loopback connections
+	 */
+	@NestedConfigurationProperty
+	private FaultInjector faults = new FaultInjector();
+	
 	/**
 	 * Determine port
 	 * 
@@ -53,4 +74,32 @@ public class ClauDbProperties {
 		
 		return SocketUtils.findAvailableTcpPort();
 	}
+	
+	/**
+	 * Determine ports of instances
+	 * 
+	 * @return consecutive ports from {@link #getPort()}, or random ports if not specified
+	 * @throws IllegalStateException if failed to determine
+	 */
+	public List<Integer> determinePorts() throws IllegalStateException {
+		
+		if (this.instances < 1) {
+			
+			throw new IllegalStateException(String.format("Invalid number of instances: %d", this.instances));
+		}
+		
+		if (this.port == 0) {
+			
+			return new ArrayList<>(SocketUtils.findAvailableTcpPorts(this.instances));
+		}
+		
+		List<Integer> ports = new ArrayList<>();
+		
+		for (int i = 0; i < this.instances; i++) {
+			
+			ports.add(this.port + i);
+		}
+		
+		return ports;
+	}
 }
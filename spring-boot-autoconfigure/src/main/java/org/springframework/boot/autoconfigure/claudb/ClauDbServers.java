@@ -0,0 +1,145 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure.claudb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.tonivade.claudb.ClauDB;
+import com.github.tonivade.resp.RespServer;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Embedded ClauDB instances
+ * 
+ * <p>
+ * Instances are independent and listen on {@link #getPorts()}. They are not sharded; clients connect to each port.
+ * Each instance can be stopped and started again to simulate node loss.
+ * </p>
+ */
+public class ClauDbServers {
+	
+	/**
+	 * Ports
+	 */
+	@Getter
+	private final List<Integer> ports;
+	
+	/**
+	 * {@link RespServer}s
+	 */
+	@Getter
+	private final List<RespServer> servers;
+	
+	/**
+	 * Running or not for each instance
+	 */
+	private final boolean[] running;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param ports ports of instances
+	 */
+	public ClauDbServers(@NonNull List<Integer> ports) {
+		
+		List<RespServer> servers = new ArrayList<>();
+		
+		for (int port : ports) {
+			
+			servers.add(ClauDB.builder().port(port).build());
+		}
+		
+		this.ports = Collections.unmodifiableList(new ArrayList<>(ports));
+		this.servers = Collections.unmodifiableList(servers);
+		this.running = new boolean[servers.size()];
+	}
+	
+	/**
+	 * Start all instances, or stop started instances if any instance failed to start
+	 */
+	public synchronized void start() {
+		
+		try {
+			
+			for (int i = 0; i < this.servers.size(); i++) {
+				
+				this.start(i);
+			}
+		}
+		catch (Exception e) {
+			
+			// Note: Netty may rethrow BindException undeclared
+			this.stop();
+			
+			throw e;
+		}
+	}
+	
+	/**
+	 * Stop all instances
+	 */
+	public synchronized void stop() {
+		
+		for (int i = 0; i < this.servers.size(); i++) {
+			
+			this.stop(i);
+		}
+	}
+	
+	/**
+	 * Start an instance
+	 * 
+	 * @param index index of the instance
+	 */
+	public synchronized void start(int index) {
+		
+		if (!this.running[index]) {
+			
+			this.servers.get(index).start();
+			this.running[index] = true;
+		}
+	}
+	
+	/**
+	 * Stop an instance
+	 * 
+	 * @param index index of the instance
+	 */
+	public synchronized void stop(int index) {
+		
+		if (this.running[index]) {
+			
+			this.servers.get(index).stop();
+			this.running[index] = false;
+		}
+	}
+	
+	/**
+	 * Whether an instance is running
+	 * 
+	 * @param index index of the instance
+	 * @return running or not
+	 */
+	public synchronized boolean isRunning(int index) {
+		
+		return this.running[index];
+	}
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.connection;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Latency and fault injector for mock and embedded Redis
+ * 
+ * <p>
+ * Each command is delayed by {@link #getLatency()} drawn from {@link #getDistribution()}, fails at
+ * {@link #getErrorRate()} and stalls for {@link #getStallDuration()} at {@link #getStallRate()}. Set
+ * {@link #getSeed()} to reproduce the same sequence of faults.
+ * </p>
+ */
+@Data
+public class FaultInjector {
+	
+	/**
+	 * Enabled
+	 */
+	private boolean enabled;
+	
+	/**
+	 * Commands to inject faults into, or all commands if empty
+	 */
+	private Set<String> commands = new LinkedHashSet<>();
+	
+	/**
+	 * Latency (or mean latency) in milliseconds
+	 */
+	private long latency;
+	
+	/**
+	 * Jitter of {@link XDistribution#UNIFORM} in milliseconds
+	 */
+	private long jitter;
+	
+	/**
+	 * {@link XDistribution}
+	 */
+	private XDistribution distribution = XDistribution.FIXED;
+	
+	/**
+	 * Rate of errors from 0.0 to 1.0
+	 */
+	private double errorRate;
+	
+	/**
+	 * Rate of stalls from 0.0 to 1.0
+	 */
+	private double stallRate;
+	
+	/**
+	 * Stall duration in milliseconds
+	 */
+	private long stallDuration = 1000;
+	
+	/**
+	 * Seed of random, or not seeded if {@code null}
+	 */
+	private volatile Long seed;
+	
+	/**
+	 * Seeded {@link Random}
+	 */
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private transient Random random;
+	
+	/**
+	 * Set seed
+	 * 
+	 * @param seed seed of random, or not seeded if {@code null}
+	 */
+	public synchronized void setSeed(Long seed) {
+		
+		this.seed = seed;
+		this.random = null;
+	}
+	
+	/**
+	 * Inject faults into a command
+	 * 
+	 * @param command command name
+	 * @throws RedisConnectionFailureException if an error is injected
+	 */
+	public void inject(String command) throws RedisConnectionFailureException {
+		
+		if (!this.enabled || !this.isTarget(command)) {
+			
+			return;
+		}
+		
+		Random random = this.random();
+		
+		if (this.errorRate > 0 && random.nextDouble() < this.errorRate) {
+			
+			throw new RedisConnectionFailureException(String.format("Injected error on %s", command));
+		}
+		
+		long delay = this.nextLatency(random);
+		
+		if (this.stallRate > 0 && random.nextDouble() < this.stallRate) {
+			
+			delay += this.stallDuration;
+		}
+		
+		if (delay > 0) {
+			
+			try {
+				
+				Thread.sleep(delay);
+			}
+			catch (InterruptedException e) {
+				
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	
+	/**
+	 * Whether a command is a target
+	 * 
+	 * @param command command name
+	 * @return target or not
+	 */
+	protected boolean isTarget(String command) {
+		
+		if (this.commands.isEmpty()) {
+			
+			return true;
+		}
+		
+		String name = command.toUpperCase(Locale.ROOT);
+		
+		return this.commands.stream().anyMatch(target -> target.toUpperCase(Locale.ROOT).equals(name));
+	}
+	
+	/**
+	 * Next latency
+	 * 
+	 * @param random {@link Random}
+	 * @return latency in milliseconds
+	 */
+	protected long nextLatency(Random random) {
+		
+		switch (this.distribution) {
+			
+			case UNIFORM:
+				return Math.max(0, this.latency - this.jitter + (long) (random.nextDouble() * (2 * this.jitter + 1)));
+			
+			case EXPONENTIAL:
+				return (long) (-this.latency * Math.log(1 - random.nextDouble()));
+			
+			default:
+				return this.latency;
+		}
+	}
+	
+	/**
+	 * Get {@link Random}
+	 * 
+	 * @return seeded {@link Random} or {@link ThreadLocalRandom}
+	 */
+	private Random random() {
+		
+		if (this.seed == null) {
+			
+			return ThreadLocalRandom.current();
+		}
+		
+		synchronized (this) {
+			
+			if (this.seed == null) {
+				
+				return ThreadLocalRandom.current();
+			}
+			
+			if (this.random == null) {
+				
+				this.random = new Random(this.seed);
+			}
+			
+			return this.random;
+		}
+	}
+	
+	/**
+	 * Distribution of latency
+	 */
+	public enum XDistribution {
+		
+		/**
+		 * Fixed latency
+		 */
+		FIXED,
+		
+		/**
+		 * Uniform in latency +/- jitter
+		 */
+		UNIFORM,
+		
+		/**
+		 * Exponential with mean latency
+		 */
+		EXPONENTIAL
+	}
+}
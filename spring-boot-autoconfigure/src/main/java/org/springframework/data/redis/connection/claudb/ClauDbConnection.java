@@ -0,0 +1,891 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.connection.claudb;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.FaultInjector;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+import com.github.tonivade.resp.RespServer;
+import com.github.tonivade.resp.protocol.AbstractRedisToken;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.RedisTokenType;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * {@link RedisConnection} handing commands to embedded ClauDB in the same JVM
+ * 
+ * <p>
+ * Each connection is a session of {@link RespServer} on an {@link EmbeddedChannel}. Requests and replies are passed
+ * as {@link RedisToken} without sockets and the RESP codec. Only the commands used by the cache writers and session
+ * repositories are supported, listed in {@link #COMMANDS} with their arguments and replies, as well as
+ * {@link RedisConnection#execute(String, byte[]...)}. Other methods throw {@link InvalidDataAccessApiUsageException}.
+ * </p>
+ * 
+ * <p>
+ * ClauDB lacks {@code PEXPIRE} and {@code SPOP}, and its {@code SETNX} and {@code SET NX} succeed if the key holds
+ * the same value. So {@code PEXPIRE} is sent as {@code EXPIRE} rounded up to seconds, and {@code SETNX},
+ * {@code SET NX} and {@code SPOP} with a count are run as scripts, which ClauDB executes atomically.
+ * </p>
+ * 
+ * <p>
+ * A connection whose reply timed out is closed, since the late reply would be read by the next command.
+ * </p>
+ */
+class ClauDbConnection implements InvocationHandler {
+	
+	/**
+	 * Host of remote addresses of connections
+	 */
+	private static final String HOST = "claudb-loopback";
+	
+	/**
+	 * Script of {@code SETNX}
+	 */
+	private static final String SET_IF_ABSENT = "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end "
+		+ "redis.call('SET', KEYS[1], ARGV[1]) return 1";
+	
+	/**
+	 * Script of {@code SET NX PX}
+	 */
+	private static final String SET_IF_ABSENT_WITH_EXPIRATION = "if redis.call('EXISTS', KEYS[1]) == 1 then "
+		+ "return 0 end redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) return 1";
+	
+	/**
+	 * Script of {@code SPOP} with a count
+	 */
+	private static final String SET_POP = "local members = redis.call('SMEMBERS', KEYS[1]) local popped = {} "
+		+ "for i = 1, math.min(#members, tonumber(ARGV[1])) do redis.call('SREM', KEYS[1], members[i]) "
+		+ "popped[i] = members[i] end return popped";
+	
+	/**
+	 * Supported commands by methods of {@link RedisConnection}
+	 */
+	private static final Map<Method, XCommand> COMMANDS = createCommands();
+	
+	/**
+	 * {@link RespServer}
+	 */
+	private final RespServer respServer;
+	
+	/**
+	 * Timeout of commands
+	 */
+	private final Duration timeout;
+	
+	/**
+	 * {@link FaultInjector}
+	 */
+	private final FaultInjector faultInjector;
+	
+	/**
+	 * {@link EmbeddedChannel}
+	 */
+	private final EmbeddedChannel channel;
+	
+	/**
+	 * {@link ChannelHandlerContext} to publish replies
+	 */
+	private final ChannelHandlerContext context;
+	
+	/**
+	 * Replies
+	 */
+	private final BlockingQueue<RedisToken> replies = new LinkedBlockingQueue<>();
+	
+	/**
+	 * Converters of replies of pipelined commands or {@code null} if not pipelined
+	 */
+	private List<Function<RedisToken, Object>> pipelined;
+	
+	/**
+	 * Closed or not
+	 */
+	private volatile boolean closed;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param respServer {@link RespServer}
+	 * @param id ID of the connection
+	 * @param timeout timeout of commands
+	 * @param faultInjector {@link FaultInjector}
+	 */
+	private ClauDbConnection(RespServer respServer, int id, Duration timeout, FaultInjector faultInjector) {
+		
+		this.respServer = respServer;
+		this.timeout = timeout;
+		this.faultInjector = faultInjector;
+		this.channel = new XLoopbackChannel(InetSocketAddress.createUnresolved(HOST, id));
+		
+		ChannelInboundHandlerAdapter anchor = new ChannelInboundHandlerAdapter();
+		
+		this.channel.pipeline().addLast(new XReplyHandler(this.replies), anchor);
+		this.context = this.channel.pipeline().context(anchor);
+		
+		this.respServer.connected(this.context);
+	}
+	
+	/**
+	 * Create {@link RedisConnection}
+	 * 
+	 * @param respServer {@link RespServer}
+	 * @param id ID of the connection
+	 * @param timeout timeout of commands
+	 * @param faultInjector {@link FaultInjector}
+	 * @return {@link RedisConnection}
+	 */
+	static RedisConnection create(RespServer respServer, int id, Duration timeout, FaultInjector faultInjector) {
+		
+		return (RedisConnection) Proxy.newProxyInstance(ClauDbConnection.class.getClassLoader(),
+			new Class<?>[] { RedisConnection.class }, new ClauDbConnection(respServer, id, timeout, faultInjector));
+	}
+	
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		
+		String name = method.getName();
+		Object[] arguments = args == null ? new Object[0] : args;
+		
+		if (method.getDeclaringClass() == Object.class) {
+			
+			return this.invokeObjectMethod(proxy, method, arguments);
+		}
+		
+		if (name.endsWith("Commands") && arguments.length == 0) {
+			
+			return proxy;
+		}
+		
+		switch (name) {
+			
+			case "close":
+				this.close();
+				return null;
+			
+			case "isClosed":
+				return this.closed;
+			
+			case "getNativeConnection":
+				return this.channel;
+			
+			case "isQueueing":
+			case "isSubscribed":
+				return false;
+			
+			case "getSubscription":
+				return null;
+			
+			case "isPipelined":
+				return this.pipelined != null;
+			
+			case "openPipeline":
+				if (this.pipelined == null) {
+					
+					this.pipelined = new ArrayList<>();
+				}
+				return null;
+			
+			case "closePipeline":
+				return this.closePipeline();
+			
+			default:
+				break;
+		}
+		
+		XCommand command = COMMANDS.get(method);
+		
+		if (command == null) {
+			
+			throw new InvalidDataAccessApiUsageException(
+				String.format("Command %s is not supported by ClauDB connection", method.toGenericString()));
+		}
+		
+		return command.invoke(this, arguments);
+	}
+	
+	/**
+	 * Invoke methods of {@link Object}
+	 * 
+	 * @param proxy proxy
+	 * @param method {@link Method}
+	 * @param args arguments
+	 * @return result
+	 * @throws Throwable if failed
+	 */
+	private Object invokeObjectMethod(Object proxy, Method method, Object[] args) throws Throwable {
+		
+		switch (method.getName()) {
+			
+			case "equals":
+				return proxy == args[0];
+			
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			
+			case "toString":
+				return String.format("ClauDbConnection[%s]", this.channel.remoteAddress());
+			
+			default:
+				try {
+					
+					return method.invoke(this, args);
+				}
+				catch (InvocationTargetException e) {
+					
+					throw e.getTargetException();
+				}
+		}
+	}
+	
+	/**
+	 * Send command
+	 * 
+	 * @param name name of the command to inject faults into
+	 * @param converter converter of the reply
+	 * @param command command and arguments, each of which is {@code byte[]}, {@code byte[][]}, {@link String},
+	 * {@link Number} or {@link Map} of {@code byte[]}
+	 * @return converted reply or {@code null} if pipelined
+	 */
+	private Object send(String name, Function<RedisToken, Object> converter, Object... command) {
+		
+		if (this.closed) {
+			
+			throw new InvalidDataAccessApiUsageException("Connection is closed");
+		}
+		
+		this.faultInjector.inject(name);
+		
+		List<RedisToken> tokens = new ArrayList<>();
+		
+		for (Object arg : command) {
+			
+			addArgument(tokens, arg);
+		}
+		
+		this.respServer.receive(this.context, RedisToken.array(tokens.toArray(new RedisToken[0])));
+		
+		if (this.pipelined != null) {
+			
+			this.pipelined.add(converter);
+			
+			return null;
+		}
+		
+		return converter.apply(this.receive());
+	}
+	
+	/**
+	 * Receive reply, or close the connection if not received
+	 * 
+	 * @return reply
+	 */
+	private RedisToken receive() {
+		
+		try {
+			
+			RedisToken reply = this.replies.poll(this.timeout.toMillis(), TimeUnit.MILLISECONDS);
+			
+			if (reply == null) {
+				
+				this.close();
+				
+				throw new QueryTimeoutException(String.format("ClauDB did not reply in %s", this.timeout));
+			}
+			
+			return reply;
+		}
+		catch (InterruptedException e) {
+			
+			this.close();
+			Thread.currentThread().interrupt();
+			
+			throw new RedisSystemException("Interrupted while waiting for ClauDB", e);
+		}
+	}
+	
+	/**
+	 * Close pipeline after receiving all replies
+	 * 
+	 * @return converted replies
+	 * @throws RedisPipelineException if any command failed, with exceptions in place of the failed replies
+	 */
+	private List<Object> closePipeline() throws RedisPipelineException {
+		
+		if (this.pipelined == null) {
+			
+			return new ArrayList<>();
+		}
+		
+		List<Function<RedisToken, Object>> converters = this.pipelined;
+		List<Object> results = new ArrayList<>(converters.size());
+		RuntimeException failure = null;
+		
+		this.pipelined = null;
+		
+		for (Function<RedisToken, Object> converter : converters) {
+			
+			RedisToken reply = this.receive();
+			
+			try {
+				
+				results.add(converter.apply(reply));
+			}
+			catch (RuntimeException e) {
+				
+				results.add(e);
+				
+				if (failure == null) {
+					
+					failure = e;
+				}
+			}
+		}
+		
+		if (failure != null) {
+			
+			throw new RedisPipelineException(failure, results);
+		}
+		
+		return results;
+	}
+	
+	/**
+	 * Close connection
+	 */
+	private void close() {
+		
+		if (this.closed) {
+			
+			return;
+		}
+		
+		this.closed = true;
+		
+		try {
+			
+			this.respServer.disconnected(this.context);
+		}
+		finally {
+			
+			this.channel.close();
+		}
+	}
+	
+	/**
+	 * Create supported commands
+	 * 
+	 * @return commands by methods
+	 */
+	private static Map<Method, XCommand> createCommands() {
+		
+		Map<Method, XCommand> commands = new HashMap<>();
+		
+		/* @formatter:off */
+		commands.put(method("get", byte[].class),
+			(c, args) -> c.send("GET", ClauDbConnection::toBytes, "GET", args[0]));
+		commands.put(method("mGet", byte[][].class),
+			(c, args) -> c.send("MGET", ClauDbConnection::toList, "MGET", args[0]));
+		commands.put(method("set", byte[].class, byte[].class),
+			(c, args) -> c.send("SET", ClauDbConnection::toBoolean, "SET", args[0], args[1]));
+		commands.put(method("set", byte[].class, byte[].class, Expiration.class, SetOption.class),
+			(c, args) -> c.set((byte[]) args[0], (byte[]) args[1], (Expiration) args[2], (SetOption) args[3]));
+		commands.put(method("setNX", byte[].class, byte[].class),
+			(c, args) -> c.send("SETNX", ClauDbConnection::toBoolean, "EVAL", SET_IF_ABSENT, 1, args[0], args[1]));
+		commands.put(method("mSet", Map.class),
+			(c, args) -> c.send("MSET", ClauDbConnection::toBoolean, "MSET", args[0]));
+		commands.put(method("exists", byte[].class),
+			(c, args) -> c.send("EXISTS", ClauDbConnection::toBoolean, "EXISTS", args[0]));
+		commands.put(method("del", byte[][].class),
+			(c, args) -> c.send("DEL", ClauDbConnection::toLong, "DEL", args[0]));
+		commands.put(method("keys", byte[].class),
+			(c, args) -> c.send("KEYS", ClauDbConnection::toSet, "KEYS", args[0]));
+		commands.put(method("rename", byte[].class, byte[].class),
+			(c, args) -> c.send("RENAME", ClauDbConnection::toVoid, "RENAME", args[0], args[1]));
+		commands.put(method("expire", byte[].class, long.class),
+			(c, args) -> c.send("EXPIRE", ClauDbConnection::toBoolean, "EXPIRE", args[0], args[1]));
+		commands.put(method("pExpire", byte[].class, long.class),
+			(c, args) -> c.send("PEXPIRE", ClauDbConnection::toBoolean, "EXPIRE", args[0], seconds((long) args[1])));
+		commands.put(method("persist", byte[].class),
+			(c, args) -> c.send("PERSIST", ClauDbConnection::toBoolean, "PERSIST", args[0]));
+		commands.put(method("ttl", byte[].class),
+			(c, args) -> c.send("TTL", ClauDbConnection::toLong, "TTL", args[0]));
+		commands.put(method("pTtl", byte[].class),
+			(c, args) -> c.send("PTTL", ClauDbConnection::toLong, "PTTL", args[0]));
+		commands.put(method("hGet", byte[].class, byte[].class),
+			(c, args) -> c.send("HGET", ClauDbConnection::toBytes, "HGET", args[0], args[1]));
+		commands.put(method("hMGet", byte[].class, byte[][].class),
+			(c, args) -> c.send("HMGET", ClauDbConnection::toList, "HMGET", args[0], args[1]));
+		commands.put(method("hMSet", byte[].class, Map.class),
+			(c, args) -> c.send("HMSET", ClauDbConnection::toVoid, "HMSET", args[0], args[1]));
+		commands.put(method("hDel", byte[].class, byte[][].class),
+			(c, args) -> c.send("HDEL", ClauDbConnection::toLong, "HDEL", args[0], args[1]));
+		commands.put(method("hKeys", byte[].class),
+			(c, args) -> c.send("HKEYS", ClauDbConnection::toSet, "HKEYS", args[0]));
+		commands.put(method("sAdd", byte[].class, byte[][].class),
+			(c, args) -> c.send("SADD", ClauDbConnection::toLong, "SADD", args[0], args[1]));
+		commands.put(method("sPop", byte[].class, long.class),
+			(c, args) -> c.send("SPOP", ClauDbConnection::toList, "EVAL", SET_POP, 1, args[0], args[1]));
+		commands.put(method("scriptLoad", byte[].class),
+			(c, args) -> c.send("SCRIPT", ClauDbConnection::toStatus, "SCRIPT", "LOAD", args[0]));
+		commands.put(method("eval", byte[].class, ReturnType.class, int.class, byte[][].class),
+			(c, args) -> c.send("EVAL", converter((ReturnType) args[1]), "EVAL", args[0], args[2], args[3]));
+		commands.put(method("evalSha", String.class, ReturnType.class, int.class, byte[][].class),
+			(c, args) -> c.send("EVALSHA", converter((ReturnType) args[1]), "EVALSHA", args[0], args[2], args[3]));
+		commands.put(method("evalSha", byte[].class, ReturnType.class, int.class, byte[][].class),
+			(c, args) -> c.send("EVALSHA", converter((ReturnType) args[1]), "EVALSHA", args[0], args[2], args[3]));
+		commands.put(method("ping"),
+			(c, args) -> c.send("PING", ClauDbConnection::toStatus, "PING"));
+		commands.put(method("execute", String.class, byte[][].class),
+			(c, args) -> c.send((String) args[0], ClauDbConnection::toObject, args[0], args[1]));
+		/* @formatter:on */
+		
+		return commands;
+	}
+	
+	/**
+	 * Method of {@link RedisConnection}
+	 * 
+	 * @param name name
+	 * @param parameterTypes parameter types
+	 * @return {@link Method}
+	 */
+	private static Method method(String name, Class<?>... parameterTypes) {
+		
+		Method method = ReflectionUtils.findMethod(RedisConnection.class, name, parameterTypes);
+		
+		Assert.state(method != null, () -> String.format("RedisConnection#%s%s not found", name,
+			Arrays.toString(parameterTypes)));
+		
+		return method;
+	}
+	
+	/**
+	 * Send {@code SET} with {@link Expiration} and {@link SetOption}
+	 * 
+	 * @param key key
+	 * @param value value
+	 * @param expiration {@link Expiration}
+	 * @param option {@link SetOption}
+	 * @return set or not, or {@code null} if pipelined
+	 */
+	private Object set(byte[] key, byte[] value, Expiration expiration, SetOption option) {
+		
+		boolean expiring = expiration != null && !expiration.isPersistent();
+		long milliseconds = expiring ? expiration.getExpirationTimeInMilliseconds() : 0;
+		
+		if (option == SetOption.SET_IF_ABSENT) {
+			
+			return expiring
+				? this.send("SET", ClauDbConnection::toBoolean, "EVAL", SET_IF_ABSENT_WITH_EXPIRATION, 1, key, value,
+					milliseconds)
+				: this.send("SET", ClauDbConnection::toBoolean, "EVAL", SET_IF_ABSENT, 1, key, value);
+		}
+		
+		List<Object> command = new ArrayList<>(Arrays.asList("SET", key, value));
+		
+		if (expiring) {
+			
+			command.add("PX");
+			command.add(milliseconds);
+		}
+		
+		if (option == SetOption.SET_IF_PRESENT) {
+			
+			command.add("XX");
+		}
+		
+		return this.send("SET", ClauDbConnection::toBoolean, command.toArray());
+	}
+	
+	/**
+	 * Add argument of a command
+	 * 
+	 * @param tokens tokens of the command
+	 * @param arg argument
+	 */
+	private static void addArgument(List<RedisToken> tokens, Object arg) {
+		
+		if (arg instanceof byte[]) {
+			
+			tokens.add(RedisToken.string(new SafeString((byte[]) arg)));
+		}
+		else if (arg instanceof byte[][]) {
+			
+			for (byte[] value : (byte[][]) arg) {
+				
+				addArgument(tokens, value);
+			}
+		}
+		else if (arg instanceof String || arg instanceof Number) {
+			
+			addArgument(tokens, arg.toString().getBytes(StandardCharsets.UTF_8));
+		}
+		else if (arg instanceof Map) {
+			
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) arg).entrySet()) {
+				
+				addArgument(tokens, entry.getKey());
+				addArgument(tokens, entry.getValue());
+			}
+		}
+		else {
+			
+			throw new InvalidDataAccessApiUsageException(
+				String.format("Argument %s is not supported by ClauDB connection", arg));
+		}
+	}
+	
+	/**
+	 * Seconds of {@code EXPIRE} for {@code PEXPIRE}, rounded up not to expire earlier
+	 * 
+	 * @param milliseconds milliseconds
+	 * @return seconds
+	 */
+	private static long seconds(long milliseconds) {
+		
+		return milliseconds > 0 ? (milliseconds + 999) / 1000 : 0;
+	}
+	
+	/**
+	 * Converter of replies of scripts
+	 * 
+	 * @param type {@link ReturnType}
+	 * @return converter
+	 */
+	private static Function<RedisToken, Object> converter(ReturnType type) {
+		
+		switch (type) {
+			
+			case BOOLEAN:
+				return ClauDbConnection::toBoolean;
+			
+			case INTEGER:
+				return ClauDbConnection::toLong;
+			
+			case STATUS:
+				return ClauDbConnection::toStatus;
+			
+			case MULTI:
+				return ClauDbConnection::toList;
+			
+			default:
+				return ClauDbConnection::toObject;
+		}
+	}
+	
+	/**
+	 * Value of reply
+	 * 
+	 * @param reply reply
+	 * @return value
+	 * @throws InvalidDataAccessApiUsageException if failed
+	 */
+	private static Object value(RedisToken reply) throws InvalidDataAccessApiUsageException {
+		
+		Object value = ((AbstractRedisToken<?>) reply).getValue();
+		
+		if (reply.getType() == RedisTokenType.ERROR) {
+			
+			throw new InvalidDataAccessApiUsageException(String.valueOf(value));
+		}
+		
+		return value;
+	}
+	
+	/**
+	 * Convert reply to nothing
+	 * 
+	 * @param reply reply
+	 * @return {@code null}
+	 */
+	private static Object toVoid(RedisToken reply) {
+		
+		value(reply);
+		
+		return null;
+	}
+	
+	/**
+	 * Convert reply to {@link Boolean}
+	 * 
+	 * @param reply {@code OK}, integer or bulk string
+	 * @return {@link Boolean}
+	 */
+	private static Object toBoolean(RedisToken reply) {
+		
+		Object value = value(reply);
+		
+		switch (reply.getType()) {
+			
+			case STATUS:
+				return "OK".equals(value);
+			
+			case INTEGER:
+				return ((Number) value).longValue() != 0;
+			
+			case STRING:
+				return value != null;
+			
+			default:
+				throw unconvertible(reply, Boolean.class);
+		}
+	}
+	
+	/**
+	 * Convert reply to {@link Long}
+	 * 
+	 * @param reply integer
+	 * @return {@link Long}
+	 */
+	private static Object toLong(RedisToken reply) {
+		
+		Object value = value(reply);
+		
+		if (reply.getType() != RedisTokenType.INTEGER) {
+			
+			throw unconvertible(reply, Long.class);
+		}
+		
+		return ((Number) value).longValue();
+	}
+	
+	/**
+	 * Convert reply to {@code byte[]}
+	 * 
+	 * @param reply bulk string
+	 * @return {@code byte[]} or {@code null}
+	 */
+	private static Object toBytes(RedisToken reply) {
+		
+		Object value = value(reply);
+		
+		if (reply.getType() != RedisTokenType.STRING) {
+			
+			throw unconvertible(reply, byte[].class);
+		}
+		
+		return value == null ? null : ((SafeString) value).getBytes();
+	}
+	
+	/**
+	 * Convert reply to {@link String}
+	 * 
+	 * @param reply status or bulk string
+	 * @return {@link String} or {@code null}
+	 */
+	private static Object toStatus(RedisToken reply) {
+		
+		Object value = value(reply);
+		
+		switch (reply.getType()) {
+			
+			case STATUS:
+				return value;
+			
+			case STRING:
+				return value == null ? null : ((SafeString) value).toString();
+			
+			default:
+				throw unconvertible(reply, String.class);
+		}
+	}
+	
+	/**
+	 * Convert reply to {@link List}
+	 * 
+	 * @param reply array
+	 * @return {@link List} of converted elements
+	 */
+	private static Object toList(RedisToken reply) {
+		
+		Object value = value(reply);
+		
+		if (reply.getType() != RedisTokenType.ARRAY) {
+			
+			throw unconvertible(reply, List.class);
+		}
+		
+		List<Object> values = new ArrayList<>();
+		
+		for (Object token : (Iterable<?>) value) {
+			
+			values.add(toObject((RedisToken) token));
+		}
+		
+		return values;
+	}
+	
+	/**
+	 * Convert reply to {@link java.util.Set}
+	 * 
+	 * @param reply array
+	 * @return {@link java.util.Set} of converted elements in order
+	 */
+	private static Object toSet(RedisToken reply) {
+		
+		return new LinkedHashSet<>((List<?>) toList(reply));
+	}
+	
+	/**
+	 * Convert reply by its type
+	 * 
+	 * @param reply reply
+	 * @return {@link String}, {@link Long}, {@code byte[]} or {@link List}
+	 */
+	private static Object toObject(RedisToken reply) {
+		
+		switch (reply.getType()) {
+			
+			case STATUS:
+				return toStatus(reply);
+			
+			case INTEGER:
+				return toLong(reply);
+			
+			case ARRAY:
+				return toList(reply);
+			
+			default:
+				return toBytes(reply);
+		}
+	}
+	
+	/**
+	 * Exception of unconvertible reply
+	 * 
+	 * @param reply reply
+	 * @param type expected type
+	 * @return {@link InvalidDataAccessApiUsageException}
+	 */
+	private static InvalidDataAccessApiUsageException unconvertible(RedisToken reply, Class<?> type) {
+		
+		return new InvalidDataAccessApiUsageException(
+			String.format("Reply %s is not convertible to %s by ClauDB connection", reply, type.getSimpleName()));
+	}
+	
+	/**
+	 * Command sent for a method of {@link RedisConnection}
+	 */
+	@FunctionalInterface
+	private interface XCommand {
+		
+		/**
+		 * Send command
+		 * 
+		 * @param connection {@link ClauDbConnection}
+		 * @param args arguments of the method
+		 * @return converted reply or {@code null} if pipelined
+		 */
+		Object invoke(ClauDbConnection connection, Object[] args);
+	}
+	
+	/**
+	 * {@link EmbeddedChannel} with an {@link InetSocketAddress} to identify the session
+	 */
+	private static class XLoopbackChannel extends EmbeddedChannel {
+		
+		/**
+		 * Remote address
+		 */
+		private final InetSocketAddress remoteAddress;
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param remoteAddress remote address
+		 */
+		XLoopbackChannel(InetSocketAddress remoteAddress) {
+			
+			this.remoteAddress = remoteAddress;
+		}
+		
+		@Override
+		protected SocketAddress remoteAddress0() {
+			
+			return this.remoteAddress;
+		}
+	}
+	
+	/**
+	 * Handler to capture replies published by {@link RespServer}
+	 */
+	private static class XReplyHandler extends ChannelOutboundHandlerAdapter {
+		
+		/**
+		 * Replies
+		 */
+		private final BlockingQueue<RedisToken> replies;
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param replies replies
+		 */
+		XReplyHandler(BlockingQueue<RedisToken> replies) {
+			
+			this.replies = replies;
+		}
+		
+		@Override
+		public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+			
+			if (msg instanceof RedisToken) {
+				
+				this.replies.add((RedisToken) msg);
+				promise.setSuccess();
+			}
+			else {
+				
+				ctx.write(msg, promise);
+			}
+		}
+	}
+}
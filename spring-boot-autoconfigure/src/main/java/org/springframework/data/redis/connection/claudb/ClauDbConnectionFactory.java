@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.connection.claudb;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.connection.FaultInjector;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+
+import com.github.tonivade.resp.RespServer;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+/**
+ * {@link RedisConnectionFactory} handing commands to embedded ClauDB in the same JVM
+ * 
+ * <p>
+ * Commands are passed to {@link RespServer} as tokens without sockets and the RESP codec, and executed by the command
+ * engine of ClauDB with real Redis semantics. Cluster, sentinel, transactions and pub/sub are not supported.
+ * </p>
+ */
+public class ClauDbConnectionFactory implements RedisConnectionFactory {
+	
+	/**
+	 * {@link RespServer}
+	 */
+	private final RespServer respServer;
+	
+	/**
+	 * Timeout of commands
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private Duration timeout = Duration.ofSeconds(60);
+	
+	/**
+	 * {@link FaultInjector}
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private FaultInjector faultInjector = new FaultInjector();
+	
+	/**
+	 * Sequence of connection IDs
+	 */
+	private final AtomicInteger connectionIds = new AtomicInteger();
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param respServer started {@link RespServer} of ClauDB
+	 */
+	public ClauDbConnectionFactory(@NonNull RespServer respServer) {
+		
+		this.respServer = respServer;
+	}
+	
+	@Override
+	public RedisConnection getConnection() {
+		
+		return ClauDbConnection.create(this.respServer, this.connectionIds.incrementAndGet(), this.timeout,
+			this.faultInjector);
+	}
+	
+	@Override
+	public RedisClusterConnection getClusterConnection() {
+		
+		throw new InvalidDataAccessApiUsageException("Cluster is not supported by ClauDB");
+	}
+	
+	@Override
+	public boolean getConvertPipelineAndTxResults() {
+		
+		return true;
+	}
+	
+	@Override
+	public RedisSentinelConnection getSentinelConnection() {
+		
+		throw new InvalidDataAccessApiUsageException("Sentinel is not supported by ClauDB");
+	}
+	
+	@Override
+	public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+		
+		return ex instanceof DataAccessException ? (DataAccessException) ex : null;
+	}
+}
@@ -17,6 +17,15 @@
 package org.springframework.boot.autoconfigure.claudb;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -24,6 +33,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.FaultInjector;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.claudb.ClauDbConnectionFactory;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
@@ -48,10 +67,61 @@ public class ClauDbAutoConfigurationTests {
 	/**
 	 * {@link RespServer}
 	 */
-	@SuppressWarnings("unused")
 	@Autowired
 	private RespServer respServer;
 	
+	/**
+	 * {@link ClauDbConnectionFactory} with {@link FaultInjector} of {@link ClauDbProperties}
+	 */
+	@Test
+	public void clauDbConnectionFactoryFaults() {
+		
+		FaultInjector faults = this.clauDbProperties.getFaults();
+		
+		assertThat(((ClauDbConnectionFactory) this.redisConnectionFactory).getFaultInjector()).isSameAs(faults);
+		
+		byte[] key = "fault".getBytes();
+		byte[] value = "value".getBytes();
+		
+		RedisConnection connection = this.redisConnectionFactory.getConnection();
+		
+		try {
+			
+			faults.setErrorRate(1.0);
+			faults.setCommands(new LinkedHashSet<>(Arrays.asList("pexpire")));
+			faults.setEnabled(true);
+			
+			assertThat(connection.set(key, value)).isTrue();
+			assertThatThrownBy(() -> connection.pExpire(key, 1)).isInstanceOf(RedisConnectionFailureException.class)
+				.hasMessageContaining("PEXPIRE");
+			assertThat(connection.pTtl(key)).isEqualTo(-1L);
+			
+			faults.setEnabled(false);
+			
+			assertThat(connection.del(key)).isEqualTo(1L);
+		}
+		finally {
+			
+			faults.setEnabled(false);
+			faults.setErrorRate(0);
+			faults.setCommands(new LinkedHashSet<>());
+			
+			connection.close();
+		}
+	}
+	
+	/**
+	 * {@link ClauDbServers}
+	 */
+	@Autowired
+	private ClauDbServers clauDbServers;
+	
+	/**
+	 * {@link RedisConnectionFactory}
+	 */
+	@Autowired
+	private RedisConnectionFactory redisConnectionFactory;
+	
 	/**
 	 * Annotation
 	 */
@@ -78,10 +148,13 @@ public class ClauDbAutoConfigurationTests {
 			
 			assertThat(properties.getPort()).isEqualTo(0);
 			assertThat(properties.determinePort()).isNotEqualTo(0);
+			assertThat(properties.getInstances()).isEqualTo(1);
+			assertThat(properties.determinePorts()).hasSize(1);
 		}
 		
 		{
 			assertThat(this.clauDbProperties.determinePort()).isEqualTo(45678);
+			assertThat(this.clauDbProperties.determinePorts()).containsExactly(45678, 45679, 45680);
 		}
 	}
 	
@@ -101,4 +174,184 @@ public class ClauDbAutoConfigurationTests {
 			assertThat(jedis.get(key)).isEqualTo(value);
 		}
 	}
+	
+	/**
+	 * {@link ClauDbConnectionFactory}
+	 */
+	@Test
+	public void clauDbConnectionFactory() {
+		
+		assertThat(this.redisConnectionFactory).isInstanceOf(ClauDbConnectionFactory.class);
+		
+		byte[] key = "loopback".getBytes();
+		byte[] value = "value".getBytes();
+		
+		RedisConnection connection = this.redisConnectionFactory.getConnection();
+		
+		try {
+			
+			assertThat(connection.set(key, value, Expiration.from(Duration.ofMinutes(1)), SetOption.upsert()))
+				.isTrue();
+			assertThat(connection.get(key)).isEqualTo(value);
+			assertThat(connection.setNX(key, value)).isFalse();
+			assertThat(connection.pTtl(key)).isPositive();
+			
+			Map<byte[], byte[]> values = new HashMap<>();
+			values.put("loopback1".getBytes(), value);
+			values.put("loopback2".getBytes(), value);
+			
+			connection.openPipeline();
+			connection.mSet(values);
+			connection.mGet("loopback1".getBytes(), "loopback2".getBytes());
+			
+			List<Object> results = connection.closePipeline();
+			
+			assertThat(results).hasSize(2);
+			assertThat((List<?>) results.get(1)).containsExactly(value, value);
+			
+			assertThat(connection.del(key, "loopback1".getBytes(), "loopback2".getBytes())).isEqualTo(3L);
+			assertThat(connection.get(key)).isNull();
+			
+			assertThat(connection.set(key, value, Expiration.persistent(), SetOption.ifAbsent())).isTrue();
+			assertThat(connection.set(key, value, Expiration.milliseconds(500), SetOption.ifAbsent())).isFalse();
+			assertThat(connection.pExpire(key, 1500)).isTrue();
+			assertThat(connection.pTtl(key)).isBetween(1000L, 2000L);
+			assertThat(connection.persist(key)).isTrue();
+			assertThat(connection.pTtl(key)).isEqualTo(-1L);
+			assertThat(connection.del(key)).isEqualTo(1L);
+		}
+		finally {
+			
+			connection.close();
+		}
+		
+		try (Jedis jedis = new Jedis("localhost", this.clauDbProperties.determinePort())) {
+			
+			assertThat(jedis.exists(key)).isFalse();
+		}
+	}
+	
+	/**
+	 * {@link ClauDbConnectionFactory} with hashes, sets and scripts
+	 */
+	@Test
+	public void clauDbConnectionFactoryCollections() {
+		
+		byte[] key = "collection".getBytes();
+		byte[] renamed = "renamed".getBytes();
+		byte[] value = "value".getBytes();
+		
+		RedisConnection connection = this.redisConnectionFactory.getConnection();
+		
+		try {
+			
+			Map<byte[], byte[]> fields = new HashMap<>();
+			fields.put("field1".getBytes(), value);
+			fields.put("field2".getBytes(), value);
+			
+			connection.hMSet(key, fields);
+			connection.rename(key, renamed);
+			
+			assertThat(connection.exists(key)).isFalse();
+			assertThat(connection.hMGet(renamed, "field1".getBytes(), "field3".getBytes())).containsExactly(value,
+				null);
+			assertThat(connection.hDel(renamed, "field1".getBytes())).isEqualTo(1L);
+			assertThat(connection.hKeys(renamed)).containsExactly("field2".getBytes());
+			assertThat(connection.hGet(renamed, "field2".getBytes())).isEqualTo(value);
+			assertThatThrownBy(() -> connection.rename(key, renamed))
+				.isInstanceOf(InvalidDataAccessApiUsageException.class);
+			
+			assertThat(connection.sAdd(key, "member1".getBytes(), "member2".getBytes(), "member3".getBytes()))
+				.isEqualTo(3L);
+			assertThat(connection.sPop(key, 2)).hasSize(2);
+			assertThat(connection.sPop(key, 2)).hasSize(1);
+			assertThat(connection.sPop(key, 2)).isEmpty();
+			
+			List<Object> result = connection.eval("return {KEYS[1], tonumber(ARGV[1]) * 2}".getBytes(),
+				ReturnType.MULTI, 1, key, "21".getBytes());
+			
+			assertThat(result).containsExactly(key, 42L);
+			assertThat(connection.del(key, renamed)).isEqualTo(2L);
+		}
+		finally {
+			
+			connection.close();
+		}
+		
+		try (Jedis jedis = new Jedis("localhost", this.clauDbProperties.determinePort())) {
+			
+			assertThat(jedis.exists(key)).isFalse();
+		}
+	}
+	
+	/**
+	 * {@link ClauDbConnectionFactory} with unsupported commands and failed replies
+	 */
+	@Test
+	public void clauDbConnectionFactoryFailures() {
+		
+		byte[] key = "failure".getBytes();
+		byte[] value = "value".getBytes();
+		
+		RedisConnection connection = this.redisConnectionFactory.getConnection();
+		
+		try {
+			
+			assertThatThrownBy(() -> connection.zScore(key, value))
+				.isInstanceOf(InvalidDataAccessApiUsageException.class).hasMessageContaining("not supported");
+			assertThatThrownBy(() -> connection.ttl(key, TimeUnit.SECONDS))
+				.isInstanceOf(InvalidDataAccessApiUsageException.class).hasMessageContaining("not supported");
+			assertThatThrownBy(connection::getClientName).isInstanceOf(InvalidDataAccessApiUsageException.class)
+				.hasMessageContaining("not supported");
+			assertThatThrownBy(() -> connection.execute("NOSUCHCOMMAND"))
+				.isInstanceOf(InvalidDataAccessApiUsageException.class);
+			
+			connection.openPipeline();
+			connection.set(key, value);
+			connection.execute("NOSUCHCOMMAND");
+			connection.get(key);
+			
+			assertThatThrownBy(connection::closePipeline).isInstanceOfSatisfying(RedisPipelineException.class,
+				e -> assertThat(e.getPipelineResult()).hasSize(3).element(2).isEqualTo(value));
+			
+			assertThat(connection.isPipelined()).isFalse();
+			assertThat(connection.get(key)).isEqualTo(value);
+			assertThat(connection.del(key)).isEqualTo(1L);
+		}
+		finally {
+			
+			connection.close();
+		}
+	}
+	
+	/**
+	 * {@link ClauDbServers}
+	 */
+	@Test
+	public void clauDbServers() {
+		
+		assertThat(this.clauDbServers.getPorts()).containsExactly(45678, 45679, 45680);
+		assertThat(this.clauDbServers.getServers().get(0)).isSameAs(this.respServer);
+		
+		byte[] key = "shard".getBytes();
+		byte[] value = "value".getBytes();
+		
+		try (Jedis jedis = new Jedis("localhost", 45680)) {
+			
+			jedis.set(key, value);
+		}
+		
+		try (Jedis jedis = new Jedis("localhost", 45678)) {
+			
+			assertThat(jedis.exists(key)).isFalse();
+		}
+		
+		this.clauDbServers.stop(2);
+		
+		assertThat(this.clauDbServers.isRunning(2)).isFalse();
+		
+		this.clauDbServers.start(2);
+		
+		assertThat(this.clauDbServers.isRunning(2)).isTrue();
+	}
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Random;
+
+import org.junit.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.FaultInjector.XDistribution;
+
+/**
+ * {@link Test}: {@link FaultInjector}
+ */
+public class FaultInjectorTests {
+	
+	/**
+	 * {@link FaultInjector#inject(String)}
+	 */
+	@Test
+	public void inject() {
+		
+		FaultInjector injector = new FaultInjector();
+		injector.setErrorRate(1.0);
+		
+		{
+			injector.inject("GET");
+		}
+		
+		{
+			injector.setEnabled(true);
+			injector.setCommands(new LinkedHashSet<>(Arrays.asList("set")));
+			
+			injector.inject("GET");
+			
+			assertThatThrownBy(() -> injector.inject("SET")).isInstanceOf(RedisConnectionFailureException.class);
+		}
+		
+		{
+			injector.setErrorRate(0);
+			injector.setLatency(50);
+			
+			long start = System.nanoTime();
+			
+			injector.inject("SET");
+			
+			assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(50_000_000L);
+		}
+	}
+	
+	/**
+	 * {@link FaultInjector#nextLatency(Random)}
+	 */
+	@Test
+	public void nextLatency() {
+		
+		FaultInjector injector = new FaultInjector();
+		injector.setLatency(100);
+		injector.setJitter(20);
+		
+		Random random = new Random(1);
+		
+		assertThat(injector.nextLatency(random)).isEqualTo(100L);
+		
+		injector.setDistribution(XDistribution.UNIFORM);
+		
+		for (int i = 0; i < 100; i++) {
+			
+			assertThat(injector.nextLatency(random)).isBetween(80L, 120L);
+		}
+		
+		injector.setDistribution(XDistribution.EXPONENTIAL);
+		
+		double sum = 0;
+		
+		for (int i = 0; i < 10000; i++) {
+			
+			sum += injector.nextLatency(random);
+		}
+		
+		assertThat(sum / 10000).isBetween(90.0, 110.0);
+	}
+}
@@ -24,9 +24,13 @@ import javax.sql.DataSource;
 
 import org.hibernate.boot.model.naming.ImplicitNamingStrategy; // TODO @checkstyle:ignore
 import org.hibernate.boot.model.naming.PhysicalNamingStrategy; // TODO @checkstyle:ignore
+import org.hibernate.cfg.AvailableSettings; // TODO @checkstyle:ignore
 import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl; // TODO @checkstyle:ignore
 import org.hibernate.jpa.boot.spi.IntegratorProvider; // TODO @checkstyle:ignore
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.CustomJpaProperties.XCache;
 import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
 import org.springframework.boot.jdbc.SchemaManagementProvider;
 import org.springframework.boot.jdbc.metadata.DataSourcePoolMetadataProvider;
@@ -57,6 +61,11 @@ public class CustomHibernateJpaConfiguration extends HibernateJpaConfiguration {
 	 */
 	private IntegratorProvider integratorProvider;
 	
+	/**
+	 * {@link BeanFactory}
+	 */
+	private BeanFactory beanFactory;
+	
 	/**
 	 * Constructor
 	 * 
@@ -103,6 +112,14 @@ public class CustomHibernateJpaConfiguration extends HibernateJpaConfiguration {
 		this.integratorProvider = integratorProvider.getIfAvailable();
 	}
 	
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		
+		super.setBeanFactory(beanFactory);
+		
+		this.beanFactory = beanFactory;
+	}
+	
 	@Bean
 	@Override
 	public PlatformTransactionManager transactionManager() {
@@ -144,5 +161,13 @@ public class CustomHibernateJpaConfiguration extends HibernateJpaConfiguration {
 			
 			vendorProperties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER, this.integratorProvider);
 		}
+		
+		XCache cache = this.jpaProperties.getHibernate().getCache();
+		
+		if (cache.isEnabled()) {
+			
+			vendorProperties.put(AvailableSettings.CACHE_REGION_FACTORY,
+				new RedisRegionFactoryBuilder(this.beanFactory).build(cache));
+		}
 	}
 }
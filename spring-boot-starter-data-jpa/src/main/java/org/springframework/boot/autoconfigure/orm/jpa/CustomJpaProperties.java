@@ -17,7 +17,10 @@
 package org.springframework.boot.autoconfigure.orm.jpa;
 
 import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.util.Assert;
@@ -74,11 +77,30 @@ public class CustomJpaProperties extends JpaProperties {
 		 */
 		protected static final String DEFAULT_SCHEMA = "hibernate.default_schema";
 		
+		/**
+		 * "hibernate.cache.use_second_level_cache"
+		 * 
+		 * @see "org.hibernate.cfg.AvailableSettings"
+		 */
+		protected static final String USE_SECOND_LEVEL_CACHE = "hibernate.cache.use_second_level_cache";
+		
+		/**
+		 * "hibernate.cache.use_structured_entries"
+		 * 
+		 * @see "org.hibernate.cfg.AvailableSettings"
+		 */
+		protected static final String USE_STRUCTURED_CACHE = "hibernate.cache.use_structured_entries";
+		
 		/**
 		 * Default schema
 		 */
 		private String defaultSchema;
 		
+		/**
+		 * {@link XCache}
+		 */
+		private XCache cache = new XCache();
+		
 		/**
 		 * Get additional properties
 		 * 
@@ -104,6 +126,9 @@ public class CustomJpaProperties extends JpaProperties {
 			// Default schema
 			this.applyDefaultSchema(result);
 			
+			// Second-level cache
+			this.applyCache(result);
+			
 			return result;
 		}
 		
@@ -119,5 +144,104 @@ public class CustomJpaProperties extends JpaProperties {
 				properties.put(DEFAULT_SCHEMA, this.defaultSchema);
 			}
 		}
+		
+		/**
+		 * Apply second-level cache
+		 * 
+		 * @param properties properties
+		 */
+		protected void applyCache(@NonNull Map<String, Object> properties) {
+			
+			if (this.cache.isEnabled()) {
+				
+				properties.putIfAbsent(USE_SECOND_LEVEL_CACHE, true);
+				
+				// Entries as maps and lists for JSON
+				if (this.cache.getSerialization() == XSerialization.JSON) {
+					
+					properties.putIfAbsent(USE_STRUCTURED_CACHE, true);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Second-level cache backed by Redis
+	 */
+	@Data
+	public static class XCache {
+		
+		/**
+		 * Enabled
+		 */
+		private boolean enabled;
+		
+		/**
+		 * Use mock instead of Redis
+		 */
+		private boolean mock;
+		
+		/**
+		 * {@link XSerialization}
+		 */
+		private XSerialization serialization = XSerialization.JSON;
+		
+		/**
+		 * Default time to live in milliseconds, or no expiration if 0
+		 */
+		private long ttl;
+		
+		/**
+		 * Time to live in milliseconds by region name
+		 */
+		private Map<String, Long> ttls = new HashMap<>();
+		
+		/**
+		 * {@link XLocal}
+		 */
+		private XLocal local = new XLocal();
+	}
+	
+	/**
+	 * Serialization of second-level cache entries
+	 */
+	public enum XSerialization {
+		
+		/**
+		 * JSON by {@code SimpleJackson2JsonRedisSerializer}
+		 */
+		JSON,
+		
+		/**
+		 * Java serialization
+		 */
+		BINARY
+	}
+	
+	/**
+	 * In-process tier of second-level cache
+	 */
+	@Data
+	public static class XLocal {
+		
+		/**
+		 * Enabled
+		 */
+		private boolean enabled;
+		
+		/**
+		 * Capacity in bytes
+		 */
+		private long capacity = 64 * 1024 * 1024;
+		
+		/**
+		 * Maximum time to live in the local tier in milliseconds
+		 */
+		private long ttl = 60000;
+		
+		/**
+		 * Names of regions in the local tier, or all regions if empty
+		 */
+		private Set<String> regions = new LinkedHashSet<>();
 	}
 }
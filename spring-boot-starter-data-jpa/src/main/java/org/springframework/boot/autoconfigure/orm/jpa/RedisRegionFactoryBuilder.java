@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure.orm.jpa;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.CustomJpaProperties.XCache;
+import org.springframework.boot.autoconfigure.orm.jpa.CustomJpaProperties.XLocal;
+import org.springframework.boot.orm.jpa.hibernate.RedisRegionFactory;
+import org.springframework.data.redis.cache.CustomRedisCacheWriter;
+import org.springframework.data.redis.cache.MockRedisCacheWriter;
+import org.springframework.data.redis.cache.OffHeapCacheStore;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.data.redis.serializer.SimpleJackson2JsonRedisSerializer;
+import org.springframework.util.ClassUtils;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * {@link RedisRegionFactory} builder
+ */
+@RequiredArgsConstructor
+public class RedisRegionFactoryBuilder {
+	
+	/**
+	 * {@link BeanFactory}
+	 */
+	@NonNull
+	private final BeanFactory beanFactory;
+	
+	/**
+	 * Build
+	 * 
+	 * @param cache {@link XCache}
+	 * @return {@link RedisRegionFactory}
+	 */
+	public RedisRegionFactory build(@NonNull XCache cache) {
+		
+		RedisRegionFactory regionFactory = new RedisRegionFactory(this.createCacheWriter(cache),
+			this.createSerializer(cache));
+		
+		regionFactory.setDefaultTtl(Duration.ofMillis(cache.getTtl()));
+		
+		cache.getTtls().forEach((name, ttl) -> regionFactory.setTtl(name, Duration.ofMillis(ttl)));
+		
+		return regionFactory;
+	}
+	
+	/**
+	 * Create {@link RedisCacheWriter}
+	 * 
+	 * @param cache {@link XCache}
+	 * @return {@link RedisCacheWriter}
+	 */
+	protected RedisCacheWriter createCacheWriter(XCache cache) {
+		
+		RedisConnectionFactory connectionFactory = this.beanFactory.getBean(RedisConnectionFactory.class);
+		
+		CustomRedisCacheWriter cacheWriter = new CustomRedisCacheWriter(
+			cache.isMock() ? new MockRedisCacheWriter(connectionFactory)
+				: RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory));
+		
+		XLocal local = cache.getLocal();
+		
+		if (local.isEnabled()) {
+			
+			cacheWriter.setLocalCache(new OffHeapCacheStore(local.getCapacity()));
+			cacheWriter.setLocalCacheNames(local.getRegions());
+			cacheWriter.setLocalCacheTtl(Duration.ofMillis(local.getTtl()));
+		}
+		
+		return cacheWriter;
+	}
+	
+	/**
+	 * Create {@link RedisSerializer}
+	 * 
+	 * @param cache {@link XCache}
+	 * @return {@link RedisSerializer}
+	 */
+	protected RedisSerializer<Object> createSerializer(XCache cache) {
+		
+		switch (cache.getSerialization()) {
+			
+			case JSON:
+				
+				return new XWrappingRedisSerializer(new SimpleJackson2JsonRedisSerializer());
+			
+			case BINARY:
+				
+				return new JdkSerializationRedisSerializer(ClassUtils.getDefaultClassLoader());
+			
+			default:
+				
+				throw new IllegalArgumentException("Unsupported serialization: " + cache.getSerialization());
+		}
+	}
+	
+	/**
+	 * {@link RedisSerializer} wrapping values in arrays
+	 * 
+	 * <p>
+	 * Keeps the type of root values such as {@link Long} entity IDs and timestamps, which JSON reads back as
+	 * {@link Integer}.
+	 * </p>
+	 */
+	@RequiredArgsConstructor
+	protected static class XWrappingRedisSerializer implements RedisSerializer<Object> {
+		
+		/**
+		 * Delegate
+		 */
+		@NonNull
+		private final RedisSerializer<Object> delegate;
+		
+		@Override
+		public byte[] serialize(Object value) throws SerializationException {
+			
+			return this.delegate.serialize(new Object[] { value });
+		}
+		
+		@Override
+		public Object deserialize(byte[] bytes) throws SerializationException {
+			
+			Object value = this.delegate.deserialize(bytes);
+			
+			return value instanceof Object[] && ((Object[]) value).length == 1 ? ((Object[]) value)[0] : null;
+		}
+	}
+}
@@ -0,0 +1,900 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.orm.jpa.hibernate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.boot.spi.SessionFactoryOptions; // TODO @checkstyle:ignore
+import org.hibernate.cache.CacheException; // TODO @checkstyle:ignore
+import org.hibernate.cache.internal.DefaultCacheKeysFactory; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.CacheDataDescription; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.CollectionRegion; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.EntityRegion; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.GeneralDataRegion; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.NaturalIdRegion; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.QueryResultsRegion; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.Region; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.RegionFactory; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.TimestampsRegion; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.TransactionalDataRegion; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.access.AccessType; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.access.CollectionRegionAccessStrategy; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.access.EntityRegionAccessStrategy; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.access.NaturalIdRegionAccessStrategy; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.access.RegionAccessStrategy; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.access.SoftLock; // TODO @checkstyle:ignore
+import org.hibernate.engine.spi.SessionFactoryImplementor; // TODO @checkstyle:ignore
+import org.hibernate.engine.spi.SharedSessionContractImplementor; // TODO @checkstyle:ignore
+import org.hibernate.persister.collection.CollectionPersister; // TODO @checkstyle:ignore
+import org.hibernate.persister.entity.EntityPersister; // TODO @checkstyle:ignore
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.DigestUtils;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Hibernate {@link RegionFactory} backed by {@link RedisCacheWriter}
+ * 
+ * <p>
+ * Entries are stored as {@code <region>::<key>} like {@link org.springframework.data.redis.cache.RedisCache}, so
+ * regions share the connection, local tier and instrumentation of the cache writer. Only
+ * {@link AccessType#READ_ONLY} and {@link AccessType#NONSTRICT_READ_WRITE} are supported, because soft locks of
+ * {@link AccessType#READ_WRITE} need a compare-and-set which {@link RedisCacheWriter} does not provide.
+ * </p>
+ */
+public class RedisRegionFactory implements RegionFactory {
+	
+	/**
+	 * Serial version UID
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * {@link Logger}
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(RedisRegionFactory.class);
+	
+	/**
+	 * Timeout of regions in milliseconds
+	 */
+	protected static final int TIMEOUT = 60000;
+	
+	/**
+	 * {@link RedisCacheWriter}
+	 */
+	@Getter
+	private final transient RedisCacheWriter cacheWriter;
+	
+	/**
+	 * {@link RedisSerializer} of entries
+	 */
+	private final transient RedisSerializer<Object> serializer;
+	
+	/**
+	 * Default TTL, or no expiration if zero
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private Duration defaultTtl = Duration.ZERO;
+	
+	/**
+	 * TTL by region name
+	 */
+	private final Map<String, Duration> ttls = new ConcurrentHashMap<>();
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param cacheWriter {@link RedisCacheWriter}
+	 * @param serializer {@link RedisSerializer} of entries
+	 */
+	public RedisRegionFactory(@NonNull RedisCacheWriter cacheWriter, @NonNull RedisSerializer<Object> serializer) {
+		
+		this.cacheWriter = cacheWriter;
+		this.serializer = serializer;
+	}
+	
+	/**
+	 * Set TTL of a region
+	 * 
+	 * @param name region name
+	 * @param ttl TTL, or no expiration if zero
+	 * @return this
+	 */
+	public RedisRegionFactory setTtl(@NonNull String name, @NonNull Duration ttl) {
+		
+		this.ttls.put(name, ttl);
+		
+		return this;
+	}
+	
+	/**
+	 * Get TTL of a region
+	 * 
+	 * @param name region name
+	 * @return TTL, or {@link #getDefaultTtl()} if not set
+	 */
+	public Duration getTtl(String name) {
+		
+		return this.ttls.getOrDefault(name, this.defaultTtl);
+	}
+	
+	@Override
+	@SuppressWarnings("deprecation")
+	public void start(SessionFactoryOptions settings, Properties properties) throws CacheException {
+		
+		/* NOP */
+	}
+	
+	@Override
+	public void stop() {
+		
+		if (this.cacheWriter instanceof Closeable) {
+			
+			try {
+				
+				((Closeable) this.cacheWriter).close();
+			}
+			catch (IOException e) {
+				
+				logger.warn("Failed to close cache writer", e);
+			}
+		}
+	}
+	
+	@Override
+	public boolean isMinimalPutsEnabledByDefault() {
+		
+		return true;
+	}
+	
+	@Override
+	public AccessType getDefaultAccessType() {
+		
+		return AccessType.NONSTRICT_READ_WRITE;
+	}
+	
+	@Override
+	public long nextTimestamp() {
+		
+		return System.currentTimeMillis();
+	}
+	
+	@Override
+	@SuppressWarnings("deprecation")
+	public EntityRegion buildEntityRegion(String regionName, Properties properties, CacheDataDescription metadata)
+		throws CacheException {
+		
+		return new XEntityRegion(regionName, metadata);
+	}
+	
+	@Override
+	@SuppressWarnings("deprecation")
+	public NaturalIdRegion buildNaturalIdRegion(String regionName, Properties properties,
+		CacheDataDescription metadata) throws CacheException {
+		
+		return new XNaturalIdRegion(regionName, metadata);
+	}
+	
+	@Override
+	@SuppressWarnings("deprecation")
+	public CollectionRegion buildCollectionRegion(String regionName, Properties properties,
+		CacheDataDescription metadata) throws CacheException {
+		
+		return new XCollectionRegion(regionName, metadata);
+	}
+	
+	@Override
+	@SuppressWarnings("deprecation")
+	public QueryResultsRegion buildQueryResultsRegion(String regionName, Properties properties)
+		throws CacheException {
+		
+		return new XQueryResultsRegion(regionName);
+	}
+	
+	@Override
+	@SuppressWarnings("deprecation")
+	public TimestampsRegion buildTimestampsRegion(String regionName, Properties properties) throws CacheException {
+		
+		return new XTimestampsRegion(regionName);
+	}
+	
+	/**
+	 * Whether an access type is read only
+	 * 
+	 * @param accessType {@link AccessType}
+	 * @return read only or not
+	 * @throws CacheException if not supported
+	 */
+	protected static boolean isReadOnly(AccessType accessType) throws CacheException {
+		
+		if (accessType == AccessType.READ_ONLY) {
+			
+			return true;
+		}
+		
+		if (accessType == AccessType.NONSTRICT_READ_WRITE) {
+			
+			return false;
+		}
+		
+		throw new CacheException(String.format("Access type '%s' is not supported, use '%s' or '%s'",
+			accessType.getExternalName(), AccessType.READ_ONLY.getExternalName(),
+			AccessType.NONSTRICT_READ_WRITE.getExternalName()));
+	}
+	
+	/**
+	 * {@link Region}
+	 */
+	protected abstract class XRegion implements Region {
+		
+		/**
+		 * Region name
+		 */
+		@Getter
+		private final String name;
+		
+		/**
+		 * TTL
+		 */
+		private final Duration ttl;
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param name region name
+		 * @param ttl TTL, or no expiration if zero
+		 */
+		protected XRegion(String name, Duration ttl) {
+			
+			this.name = name;
+			this.ttl = ttl;
+		}
+		
+		/**
+		 * Get an entry
+		 * 
+		 * @param key key
+		 * @return value, or {@code null} if not found
+		 */
+		public Object get(Object key) {
+			
+			byte[] value = RedisRegionFactory.this.cacheWriter.get(this.name, this.createCacheKey(key));
+			
+			if (value == null) {
+				
+				return null;
+			}
+			
+			try {
+				
+				return RedisRegionFactory.this.serializer.deserialize(value);
+			}
+			catch (SerializationException e) {
+				
+				logger.warn("Failed to deserialize an entry of region '{}'", this.name, e);
+				
+				return null;
+			}
+		}
+		
+		/**
+		 * Put an entry
+		 * 
+		 * @param key key
+		 * @param value value
+		 */
+		public void put(Object key, Object value) {
+			
+			RedisRegionFactory.this.cacheWriter.put(this.name, this.createCacheKey(key),
+				RedisRegionFactory.this.serializer.serialize(value), this.ttl);
+		}
+		
+		/**
+		 * Put an entry if absent
+		 * 
+		 * @param key key
+		 * @param value value
+		 * @return {@code true} if put
+		 */
+		public boolean putIfAbsent(Object key, Object value) {
+			
+			return RedisRegionFactory.this.cacheWriter.putIfAbsent(this.name, this.createCacheKey(key),
+				RedisRegionFactory.this.serializer.serialize(value), this.ttl) == null;
+		}
+		
+		/**
+		 * Evict an entry
+		 * 
+		 * @param key key
+		 */
+		public void evict(Object key) {
+			
+			RedisRegionFactory.this.cacheWriter.remove(this.name, this.createCacheKey(key));
+		}
+		
+		/**
+		 * Evict all entries
+		 */
+		public void evictAll() {
+			
+			RedisRegionFactory.this.cacheWriter.clean(this.name,
+				(this.name + "::*").getBytes(StandardCharsets.UTF_8));
+		}
+		
+		@Override
+		public void destroy() throws CacheException {
+			
+			/* NOP */
+		}
+		
+		@Override
+		public boolean contains(Object key) {
+			
+			return RedisRegionFactory.this.cacheWriter.get(this.name, this.createCacheKey(key)) != null;
+		}
+		
+		@Override
+		public long getSizeInMemory() {
+			
+			return -1;
+		}
+		
+		@Override
+		public long getElementCountInMemory() {
+			
+			return -1;
+		}
+		
+		@Override
+		public long getElementCountOnDisk() {
+			
+			return -1;
+		}
+		
+		@Override
+		@SuppressWarnings("rawtypes")
+		public Map toMap() {
+			
+			return Collections.emptyMap();
+		}
+		
+		@Override
+		public long nextTimestamp() {
+			
+			return RedisRegionFactory.this.nextTimestamp();
+		}
+		
+		@Override
+		public int getTimeout() {
+			
+			return TIMEOUT;
+		}
+		
+		/**
+		 * Create cache key
+		 * 
+		 * @param key key
+		 * @return cache key
+		 */
+		protected byte[] createCacheKey(Object key) {
+			
+			return (this.name + "::" + this.convertKey(key)).getBytes(StandardCharsets.UTF_8);
+		}
+		
+		/**
+		 * Convert key
+		 * 
+		 * @param key key
+		 * @return converted key
+		 */
+		protected String convertKey(Object key) {
+			
+			return String.valueOf(key);
+		}
+	}
+	
+	/**
+	 * {@link TransactionalDataRegion}
+	 */
+	protected abstract class XTransactionalRegion extends XRegion implements TransactionalDataRegion {
+		
+		/**
+		 * {@link CacheDataDescription}
+		 */
+		@Getter
+		private final CacheDataDescription cacheDataDescription;
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param name region name
+		 * @param cacheDataDescription {@link CacheDataDescription}
+		 */
+		protected XTransactionalRegion(String name, CacheDataDescription cacheDataDescription) {
+			
+			super(name, RedisRegionFactory.this.getTtl(name));
+			
+			this.cacheDataDescription = cacheDataDescription;
+		}
+		
+		@Override
+		public boolean isTransactionAware() {
+			
+			return false;
+		}
+	}
+	
+	/**
+	 * {@link EntityRegion}
+	 */
+	protected class XEntityRegion extends XTransactionalRegion implements EntityRegion {
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param name region name
+		 * @param cacheDataDescription {@link CacheDataDescription}
+		 */
+		protected XEntityRegion(String name, CacheDataDescription cacheDataDescription) {
+			
+			super(name, cacheDataDescription);
+		}
+		
+		@Override
+		public EntityRegionAccessStrategy buildAccessStrategy(AccessType accessType) throws CacheException {
+			
+			return new XEntityAccessStrategy(this, isReadOnly(accessType));
+		}
+	}
+	
+	/**
+	 * {@link CollectionRegion}
+	 */
+	protected class XCollectionRegion extends XTransactionalRegion implements CollectionRegion {
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param name region name
+		 * @param cacheDataDescription {@link CacheDataDescription}
+		 */
+		protected XCollectionRegion(String name, CacheDataDescription cacheDataDescription) {
+			
+			super(name, cacheDataDescription);
+		}
+		
+		@Override
+		public CollectionRegionAccessStrategy buildAccessStrategy(AccessType accessType) throws CacheException {
+			
+			return new XCollectionAccessStrategy(this, isReadOnly(accessType));
+		}
+	}
+	
+	/**
+	 * {@link NaturalIdRegion}
+	 */
+	protected class XNaturalIdRegion extends XTransactionalRegion implements NaturalIdRegion {
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param name region name
+		 * @param cacheDataDescription {@link CacheDataDescription}
+		 */
+		protected XNaturalIdRegion(String name, CacheDataDescription cacheDataDescription) {
+			
+			super(name, cacheDataDescription);
+		}
+		
+		@Override
+		public NaturalIdRegionAccessStrategy buildAccessStrategy(AccessType accessType) throws CacheException {
+			
+			return new XNaturalIdAccessStrategy(this, isReadOnly(accessType));
+		}
+	}
+	
+	/**
+	 * {@link GeneralDataRegion}
+	 */
+	protected abstract class XGeneralDataRegion extends XRegion implements GeneralDataRegion {
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param name region name
+		 * @param ttl TTL, or no expiration if zero
+		 */
+		protected XGeneralDataRegion(String name, Duration ttl) {
+			
+			super(name, ttl);
+		}
+		
+		@Override
+		public Object get(SharedSessionContractImplementor session, Object key) throws CacheException {
+			
+			return this.get(key);
+		}
+		
+		@Override
+		public void put(SharedSessionContractImplementor session, Object key, Object value) throws CacheException {
+			
+			this.put(key, value);
+		}
+	}
+	
+	/**
+	 * {@link QueryResultsRegion}
+	 */
+	protected class XQueryResultsRegion extends XGeneralDataRegion implements QueryResultsRegion {
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param name region name
+		 */
+		protected XQueryResultsRegion(String name) {
+			
+			super(name, RedisRegionFactory.this.getTtl(name));
+		}
+		
+		/**
+		 * Convert key to the digest of SQL and parameters
+		 */
+		@Override
+		protected String convertKey(Object key) {
+			
+			return DigestUtils.md5DigestAsHex(String.valueOf(key).getBytes(StandardCharsets.UTF_8));
+		}
+	}
+	
+	/**
+	 * {@link TimestampsRegion}
+	 * 
+	 * <p>
+	 * Timestamps never expire unless a TTL is set to the region, since a lost timestamp makes stale query results
+	 * up to date.
+	 * </p>
+	 */
+	protected class XTimestampsRegion extends XGeneralDataRegion implements TimestampsRegion {
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param name region name
+		 */
+		protected XTimestampsRegion(String name) {
+			
+			super(name, RedisRegionFactory.this.ttls.getOrDefault(name, Duration.ZERO));
+		}
+	}
+	
+	/**
+	 * {@link RegionAccessStrategy}
+	 * 
+	 * @param <R> region type
+	 */
+	@RequiredArgsConstructor
+	protected abstract static class XAccessStrategy<R extends XTransactionalRegion> implements RegionAccessStrategy {
+		
+		/**
+		 * Region
+		 */
+		protected final R region;
+		
+		/**
+		 * Read only or not
+		 */
+		protected final boolean readOnly;
+		
+		/**
+		 * Get region
+		 * 
+		 * @return region
+		 */
+		public R getRegion() {
+			
+			return this.region;
+		}
+		
+		@Override
+		public Object get(SharedSessionContractImplementor session, Object key, long txTimestamp)
+			throws CacheException {
+			
+			return this.region.get(key);
+		}
+		
+		@Override
+		public boolean putFromLoad(SharedSessionContractImplementor session, Object key, Object value,
+			long txTimestamp, Object version) throws CacheException {
+			
+			return this.putFromLoad(session, key, value, txTimestamp, version, false);
+		}
+		
+		@Override
+		public boolean putFromLoad(SharedSessionContractImplementor session, Object key, Object value,
+			long txTimestamp, Object version, boolean minimalPutOverride) throws CacheException {
+			
+			if (minimalPutOverride) {
+				
+				return this.region.putIfAbsent(key, value);
+			}
+			
+			this.region.put(key, value);
+			
+			return true;
+		}
+		
+		@Override
+		public SoftLock lockItem(SharedSessionContractImplementor session, Object key, Object version)
+			throws CacheException {
+			
+			return null;
+		}
+		
+		@Override
+		public SoftLock lockRegion() throws CacheException {
+			
+			return null;
+		}
+		
+		@Override
+		public void unlockItem(SharedSessionContractImplementor session, Object key, SoftLock lock)
+			throws CacheException {
+			
+			if (!this.readOnly) {
+				
+				this.region.evict(key);
+			}
+		}
+		
+		@Override
+		public void unlockRegion(SoftLock lock) throws CacheException {
+			
+			this.region.evictAll();
+		}
+		
+		@Override
+		public void remove(SharedSessionContractImplementor session, Object key) throws CacheException {
+			
+			this.region.evict(key);
+		}
+		
+		@Override
+		public void removeAll() throws CacheException {
+			
+			this.region.evictAll();
+		}
+		
+		@Override
+		public void evict(Object key) throws CacheException {
+			
+			this.region.evict(key);
+		}
+		
+		@Override
+		public void evictAll() throws CacheException {
+			
+			this.region.evictAll();
+		}
+		
+		/**
+		 * Check writable
+		 * 
+		 * @throws UnsupportedOperationException if read only
+		 */
+		protected void checkWritable() throws UnsupportedOperationException {
+			
+			if (this.readOnly) {
+				
+				throw new UnsupportedOperationException("Can't write to a readonly object");
+			}
+		}
+	}
+	
+	/**
+	 * {@link EntityRegionAccessStrategy}
+	 */
+	protected static class XEntityAccessStrategy extends XAccessStrategy<XEntityRegion>
+		implements EntityRegionAccessStrategy {
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param region {@link XEntityRegion}
+		 * @param readOnly read only or not
+		 */
+		public XEntityAccessStrategy(XEntityRegion region, boolean readOnly) {
+			
+			super(region, readOnly);
+		}
+		
+		@Override
+		public Object generateCacheKey(Object id, EntityPersister persister, SessionFactoryImplementor factory,
+			String tenantIdentifier) {
+			
+			return DefaultCacheKeysFactory.staticCreateEntityKey(id, persister, factory, tenantIdentifier);
+		}
+		
+		@Override
+		public Object getCacheKeyId(Object cacheKey) {
+			
+			return DefaultCacheKeysFactory.staticGetEntityId(cacheKey);
+		}
+		
+		@Override
+		public boolean insert(SharedSessionContractImplementor session, Object key, Object value, Object version)
+			throws CacheException {
+			
+			return false;
+		}
+		
+		@Override
+		public boolean afterInsert(SharedSessionContractImplementor session, Object key, Object value,
+			Object version) throws CacheException {
+			
+			// Immutable
+			if (this.readOnly) {
+				
+				this.region.put(key, value);
+				
+				return true;
+			}
+			
+			return false;
+		}
+		
+		@Override
+		public boolean update(SharedSessionContractImplementor session, Object key, Object value,
+			Object currentVersion, Object previousVersion) throws CacheException {
+			
+			this.checkWritable();
+			this.remove(session, key);
+			
+			return false;
+		}
+		
+		@Override
+		public boolean afterUpdate(SharedSessionContractImplementor session, Object key, Object value,
+			Object currentVersion, Object previousVersion, SoftLock lock) throws CacheException {
+			
+			this.checkWritable();
+			this.unlockItem(session, key, lock);
+			
+			return false;
+		}
+	}
+	
+	/**
+	 * {@link CollectionRegionAccessStrategy}
+	 */
+	protected static class XCollectionAccessStrategy extends XAccessStrategy<XCollectionRegion>
+		implements CollectionRegionAccessStrategy {
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param region {@link XCollectionRegion}
+		 * @param readOnly read only or not
+		 */
+		public XCollectionAccessStrategy(XCollectionRegion region, boolean readOnly) {
+			
+			super(region, readOnly);
+		}
+		
+		@Override
+		public Object generateCacheKey(Object id, CollectionPersister persister, SessionFactoryImplementor factory,
+			String tenantIdentifier) {
+			
+			return DefaultCacheKeysFactory.staticCreateCollectionKey(id, persister, factory, tenantIdentifier);
+		}
+		
+		@Override
+		public Object getCacheKeyId(Object cacheKey) {
+			
+			return DefaultCacheKeysFactory.staticGetCollectionId(cacheKey);
+		}
+	}
+	
+	/**
+	 * {@link NaturalIdRegionAccessStrategy}
+	 */
+	protected static class XNaturalIdAccessStrategy extends XAccessStrategy<XNaturalIdRegion>
+		implements NaturalIdRegionAccessStrategy {
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param region {@link XNaturalIdRegion}
+		 * @param readOnly read only or not
+		 */
+		public XNaturalIdAccessStrategy(XNaturalIdRegion region, boolean readOnly) {
+			
+			super(region, readOnly);
+		}
+		
+		@Override
+		public Object generateCacheKey(Object[] naturalIdValues, EntityPersister persister,
+			SharedSessionContractImplementor session) {
+			
+			return DefaultCacheKeysFactory.staticCreateNaturalIdKey(naturalIdValues, persister, session);
+		}
+		
+		@Override
+		public Object[] getNaturalIdValues(Object cacheKey) {
+			
+			return DefaultCacheKeysFactory.staticGetNaturalIdValues(cacheKey);
+		}
+		
+		@Override
+		public boolean insert(SharedSessionContractImplementor session, Object key, Object value)
+			throws CacheException {
+			
+			return false;
+		}
+		
+		@Override
+		public boolean afterInsert(SharedSessionContractImplementor session, Object key, Object value)
+			throws CacheException {
+			
+			// Immutable
+			if (this.readOnly) {
+				
+				this.region.put(key, value);
+				
+				return true;
+			}
+			
+			return false;
+		}
+		
+		@Override
+		public boolean update(SharedSessionContractImplementor session, Object key, Object value)
+			throws CacheException {
+			
+			this.checkWritable();
+			this.remove(session, key);
+			
+			return false;
+		}
+		
+		@Override
+		public boolean afterUpdate(SharedSessionContractImplementor session, Object key, Object value, SoftLock lock)
+			throws CacheException {
+			
+			this.checkWritable();
+			this.unlockItem(session, key, lock);
+			
+			return false;
+		}
+	}
+}
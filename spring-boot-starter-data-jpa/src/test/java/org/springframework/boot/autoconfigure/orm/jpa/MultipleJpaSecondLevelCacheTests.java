@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure.orm.jpa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache; // TODO @checkstyle:ignore
+import org.hibernate.SessionFactory; // TODO @checkstyle:ignore
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.orm.jpa.MultipleJpaConfigurerAdapterTests.BarJpaConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.MultipleJpaConfigurerAdapterTests.BazJpaConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.MultipleJpaConfigurerAdapterTests.FooJpaConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.MultipleJpaSecondLevelCacheTests.RedisConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.example.foo.Foo;
+import org.springframework.boot.autoconfigure.orm.jpa.example.foo.FooRepository;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * {@link Test}: second-level cache with {@link MultipleJpaConfigurer}
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = {
+	/* @formatter:off */
+	FooJpaConfiguration.class,
+	BarJpaConfiguration.class,
+	BazJpaConfiguration.class,
+	RedisConfiguration.class
+	/* @formatter:on */
+})
+@ActiveProfiles({ "test", "test-multiple-jpa-config", "test-multiple-jpa-second-level-cache" })
+public class MultipleJpaSecondLevelCacheTests {
+	
+	/**
+	 * Foo
+	 */
+	private static final String FOO = "foo";
+	
+	/**
+	 * Bar
+	 */
+	private static final String BAR = "bar";
+	
+	/**
+	 * {@link EntityManagerFactory} for {@link #FOO}
+	 */
+	@Autowired
+	@Qualifier(FOO)
+	private EntityManagerFactory fooEntityManagerFactory;
+	
+	/**
+	 * {@link EntityManagerFactory} for {@link #BAR}
+	 */
+	@Autowired
+	private EntityManagerFactory barEntityManagerFactory;
+	
+	/**
+	 * {@link FooRepository}
+	 */
+	@Autowired
+	private FooRepository fooRepository;
+	
+	/**
+	 * {@link org.springframework.boot.orm.jpa.hibernate.RedisRegionFactory}
+	 */
+	@Test
+	public void secondLevelCache() {
+		
+		SessionFactory sessionFactory = this.fooEntityManagerFactory.unwrap(SessionFactory.class);
+		Cache cache = sessionFactory.getCache();
+		Foo foo = this.fooRepository.save(new Foo().setValue(FOO));
+		
+		try {
+			
+			cache.evictEntity(Foo.class, foo.getId());
+			
+			assertThat(this.fooRepository.findById(foo.getId())).contains(foo);
+			assertThat(cache.containsEntity(Foo.class, foo.getId())).isTrue();
+			assertThat(this.fooRepository.findById(foo.getId())).contains(foo);
+			assertThat(sessionFactory.getStatistics().getSecondLevelCacheHitCount()).isEqualTo(1);
+			
+			this.fooRepository.save(foo.setValue(BAR));
+			
+			assertThat(cache.containsEntity(Foo.class, foo.getId())).isFalse();
+			assertThat(this.fooRepository.findById(foo.getId())).contains(foo);
+		}
+		finally {
+			
+			this.fooRepository.deleteById(foo.getId());
+		}
+		
+		assertThat(cache.containsEntity(Foo.class, foo.getId())).isFalse();
+		
+		// Enabled for each persistence unit
+		assertThat(this.barEntityManagerFactory.unwrap(SessionFactory.class).getSessionFactoryOptions()
+			.isSecondLevelCacheEnabled()).isFalse();
+	}
+	
+	/**
+	 * {@link Configuration} for {@link RedisConnectionFactory}
+	 */
+	@Configuration
+	protected static class RedisConfiguration {
+		
+		/**
+		 * {@link Bean}: {@link RedisConnectionFactory}
+		 * 
+		 * @return {@link RedisConnectionFactory}
+		 */
+		@Bean
+		public RedisConnectionFactory redisConnectionFactory() {
+			
+			return new LettuceConnectionFactory();
+		}
+	}
+}
@@ -16,10 +16,14 @@
 
 package org.springframework.boot.autoconfigure.orm.jpa.example.foo;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 
+import org.hibernate.annotations.Cache; // TODO @checkstyle:ignore
+import org.hibernate.annotations.CacheConcurrencyStrategy; // TODO @checkstyle:ignore
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -29,6 +33,8 @@ import lombok.experimental.Accessors;
  * Foo
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.orm.jpa.hibernate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.Properties;
+
+import org.hibernate.cache.CacheException; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.EntityRegion; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.TimestampsRegion; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.access.AccessType; // TODO @checkstyle:ignore
+import org.hibernate.cache.spi.access.EntityRegionAccessStrategy; // TODO @checkstyle:ignore
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.cache.MockRedisCacheWriter;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+/**
+ * {@link Test}: {@link RedisRegionFactory}
+ */
+public class RedisRegionFactoryTests {
+	
+	/**
+	 * Region name
+	 */
+	private static final String NAME = "foo";
+	
+	/**
+	 * Key
+	 */
+	private static final String KEY = "key";
+	
+	/**
+	 * Value
+	 */
+	private static final String VALUE = "value";
+	
+	/**
+	 * {@link MockRedisCacheWriter}
+	 */
+	private MockRedisCacheWriter cacheWriter;
+	
+	/**
+	 * {@link RedisRegionFactory}
+	 */
+	private RedisRegionFactory regionFactory;
+	
+	/**
+	 * {@link Before}
+	 */
+	@Before
+	public void before() {
+		
+		this.cacheWriter = new MockRedisCacheWriter(new LettuceConnectionFactory());
+		this.regionFactory = new RedisRegionFactory(this.cacheWriter, new JdkSerializationRedisSerializer());
+	}
+	
+	/**
+	 * {@link After}
+	 */
+	@After
+	public void after() {
+		
+		this.regionFactory.stop();
+	}
+	
+	/**
+	 * {@link RedisRegionFactory#buildEntityRegion(String, java.util.Properties,
+	 * org.hibernate.cache.spi.CacheDataDescription)}
+	 */
+	@Test
+	public void nonstrictReadWrite() {
+		
+		EntityRegionAccessStrategy strategy = this.buildEntityRegion(NAME)
+			.buildAccessStrategy(AccessType.NONSTRICT_READ_WRITE);
+		
+		assertThat(strategy.putFromLoad(null, KEY, VALUE, 0, null)).isTrue();
+		assertThat(strategy.get(null, KEY, 0)).isEqualTo(VALUE);
+		assertThat(this.cacheWriter.get(NAME, (NAME + "::" + KEY).getBytes())).isNotNull();
+		
+		// Minimal puts
+		assertThat(strategy.putFromLoad(null, KEY, "other", 0, null, true)).isFalse();
+		assertThat(strategy.get(null, KEY, 0)).isEqualTo(VALUE);
+		
+		// Evicted on update and after commit
+		assertThat(strategy.update(null, KEY, "other", null, null)).isFalse();
+		assertThat(strategy.get(null, KEY, 0)).isNull();
+		
+		strategy.putFromLoad(null, KEY, VALUE, 0, null);
+		
+		assertThat(strategy.afterUpdate(null, KEY, "other", null, null, null)).isFalse();
+		assertThat(strategy.get(null, KEY, 0)).isNull();
+		
+		// Remove all
+		strategy.putFromLoad(null, KEY, VALUE, 0, null);
+		strategy.removeAll();
+		
+		assertThat(strategy.getRegion().contains(KEY)).isFalse();
+	}
+	
+	/**
+	 * {@link AccessType#READ_ONLY}
+	 */
+	@Test
+	public void readOnly() {
+		
+		EntityRegionAccessStrategy strategy = this.buildEntityRegion(NAME).buildAccessStrategy(AccessType.READ_ONLY);
+		
+		assertThat(strategy.insert(null, KEY, VALUE, null)).isFalse();
+		assertThat(strategy.afterInsert(null, KEY, VALUE, null)).isTrue();
+		assertThat(strategy.get(null, KEY, 0)).isEqualTo(VALUE);
+		
+		assertThatThrownBy(() -> strategy.update(null, KEY, "other", null, null))
+			.isInstanceOf(UnsupportedOperationException.class);
+		
+		strategy.remove(null, KEY);
+		
+		assertThat(strategy.get(null, KEY, 0)).isNull();
+	}
+	
+	/**
+	 * {@link AccessType#READ_WRITE}
+	 */
+	@Test
+	public void readWrite() {
+		
+		EntityRegion region = this.buildEntityRegion(NAME);
+		
+		assertThatThrownBy(() -> region.buildAccessStrategy(AccessType.READ_WRITE))
+			.isInstanceOf(CacheException.class).hasMessageContaining("read-write");
+	}
+	
+	/**
+	 * {@link RedisRegionFactory#setTtl(String, Duration)}
+	 * 
+	 * @throws InterruptedException if interrupted
+	 */
+	@Test
+	public void ttl() throws InterruptedException {
+		
+		this.regionFactory.setDefaultTtl(Duration.ofMinutes(1));
+		this.regionFactory.setTtl(NAME, Duration.ofMillis(100));
+		
+		assertThat(this.regionFactory.getTtl("bar")).isEqualTo(Duration.ofMinutes(1));
+		
+		EntityRegionAccessStrategy strategy = this.buildEntityRegion(NAME)
+			.buildAccessStrategy(AccessType.NONSTRICT_READ_WRITE);
+		
+		strategy.putFromLoad(null, KEY, VALUE, 0, null);
+		
+		assertThat(strategy.get(null, KEY, 0)).isEqualTo(VALUE);
+		
+		Thread.sleep(200);
+		
+		assertThat(strategy.get(null, KEY, 0)).isNull();
+	}
+	
+	/**
+	 * {@link RedisRegionFactory#buildTimestampsRegion(String, java.util.Properties)}
+	 * 
+	 * @throws InterruptedException if interrupted
+	 */
+	@Test
+	public void timestampsRegion() throws InterruptedException {
+		
+		this.regionFactory.setDefaultTtl(Duration.ofMillis(100));
+		
+		TimestampsRegion region = this.regionFactory.buildTimestampsRegion("timestamps", new Properties());
+		long timestamp = this.regionFactory.nextTimestamp();
+		
+		region.put(null, "foo_table", timestamp);
+		
+		Thread.sleep(200);
+		
+		assertThat(region.get(null, "foo_table")).isEqualTo(timestamp);
+		assertThat(region.getTimeout()).isEqualTo(RedisRegionFactory.TIMEOUT);
+	}
+	
+	/**
+	 * Build {@link EntityRegion}
+	 * 
+	 * @param name region name
+	 * @return {@link EntityRegion}
+	 */
+	private EntityRegion buildEntityRegion(String name) {
+		
+		return this.regionFactory.buildEntityRegion(name, new Properties(), null);
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.cache;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.data.redis.cache.CachePayloadStatistics;
+import org.springframework.data.redis.cache.CachePayloadStatistics.XStatistics;
+import org.springframework.data.redis.cache.CustomRedisCacheManager;
+import org.springframework.data.redis.cache.CustomRedisCacheWriter;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import lombok.NonNull;
+
+/**
+ * {@link Endpoint} to expose payload sizes of Redis caches
+ */
+@Endpoint(id = RedisCachePayloadEndpoint.ID)
+public class RedisCachePayloadEndpoint {
+	
+	/**
+	 * ID
+	 */
+	public static final String ID = "cachepayloads";
+	
+	/**
+	 * {@link RedisCacheManager}
+	 */
+	private final RedisCacheManager cacheManager;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param cacheManager {@link RedisCacheManager}
+	 */
+	public RedisCachePayloadEndpoint(@NonNull RedisCacheManager cacheManager) {
+		
+		this.cacheManager = cacheManager;
+	}
+	
+	/**
+	 * Get statistics of all caches
+	 * 
+	 * @return {@link XStatistics}s in descending order of total bytes
+	 */
+	@ReadOperation
+	public List<XStatistics> caches() {
+		
+		CachePayloadStatistics statistics = this.getStatistics();
+		
+		return statistics != null ? statistics.getAll() : Collections.emptyList();
+	}
+	
+	/**
+	 * Get statistics of a cache
+	 * 
+	 * @param name cache name
+	 * @return {@link XStatistics} or {@code null}
+	 */
+	@ReadOperation
+	public XStatistics cache(@Selector String name) {
+		
+		CachePayloadStatistics statistics = this.getStatistics();
+		
+		return statistics != null ? statistics.get(name) : null;
+	}
+	
+	/**
+	 * Get {@link CachePayloadStatistics}
+	 * 
+	 * @return {@link CachePayloadStatistics} or {@code null}
+	 */
+	private CachePayloadStatistics getStatistics() {
+		
+		RedisCacheWriter cacheWriter = CustomRedisCacheManager.getCacheWriter(this.cacheManager);
+		
+		if (cacheWriter instanceof CustomRedisCacheWriter) {
+			
+			return ((CustomRedisCacheWriter) cacheWriter).getPayloadStatistics();
+		}
+		
+		return null;
+	}
+}
@@ -16,8 +16,16 @@
 
 package org.springframework.boot.autoconfigure.cache;
 
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
 import org.springframework.boot.autoconfigure.data.redis.CustomRedisProperties.XPool;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
+import org.springframework.data.redis.cache.CustomRedisCacheWriter.XOversizedValuePolicy;
+import org.springframework.data.redis.connection.FaultInjector;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -59,5 +67,174 @@ public class CustomCacheProperties extends CacheProperties {
 		 * Mock
 		 */
 		private boolean mock;
+		
+		/**
+		 * {@link FaultInjector} of mock
+		 */
+		@NestedConfigurationProperty
+		private FaultInjector faults = new FaultInjector();
+		
+		/**
+		 * Wrap the first parameter of keys in {@code {hashtag}} for cluster
+		 */
+		private boolean hashTag;
+		
+		/**
+		 * Interval to refresh TTL of caches with sliding expiration in milliseconds
+		 */
+		private long slidingFlushInterval = 200;
+		
+		/**
+		 * Default TTL of negative ({@code null}) entries in milliseconds, or disabled if 0
+		 */
+		private long negativeTtl;
+		
+		/**
+		 * TTL of negative ({@code null}) entries in milliseconds by cache name
+		 */
+		private Map<String, Long> negativeTtls = new LinkedHashMap<>();
+		
+		/**
+		 * Max value size in bytes, or unlimited if 0
+		 */
+		private int maxValueSize;
+		
+		/**
+		 * {@link XOversizedValuePolicy}
+		 */
+		private XOversizedValuePolicy oversizedValuePolicy = XOversizedValuePolicy.SKIP;
+		
+		/**
+		 * {@link XWarmUp}
+		 */
+		private XWarmUp warmUp = new XWarmUp();
+		
+		/**
+		 * {@link XOffHeap}
+		 */
+		private XOffHeap offHeap = new XOffHeap();
+		
+		/**
+		 * {@link XSnapshot}
+		 */
+		private XSnapshot snapshot = new XSnapshot();
+		
+		/**
+		 * {@link XInstrumentation}
+		 */
+		private XInstrumentation instrumentation = new XInstrumentation();
+	}
+	
+	/**
+	 * Instrumentation of phases of cache operations
+	 */
+	@Data
+	public static class XInstrumentation {
+		
+		/**
+		 * Enabled
+		 */
+		private boolean enabled;
+		
+		/**
+		 * Time 1 of N calls
+		 */
+		private int sampleRate = 1;
+	}
+	
+	/**
+	 * Warm-up
+	 */
+	@Data
+	public static class XWarmUp {
+		
+		/**
+		 * Prefix
+		 */
+		public static final String PREFIX = XRedis.PREFIX + ".warm-up";
+		
+		/**
+		 * Enabled
+		 */
+		private boolean enabled = true;
+		
+		/**
+		 * Number of loaders run in parallel
+		 */
+		private int parallelism = 4;
+		
+		/**
+		 * Number of entries written in a batch
+		 */
+		private int batchSize = 128;
+		
+		/**
+		 * Time budget in milliseconds
+		 */
+		private long timeout = 60000;
+		
+		/**
+		 * Wait for the warm-up to finish at startup
+		 */
+		private boolean waitForCompletion;
+	}
+	
+	/**
+	 * Off-heap store, the local tier of caches or the backend of mock
+	 */
+	@Data
+	public static class XOffHeap {
+		
+		/**
+		 * Enabled
+		 */
+		private boolean enabled;
+		
+		/**
+		 * Capacity in bytes
+		 */
+		private long capacity = 64 * 1024 * 1024;
+		
+		/**
+		 * Number of segments
+		 */
+		private int concurrency = 16;
+		
+		/**
+		 * Block size in bytes
+		 */
+		private int blockSize = 256;
+		
+		/**
+		 * Maximum time to live in the local tier in milliseconds
+		 */
+		private long ttl = 60000;
+		
+		/**
+		 * Names of caches in the local tier, or all caches if empty
+		 */
+		private Set<String> cacheNames = new LinkedHashSet<>();
+	}
+	
+	/**
+	 * Snapshot of mock entries, restored on start
+	 */
+	@Data
+	public static class XSnapshot {
+		
+		/**
+		 * Enabled
+		 */
+		private boolean enabled;
+		
+		/**
+		 * Snapshot file
+		 */
+		private String path = "cache-snapshot.bin";
+		
+		/**
+		 * Interval of periodic snapshots in milliseconds, or only on shutdown if 0
+		 */
+		private long interval;
 	}
 }
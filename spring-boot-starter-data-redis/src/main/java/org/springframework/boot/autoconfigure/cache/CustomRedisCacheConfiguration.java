@@ -16,22 +16,47 @@
 
 package org.springframework.boot.autoconfigure.cache;
 
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.cache.RedisCachePayloadEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.cache.CustomCacheProperties.XInstrumentation;
+import org.springframework.boot.autoconfigure.cache.CustomCacheProperties.XOffHeap;
 import org.springframework.boot.autoconfigure.cache.CustomCacheProperties.XRedis;
+import org.springframework.boot.autoconfigure.cache.CustomCacheProperties.XSnapshot;
+import org.springframework.boot.autoconfigure.cache.CustomCacheProperties.XWarmUp;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.data.redis.CustomRedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.CustomRedisProperties;
+import org.springframework.boot.autoconfigure.data.redis.CustomRedisProperties.XClientType;
+import org.springframework.boot.autoconfigure.data.redis.CustomRedisProperties.XPipeline;
+import org.springframework.boot.autoconfigure.data.redis.CustomRedisProperties.XTimeouts;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.cache.interceptor.RedisKeyGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.redis.cache.CachePhaseRecorder;
+import org.springframework.data.redis.cache.CacheWarmUp;
+import org.springframework.data.redis.cache.CacheWarmUpLoader;
 import org.springframework.data.redis.cache.MockRedisCacheManager;
 import org.springframework.data.redis.cache.CustomRedisCacheManager;
+import org.springframework.data.redis.cache.CustomRedisCacheWriter;
+import org.springframework.data.redis.cache.MockRedisCacheWriter;
+import org.springframework.data.redis.cache.OffHeapCacheStore;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheMetrics;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.NonNull;
 
 /**
@@ -51,44 +76,228 @@ public class CustomRedisCacheConfiguration extends RedisCacheConfiguration {
 	 */
 	private CacheManagerCustomizers customizerInvoker;
 	
+	/**
+	 * {@link CustomRedisProperties}
+	 */
+	private ObjectProvider<CustomRedisProperties> redisProperties;
+	
+	/**
+	 * {@link CachePhaseRecorder}
+	 */
+	private ObjectProvider<CachePhaseRecorder> phaseRecorder;
+	
 	/**
 	 * Constructor
 	 * 
 	 * @param cacheProperties {@link CustomCacheProperties}
 	 * @param customizerInvoker {@link CacheManagerCustomizers}
 	 * @param redisCacheConfiguration {@link org.springframework.data.redis.cache.RedisCacheConfiguration}
+	 * @param redisProperties {@link CustomRedisProperties}
+	 * @param phaseRecorder {@link CachePhaseRecorder}
 	 */
 	public CustomRedisCacheConfiguration(
 	/* @formatter:off */
 		@NonNull CustomCacheProperties cacheProperties,
 		@NonNull CacheManagerCustomizers customizerInvoker,
-		ObjectProvider<org.springframework.data.redis.cache.RedisCacheConfiguration> redisCacheConfiguration) {
+		ObjectProvider<org.springframework.data.redis.cache.RedisCacheConfiguration> redisCacheConfiguration,
+		@NonNull ObjectProvider<CustomRedisProperties> redisProperties,
+		@NonNull ObjectProvider<CachePhaseRecorder> phaseRecorder) {
 		/* @formatter:on */
 		
 		super(cacheProperties, customizerInvoker, redisCacheConfiguration);
 		
 		this.cacheProperties = cacheProperties;
 		this.customizerInvoker = customizerInvoker;
+		this.redisProperties = redisProperties;
+		this.phaseRecorder = phaseRecorder;
 	}
 	
 	@Bean
 	@Override
 	public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory, ResourceLoader resourceLoader) {
 		
-		RedisCacheManager cacheManager = super.cacheManager(connectionFactory, resourceLoader);
+		RedisCacheManager sourceCacheManager = super.cacheManager(connectionFactory, resourceLoader);
+		XRedis redis = this.cacheProperties.getRedis();
+		XOffHeap offHeap = redis.getOffHeap();
+		CustomRedisCacheManager cacheManager;
 		
-		if (this.cacheProperties.getRedis().isMock()) {
+		if (redis.isMock()) {
 			
-			cacheManager = new MockRedisCacheManager(cacheManager);
+			cacheManager = new MockRedisCacheManager(sourceCacheManager, redis.getFaults());
+			
+			MockRedisCacheWriter cacheWriter = (MockRedisCacheWriter) CustomRedisCacheManager
+				.getCacheWriter(cacheManager);
+			XSnapshot snapshot = redis.getSnapshot();
+			
+			if (offHeap.isEnabled()) {
+				
+				cacheWriter.setOffHeapStore(createOffHeapStore(offHeap));
+			}
+			
+			if (snapshot.isEnabled()) {
+				
+				cacheWriter.enableSnapshot(Paths.get(snapshot.getPath()), Duration.ofMillis(snapshot.getInterval()));
+			}
 		}
 		else {
 			
-			cacheManager = new CustomRedisCacheManager(cacheManager);
+			CustomRedisCacheWriter cacheWriter = new CustomRedisCacheWriter(
+				CustomRedisCacheManager.getCacheWriter(sourceCacheManager));
+			
+			this.customizeCacheWriter(cacheWriter);
+			
+			cacheManager = new CustomRedisCacheManager(sourceCacheManager, cacheWriter);
+		}
+		
+		cacheManager.setPhaseRecorder(this.phaseRecorder.getIfAvailable(() -> CachePhaseRecorder.DISABLED));
+		
+		if (redis.getNegativeTtl() > 0) {
+			
+			cacheManager.setDefaultNegativeTtl(Duration.ofMillis(redis.getNegativeTtl()));
 		}
 		
+		redis.getNegativeTtls().forEach((name, ttl) -> cacheManager.setNegativeTtl(name, Duration.ofMillis(ttl)));
+		
 		return this.customizerInvoker.customize(cacheManager);
 	}
 	
+	/**
+	 * {@link Bean}: {@link CachePhaseRecorder}
+	 * 
+	 * @return {@link CachePhaseRecorder}, disabled unless instrumentation is enabled
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	public CachePhaseRecorder cachePhaseRecorder() {
+		
+		XInstrumentation instrumentation = this.cacheProperties.getRedis().getInstrumentation();
+		
+		return new CachePhaseRecorder(instrumentation.isEnabled() ? instrumentation.getSampleRate() : 0);
+	}
+	
+	/**
+	 * Customize cache writer
+	 * 
+	 * @param cacheWriter {@link CustomRedisCacheWriter}
+	 */
+	protected void customizeCacheWriter(@NonNull CustomRedisCacheWriter cacheWriter) {
+		
+		XRedis redis = this.cacheProperties.getRedis();
+		
+		cacheWriter.setSlidingFlushInterval(Duration.ofMillis(redis.getSlidingFlushInterval()));
+		cacheWriter.setMaxValueSize(redis.getMaxValueSize());
+		cacheWriter.setOversizedValuePolicy(redis.getOversizedValuePolicy());
+		cacheWriter.setPhaseRecorder(this.phaseRecorder.getIfAvailable(() -> CachePhaseRecorder.DISABLED));
+		
+		XOffHeap offHeap = redis.getOffHeap();
+		
+		if (offHeap.isEnabled()) {
+			
+			cacheWriter.setLocalCache(createOffHeapStore(offHeap));
+			cacheWriter.setLocalCacheNames(offHeap.getCacheNames());
+			cacheWriter.setLocalCacheTtl(Duration.ofMillis(offHeap.getTtl()));
+		}
+		
+		CustomRedisProperties redisProperties = this.redisProperties.getIfAvailable();
+		
+		if (redisProperties != null) {
+			
+			XTimeouts timeouts = redisProperties.getTimeouts();
+			
+			cacheWriter.setReadTimeout(Duration.ofMillis(timeouts.getRead()));
+			cacheWriter.setBulkReadTimeout(Duration.ofMillis(timeouts.getBulkRead()));
+			
+			XPipeline pipeline = redisProperties.getClientType() == XClientType.JEDIS
+				? redisProperties.getJedis().getPipeline() : redisProperties.getLettuce().getPipeline();
+			
+			cacheWriter.setPipelineFlushSize(pipeline.getFlushSize());
+		}
+	}
+	
+	/**
+	 * Create {@link OffHeapCacheStore}
+	 * 
+	 * @param offHeap {@link XOffHeap}
+	 * @return {@link OffHeapCacheStore}
+	 */
+	protected static OffHeapCacheStore createOffHeapStore(XOffHeap offHeap) {
+		
+		return new OffHeapCacheStore(offHeap.getCapacity(), offHeap.getConcurrency(), offHeap.getBlockSize());
+	}
+	
+	/**
+	 * {@link Configuration}: {@link RedisCacheMetrics}
+	 */
+	@Configuration
+	@ConditionalOnClass(MeterRegistry.class)
+	protected static class RedisCacheMetricsConfiguration {
+		
+		/**
+		 * {@link Bean}: {@link RedisCacheMetrics}
+		 * 
+		 * @param cacheManager {@link RedisCacheManager}
+		 * @return {@link RedisCacheMetrics}
+		 */
+		@Bean
+		public RedisCacheMetrics redisCacheMetrics(RedisCacheManager cacheManager) {
+			
+			return new RedisCacheMetrics(cacheManager);
+		}
+	}
+	
+	/**
+	 * {@link Configuration}: {@link RedisCachePayloadEndpoint}
+	 */
+	@Configuration
+	@ConditionalOnClass(Endpoint.class)
+	protected static class RedisCachePayloadEndpointConfiguration {
+		
+		/**
+		 * {@link Bean}: {@link RedisCachePayloadEndpoint}
+		 * 
+		 * @param cacheManager {@link RedisCacheManager}
+		 * @return {@link RedisCachePayloadEndpoint}
+		 */
+		@Bean
+		@ConditionalOnMissingBean
+		public RedisCachePayloadEndpoint redisCachePayloadEndpoint(RedisCacheManager cacheManager) {
+			
+			return new RedisCachePayloadEndpoint(cacheManager);
+		}
+	}
+	
+	/**
+	 * {@link Configuration}: {@link CacheWarmUp}
+	 */
+	@Configuration
+	@ConditionalOnBean(CacheWarmUpLoader.class)
+	@ConditionalOnProperty(prefix = XWarmUp.PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
+	protected static class CacheWarmUpConfiguration {
+		
+		/**
+		 * {@link Bean}: {@link CacheWarmUp}
+		 * 
+		 * @param cacheManager {@link RedisCacheManager}
+		 * @param loaders {@link CacheWarmUpLoader}s
+		 * @param cacheProperties {@link CustomCacheProperties}
+		 * @return {@link CacheWarmUp}
+		 */
+		@Bean
+		public CacheWarmUp cacheWarmUp(RedisCacheManager cacheManager, List<CacheWarmUpLoader> loaders,
+			CustomCacheProperties cacheProperties) {
+			
+			XWarmUp warmUp = cacheProperties.getRedis().getWarmUp();
+			CacheWarmUp cacheWarmUp = new CacheWarmUp(cacheManager, loaders);
+			
+			cacheWarmUp.setParallelism(warmUp.getParallelism());
+			cacheWarmUp.setBatchSize(warmUp.getBatchSize());
+			cacheWarmUp.setTimeout(Duration.ofMillis(warmUp.getTimeout()));
+			cacheWarmUp.setWaitForCompletion(warmUp.isWaitForCompletion());
+			
+			return cacheWarmUp;
+		}
+	}
+	
 	/**
 	 * {@link Configuration}: {@link RedisKeyGenerator}
 	 */
@@ -96,6 +305,29 @@ public class CustomRedisCacheConfiguration extends RedisCacheConfiguration {
 	@ConditionalOnProperty(prefix = XRedis.PREFIX, name = "key", havingValue = "true", matchIfMissing = true)
 	protected static class RedisKeyGeneratorConfiguration extends CachingConfigurerSupport {
 		
+		/**
+		 * {@link CustomCacheProperties}
+		 */
+		private CustomCacheProperties cacheProperties;
+		
+		/**
+		 * {@link CachePhaseRecorder}
+		 */
+		private ObjectProvider<CachePhaseRecorder> phaseRecorder;
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param cacheProperties {@link CustomCacheProperties}
+		 * @param phaseRecorder {@link CachePhaseRecorder}
+		 */
+		public RedisKeyGeneratorConfiguration(@NonNull CustomCacheProperties cacheProperties,
+			@NonNull ObjectProvider<CachePhaseRecorder> phaseRecorder) {
+			
+			this.cacheProperties = cacheProperties;
+			this.phaseRecorder = phaseRecorder;
+		}
+		
 		/**
 		 * {@link KeyGenerator}
 		 * 
@@ -105,7 +337,11 @@ public class CustomRedisCacheConfiguration extends RedisCacheConfiguration {
 		@Override
 		public RedisKeyGenerator keyGenerator() {
 			
-			return new RedisKeyGenerator();
+			RedisKeyGenerator keyGenerator = new RedisKeyGenerator(this.cacheProperties.getRedis().isHashTag());
+			
+			keyGenerator.setPhaseRecorder(this.phaseRecorder.getIfAvailable(() -> CachePhaseRecorder.DISABLED));
+			
+			return keyGenerator;
 		}
 	}
 }
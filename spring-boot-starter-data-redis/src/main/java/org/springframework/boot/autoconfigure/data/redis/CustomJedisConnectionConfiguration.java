@@ -0,0 +1,236 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure.data.redis;
+
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.pool2.impl.GenericObjectPool; // TODO @checkstyle:ignore
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig; // TODO @checkstyle:ignore
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.CustomRedisProperties.XJedis;
+import org.springframework.boot.autoconfigure.data.redis.CustomRedisProperties.XJedisMetrics;
+import org.springframework.boot.autoconfigure.data.redis.CustomRedisProperties.XPool;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties.Pool;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
+import org.springframework.data.redis.connection.jedis.CustomJedisConnectionFactory;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration.JedisClientConfigurationBuilder;
+import org.springframework.data.redis.connection.jedis.JedisConnection;
+import org.springframework.data.redis.connection.jedis.JedisMetrics;
+import org.springframework.util.StringUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPoolConfig;
+
+/**
+ * Custom {@link JedisConnectionConfiguration}
+ * 
+ * <p>
+ * Enabled by {@code spring.redis.client-type=jedis} instead of {@link CustomLettuceConnectionConfiguration}.
+ * </p>
+ */
+@Configuration
+@ConditionalOnClass({ GenericObjectPool.class, JedisConnection.class, Jedis.class })
+@ConditionalOnProperty(prefix = CustomRedisProperties.PREFIX, name = "client-type", havingValue = "jedis")
+public class CustomJedisConnectionConfiguration extends JedisConnectionConfiguration {
+	
+	/**
+	 * {@link CustomRedisProperties}
+	 */
+	private CustomRedisProperties redisProperties;
+	
+	/**
+	 * {@link JedisClientConfigurationBuilderCustomizer}s
+	 */
+	private List<JedisClientConfigurationBuilderCustomizer> builderCustomizers;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param redisProperties {@link CustomRedisProperties}
+	 * @param sentinelConfiguration {@link RedisSentinelConfiguration}
+	 * @param clusterConfiguration {@link RedisClusterConfiguration}
+	 * @param builderCustomizers {@link JedisClientConfigurationBuilderCustomizer}
+	 */
+	public CustomJedisConnectionConfiguration(@NonNull CustomRedisProperties redisProperties,
+		ObjectProvider<RedisSentinelConfiguration> sentinelConfiguration,
+		ObjectProvider<RedisClusterConfiguration> clusterConfiguration,
+		ObjectProvider<List<JedisClientConfigurationBuilderCustomizer>> builderCustomizers) {
+		
+		super(redisProperties, sentinelConfiguration, clusterConfiguration, builderCustomizers);
+		
+		this.redisProperties = redisProperties;
+		this.builderCustomizers = builderCustomizers.getIfAvailable(Collections::emptyList);
+	}
+	
+	@Bean
+	@Override
+	public CustomJedisConnectionFactory redisConnectionFactory() throws UnknownHostException {
+		
+		JedisClientConfiguration configuration = this.createClientConfiguration();
+		
+		this.customizeClient(configuration);
+		
+		CustomJedisConnectionFactory factory = this.createConnectionFactory(configuration);
+		
+		this.customizeConnectionFactory(factory);
+		
+		return factory;
+	}
+	
+	/**
+	 * Create {@link JedisClientConfiguration} from properties as {@link JedisConnectionConfiguration} does
+	 * 
+	 * @return {@link JedisClientConfiguration}
+	 */
+	protected JedisClientConfiguration createClientConfiguration() {
+		
+		JedisClientConfigurationBuilder builder = JedisClientConfiguration.builder();
+		
+		if (this.redisProperties.isSsl() || StringUtils.hasText(this.redisProperties.getUrl())
+			&& this.parseUrl(this.redisProperties.getUrl()).isUseSsl()) {
+			
+			builder.useSsl();
+		}
+		
+		if (this.redisProperties.getTimeout() != null) {
+			
+			builder.readTimeout(this.redisProperties.getTimeout()).connectTimeout(this.redisProperties.getTimeout());
+		}
+		
+		Pool pool = this.redisProperties.getJedis().getPool();
+		
+		if (pool != null) {
+			
+			JedisPoolConfig poolConfig = new JedisPoolConfig();
+			
+			poolConfig.setMaxTotal(pool.getMaxActive());
+			poolConfig.setMaxIdle(pool.getMaxIdle());
+			poolConfig.setMinIdle(pool.getMinIdle());
+			
+			if (pool.getMaxWait() != null) {
+				
+				poolConfig.setMaxWaitMillis(pool.getMaxWait().toMillis());
+			}
+			
+			builder.usePooling().poolConfig(poolConfig);
+		}
+		
+		this.builderCustomizers.forEach(customizer -> customizer.customize(builder));
+		
+		return builder.build();
+	}
+	
+	/**
+	 * Create {@link CustomJedisConnectionFactory}
+	 * 
+	 * @param configuration {@link JedisClientConfiguration}
+	 * @return {@link CustomJedisConnectionFactory}
+	 */
+	protected CustomJedisConnectionFactory createConnectionFactory(@NonNull JedisClientConfiguration configuration) {
+		
+		if (this.getSentinelConfig() != null) {
+			
+			return new CustomJedisConnectionFactory(this.getSentinelConfig(), configuration);
+		}
+		
+		if (this.getClusterConfiguration() != null) {
+			
+			return new CustomJedisConnectionFactory(this.getClusterConfiguration(), configuration);
+		}
+		
+		return new CustomJedisConnectionFactory(this.getStandaloneConfig(), configuration);
+	}
+	
+	/**
+	 * Customize connection factory
+	 * 
+	 * @param factory {@link CustomJedisConnectionFactory}
+	 */
+	protected void customizeConnectionFactory(@NonNull CustomJedisConnectionFactory factory) {
+		
+		XJedis jedis = this.redisProperties.getJedis();
+		XPool pool = jedis.getPool();
+		
+		if (pool != null) {
+			
+			factory.setPrewarm(pool.isPrewarm());
+			factory.setPrewarmTimeout(Duration.ofMillis(pool.getPrewarmTimeout()));
+			factory.setPrewarmFailFast(pool.isPrewarmFailFast());
+		}
+		
+		factory.setPipelineFlushSize(jedis.getPipeline().getFlushSize());
+	}
+	
+	/**
+	 * Customize client
+	 * 
+	 * @param configuration {@link JedisClientConfiguration}
+	 */
+	protected void customizeClient(@NonNull JedisClientConfiguration configuration) {
+		
+		XPool pool = this.redisProperties.getJedis().getPool();
+		
+		if (configuration.isUsePooling() && pool != null) {
+			
+			configuration.getPoolConfig().ifPresent(poolConfig -> this.customizePool(poolConfig, pool));
+		}
+	}
+	
+	/**
+	 * Customize pool
+	 * 
+	 * @param poolConfig {@link GenericObjectPoolConfig}
+	 * @param pool {@link XPool}
+	 */
+	protected void customizePool(@NonNull GenericObjectPoolConfig poolConfig, @NonNull XPool pool) {
+		
+		RedisPools.customize(poolConfig, pool);
+	}
+	
+	/**
+	 * {@link Configuration}: {@link JedisMetrics}
+	 */
+	@Configuration
+	@ConditionalOnClass(MeterRegistry.class)
+	@ConditionalOnProperty(prefix = XJedisMetrics.PREFIX, name = "enabled", havingValue = "true",
+		matchIfMissing = true)
+	protected static class JedisMetricsConfiguration {
+		
+		/**
+		 * {@link JedisMetrics}
+		 * 
+		 * @param connectionFactory {@link CustomJedisConnectionFactory}
+		 * @return {@link JedisMetrics}
+		 */
+		@Bean
+		public JedisMetrics jedisMetrics(CustomJedisConnectionFactory connectionFactory) {
+			
+			return new JedisMetrics(connectionFactory);
+		}
+	}
+}
@@ -17,33 +17,68 @@
 package org.springframework.boot.autoconfigure.data.redis;
 
 import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig; // TODO @checkstyle:ignore
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.CustomRedisProperties.XLettuce;
+import org.springframework.boot.autoconfigure.data.redis.CustomRedisProperties.XMetrics;
+import org.springframework.boot.autoconfigure.data.redis.CustomRedisProperties.XPipeline;
 import org.springframework.boot.autoconfigure.data.redis.CustomRedisProperties.XPool;
+import org.springframework.boot.autoconfigure.data.redis.CustomRedisProperties.XReadFrom;
+import org.springframework.boot.autoconfigure.data.redis.CustomRedisProperties.XTopologyRefresh;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties.Pool;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisClusterConfiguration;
 import org.springframework.data.redis.connection.RedisSentinelConfiguration;
+import org.springframework.data.redis.connection.lettuce.CustomLettuceConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
-import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration.LettuceClientConfigurationBuilder;
+import org.springframework.data.redis.connection.lettuce.LettuceMetrics;
 import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.util.StringUtils;
 
+import io.lettuce.core.EpollProvider;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.event.DefaultEventPublisherOptions;
+import io.lettuce.core.metrics.DefaultCommandLatencyCollectorOptions;
 import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.NonNull;
 
 /**
  * Custom {@link LettuceConnectionConfiguration}
  */
 @Configuration
+@ConditionalOnProperty(prefix = CustomRedisProperties.PREFIX, name = "client-type", havingValue = "lettuce",
+	matchIfMissing = true)
 public class CustomLettuceConnectionConfiguration extends LettuceConnectionConfiguration {
 	
+	/**
+	 * {@link Logger}
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(CustomLettuceConnectionConfiguration.class);
+	
 	/**
 	 * {@link CustomRedisProperties}
 	 */
 	private CustomRedisProperties redisProperties;
 	
+	/**
+	 * {@link LettuceClientConfigurationBuilderCustomizer}s
+	 */
+	private List<LettuceClientConfigurationBuilderCustomizer> builderCustomizers;
+	
 	/**
 	 * Constructor
 	 * 
@@ -60,20 +95,259 @@ public class CustomLettuceConnectionConfiguration extends LettuceConnectionConfi
 		super(redisProperties, sentinelConfiguration, clusterConfiguration, builderCustomizers);
 		
 		this.redisProperties = redisProperties;
+		this.builderCustomizers = builderCustomizers.getIfAvailable(Collections::emptyList);
+	}
+	
+	@Bean(destroyMethod = "shutdown")
+	@ConditionalOnMissingBean(ClientResources.class)
+	@Override
+	public DefaultClientResources lettuceClientResources() {
+		
+		DefaultClientResources.Builder builder = DefaultClientResources.builder();
+		
+		this.customizeClientResources(builder);
+		
+		return builder.build();
 	}
 	
 	@Bean
 	@Override
-	public LettuceConnectionFactory redisConnectionFactory(ClientResources clientResources)
+	public CustomLettuceConnectionFactory redisConnectionFactory(ClientResources clientResources)
 		throws UnknownHostException {
 		
-		LettuceConnectionFactory factory = super.redisConnectionFactory(clientResources);
+		LettuceClientConfiguration configuration = this.createClientConfiguration(clientResources);
+		
+		this.customizeClient(configuration);
 		
-		this.customizeClient(factory.getClientConfiguration());
+		CustomLettuceConnectionFactory factory = this.createConnectionFactory(configuration);
+		
+		this.customizeConnectionFactory(factory);
 		
 		return factory;
 	}
 	
+	/**
+	 * Create {@link LettuceClientConfiguration} from properties as {@link LettuceConnectionConfiguration} does
+	 * 
+	 * @param clientResources {@link ClientResources}
+	 * @return {@link LettuceClientConfiguration}
+	 */
+	protected LettuceClientConfiguration createClientConfiguration(@NonNull ClientResources clientResources) {
+		
+		Pool pool = this.redisProperties.getLettuce().getPool();
+		LettuceClientConfigurationBuilder builder;
+		
+		if (pool != null) {
+			
+			GenericObjectPoolConfig poolConfig = new GenericObjectPoolConfig();
+			
+			poolConfig.setMaxTotal(pool.getMaxActive());
+			poolConfig.setMaxIdle(pool.getMaxIdle());
+			poolConfig.setMinIdle(pool.getMinIdle());
+			
+			if (pool.getMaxWait() != null) {
+				
+				poolConfig.setMaxWaitMillis(pool.getMaxWait().toMillis());
+			}
+			
+			builder = LettucePoolingClientConfiguration.builder().poolConfig(poolConfig);
+		}
+		else {
+			
+			builder = LettuceClientConfiguration.builder();
+		}
+		
+		if (this.redisProperties.isSsl() || StringUtils.hasText(this.redisProperties.getUrl())
+			&& this.parseUrl(this.redisProperties.getUrl()).isUseSsl()) {
+			
+			builder.useSsl();
+		}
+		
+		if (this.redisProperties.getTimeout() != null) {
+			
+			builder.commandTimeout(this.redisProperties.getTimeout());
+		}
+		
+		Duration shutdownTimeout = this.redisProperties.getLettuce().getShutdownTimeout();
+		
+		if (shutdownTimeout != null && !shutdownTimeout.isZero()) {
+			
+			builder.shutdownTimeout(shutdownTimeout);
+		}
+		
+		builder.clientResources(clientResources);
+		
+		this.builderCustomizers.forEach(customizer -> customizer.customize(builder));
+		
+		return builder.build();
+	}
+	
+	/**
+	 * Create {@link CustomLettuceConnectionFactory}
+	 * 
+	 * @param configuration {@link LettuceClientConfiguration}
+	 * @return {@link CustomLettuceConnectionFactory}
+	 */
+	protected CustomLettuceConnectionFactory createConnectionFactory(
+		@NonNull LettuceClientConfiguration configuration) {
+		
+		if (this.getSentinelConfig() != null) {
+			
+			return new CustomLettuceConnectionFactory(this.getSentinelConfig(), configuration);
+		}
+		
+		if (this.getClusterConfiguration() != null) {
+			
+			return new CustomLettuceConnectionFactory(this.getClusterConfiguration(), configuration);
+		}
+		
+		return new CustomLettuceConnectionFactory(this.getStandaloneConfig(), configuration);
+	}
+	
+	/**
+	 * Customize connection factory
+	 * 
+	 * @param factory {@link CustomLettuceConnectionFactory}
+	 */
+	protected void customizeConnectionFactory(@NonNull CustomLettuceConnectionFactory factory) {
+		
+		XPool pool = this.redisProperties.getLettuce().getPool();
+		
+		if (pool != null) {
+			
+			factory.setPrewarm(pool.isPrewarm());
+			factory.setPrewarmTimeout(Duration.ofMillis(pool.getPrewarmTimeout()));
+			factory.setPrewarmFailFast(pool.isPrewarmFailFast());
+		}
+		
+		XPipeline pipeline = this.redisProperties.getLettuce().getPipeline();
+		
+		factory.setPipelineFlushSize(pipeline.getFlushSize());
+		factory.setPipelineFlushInterval(Duration.ofMillis(pipeline.getFlushInterval()));
+		
+		factory.setReadFrom(toReadFrom(this.redisProperties.getLettuce().getReadFrom()));
+		factory.setTopologyRefreshOptions(
+			toTopologyRefreshOptions(this.redisProperties.getLettuce().getTopologyRefresh()));
+	}
+	
+	/**
+	 * Convert to {@link ClusterTopologyRefreshOptions}
+	 * 
+	 * @param topologyRefresh {@link XTopologyRefresh}
+	 * @return {@link ClusterTopologyRefreshOptions} or {@code null} if neither periodic nor adaptive
+	 */
+	protected static ClusterTopologyRefreshOptions toTopologyRefreshOptions(@NonNull XTopologyRefresh topologyRefresh) {
+		
+		if (topologyRefresh.getPeriod() <= 0 && !topologyRefresh.isAdaptive()) {
+			
+			return null;
+		}
+		
+		ClusterTopologyRefreshOptions.Builder builder = ClusterTopologyRefreshOptions.builder()
+			.dynamicRefreshSources(topologyRefresh.isDynamicSources());
+		
+		if (topologyRefresh.getPeriod() > 0) {
+			
+			builder.enablePeriodicRefresh(Duration.ofMillis(topologyRefresh.getPeriod()));
+		}
+		
+		if (topologyRefresh.isAdaptive()) {
+			
+			builder.enableAllAdaptiveRefreshTriggers()
+				.adaptiveRefreshTriggersTimeout(Duration.ofMillis(topologyRefresh.getAdaptiveTimeout()));
+		}
+		
+		return builder.build();
+	}
+	
+	/**
+	 * Convert to {@link ReadFrom}
+	 * 
+	 * @param readFrom {@link XReadFrom}
+	 * @return {@link ReadFrom}
+	 */
+	protected static ReadFrom toReadFrom(@NonNull XReadFrom readFrom) {
+		
+		switch (readFrom) {
+			
+			case MASTER_PREFERRED:
+				return ReadFrom.MASTER_PREFERRED;
+			
+			case REPLICA_PREFERRED:
+				return ReadFrom.SLAVE_PREFERRED;
+			
+			case NEAREST:
+				return ReadFrom.NEAREST;
+			
+			default:
+				return ReadFrom.MASTER;
+		}
+	}
+	
+	/**
+	 * Customize client resources
+	 * 
+	 * @param builder {@link DefaultClientResources.Builder}
+	 */
+	protected void customizeClientResources(@NonNull DefaultClientResources.Builder builder) {
+		
+		XLettuce lettuce = this.redisProperties.getLettuce();
+		
+		this.customizeThreads(builder, lettuce);
+		this.customizeMetrics(builder, lettuce.getMetrics());
+	}
+	
+	/**
+	 * Customize threads
+	 * 
+	 * @param builder {@link DefaultClientResources.Builder}
+	 * @param lettuce {@link XLettuce}
+	 */
+	protected void customizeThreads(@NonNull DefaultClientResources.Builder builder, @NonNull XLettuce lettuce) {
+		
+		if (lettuce.getIoThreadPoolSize() > 0) {
+			
+			builder.ioThreadPoolSize(lettuce.getIoThreadPoolSize());
+		}
+		
+		if (lettuce.getComputationThreadPoolSize() > 0) {
+			
+			builder.computationThreadPoolSize(lettuce.getComputationThreadPoolSize());
+		}
+		
+		logger.info("Lettuce uses {} transport", EpollProvider.isAvailable() ? "native epoll" : "NIO");
+	}
+	
+	/**
+	 * Customize metrics
+	 * 
+	 * @param builder {@link DefaultClientResources.Builder}
+	 * @param metrics {@link XMetrics}
+	 */
+	protected void customizeMetrics(@NonNull DefaultClientResources.Builder builder, @NonNull XMetrics metrics) {
+		
+		if (!metrics.isEnabled()) {
+			
+			builder.commandLatencyCollectorOptions(DefaultCommandLatencyCollectorOptions.disabled());
+			
+			return;
+		}
+		
+		builder.commandLatencyCollectorOptions(DefaultCommandLatencyCollectorOptions.builder()
+		/* @formatter:off */
+			.targetPercentiles(metrics.getPercentiles())
+			.resetLatenciesAfterEvent(metrics.isResetLatenciesAfterEvent())
+			.localDistinction(metrics.isLocalDistinction())
+			.build());
+			/* @formatter:on */
+		
+		builder.commandLatencyPublisherOptions(DefaultEventPublisherOptions.builder()
+		/* @formatter:off */
+			.eventEmitInterval(Duration.ofMillis(metrics.getEmitInterval()))
+			.build());
+			/* @formatter:on */
+	}
+	
 	/**
 	 * Customize client
 	 * 
@@ -96,14 +370,27 @@ public class CustomLettuceConnectionConfiguration extends LettuceConnectionConfi
 	 */
 	protected void customizePool(@NonNull GenericObjectPoolConfig poolConfig, @NonNull XPool pool) {
 		
-		poolConfig.setMinEvictableIdleTimeMillis(pool.getMinEvictableIdleTime());
-		poolConfig.setSoftMinEvictableIdleTimeMillis(pool.getSoftMinEvictableIdleTime());
-		poolConfig.setNumTestsPerEvictionRun(pool.getNumTestsPerEvictionRun());
-		poolConfig.setTestOnCreate(pool.isTestOnCreate());
-		poolConfig.setTestOnBorrow(pool.isTestOnBorrow());
-		poolConfig.setTestOnReturn(pool.isTestOnReturn());
-		poolConfig.setTestWhileIdle(pool.isTestWhileIdle());
-		poolConfig.setTimeBetweenEvictionRunsMillis(pool.getTimeBetweenEvictionRuns());
-		poolConfig.setBlockWhenExhausted(pool.isBlockWhenExhausted());
+		RedisPools.customize(poolConfig, pool);
+	}
+	
+	/**
+	 * {@link Configuration}: {@link LettuceMetrics}
+	 */
+	@Configuration
+	@ConditionalOnClass(MeterRegistry.class)
+	@ConditionalOnProperty(prefix = XMetrics.PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
+	protected static class LettuceMetricsConfiguration {
+		
+		/**
+		 * {@link LettuceMetrics}
+		 * 
+		 * @param connectionFactory {@link CustomLettuceConnectionFactory}
+		 * @return {@link LettuceMetrics}
+		 */
+		@Bean
+		public LettuceMetrics lettuceMetrics(CustomLettuceConnectionFactory connectionFactory) {
+			
+			return new LettuceMetrics(connectionFactory);
+		}
 	}
 }
@@ -29,7 +29,7 @@ import org.springframework.context.annotation.Primary;
 @Configuration
 @EnableConfigurationProperties(CustomRedisProperties.class)
 @AutoConfigureBefore(RedisAutoConfiguration.class)
-@Import(CustomLettuceConnectionConfiguration.class)
+@Import({ CustomLettuceConnectionConfiguration.class, CustomJedisConnectionConfiguration.class })
 public class CustomRedisAutoConfiguration extends RedisAutoConfiguration {
 	
 	/**
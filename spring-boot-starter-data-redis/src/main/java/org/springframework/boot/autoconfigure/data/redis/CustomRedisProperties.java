@@ -28,11 +28,47 @@ import lombok.ToString;
 @ToString(callSuper = true)
 public class CustomRedisProperties extends RedisProperties {
 	
+	/**
+	 * Prefix
+	 */
+	public static final String PREFIX = "spring.redis";
+	
+	/**
+	 * {@link XClientType}
+	 */
+	private XClientType clientType = XClientType.LETTUCE;
+	
 	/**
 	 * {@link XLettuce}
 	 */
 	private XLettuce lettuce = new XLettuce();
 	
+	/**
+	 * {@link XJedis}
+	 */
+	private XJedis jedis = new XJedis();
+	
+	/**
+	 * {@link XTimeouts}
+	 */
+	private XTimeouts timeouts = new XTimeouts();
+	
+	/**
+	 * Client type
+	 */
+	public enum XClientType {
+		
+		/**
+		 * Lettuce
+		 */
+		LETTUCE,
+		
+		/**
+		 * Jedis
+		 */
+		JEDIS
+	}
+	
 	/**
 	 * Custom {@link org.springframework.boot.autoconfigure.data.redis.RedisProperties.Pool}
 	 */
@@ -85,19 +121,246 @@ public class CustomRedisProperties extends RedisProperties {
 		 * Block when exhausted
 		 */
 		private boolean blockWhenExhausted = true;
+		
+		/**
+		 * Pre-warm minimum idle connections at startup
+		 */
+		private boolean prewarm;
+		
+		/**
+		 * Timeout of pre-warming
+		 */
+		private long prewarmTimeout = 1000L * 10L;
+		
+		/**
+		 * Fail startup if pre-warming failed
+		 */
+		private boolean prewarmFailFast;
 	}
 	
 	/**
 	 * Custom {@link org.springframework.boot.autoconfigure.data.redis.RedisProperties.Lettuce}
+	 * 
+	 * <p>
+	 * Lettuce selects native epoll transport JVM-wide, not per client. It is used if
+	 * {@code io.netty:netty-transport-native-epoll} with the classifier of the platform is on the classpath, which
+	 * applications must add themselves since it is optional here, and can be disabled by
+	 * {@code -Dio.lettuce.core.epoll=false}.
+	 * </p>
 	 */
 	@Data
 	@EqualsAndHashCode(callSuper = true)
 	@ToString(callSuper = true)
 	public static class XLettuce extends Lettuce {
 		
+		/**
+		 * Prefix
+		 */
+		public static final String PREFIX = CustomRedisProperties.PREFIX + ".lettuce";
+		
+		/**
+		 * {@link XPool}
+		 */
+		private XPool pool;
+		
+		/**
+		 * {@link XMetrics}
+		 */
+		private XMetrics metrics = new XMetrics();
+		
+		/**
+		 * {@link XPipeline}
+		 */
+		private XPipeline pipeline = new XPipeline();
+		
+		/**
+		 * I/O thread pool size (0 for default of Lettuce)
+		 */
+		private int ioThreadPoolSize;
+		
+		/**
+		 * Computation thread pool size (0 for default of Lettuce)
+		 */
+		private int computationThreadPoolSize;
+		
+		/**
+		 * {@link XReadFrom} of cache reads
+		 */
+		private XReadFrom readFrom = XReadFrom.MASTER;
+		
+		/**
+		 * {@link XTopologyRefresh}
+		 */
+		private XTopologyRefresh topologyRefresh = new XTopologyRefresh();
+	}
+	
+	/**
+	 * Topology refresh of Lettuce cluster
+	 */
+	@Data
+	public static class XTopologyRefresh {
+		
+		/**
+		 * Interval of periodic refresh (0 to disable)
+		 */
+		private long period;
+		
+		/**
+		 * Refresh on {@code MOVED}, {@code ASK} redirects and persistent reconnects
+		 */
+		private boolean adaptive;
+		
+		/**
+		 * Minimum interval between adaptive refreshes
+		 */
+		private long adaptiveTimeout = 1000L * 30L;
+		
+		/**
+		 * Discover nodes from the topology instead of only the seed nodes
+		 */
+		private boolean dynamicSources = true;
+	}
+	
+	/**
+	 * Custom {@link org.springframework.boot.autoconfigure.data.redis.RedisProperties.Jedis}
+	 */
+	@Data
+	@EqualsAndHashCode(callSuper = true)
+	@ToString(callSuper = true)
+	public static class XJedis extends Jedis {
+		
+		/**
+		 * Prefix
+		 */
+		public static final String PREFIX = CustomRedisProperties.PREFIX + ".jedis";
+		
 		/**
 		 * {@link XPool}
 		 */
 		private XPool pool;
+		
+		/**
+		 * {@link XJedisMetrics}
+		 */
+		private XJedisMetrics metrics = new XJedisMetrics();
+		
+		/**
+		 * {@link XPipeline}
+		 */
+		private XPipeline pipeline = new XPipeline();
+	}
+	
+	/**
+	 * Read from
+	 */
+	public enum XReadFrom {
+		
+		/**
+		 * Read from master only
+		 */
+		MASTER,
+		
+		/**
+		 * Read from master, or replicas if master is not available
+		 */
+		MASTER_PREFERRED,
+		
+		/**
+		 * Read from replicas, or master if no replica is available
+		 */
+		REPLICA_PREFERRED,
+		
+		/**
+		 * Read from the nearest node
+		 */
+		NEAREST
+	}
+	
+	/**
+	 * Lettuce metrics
+	 */
+	@Data
+	public static class XMetrics {
+		
+		/**
+		 * Prefix
+		 */
+		public static final String PREFIX = XLettuce.PREFIX + ".metrics";
+		
+		/**
+		 * Enabled
+		 */
+		private boolean enabled = true;
+		
+		/**
+		 * Percentiles of command latency
+		 */
+		private double[] percentiles = { 50.0, 90.0, 95.0, 99.0, 99.9 };
+		
+		/**
+		 * Interval of command latency event
+		 */
+		private long emitInterval = 1000L * 60L;
+		
+		/**
+		 * Reset latencies after event
+		 */
+		private boolean resetLatenciesAfterEvent = true;
+		
+		/**
+		 * Distinguish latencies by local address
+		 */
+		private boolean localDistinction;
+	}
+	
+	/**
+	 * Jedis metrics
+	 */
+	@Data
+	public static class XJedisMetrics {
+		
+		/**
+		 * Prefix
+		 */
+		public static final String PREFIX = XJedis.PREFIX + ".metrics";
+		
+		/**
+		 * Enabled
+		 */
+		private boolean enabled = true;
+	}
+	
+	/**
+	 * Pipeline
+	 */
+	@Data
+	public static class XPipeline {
+		
+		/**
+		 * Number of commands to flush, also the batch size of pipelined bulk writes of caches
+		 */
+		private int flushSize = 128;
+		
+		/**
+		 * Interval to flush (0 to disable, Lettuce only)
+		 */
+		private long flushInterval = 10L;
+	}
+	
+	/**
+	 * Timeouts of cache operations
+	 */
+	@Data
+	public static class XTimeouts {
+		
+		/**
+		 * Timeout of {@code GET}, treated as miss if exceeded (0 for the command timeout)
+		 */
+		private long read;
+		
+		/**
+		 * Timeout of bulk reads, treated as misses if exceeded (0 for the command timeout)
+		 */
+		private long bulkRead;
 	}
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure.data.redis;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig; // TODO @checkstyle:ignore
+import org.springframework.boot.autoconfigure.data.redis.CustomRedisProperties.XPool;
+
+import lombok.NonNull;
+
+/**
+ * Redis pool utilities shared by Lettuce and Jedis
+ */
+public class RedisPools {
+	
+	/**
+	 * Constructor
+	 */
+	protected RedisPools() {
+		
+		/* NOP */
+	}
+	
+	/**
+	 * Customize pool
+	 * 
+	 * @param poolConfig {@link GenericObjectPoolConfig}
+	 * @param pool {@link XPool}
+	 */
+	public static void customize(@NonNull GenericObjectPoolConfig poolConfig, @NonNull XPool pool) {
+		
+		poolConfig.setMinEvictableIdleTimeMillis(pool.getMinEvictableIdleTime());
+		poolConfig.setSoftMinEvictableIdleTimeMillis(pool.getSoftMinEvictableIdleTime());
+		poolConfig.setNumTestsPerEvictionRun(pool.getNumTestsPerEvictionRun());
+		poolConfig.setTestOnCreate(pool.isTestOnCreate());
+		poolConfig.setTestOnBorrow(pool.isTestOnBorrow());
+		poolConfig.setTestOnReturn(pool.isTestOnReturn());
+		poolConfig.setTestWhileIdle(pool.isTestWhileIdle());
+		poolConfig.setTimeBetweenEvictionRunsMillis(pool.getTimeBetweenEvictionRuns());
+		poolConfig.setBlockWhenExhausted(pool.isBlockWhenExhausted());
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure.session;
+
+import java.time.Duration;
+
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.autoconfigure.data.redis.CustomRedisAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.config.annotation.web.http.SpringHttpSessionConfiguration;
+import org.springframework.session.data.redis.LazyRedisSessionRepository;
+
+/**
+ * {@link LazyRedisSessionRepository} auto configuration
+ * 
+ * <p>
+ * Stores HTTP sessions by the {@link RedisConnectionFactory} of {@link CustomRedisAutoConfiguration}, in place of
+ * the store of {@link SessionAutoConfiguration}.
+ * </p>
+ */
+@Configuration
+@ConditionalOnClass(Session.class)
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@ConditionalOnBean(RedisConnectionFactory.class)
+@ConditionalOnProperty(prefix = LazyRedisSessionProperties.PREFIX, name = "enabled", havingValue = "true")
+@EnableConfigurationProperties({ SessionProperties.class, LazyRedisSessionProperties.class })
+@AutoConfigureBefore(SessionAutoConfiguration.class)
+@AutoConfigureAfter(CustomRedisAutoConfiguration.class)
+@Import(SpringHttpSessionConfiguration.class)
+public class LazyRedisSessionAutoConfiguration {
+	
+	/**
+	 * {@link Bean}: {@link LazyRedisSessionRepository}
+	 * 
+	 * @param connectionFactory {@link RedisConnectionFactory}
+	 * @param sessionProperties {@link SessionProperties}
+	 * @param properties {@link LazyRedisSessionProperties}
+	 * @return {@link LazyRedisSessionRepository}
+	 */
+	@Bean
+	@ConditionalOnMissingBean(SessionRepository.class)
+	public LazyRedisSessionRepository sessionRepository(RedisConnectionFactory connectionFactory,
+		SessionProperties sessionProperties, LazyRedisSessionProperties properties) {
+		
+		LazyRedisSessionRepository sessionRepository = new LazyRedisSessionRepository(connectionFactory);
+		
+		if (sessionProperties.getTimeout() != null) {
+			
+			sessionRepository.setDefaultMaxInactiveInterval(sessionProperties.getTimeout());
+		}
+		
+		sessionRepository.setNamespace(properties.getNamespace());
+		sessionRepository.setTouchInterval(Duration.ofMillis(properties.getTouchInterval()));
+		sessionRepository.setMetadataCacheTtl(Duration.ofMillis(properties.getMetadataCacheTtl()));
+		sessionRepository.setMetadataCacheSize(properties.getMetadataCacheSize());
+		
+		return sessionRepository;
+	}
+}
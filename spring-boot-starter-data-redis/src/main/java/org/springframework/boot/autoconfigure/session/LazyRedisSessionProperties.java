@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure.session;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Properties of {@link org.springframework.session.data.redis.LazyRedisSessionRepository}
+ */
+@ConfigurationProperties(LazyRedisSessionProperties.PREFIX)
+@Data
+public class LazyRedisSessionProperties {
+	
+	/**
+	 * Prefix
+	 */
+	public static final String PREFIX = "spring.session.redis.lazy";
+	
+	/**
+	 * Enabled
+	 */
+	private boolean enabled;
+	
+	/**
+	 * Namespace of keys
+	 */
+	private String namespace = "spring:session";
+	
+	/**
+	 * Minimum interval to write the last accessed time in milliseconds
+	 */
+	private long touchInterval = 10000;
+	
+	/**
+	 * TTL of the local cache of session metadata in milliseconds, or disabled if 0
+	 */
+	private long metadataCacheTtl = 1000;
+	
+	/**
+	 * Maximum number of sessions in the local cache of metadata
+	 */
+	private int metadataCacheSize = 10000;
+}
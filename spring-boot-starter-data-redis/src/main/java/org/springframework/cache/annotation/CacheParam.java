@@ -38,4 +38,18 @@ public @interface CacheParam {
 	 * @return {@code true} if required
 	 */
 	boolean required() default true;
+	
+	/**
+	 * Wrap this parameter in {@code {hashtag}} so that keys with the same value land in the same hash slot of cluster
+	 * 
+	 * @return {@code true} if hash tag
+	 */
+	boolean hashTag() default false;
+	
+	/**
+	 * Tag entries with this parameter as {@code name:value} for group invalidation by tag
+	 * 
+	 * @return {@code true} if tag
+	 */
+	boolean tag() default false;
 }
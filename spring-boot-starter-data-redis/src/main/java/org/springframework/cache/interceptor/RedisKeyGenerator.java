@@ -25,30 +25,114 @@ import java.util.Map.Entry;
 
 import org.springframework.cache.annotation.CacheParam;
 import org.springframework.core.MethodParameter;
+import org.springframework.data.redis.cache.CachePhaseRecorder;
+import org.springframework.data.redis.cache.CachePhaseRecorder.XPhase;
 
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 
 /**
  * Redis {@link KeyGenerator}
+ * 
+ * <p>
+ * Keys are generated as {@link TaggedCacheKey} if any parameter is {@link CacheParam#tag()}.
+ * </p>
+ * 
+ * <p>
+ * Key generation is timed by {@link #getPhaseRecorder()} for {@link CachePhaseRecorder#ALL} caches, because cache names
+ * are not given to {@link KeyGenerator}.
+ * </p>
  */
 public class RedisKeyGenerator implements KeyGenerator {
 	
+	/**
+	 * Wrap the first parameter in {@code {hashtag}} if no parameter is {@link CacheParam#hashTag()}
+	 */
+	@Getter
+	private final boolean hashTag;
+	
+	/**
+	 * {@link CachePhaseRecorder}
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private CachePhaseRecorder phaseRecorder = CachePhaseRecorder.DISABLED;
+	
+	/**
+	 * Constructor
+	 */
+	public RedisKeyGenerator() {
+		
+		this(false);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param hashTag wrap the first parameter in {@code {hashtag}} if no parameter is {@link CacheParam#hashTag()}
+	 */
+	public RedisKeyGenerator(boolean hashTag) {
+		
+		this.hashTag = hashTag;
+	}
+	
 	@Override
 	public Object generate(Object target, Method method, @NonNull Object... params) {
 		
+		long start = this.phaseRecorder.start();
+		
+		try {
+			
+			return this.generateKey(method, params);
+		}
+		finally {
+			
+			this.phaseRecorder.stop(XPhase.KEY_GENERATION, CachePhaseRecorder.ALL, start);
+		}
+	}
+	
+	/**
+	 * Generate a key
+	 * 
+	 * @param method {@link Method}
+	 * @param params parameters
+	 * @return key
+	 */
+	protected Object generateKey(Method method, Object... params) {
+		
 		// Merge parameter name and value
 		Map<String, Object> entries = new LinkedHashMap<>();
+		List<String> tags = new ArrayList<>();
+		String hashTagName = null;
 		
 		for (int index = 0; index < method.getParameterCount(); index++) {
 			
 			CacheParam cacheParam = new MethodParameter(method, index).getParameterAnnotation(CacheParam.class);
+			String name = method.getParameters()[index].getName();
+			
+			if (cacheParam != null && cacheParam.tag()) {
+				
+				tags.add(TaggedCacheKey.tag(name, params[index]));
+			}
 			
 			if (cacheParam != null && !cacheParam.required()) {
 				
 				continue;
 			}
 			
-			entries.put(method.getParameters()[index].getName(), params[index]);
+			entries.put(name, params[index]);
+			
+			if (hashTagName == null && cacheParam != null && cacheParam.hashTag()) {
+				
+				hashTagName = name;
+			}
+		}
+		
+		if (hashTagName == null && this.hashTag && !entries.isEmpty()) {
+			
+			hashTagName = entries.keySet().iterator().next();
 		}
 		
 		// Generate key
@@ -56,10 +140,13 @@ public class RedisKeyGenerator implements KeyGenerator {
 		
 		for (Entry<String, Object> entry : entries.entrySet()) {
 			
-			elements.add(entry.getKey());
-			elements.add(String.valueOf(entry.getValue()));
+			String element = entry.getKey() + ":" + String.valueOf(entry.getValue());
+			
+			elements.add(entry.getKey().equals(hashTagName) ? "{" + element + "}" : element);
 		}
 		
-		return String.join(":", elements);
+		String key = String.join(":", elements);
+		
+		return tags.isEmpty() ? key : new TaggedCacheKey(key, tags);
 	}
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Cache key with tags for group invalidation
+ * 
+ * <p>
+ * Keys are compared and converted to cache keys by {@link #getKey()} only.
+ * </p>
+ */
+@Getter
+@EqualsAndHashCode(of = "key")
+public final class TaggedCacheKey implements Serializable {
+	
+	/**
+	 * Serial version UID
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Key
+	 */
+	private final String key;
+	
+	/**
+	 * Tags
+	 */
+	private final Set<String> tags;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param key key
+	 * @param tags tags
+	 */
+	public TaggedCacheKey(@NonNull String key, @NonNull Collection<String> tags) {
+		
+		this.key = key;
+		this.tags = Collections.unmodifiableSet(new LinkedHashSet<>(tags));
+	}
+	
+	/**
+	 * Create tag
+	 * 
+	 * @param name name of parameter
+	 * @param value value of parameter
+	 * @return tag
+	 */
+	public static String tag(String name, Object value) {
+		
+		return name + ":" + String.valueOf(value);
+	}
+	
+	@Override
+	public String toString() {
+		
+		return this.key;
+	}
+}
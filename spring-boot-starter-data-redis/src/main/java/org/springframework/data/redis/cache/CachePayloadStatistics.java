@@ -0,0 +1,246 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.cache;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import lombok.Data;
+
+/**
+ * Statistics of serialized value sizes by cache name
+ * 
+ * <p>
+ * Sizes are counted in histograms of power-of-two buckets, e.g. bucket {@code 1024} counts sizes from 513 to 1024
+ * bytes.
+ * </p>
+ */
+public class CachePayloadStatistics {
+	
+	/**
+	 * Number of buckets
+	 */
+	private static final int BUCKETS = 32;
+	
+	/**
+	 * {@link XRecorder}s by cache name
+	 */
+	private final Map<String, XRecorder> recorders = new ConcurrentHashMap<>();
+	
+	/**
+	 * Record a written value
+	 * 
+	 * @param name cache name
+	 * @param size value size in bytes
+	 */
+	public void record(String name, int size) {
+		
+		this.recorder(name).record(size);
+	}
+	
+	/**
+	 * Record a skipped value
+	 * 
+	 * @param name cache name
+	 */
+	public void skip(String name) {
+		
+		this.recorder(name).skipped.increment();
+	}
+	
+	/**
+	 * Get statistics of a cache
+	 * 
+	 * @param name cache name
+	 * @return {@link XStatistics} or {@code null}
+	 */
+	public XStatistics get(String name) {
+		
+		XRecorder recorder = this.recorders.get(name);
+		
+		return recorder != null ? recorder.snapshot(name) : null;
+	}
+	
+	/**
+	 * Get statistics of all caches
+	 * 
+	 * @return {@link XStatistics}s in descending order of total bytes
+	 */
+	public List<XStatistics> getAll() {
+		
+		/* @formatter:off */
+		return this.recorders.entrySet().stream()
+			.map(entry -> entry.getValue().snapshot(entry.getKey()))
+			.sorted(Comparator.comparingLong(XStatistics::getTotalBytes).reversed())
+			.collect(Collectors.toList());
+		/* @formatter:on */
+	}
+	
+	/**
+	 * Reset statistics
+	 */
+	public void reset() {
+		
+		this.recorders.clear();
+	}
+	
+	/**
+	 * Get {@link XRecorder}
+	 * 
+	 * @param name cache name
+	 * @return {@link XRecorder}
+	 */
+	private XRecorder recorder(String name) {
+		
+		return this.recorders.computeIfAbsent(name, key -> new XRecorder());
+	}
+	
+	/**
+	 * Recorder of a cache
+	 */
+	private static class XRecorder {
+		
+		/**
+		 * Count of values
+		 */
+		private final LongAdder count = new LongAdder();
+		
+		/**
+		 * Total bytes
+		 */
+		private final LongAdder totalBytes = new LongAdder();
+		
+		/**
+		 * Max bytes
+		 */
+		private final LongAccumulator maxBytes = new LongAccumulator(Math::max, 0);
+		
+		/**
+		 * Count of skipped values
+		 */
+		private final LongAdder skipped = new LongAdder();
+		
+		/**
+		 * Histogram
+		 */
+		private final LongAdder[] buckets = new LongAdder[BUCKETS];
+		
+		/**
+		 * Constructor
+		 */
+		XRecorder() {
+			
+			for (int i = 0; i < BUCKETS; i++) {
+				
+				this.buckets[i] = new LongAdder();
+			}
+		}
+		
+		/**
+		 * Record a value
+		 * 
+		 * @param size size
+		 */
+		void record(int size) {
+			
+			this.count.increment();
+			this.totalBytes.add(size);
+			this.maxBytes.accumulate(size);
+			this.buckets[size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1)].increment();
+		}
+		
+		/**
+		 * Take a snapshot
+		 * 
+		 * @param name cache name
+		 * @return {@link XStatistics}
+		 */
+		XStatistics snapshot(String name) {
+			
+			XStatistics statistics = new XStatistics();
+			long count = this.count.sum();
+			long totalBytes = this.totalBytes.sum();
+			
+			statistics.setName(name);
+			statistics.setCount(count);
+			statistics.setTotalBytes(totalBytes);
+			statistics.setAverageBytes(count > 0 ? totalBytes / count : 0);
+			statistics.setMaxBytes(this.maxBytes.get());
+			statistics.setSkipped(this.skipped.sum());
+			
+			for (int i = 0; i < BUCKETS; i++) {
+				
+				long bucket = this.buckets[i].sum();
+				
+				if (bucket > 0) {
+					
+					statistics.getHistogram().put(1L << i, bucket);
+				}
+			}
+			
+			return statistics;
+		}
+	}
+	
+	/**
+	 * Statistics of a cache
+	 */
+	@Data
+	public static class XStatistics {
+		
+		/**
+		 * Cache name
+		 */
+		private String name;
+		
+		/**
+		 * Count of written values
+		 */
+		private long count;
+		
+		/**
+		 * Total bytes of written values
+		 */
+		private long totalBytes;
+		
+		/**
+		 * Average bytes of written values
+		 */
+		private long averageBytes;
+		
+		/**
+		 * Max bytes of written values
+		 */
+		private long maxBytes;
+		
+		/**
+		 * Count of skipped values
+		 */
+		private long skipped;
+		
+		/**
+		 * Count of values by upper bound of bucket in bytes
+		 */
+		private Map<Long, Long> histogram = new LinkedHashMap<>();
+	}
+}
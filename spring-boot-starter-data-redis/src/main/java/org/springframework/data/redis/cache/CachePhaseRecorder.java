@@ -0,0 +1,406 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.cache;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import org.springframework.util.Assert;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Recorder of durations of cache phases by cache name
+ * 
+ * <p>
+ * Durations are counted in log-linear buckets like HdrHistogram (8 sub-buckets per power of two, about 12.5% precision)
+ * without allocation on the recording path. Only 1 of {@link #getSampleRate()} calls is timed, and nothing is timed
+ * if the sample rate is 0.
+ * </p>
+ */
+public class CachePhaseRecorder {
+	
+	/**
+	 * Disabled {@link CachePhaseRecorder}
+	 */
+	public static final CachePhaseRecorder DISABLED = new CachePhaseRecorder(0);
+	
+	/**
+	 * Cache name of phases not bound to a cache
+	 */
+	public static final String ALL = "*";
+	
+	/**
+	 * Start time of calls not sampled
+	 */
+	public static final long NOT_SAMPLED = 0;
+	
+	/**
+	 * Time 1 of N calls, or disabled if 0
+	 */
+	@Getter
+	private final int sampleRate;
+	
+	/**
+	 * {@link XHistogram}s by cache name, indexed by {@link XPhase#ordinal()}
+	 */
+	private final Map<String, XHistogram[]> histograms = new ConcurrentHashMap<>();
+	
+	/**
+	 * Listeners of new histograms
+	 */
+	private final Set<BiConsumer<String, XPhase>> listeners = ConcurrentHashMap.newKeySet();
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param sampleRate time 1 of N calls, or disabled if 0
+	 */
+	public CachePhaseRecorder(int sampleRate) {
+		
+		Assert.isTrue(sampleRate >= 0, "Sample rate must not be negative");
+		
+		this.sampleRate = sampleRate;
+	}
+	
+	/**
+	 * Start timing
+	 * 
+	 * @return start time in nanoseconds, or {@link #NOT_SAMPLED}
+	 */
+	public long start() {
+		
+		if (this.sampleRate == 0 || this.sampleRate > 1 && ThreadLocalRandom.current().nextInt(this.sampleRate) != 0) {
+			
+			return NOT_SAMPLED;
+		}
+		
+		return System.nanoTime();
+	}
+	
+	/**
+	 * Stop timing
+	 * 
+	 * @param phase {@link XPhase}
+	 * @param name cache name
+	 * @param start start time of {@link #start()}
+	 */
+	public void stop(XPhase phase, String name, long start) {
+		
+		if (start == NOT_SAMPLED) {
+			
+			return;
+		}
+		
+		this.histogram(name, phase).record(System.nanoTime() - start);
+	}
+	
+	/**
+	 * Get {@link XHistogram}
+	 * 
+	 * @param name cache name
+	 * @param phase {@link XPhase}
+	 * @return {@link XHistogram} or {@code null} if not recorded
+	 */
+	public XHistogram get(String name, XPhase phase) {
+		
+		XHistogram[] histograms = this.histograms.get(name);
+		
+		return histograms != null ? histograms[phase.ordinal()] : null;
+	}
+	
+	/**
+	 * Get names of recorded caches
+	 * 
+	 * @return names
+	 */
+	public Set<String> getNames() {
+		
+		return this.histograms.keySet();
+	}
+	
+	/**
+	 * Add a listener of new histograms, called for existing ones too
+	 * 
+	 * @param listener listener of cache name and {@link XPhase}
+	 */
+	public void addListener(@NonNull BiConsumer<String, XPhase> listener) {
+		
+		this.listeners.add(listener);
+		
+		this.histograms.keySet().forEach(name -> {
+			
+			for (XPhase phase : XPhase.values()) {
+				
+				listener.accept(name, phase);
+			}
+		});
+	}
+	
+	/**
+	 * Get or create {@link XHistogram}
+	 * 
+	 * @param name cache name
+	 * @param phase {@link XPhase}
+	 * @return {@link XHistogram}
+	 */
+	private XHistogram histogram(String name, XPhase phase) {
+		
+		XHistogram[] histograms = this.histograms.get(name);
+		
+		if (histograms == null) {
+			
+			histograms = this.create(name);
+		}
+		
+		return histograms[phase.ordinal()];
+	}
+	
+	/**
+	 * Create {@link XHistogram}s of a cache
+	 * 
+	 * @param name cache name
+	 * @return {@link XHistogram}s
+	 */
+	private synchronized XHistogram[] create(String name) {
+		
+		XHistogram[] histograms = this.histograms.get(name);
+		
+		if (histograms != null) {
+			
+			return histograms;
+		}
+		
+		histograms = new XHistogram[XPhase.values().length];
+		
+		for (int i = 0; i < histograms.length; i++) {
+			
+			histograms[i] = new XHistogram();
+		}
+		
+		this.histograms.put(name, histograms);
+		
+		for (BiConsumer<String, XPhase> listener : this.listeners) {
+			
+			for (XPhase phase : XPhase.values()) {
+				
+				listener.accept(name, phase);
+			}
+		}
+		
+		return histograms;
+	}
+	
+	/**
+	 * Phase of cache operations
+	 */
+	public enum XPhase {
+		
+		/**
+		 * Key generation by {@link org.springframework.cache.interceptor.KeyGenerator}
+		 */
+		KEY_GENERATION,
+		
+		/**
+		 * Serialization of values
+		 */
+		SERIALIZATION,
+		
+		/**
+		 * Deserialization of values
+		 */
+		DESERIALIZATION,
+		
+		/**
+		 * Round trip to Redis
+		 */
+		REDIS;
+		
+		/**
+		 * Get tag value
+		 * 
+		 * @return tag value
+		 */
+		public String getTag() {
+			
+			return this.name().toLowerCase(Locale.ROOT).replace('_', '-');
+		}
+	}
+	
+	/**
+	 * Log-linear histogram of durations in nanoseconds
+	 */
+	public static class XHistogram {
+		
+		/**
+		 * Bits of sub-buckets
+		 */
+		private static final int SUB_BUCKET_BITS = 3;
+		
+		/**
+		 * Number of sub-buckets
+		 */
+		private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+		
+		/**
+		 * Number of buckets
+		 */
+		private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+		
+		/**
+		 * Counts by bucket
+		 */
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+		
+		/**
+		 * Count
+		 */
+		private final LongAdder count = new LongAdder();
+		
+		/**
+		 * Total in nanoseconds
+		 */
+		private final LongAdder total = new LongAdder();
+		
+		/**
+		 * Max in nanoseconds
+		 */
+		private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+		
+		/**
+		 * Record a duration
+		 * 
+		 * @param nanos duration in nanoseconds
+		 */
+		public void record(long nanos) {
+			
+			long value = Math.max(0, nanos);
+			
+			this.buckets.incrementAndGet(index(value));
+			this.count.increment();
+			this.total.add(value);
+			this.max.accumulate(value);
+		}
+		
+		/**
+		 * Get count
+		 * 
+		 * @return count
+		 */
+		public long getCount() {
+			
+			return this.count.sum();
+		}
+		
+		/**
+		 * Get total
+		 * 
+		 * @return total in nanoseconds
+		 */
+		public long getTotal() {
+			
+			return this.total.sum();
+		}
+		
+		/**
+		 * Get max
+		 * 
+		 * @return max in nanoseconds
+		 */
+		public long getMax() {
+			
+			return this.max.get();
+		}
+		
+		/**
+		 * Get a percentile
+		 * 
+		 * @param percentile percentile from 0.0 to 1.0
+		 * @return upper bound of the bucket of the percentile in nanoseconds, or 0 if empty
+		 */
+		public long getPercentile(double percentile) {
+			
+			long count = 0;
+			
+			for (int i = 0; i < BUCKETS; i++) {
+				
+				count += this.buckets.get(i);
+			}
+			
+			long rank = (long) Math.ceil(percentile * count);
+			long seen = 0;
+			
+			for (int i = 0; i < BUCKETS && count > 0; i++) {
+				
+				seen += this.buckets.get(i);
+				
+				if (seen >= rank && seen > 0) {
+					
+					return Math.min(upperBound(i), this.getMax());
+				}
+			}
+			
+			return 0;
+		}
+		
+		/**
+		 * Get bucket index of a value
+		 * 
+		 * @param value value
+		 * @return bucket index
+		 */
+		static int index(long value) {
+			
+			if (value < SUB_BUCKETS) {
+				
+				return (int) value;
+			}
+			
+			int exponent = 63 - Long.numberOfLeadingZeros(value);
+			int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+			
+			return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+		}
+		
+		/**
+		 * Get upper bound of a bucket
+		 * 
+		 * @param index bucket index
+		 * @return upper bound (inclusive)
+		 */
+		static long upperBound(int index) {
+			
+			if (index < SUB_BUCKETS) {
+				
+				return index;
+			}
+			
+			int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+			long subBucket = SUB_BUCKETS + index % SUB_BUCKETS;
+			
+			return ((subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+		}
+	}
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+/**
+ * Warm-up of {@link RedisCache} at startup
+ * 
+ * <p>
+ * {@link CacheWarmUpLoader}s run in parallel on a bounded executor, and entries are written in pipelined batches of
+ * {@link CustomRedisCacheWriter}. Loading stops when {@link #getTimeout()} is exceeded. If
+ * {@link #isWaitForCompletion()}, startup waits for the warm-up to finish, otherwise it runs in background.
+ * </p>
+ */
+public class CacheWarmUp implements SmartLifecycle {
+	
+	/**
+	 * {@link Logger}
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(CacheWarmUp.class);
+	
+	/**
+	 * {@link RedisCacheManager}
+	 */
+	private final RedisCacheManager cacheManager;
+	
+	/**
+	 * {@link CacheWarmUpLoader}s
+	 */
+	private final List<CacheWarmUpLoader> loaders;
+	
+	/**
+	 * Number of loaders run in parallel
+	 */
+	@Getter
+	@Setter
+	private int parallelism = 4;
+	
+	/**
+	 * Number of entries written in a batch
+	 */
+	@Getter
+	@Setter
+	private int batchSize = 128;
+	
+	/**
+	 * Time budget of the warm-up
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private Duration timeout = Duration.ofSeconds(60);
+	
+	/**
+	 * Wait for the warm-up to finish at startup
+	 */
+	@Getter
+	@Setter
+	private boolean waitForCompletion;
+	
+	/**
+	 * Number of warmed up entries for each cache
+	 */
+	private final Map<String, LongAdder> progress = new ConcurrentHashMap<>();
+	
+	/**
+	 * Running or not
+	 */
+	private volatile boolean running;
+	
+	/**
+	 * Completed or not
+	 */
+	@Getter
+	private volatile boolean completed;
+	
+	/**
+	 * Deadline in {@link System#nanoTime()}
+	 */
+	private volatile long deadline;
+	
+	/**
+	 * Duration of the last warm-up
+	 */
+	@Getter
+	private volatile Duration duration = Duration.ZERO;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param cacheManager {@link RedisCacheManager}
+	 * @param loaders {@link CacheWarmUpLoader}s
+	 */
+	public CacheWarmUp(@NonNull RedisCacheManager cacheManager, @NonNull List<CacheWarmUpLoader> loaders) {
+		
+		this.cacheManager = cacheManager;
+		this.loaders = new ArrayList<>(loaders);
+	}
+	
+	@Override
+	public void start() {
+		
+		this.running = true;
+		
+		if (this.waitForCompletion) {
+			
+			this.warmUp();
+		}
+		else {
+			
+			CompletableFuture.runAsync(this::warmUp, runnable -> {
+				
+				Thread thread = new Thread(runnable, "cache-warm-up");
+				thread.setDaemon(true);
+				thread.start();
+			});
+		}
+	}
+	
+	@Override
+	public void stop() {
+		
+		this.running = false;
+		this.deadline = System.nanoTime();
+	}
+	
+	@Override
+	public void stop(Runnable callback) {
+		
+		this.stop();
+		
+		callback.run();
+	}
+	
+	@Override
+	public boolean isRunning() {
+		
+		return this.running;
+	}
+	
+	@Override
+	public boolean isAutoStartup() {
+		
+		return true;
+	}
+	
+	@Override
+	public int getPhase() {
+		
+		return Integer.MAX_VALUE;
+	}
+	
+	/**
+	 * Get progress
+	 * 
+	 * @return number of warmed up entries for each cache
+	 */
+	public Map<String, Long> getProgress() {
+		
+		Map<String, Long> progress = new LinkedHashMap<>();
+		
+		this.progress.forEach((name, count) -> progress.put(name, count.sum()));
+		
+		return progress;
+	}
+	
+	/**
+	 * Warm up caches
+	 * 
+	 * @return {@code true} if completed in the time budget
+	 */
+	public boolean warmUp() {
+		
+		Assert.isTrue(this.parallelism > 0, "Parallelism must be positive");
+		Assert.isTrue(this.batchSize > 0, "Batch size must be positive");
+		
+		if (this.loaders.isEmpty()) {
+			
+			this.completed = true;
+			
+			return true;
+		}
+		
+		long start = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.parallelism, this.loaders.size()),
+			new CustomizableThreadFactory("cache-warm-up-"));
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		
+		this.deadline = start + this.timeout.toNanos();
+		this.completed = false;
+		
+		try {
+			
+			for (CacheWarmUpLoader loader : this.loaders) {
+				
+				futures.add(CompletableFuture.runAsync(() -> this.load(loader), executor));
+			}
+			
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(this.timeout.toMillis(),
+				TimeUnit.MILLISECONDS);
+			
+			this.completed = true;
+		}
+		catch (InterruptedException e) {
+			
+			Thread.currentThread().interrupt();
+			
+			logger.warn("Interrupted while warming up caches");
+		}
+		catch (TimeoutException e) {
+			
+			logger.warn("Cache warm-up exceeded the time budget of {} ms", this.timeout.toMillis());
+		}
+		catch (ExecutionException e) {
+			
+			logger.warn("Failed to warm up caches", e.getCause());
+		}
+		finally {
+			
+			this.deadline = System.nanoTime();
+			this.duration = Duration.ofNanos(System.nanoTime() - start);
+			
+			executor.shutdownNow();
+		}
+		
+		logger.info("Warmed up caches {} in {} ms", this.getProgress(), this.duration.toMillis());
+		
+		return this.completed;
+	}
+	
+	/**
+	 * Load entries of a loader
+	 * 
+	 * @param loader {@link CacheWarmUpLoader}
+	 */
+	protected void load(CacheWarmUpLoader loader) {
+		
+		String name = loader.getCacheName();
+		Cache target = this.cacheManager.getCache(name);
+		
+		Assert.notNull(target, String.format("Cache '%s' not found", name));
+		
+		if (target instanceof TransactionAwareCacheDecorator) {
+			
+			target = ((TransactionAwareCacheDecorator) target).getTargetCache();
+		}
+		
+		Assert.isInstanceOf(RedisCache.class, target, String.format("Cache '%s' is not a RedisCache", name));
+		
+		RedisCache cache = (RedisCache) target;
+		
+		LongAdder count = this.progress.computeIfAbsent(name, key -> new LongAdder());
+		Map<byte[], byte[]> batch = new LinkedHashMap<>();
+		
+		loader.load((key, value) -> {
+			
+			if (System.nanoTime() - this.deadline >= 0) {
+				
+				throw new CancellationException(String.format("Warm-up of cache '%s' is cancelled", name));
+			}
+			
+			Object cacheValue = cache.preProcessCacheValue(value);
+			
+			if (cacheValue == null) {
+				
+				return;
+			}
+			
+			batch.put(cache.serializeCacheKey(cache.createCacheKey(key)), cache.serializeCacheValue(cacheValue));
+			
+			if (batch.size() >= this.batchSize) {
+				
+				this.write(cache, batch);
+				count.add(batch.size());
+				batch.clear();
+			}
+		});
+		
+		if (!batch.isEmpty()) {
+			
+			this.write(cache, batch);
+			count.add(batch.size());
+		}
+	}
+	
+	/**
+	 * Write a batch
+	 * 
+	 * @param cache {@link RedisCache}
+	 * @param batch batch of serialized keys and values
+	 */
+	protected void write(RedisCache cache, Map<byte[], byte[]> batch) {
+		
+		RedisCacheWriter cacheWriter = cache.getNativeCache();
+		Duration ttl = cache.getCacheConfiguration().getTtl();
+		
+		if (cacheWriter instanceof CustomRedisCacheWriter) {
+			
+			((CustomRedisCacheWriter) cacheWriter).put(cache.getName(), batch, ttl);
+		}
+		else {
+			
+			batch.forEach((key, value) -> cacheWriter.put(cache.getName(), key, value, ttl));
+		}
+	}
+}
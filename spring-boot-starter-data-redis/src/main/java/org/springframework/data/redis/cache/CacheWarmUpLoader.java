@@ -0,0 +1,39 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.cache;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Loader of entries for {@link CacheWarmUp}
+ */
+public interface CacheWarmUpLoader {
+	
+	/**
+	 * Get cache name
+	 * 
+	 * @return cache name
+	 */
+	String getCacheName();
+	
+	/**
+	 * Load entries
+	 * 
+	 * @param writer writer of a key and a value, which stops loading if the time budget is exceeded
+	 */
+	void load(BiConsumer<Object, Object> writer);
+}
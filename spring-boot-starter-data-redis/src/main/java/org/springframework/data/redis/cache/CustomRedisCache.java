@@ -0,0 +1,390 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.cache;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.interceptor.TaggedCacheKey;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.CachePhaseRecorder.XPhase;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.Setter;
+
+/**
+ * Custom {@link RedisCache}
+ * 
+ * <p>
+ * Entries put with {@link TaggedCacheKey} are tagged by {@link CustomRedisCacheWriter}.
+ * </p>
+ * 
+ * <p>
+ * A {@link CompletableFuture} put as a value is kept in flight locally, and its result is written when it completes
+ * normally. Lookups return the in-flight future, or an already-completed future for a written result. Use
+ * {@code @Cacheable(sync = true)} to share the in-flight future between all concurrent misses.
+ * </p>
+ * 
+ * <p>
+ * If {@link #getNegativeTtl()} is set, {@code null} values are cached as {@link #NEGATIVE_VALUE} for the negative TTL
+ * instead of a serialized {@link NullValue}, even if null values are not allowed. Values serialized to the same bytes
+ * as the sentinel are rejected, so it is never mistaken for a value of a {@code String} or {@code byte[]} serializer.
+ * </p>
+ * 
+ * <p>
+ * Serialization and deserialization of values are timed by {@link CachePhaseRecorder}.
+ * </p>
+ */
+public class CustomRedisCache extends RedisCache {
+	
+	/**
+	 * {@link Logger}
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(CustomRedisCache.class);
+	
+	/**
+	 * Sentinel of negative entries, starting with bytes invalid in UTF-8 and not produced by JDK or JSON serialization
+	 */
+	public static final byte[] NEGATIVE_VALUE = { (byte) 0xFF, (byte) 0xFE, 0, 'n', 'e', 'g', 'a', 't', 'i', 'v', 'e',
+		0, (byte) 0xFE, (byte) 0xFF };
+	
+	/**
+	 * In-flight {@link CompletableFuture}s by key
+	 */
+	private final Map<Object, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+	
+	/**
+	 * {@link Supplier} of TTL of negative entries, negative caching is disabled if {@code null} is supplied
+	 */
+	@Setter
+	@NonNull
+	private Supplier<Duration> negativeTtl = () -> null;
+	
+	/**
+	 * Count of negative hits
+	 */
+	private final LongAdder negativeHitCount = new LongAdder();
+	
+	/**
+	 * {@link CachePhaseRecorder}
+	 */
+	@Setter
+	@NonNull
+	private CachePhaseRecorder phaseRecorder = CachePhaseRecorder.DISABLED;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param name name
+	 * @param cacheWriter {@link RedisCacheWriter}
+	 * @param cacheConfig {@link RedisCacheConfiguration}
+	 */
+	protected CustomRedisCache(String name, RedisCacheWriter cacheWriter, RedisCacheConfiguration cacheConfig) {
+		
+		super(name, cacheWriter, cacheConfig);
+	}
+	
+	@Override
+	protected Object lookup(Object key) {
+		
+		CompletableFuture<?> future = this.inFlight.get(key);
+		
+		if (future != null) {
+			
+			return future;
+		}
+		
+		byte[] value = this.getNativeCache().get(this.getName(), this.serializeCacheKey(this.createCacheKey(key)));
+		
+		if (value == null) {
+			
+			return null;
+		}
+		
+		if (Arrays.equals(value, NEGATIVE_VALUE)) {
+			
+			this.negativeHitCount.increment();
+		}
+		
+		return this.toCacheValue(value);
+	}
+	
+	@Override
+	protected byte[] serializeCacheValue(Object value) {
+		
+		long start = this.phaseRecorder.start();
+		
+		try {
+			
+			byte[] serialized = super.serializeCacheValue(value);
+			
+			if (Arrays.equals(serialized, NEGATIVE_VALUE)) {
+				
+				throw new IllegalArgumentException(
+					String.format("Value of cache '%s' is serialized to the negative sentinel", this.getName()));
+			}
+			
+			return serialized;
+		}
+		finally {
+			
+			this.phaseRecorder.stop(XPhase.SERIALIZATION, this.getName(), start);
+		}
+	}
+	
+	@Override
+	protected Object deserializeCacheValue(byte[] value) {
+		
+		long start = this.phaseRecorder.start();
+		
+		try {
+			
+			return super.deserializeCacheValue(value);
+		}
+		finally {
+			
+			this.phaseRecorder.stop(XPhase.DESERIALIZATION, this.getName(), start);
+		}
+	}
+	
+	@Override
+	protected Object fromStoreValue(Object storeValue) {
+		
+		return storeValue == NullValue.INSTANCE ? null : super.fromStoreValue(storeValue);
+	}
+	
+	@Override
+	public void put(Object key, Object value) {
+		
+		Duration negativeTtl = value == null ? this.getNegativeTtl() : null;
+		
+		if (negativeTtl != null) {
+			
+			this.getNativeCache().put(this.getName(), this.serializeCacheKey(this.createCacheKey(key)), NEGATIVE_VALUE,
+				negativeTtl);
+			
+			this.tag(key);
+			
+			return;
+		}
+		
+		if (value instanceof CompletableFuture) {
+			
+			this.putAsync(key, (CompletableFuture<?>) value);
+			
+			return;
+		}
+		
+		super.put(key, value);
+		
+		this.tag(key);
+	}
+	
+	@Override
+	public ValueWrapper putIfAbsent(Object key, Object value) {
+		
+		Duration negativeTtl = value == null ? this.getNegativeTtl() : null;
+		
+		if (negativeTtl != null) {
+			
+			byte[] existing = this.getNativeCache().putIfAbsent(this.getName(),
+				this.serializeCacheKey(this.createCacheKey(key)), NEGATIVE_VALUE, negativeTtl);
+			
+			if (existing == null) {
+				
+				this.tag(key);
+				
+				return null;
+			}
+			
+			return new SimpleValueWrapper(this.fromStoreValue(this.toCacheValue(existing)));
+		}
+		
+		if (value instanceof CompletableFuture) {
+			
+			ValueWrapper existing = this.get(key);
+			
+			if (existing == null) {
+				
+				this.putAsync(key, (CompletableFuture<?>) value);
+			}
+			
+			return existing;
+		}
+		
+		ValueWrapper wrapper = super.putIfAbsent(key, value);
+		
+		if (wrapper == null) {
+			
+			this.tag(key);
+		}
+		
+		return wrapper;
+	}
+	
+	@Override
+	public void evict(Object key) {
+		
+		this.inFlight.remove(key);
+		
+		super.evict(key);
+	}
+	
+	@Override
+	public void clear() {
+		
+		this.inFlight.clear();
+		
+		super.clear();
+	}
+	
+	/**
+	 * Put a {@link CompletableFuture} without blocking
+	 * 
+	 * @param key key
+	 * @param future {@link CompletableFuture}
+	 */
+	protected void putAsync(Object key, CompletableFuture<?> future) {
+		
+		this.inFlight.put(key, future);
+		
+		future.whenComplete((value, e) -> {
+			
+			try {
+				
+				if (e == null && this.inFlight.get(key) == future) {
+					
+					super.put(key, new XCompletedValue(value));
+					
+					this.tag(key);
+				}
+			}
+			catch (RuntimeException ex) {
+				
+				logger.warn(String.format("Failed to put completed value of cache '%s'", this.getName()), ex);
+			}
+			finally {
+				
+				this.inFlight.remove(key, future);
+			}
+		});
+	}
+	
+	/**
+	 * Get TTL of negative entries
+	 * 
+	 * @return TTL of negative entries, or {@code null} if negative caching is disabled
+	 */
+	public Duration getNegativeTtl() {
+		
+		return this.negativeTtl.get();
+	}
+	
+	/**
+	 * Get count of negative hits
+	 * 
+	 * @return count of negative hits
+	 */
+	public long getNegativeHitCount() {
+		
+		return this.negativeHitCount.sum();
+	}
+	
+	/**
+	 * Convert a stored value
+	 * 
+	 * @param value stored value
+	 * @return {@link NullValue} for {@link #NEGATIVE_VALUE}, completed {@link CompletableFuture} for
+	 * {@link XCompletedValue}, or deserialized value
+	 */
+	protected Object toCacheValue(byte[] value) {
+		
+		if (Arrays.equals(value, NEGATIVE_VALUE)) {
+			
+			return NullValue.INSTANCE;
+		}
+		
+		Object cacheValue = this.deserializeCacheValue(value);
+		
+		if (cacheValue instanceof XCompletedValue) {
+			
+			return CompletableFuture.completedFuture(((XCompletedValue) cacheValue).getValue());
+		}
+		
+		return cacheValue;
+	}
+	
+	/**
+	 * Get number of in-flight {@link CompletableFuture}s
+	 * 
+	 * @return number of in-flight {@link CompletableFuture}s
+	 */
+	public int getInFlightCount() {
+		
+		return this.inFlight.size();
+	}
+	
+	/**
+	 * Tag a key
+	 * 
+	 * @param key key
+	 */
+	protected void tag(Object key) {
+		
+		if (!(key instanceof TaggedCacheKey) || !(this.getNativeCache() instanceof CustomRedisCacheWriter)) {
+			
+			return;
+		}
+		
+		TaggedCacheKey taggedKey = (TaggedCacheKey) key;
+		
+		((CustomRedisCacheWriter) this.getNativeCache()).tag(this.getName(),
+			this.serializeCacheKey(this.createCacheKey(key)), taggedKey.getTags(),
+			this.getCacheConfiguration().getTtl());
+	}
+	
+	/**
+	 * Completed value of {@link CompletableFuture}
+	 */
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class XCompletedValue implements Serializable {
+		
+		/**
+		 * Serial version UID
+		 */
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * Value
+		 */
+		private Object value;
+	}
+}
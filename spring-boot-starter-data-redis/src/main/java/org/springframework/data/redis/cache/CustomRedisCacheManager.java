@@ -16,20 +16,35 @@
 
 package org.springframework.data.redis.cache;
 
+import java.io.Closeable;
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
 import org.springframework.util.Assert;
 import org.springframework.util.ReflectionUtils;
 
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 
 /**
  * Custom {@link RedisCacheManager}
  */
-public class CustomRedisCacheManager extends RedisCacheManager {
+public class CustomRedisCacheManager extends RedisCacheManager implements DisposableBean {
+	
+	/**
+	 * {@link Logger}
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(CustomRedisCacheManager.class);
 	
 	/**
 	 * Name for {@link #getCacheWriter(RedisCacheManager)}
@@ -51,6 +66,30 @@ public class CustomRedisCacheManager extends RedisCacheManager {
 	 */
 	private Map<String, RedisCacheConfiguration> dynamicCacheConfigs = new ConcurrentHashMap<>();
 	
+	/**
+	 * Names of dynamic caches with sliding expiration
+	 */
+	private Set<String> slidingCacheNames = ConcurrentHashMap.newKeySet();
+	
+	/**
+	 * TTL of negative entries by cache name
+	 */
+	private Map<String, Duration> negativeTtls = new ConcurrentHashMap<>();
+	
+	/**
+	 * Default TTL of negative entries, or negative caching is disabled if {@code null}
+	 */
+	@Getter
+	private volatile Duration defaultNegativeTtl;
+	
+	/**
+	 * {@link CachePhaseRecorder} of caches
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private CachePhaseRecorder phaseRecorder = CachePhaseRecorder.DISABLED;
+	
 	/**
 	 * Constructor
 	 * 
@@ -58,7 +97,7 @@ public class CustomRedisCacheManager extends RedisCacheManager {
 	 */
 	public CustomRedisCacheManager(@NonNull RedisCacheManager sourceCacheManager) {
 		
-		this(sourceCacheManager, getCacheWriter(sourceCacheManager));
+		this(sourceCacheManager, new CustomRedisCacheWriter(getCacheWriter(sourceCacheManager)));
 	}
 	
 	/**
@@ -99,22 +138,218 @@ public class CustomRedisCacheManager extends RedisCacheManager {
 	 */
 	public CustomRedisCacheManager setDynamicCacheConfiguration(String name, RedisCacheConfiguration cacheConfig) {
 		
+		return this.setDynamicCacheConfiguration(name, cacheConfig, false);
+	}
+	
+	/**
+	 * Set dynamic {@link RedisCacheConfiguration}
+	 * 
+	 * @param name name
+	 * @param cacheConfig {@link RedisCacheConfiguration}
+	 * @param slidingExpiration refresh TTL on reads (expire after last access)
+	 * @return {@link CustomRedisCacheManager}
+	 */
+	public CustomRedisCacheManager setDynamicCacheConfiguration(String name, RedisCacheConfiguration cacheConfig,
+		boolean slidingExpiration) {
+		
 		this.dynamicCacheConfigs.put(name, cacheConfig);
 		
+		if (slidingExpiration) {
+			
+			this.slidingCacheNames.add(name);
+		}
+		else {
+			
+			this.slidingCacheNames.remove(name);
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Set dynamic {@link RedisCacheConfiguration}
+	 * 
+	 * @param name name
+	 * @param cacheConfig {@link RedisCacheConfiguration}
+	 * @param slidingExpiration refresh TTL on reads (expire after last access)
+	 * @param negativeTtl TTL of negative entries, or {@code null} for the default
+	 * @return {@link CustomRedisCacheManager}
+	 */
+	public CustomRedisCacheManager setDynamicCacheConfiguration(String name, RedisCacheConfiguration cacheConfig,
+		boolean slidingExpiration, Duration negativeTtl) {
+		
+		return this.setDynamicCacheConfiguration(name, cacheConfig, slidingExpiration).setNegativeTtl(name,
+			negativeTtl);
+	}
+	
+	/**
+	 * Set default TTL of negative entries
+	 * 
+	 * @param negativeTtl TTL of negative entries, or {@code null} to disable negative caching
+	 * @return {@link CustomRedisCacheManager}
+	 */
+	public CustomRedisCacheManager setDefaultNegativeTtl(Duration negativeTtl) {
+		
+		Assert.isTrue(negativeTtl == null || CustomRedisCacheWriter.isPositive(negativeTtl),
+			"TTL of negative entries must be positive");
+		
+		this.defaultNegativeTtl = negativeTtl;
+		
 		return this;
 	}
 	
+	/**
+	 * Set TTL of negative entries of a cache
+	 * 
+	 * @param name name
+	 * @param negativeTtl TTL of negative entries, or {@code null} for the default
+	 * @return {@link CustomRedisCacheManager}
+	 */
+	public CustomRedisCacheManager setNegativeTtl(String name, Duration negativeTtl) {
+		
+		Assert.isTrue(negativeTtl == null || CustomRedisCacheWriter.isPositive(negativeTtl),
+			"TTL of negative entries must be positive");
+		
+		if (negativeTtl != null) {
+			
+			this.negativeTtls.put(name, negativeTtl);
+		}
+		else {
+			
+			this.negativeTtls.remove(name);
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Get TTL of negative entries of a cache
+	 * 
+	 * @param name name
+	 * @return TTL of negative entries, or {@code null} if negative caching is disabled
+	 */
+	public Duration getNegativeTtl(String name) {
+		
+		return this.negativeTtls.getOrDefault(name, this.defaultNegativeTtl);
+	}
+	
+	/**
+	 * Get count of negative hits of all caches
+	 * 
+	 * @return count of negative hits
+	 */
+	public long getNegativeHitCount() {
+		
+		long count = 0;
+		
+		for (String name : this.getCacheNames()) {
+			
+			Cache cache = this.lookupCache(name);
+			
+			if (cache instanceof TransactionAwareCacheDecorator) {
+				
+				cache = ((TransactionAwareCacheDecorator) cache).getTargetCache();
+			}
+			
+			if (cache instanceof CustomRedisCache) {
+				
+				count += ((CustomRedisCache) cache).getNegativeHitCount();
+			}
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Whether sliding expiration is enabled
+	 * 
+	 * @param name name
+	 * @return enabled or not
+	 */
+	public boolean isSlidingExpiration(String name) {
+		
+		return this.slidingCacheNames.contains(name);
+	}
+	
 	@Override
 	protected RedisCache getMissingCache(String name) {
 		
 		if (this.dynamicCacheConfigs.containsKey(name)) {
 			
-			return this.createRedisCache(name, this.dynamicCacheConfigs.get(name));
+			RedisCacheConfiguration cacheConfig = this.dynamicCacheConfigs.get(name);
+			
+			if (this.slidingCacheNames.contains(name)) {
+				
+				this.enableSlidingExpiration(name, cacheConfig);
+			}
+			
+			return this.createRedisCache(name, cacheConfig);
 		}
 		
 		return super.getMissingCache(name);
 	}
 	
+	@Override
+	protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfig) {
+		
+		CustomRedisCache cache = new CustomRedisCache(name, getCacheWriter(this),
+			cacheConfig != null ? cacheConfig : getDefaultCacheConfiguration(this));
+		
+		cache.setNegativeTtl(() -> this.getNegativeTtl(name));
+		cache.setPhaseRecorder(this.phaseRecorder);
+		
+		return cache;
+	}
+	
+	/**
+	 * Evict entries of all caches by tag
+	 * 
+	 * @param tag tag, e.g. {@code productId:42}
+	 * @return number of evicted entries
+	 * @throws IllegalStateException if the cache writer does not support tags
+	 */
+	public long evictByTag(String tag) throws IllegalStateException {
+		
+		RedisCacheWriter cacheWriter = getCacheWriter(this);
+		
+		Assert.state(cacheWriter instanceof CustomRedisCacheWriter,
+			String.format("Tags are not supported by %s", cacheWriter.getClass().getSimpleName()));
+		
+		return ((CustomRedisCacheWriter) cacheWriter).evictByTag(tag);
+	}
+	
+	@Override
+	public void destroy() throws Exception {
+		
+		RedisCacheWriter cacheWriter = getCacheWriter(this);
+		
+		if (cacheWriter instanceof Closeable) {
+			
+			((Closeable) cacheWriter).close();
+		}
+	}
+	
+	/**
+	 * Enable sliding expiration
+	 * 
+	 * @param name name
+	 * @param cacheConfig {@link RedisCacheConfiguration}
+	 */
+	protected void enableSlidingExpiration(String name, RedisCacheConfiguration cacheConfig) {
+		
+		RedisCacheWriter cacheWriter = getCacheWriter(this);
+		
+		if (cacheWriter instanceof CustomRedisCacheWriter) {
+			
+			((CustomRedisCacheWriter) cacheWriter).enableSlidingExpiration(name, cacheConfig.getTtl());
+		}
+		else {
+			
+			logger.warn("Sliding expiration of cache '{}' is not supported by {}", name,
+				cacheWriter.getClass().getSimpleName());
+		}
+	}
+	
 	/**
 	 * Get {@link RedisCacheWriter}
 	 * 
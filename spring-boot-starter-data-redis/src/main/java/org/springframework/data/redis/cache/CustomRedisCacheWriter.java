@@ -0,0 +1,1645 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.cache;
+
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.cache.CachePhaseRecorder.XPhase;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.lettuce.CustomLettuceConnectionFactory;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.cluster.api.async.RedisAdvancedClusterAsyncCommands;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+
+/**
+ * Custom {@link RedisCacheWriter}
+ * 
+ * <p>
+ * Reads ({@code GET} and {@code MGET}) are executed by the read {@link RedisConnectionFactory}, e.g. replicas.
+ * Writes and locks are delegated to the source {@link RedisCacheWriter} on master. Bulk writes are pipelined in
+ * batches of {@link #getPipelineFlushSize()} commands.
+ * </p>
+ * 
+ * <p>
+ * In cluster, keys of bulk operations are grouped by hash slot and the batches of each node are executed in
+ * parallel by {@link #getClusterExecutor()}, or by a pool of {@link #getClusterThreads()} owned by this writer if not
+ * set. {@link #clean(String, byte[])} scans each master by {@code SCAN} instead of {@code KEYS}.
+ * </p>
+ * 
+ * <p>
+ * Caches enabled by {@link #enableSlidingExpiration(String, Duration)} refresh TTL of read keys by
+ * {@link SlidingExpiration}.
+ * </p>
+ * 
+ * <p>
+ * Keys can be tagged by {@link #tag(String, byte[], Collection, Duration)} into a Redis set per tag, whose TTL is kept
+ * no shorter than the TTL of its keys, and evicted by {@link #evictByTag(String)} in bounded batches.
+ * </p>
+ * 
+ * <p>
+ * If {@link #getLocalCache()} is set, serialized values of {@link #getLocalCacheNames()} (or all caches if empty) are
+ * also kept off heap in front of Redis for at most {@link #getLocalCacheTtl()}, and no longer than the sliding TTL of
+ * the cache or the remaining TTL of the key in Redis. Writes through this writer update or invalidate the local tier,
+ * while writes by other instances are seen after the local TTL.
+ * </p>
+ * 
+ * <p>
+ * Sizes of written values are recorded in {@link #getPayloadStatistics()}. Values larger than
+ * {@link #getMaxValueSize()} are handled by {@link #getOversizedValuePolicy()}.
+ * </p>
+ * 
+ * <p>
+ * Round trips of reads and writes to Redis are timed by {@link #getPhaseRecorder()}.
+ * </p>
+ */
+public class CustomRedisCacheWriter implements RedisCacheWriter, Closeable {
+	
+	/**
+	 * {@link Logger}
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(CustomRedisCacheWriter.class);
+	
+	/**
+	 * Name for {@link #getSleepTime(RedisCacheWriter)}
+	 */
+	private static final String SLEEP_TIME_NAME = "sleepTime";
+	
+	/**
+	 * Suffix of lock key compatible with {@link DefaultRedisCacheWriter}
+	 */
+	private static final String LOCK_KEY_SUFFIX = "~lock";
+	
+	/**
+	 * Prefix of tag keys
+	 */
+	private static final String TAG_KEY_PREFIX = "~tag:";
+	
+	/**
+	 * Jedis is present or not
+	 */
+	private static final boolean JEDIS_PRESENT = ClassUtils.isPresent("redis.clients.jedis.JedisCluster",
+		CustomRedisCacheWriter.class.getClassLoader());
+	
+	/**
+	 * Delegate for writes and locks
+	 */
+	@Getter
+	private final RedisCacheWriter delegate;
+	
+	/**
+	 * {@link RedisConnectionFactory} of master
+	 */
+	@Getter
+	private final RedisConnectionFactory connectionFactory;
+	
+	/**
+	 * {@link RedisConnectionFactory} for reads
+	 */
+	@Getter
+	private final RedisConnectionFactory readConnectionFactory;
+	
+	/**
+	 * Sleep time between lock checks
+	 */
+	private final Duration sleepTime;
+	
+	/**
+	 * Timeout of {@code GET} ({@link Duration#ZERO} for the command timeout)
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private Duration readTimeout = Duration.ZERO;
+	
+	/**
+	 * Timeout of bulk reads ({@link Duration#ZERO} for the command timeout)
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private Duration bulkReadTimeout = Duration.ZERO;
+	
+	/**
+	 * Number of commands to sync a pipeline of bulk writes
+	 */
+	@Getter
+	@Setter
+	private int pipelineFlushSize = 128;
+	
+	/**
+	 * {@link Executor} of per-node batches of bulk operations in cluster, or {@code null} for the own pool
+	 */
+	@Getter
+	@Setter
+	private Executor clusterExecutor;
+	
+	/**
+	 * Number of threads of the own pool for per-node batches
+	 */
+	@Getter
+	@Setter
+	private int clusterThreads = 8;
+	
+	/**
+	 * Own pool for per-node batches, or {@code null} if not created
+	 */
+	private ExecutorService ownClusterExecutor;
+	
+	/**
+	 * Interval to refresh TTL of sliding expiration
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private Duration slidingFlushInterval = Duration.ofMillis(200);
+	
+	/**
+	 * {@link SlidingExpiration} or {@code null} if not enabled
+	 */
+	@Getter
+	private volatile SlidingExpiration slidingExpiration;
+	
+	/**
+	 * Count of reads degraded to misses by timeout
+	 */
+	private final LongAdder degradedReadCount = new LongAdder();
+	
+	/**
+	 * Local tier of {@link OffHeapCacheStore}, or disabled if {@code null}
+	 */
+	@Getter
+	@Setter
+	private OffHeapCacheStore localCache;
+	
+	/**
+	 * Names of caches in the local tier, or all caches if empty
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private Set<String> localCacheNames = Collections.emptySet();
+	
+	/**
+	 * Maximum time to live in the local tier
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private Duration localCacheTtl = Duration.ofSeconds(60);
+	
+	/**
+	 * {@link CachePayloadStatistics}
+	 */
+	@Getter
+	private final CachePayloadStatistics payloadStatistics = new CachePayloadStatistics();
+	
+	/**
+	 * Max value size in bytes, or unlimited if 0
+	 */
+	@Getter
+	@Setter
+	private int maxValueSize;
+	
+	/**
+	 * {@link XOversizedValuePolicy}
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private XOversizedValuePolicy oversizedValuePolicy = XOversizedValuePolicy.SKIP;
+	
+	/**
+	 * {@link CachePhaseRecorder}
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private CachePhaseRecorder phaseRecorder = CachePhaseRecorder.DISABLED;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param delegate delegate {@link RedisCacheWriter}
+	 */
+	public CustomRedisCacheWriter(RedisCacheWriter delegate) {
+		
+		this(delegate, getReadConnectionFactory(MockRedisCacheWriter.getConnectionFactory(delegate)));
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param delegate delegate {@link RedisCacheWriter}
+	 * @param readConnectionFactory {@link RedisConnectionFactory} for reads
+	 */
+	public CustomRedisCacheWriter(@NonNull RedisCacheWriter delegate,
+		@NonNull RedisConnectionFactory readConnectionFactory) {
+		
+		this.delegate = delegate;
+		this.connectionFactory = MockRedisCacheWriter.getConnectionFactory(delegate);
+		this.readConnectionFactory = readConnectionFactory;
+		this.sleepTime = getSleepTime(delegate);
+	}
+	
+	@Override
+	public void put(String name, byte[] key, byte[] value, Duration ttl) {
+		
+		if (!this.accept(name, key, value)) {
+			
+			this.remove(name, key);
+			
+			return;
+		}
+		
+		long start = this.phaseRecorder.start();
+		
+		this.delegate.put(name, key, value, ttl);
+		
+		this.phaseRecorder.stop(XPhase.REDIS, name, start);
+		
+		OffHeapCacheStore localCache = this.getLocalCache(name);
+		
+		if (localCache != null) {
+			
+			localCache.put(name, key, value, this.getLocalCacheTtl(ttl));
+		}
+	}
+	
+	@Override
+	public byte[] get(String name, byte[] key) {
+		
+		Assert.notNull(name, "Name must not be null!");
+		Assert.notNull(key, "Key must not be null!");
+		
+		OffHeapCacheStore localCache = this.getLocalCache(name);
+		byte[] value = localCache != null ? localCache.get(key) : null;
+		
+		if (value != null) {
+			
+			this.touch(name, key);
+			
+			return value;
+		}
+		
+		long start = this.phaseRecorder.start();
+		
+		if (this.readConnectionFactory == this.connectionFactory && !isPositive(this.readTimeout)) {
+			
+			value = this.delegate.get(name, key);
+		}
+		else {
+			
+			value = this.executeRead(name, this.readTimeout, connection -> connection.get(key),
+				commands -> commands.get(key), null);
+		}
+		
+		this.phaseRecorder.stop(XPhase.REDIS, name, start);
+		
+		if (value != null) {
+			
+			this.touch(name, key);
+			
+			if (localCache != null) {
+				
+				this.putLocalCache(localCache, name, Collections.singletonList(key), Collections.singletonList(value));
+			}
+		}
+		
+		return value;
+	}
+	
+	@Override
+	public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+		
+		if (!this.accept(name, key, value)) {
+			
+			// Note: Return the existing value, since null means written
+			return this.get(name, key);
+		}
+		
+		long start = this.phaseRecorder.start();
+		byte[] existing = this.delegate.putIfAbsent(name, key, value, ttl);
+		
+		this.phaseRecorder.stop(XPhase.REDIS, name, start);
+		
+		OffHeapCacheStore localCache = this.getLocalCache(name);
+		
+		if (localCache != null) {
+			
+			if (existing != null) {
+				
+				this.putLocalCache(localCache, name, Collections.singletonList(key),
+					Collections.singletonList(existing));
+			}
+			else {
+				
+				localCache.put(name, key, value, this.getLocalCacheTtl(ttl));
+			}
+		}
+		
+		return existing;
+	}
+	
+	@Override
+	public void remove(String name, byte[] key) {
+		
+		OffHeapCacheStore localCache = this.getLocalCache(name);
+		
+		if (localCache != null) {
+			
+			localCache.remove(key);
+		}
+		
+		long start = this.phaseRecorder.start();
+		
+		this.delegate.remove(name, key);
+		
+		this.phaseRecorder.stop(XPhase.REDIS, name, start);
+	}
+	
+	@Override
+	public void clean(String name, byte[] pattern) {
+		
+		Assert.notNull(name, "Name must not be null!");
+		Assert.notNull(pattern, "Pattern must not be null!");
+		
+		OffHeapCacheStore localCache = this.getLocalCache(name);
+		
+		if (localCache != null) {
+			
+			localCache.clear(name);
+		}
+		
+		RedisConnection connection = this.connectionFactory.getConnection();
+		boolean cluster = connection instanceof RedisClusterConnection;
+		
+		try {
+			
+			if (cluster) {
+				
+				this.clean(name, (RedisClusterConnection) connection, pattern);
+			}
+		}
+		finally {
+			
+			connection.close();
+		}
+		
+		if (!cluster) {
+			
+			this.delegate.clean(name, pattern);
+		}
+	}
+	
+	/**
+	 * Get values
+	 * 
+	 * @param name name
+	 * @param keys keys
+	 * @return values in order of keys, {@code null} if not found
+	 */
+	public List<byte[]> get(String name, List<byte[]> keys) {
+		
+		Assert.notNull(name, "Name must not be null!");
+		Assert.notNull(keys, "Keys must not be null!");
+		
+		if (keys.isEmpty()) {
+			
+			return Collections.emptyList();
+		}
+		
+		OffHeapCacheStore localCache = this.getLocalCache(name);
+		
+		if (localCache == null) {
+			
+			return this.readAll(name, keys);
+		}
+		
+		byte[][] values = new byte[keys.size()][];
+		List<Integer> misses = new ArrayList<>();
+		
+		for (int i = 0; i < values.length; i++) {
+			
+			values[i] = localCache.get(keys.get(i));
+			
+			if (values[i] != null) {
+				
+				this.touch(name, keys.get(i));
+			}
+			else {
+				
+				misses.add(i);
+			}
+		}
+		
+		if (!misses.isEmpty()) {
+			
+			List<byte[]> missedKeys = misses.stream().map(keys::get).collect(Collectors.toList());
+			List<byte[]> loaded = this.readAll(name, missedKeys);
+			
+			for (int i = 0; i < loaded.size(); i++) {
+				
+				values[misses.get(i)] = loaded.get(i);
+			}
+			
+			this.putLocalCache(localCache, name, missedKeys, loaded);
+		}
+		
+		return Arrays.asList(values);
+	}
+	
+	/**
+	 * Get values from Redis
+	 * 
+	 * @param name name
+	 * @param keys keys
+	 * @return values in order of keys, {@code null} if not found
+	 */
+	protected List<byte[]> readAll(String name, List<byte[]> keys) {
+		
+		byte[][] keyArray = keys.toArray(new byte[0][]);
+		long start = this.phaseRecorder.start();
+		
+		/* @formatter:off */
+		List<byte[]> values = this.executeRead(name, this.bulkReadTimeout,
+			connection -> this.mGet(name, connection, keyArray),
+			commands -> commands.mget(keyArray).thenApply(result -> result.stream()
+				.map(value -> value.getValueOrElse(null))
+				.collect(Collectors.toList())),
+			Arrays.asList(new byte[keys.size()][]));
+		/* @formatter:on */
+		
+		this.phaseRecorder.stop(XPhase.REDIS, name, start);
+		
+		for (int i = 0; i < keyArray.length; i++) {
+			
+			if (values.get(i) != null) {
+				
+				this.touch(name, keyArray[i]);
+			}
+		}
+		
+		return values;
+	}
+	
+	/**
+	 * Tag a key
+	 * 
+	 * @param name name
+	 * @param key key
+	 * @param tags tags
+	 * @param ttl time to live of the key ({@code null} or {@link Duration#ZERO} for no expiration)
+	 */
+	public void tag(String name, byte[] key, Collection<String> tags, Duration ttl) {
+		
+		Assert.notNull(name, "Name must not be null!");
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(tags, "Tags must not be null!");
+		
+		if (tags.isEmpty()) {
+			
+			return;
+		}
+		
+		List<byte[]> tagKeys = tags.stream().map(CustomRedisCacheWriter::createTagKey).collect(Collectors.toList());
+		RedisConnection connection = this.connectionFactory.getConnection();
+		boolean pipelined = !(connection instanceof RedisClusterConnection);
+		
+		try {
+			
+			// PTTL before SADD tells a new set (-2) from a persistent set (-1)
+			List<Long> ttls = new ArrayList<>();
+			
+			if (pipelined) {
+				
+				connection.openPipeline();
+			}
+			
+			for (byte[] tagKey : tagKeys) {
+				
+				ttls.add(connection.pTtl(tagKey));
+				connection.sAdd(tagKey, key);
+			}
+			
+			if (pipelined) {
+				
+				List<Object> results = connection.closePipeline();
+				
+				ttls.clear();
+				
+				for (int i = 0; i < results.size(); i += 2) {
+					
+					ttls.add((Long) results.get(i));
+				}
+				
+				connection.openPipeline();
+			}
+			
+			for (int i = 0; i < tagKeys.size(); i++) {
+				
+				updateTagTtl(connection, tagKeys.get(i), ttls.get(i), ttl);
+			}
+			
+			if (pipelined) {
+				
+				connection.closePipeline();
+			}
+		}
+		finally {
+			
+			connection.close();
+		}
+	}
+	
+	/**
+	 * Evict keys by tag
+	 * 
+	 * <p>
+	 * Keys are popped from the set of the tag and deleted in batches of {@link #getPipelineFlushSize()}, without
+	 * scanning the keyspace.
+	 * </p>
+	 * 
+	 * @param tag tag
+	 * @return number of deleted keys
+	 */
+	public long evictByTag(String tag) {
+		
+		Assert.notNull(tag, "Tag must not be null!");
+		Assert.isTrue(this.pipelineFlushSize > 0, "Pipeline flush size must be positive");
+		
+		byte[] tagKey = createTagKey(tag);
+		long count = 0;
+		RedisConnection connection = this.connectionFactory.getConnection();
+		
+		try {
+			
+			List<byte[]> keys;
+			
+			while ((keys = connection.sPop(tagKey, this.pipelineFlushSize)) != null && !keys.isEmpty()) {
+				
+				Long deleted = connection.del(keys.toArray(new byte[0][]));
+				
+				this.invalidateLocalCache(keys);
+				
+				count += deleted == null ? 0 : deleted;
+			}
+		}
+		finally {
+			
+			connection.close();
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Enable sliding expiration of a cache
+	 * 
+	 * @param name name
+	 * @param ttl TTL refreshed on reads
+	 */
+	public synchronized void enableSlidingExpiration(String name, Duration ttl) {
+		
+		if (this.slidingExpiration == null) {
+			
+			SlidingExpiration slidingExpiration = new SlidingExpiration(this.connectionFactory,
+				this.slidingFlushInterval);
+			slidingExpiration.setPipelineFlushSize(this.pipelineFlushSize);
+			
+			this.slidingExpiration = slidingExpiration;
+		}
+		
+		this.slidingExpiration.register(name, ttl);
+	}
+	
+	@Override
+	public void close() {
+		
+		synchronized (this) {
+			
+			if (this.ownClusterExecutor != null) {
+				
+				this.ownClusterExecutor.shutdown();
+				this.ownClusterExecutor = null;
+			}
+		}
+		
+		if (this.slidingExpiration != null) {
+			
+			this.slidingExpiration.close();
+		}
+		
+		if (this.localCache != null) {
+			
+			this.localCache.close();
+		}
+	}
+	
+	/**
+	 * Record the size of a value and check {@link #getMaxValueSize()}
+	 * 
+	 * @param name name
+	 * @param key key
+	 * @param value value
+	 * @return {@code false} if the value is skipped
+	 */
+	protected boolean accept(String name, byte[] key, byte[] value) {
+		
+		if (this.maxValueSize <= 0 || value.length <= this.maxValueSize) {
+			
+			this.payloadStatistics.record(name, value.length);
+			
+			return true;
+		}
+		
+		if (this.oversizedValuePolicy == XOversizedValuePolicy.LOG) {
+			
+			logger.warn("Value of {} bytes in cache '{}' exceeds the max value size of {} bytes: {}", value.length,
+				name, this.maxValueSize, new String(key, StandardCharsets.UTF_8));
+			
+			this.payloadStatistics.record(name, value.length);
+			
+			return true;
+		}
+		
+		logger.debug("Skipped value of {} bytes in cache '{}': {}", value.length, name,
+			new String(key, StandardCharsets.UTF_8));
+		
+		this.payloadStatistics.skip(name);
+		
+		return false;
+	}
+	
+	/**
+	 * Get the local tier of a cache
+	 * 
+	 * @param name name
+	 * @return {@link OffHeapCacheStore}, or {@code null} if not in the local tier
+	 */
+	protected OffHeapCacheStore getLocalCache(String name) {
+		
+		OffHeapCacheStore localCache = this.localCache;
+		
+		if (localCache == null || !this.localCacheNames.isEmpty() && !this.localCacheNames.contains(name)) {
+			
+			return null;
+		}
+		
+		return localCache;
+	}
+	
+	/**
+	 * Get time to live in the local tier
+	 * 
+	 * @param ttl time to live in Redis
+	 * @return the shorter time to live
+	 */
+	protected Duration getLocalCacheTtl(Duration ttl) {
+		
+		return ttl != null && isPositive(ttl) && ttl.compareTo(this.localCacheTtl) < 0 ? ttl : this.localCacheTtl;
+	}
+	
+	/**
+	 * Put values read from Redis in the local tier
+	 * 
+	 * <p>
+	 * Values of caches with sliding expiration live no longer than the sliding TTL. Other values live no longer than
+	 * the remaining TTL of their keys, read by {@code PTTL}, and are skipped if the keys expired meanwhile.
+	 * </p>
+	 * 
+	 * @param localCache {@link OffHeapCacheStore}
+	 * @param name name
+	 * @param keys keys
+	 * @param values values in order of keys, {@code null} if not found
+	 */
+	protected void putLocalCache(OffHeapCacheStore localCache, String name, List<byte[]> keys, List<byte[]> values) {
+		
+		SlidingExpiration slidingExpiration = this.slidingExpiration;
+		Duration slidingTtl = slidingExpiration != null ? slidingExpiration.getTtl(name) : null;
+		List<byte[]> hits = new ArrayList<>();
+		
+		for (int i = 0; i < keys.size(); i++) {
+			
+			if (values.get(i) != null) {
+				
+				hits.add(keys.get(i));
+			}
+		}
+		
+		if (hits.isEmpty()) {
+			
+			return;
+		}
+		
+		List<Long> ttls = slidingTtl == null ? this.pTtl(name, hits) : null;
+		
+		if (slidingTtl == null && ttls == null) {
+			
+			return;
+		}
+		
+		for (int i = 0, hit = 0; i < keys.size(); i++) {
+			
+			if (values.get(i) == null) {
+				
+				continue;
+			}
+			
+			Duration ttl = slidingTtl != null ? this.getLocalCacheTtl(slidingTtl) : this.toLocalCacheTtl(ttls.get(hit));
+			
+			hit++;
+			
+			if (ttl != null) {
+				
+				localCache.put(name, keys.get(i), values.get(i), ttl);
+			}
+		}
+	}
+	
+	/**
+	 * Get remaining TTL of keys
+	 * 
+	 * @param name name
+	 * @param keys keys
+	 * @return TTL in milliseconds in order of keys, or {@code null} if timed out
+	 */
+	protected List<Long> pTtl(String name, List<byte[]> keys) {
+		
+		/* @formatter:off */
+		return this.executeRead(name, this.readTimeout,
+			connection -> {
+				
+				if (keys.size() == 1 || connection instanceof RedisClusterConnection || connection.isPipelined()) {
+					
+					return keys.stream().map(connection::pTtl).collect(Collectors.toList());
+				}
+				
+				connection.openPipeline();
+				keys.forEach(connection::pTtl);
+				
+				return connection.closePipeline().stream().map(ttl -> (Long) ttl).collect(Collectors.toList());
+			},
+			commands -> {
+				
+				List<CompletableFuture<Long>> futures = keys.stream()
+					.map(key -> commands.pttl(key).toCompletableFuture())
+					.collect(Collectors.toList());
+				
+				return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+					.thenApply(result -> futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+			},
+			null);
+		/* @formatter:on */
+	}
+	
+	/**
+	 * Get time to live in the local tier of a key
+	 * 
+	 * @param pTtl remaining TTL in Redis in milliseconds, {@code -1} if persistent
+	 * @return time to live, or {@code null} if the key is gone
+	 */
+	protected Duration toLocalCacheTtl(Long pTtl) {
+		
+		if (pTtl == null || pTtl == 0 || pTtl < -1) {
+			
+			return null;
+		}
+		
+		return pTtl == -1 ? this.localCacheTtl : this.getLocalCacheTtl(Duration.ofMillis(pTtl));
+	}
+	
+	/**
+	 * Invalidate keys in the local tier
+	 * 
+	 * @param keys keys
+	 */
+	protected void invalidateLocalCache(Collection<byte[]> keys) {
+		
+		OffHeapCacheStore localCache = this.localCache;
+		
+		if (localCache != null) {
+			
+			keys.forEach(localCache::remove);
+		}
+	}
+	
+	/**
+	 * Record a read key for sliding expiration
+	 * 
+	 * @param name name
+	 * @param key key
+	 */
+	protected void touch(String name, byte[] key) {
+		
+		SlidingExpiration slidingExpiration = this.slidingExpiration;
+		
+		if (slidingExpiration != null) {
+			
+			slidingExpiration.touch(name, key);
+		}
+	}
+	
+	/**
+	 * Put values in pipelines
+	 * 
+	 * <p>
+	 * Pipelines are synced every {@link #getPipelineFlushSize()} commands. {@link RedisClusterConnection} does not
+	 * support pipelines, so values are put one by one in parallel per node.
+	 * </p>
+	 * 
+	 * @param name name
+	 * @param values values by key
+	 * @param ttl time to live ({@code null} or {@link Duration#ZERO} for no expiration)
+	 */
+	public void put(String name, Map<byte[], byte[]> values, Duration ttl) {
+		
+		Assert.notNull(name, "Name must not be null!");
+		Assert.notNull(values, "Values must not be null!");
+		Assert.isTrue(this.pipelineFlushSize > 0, "Pipeline flush size must be positive");
+		
+		Map<byte[], byte[]> accepted = new LinkedHashMap<>();
+		
+		values.forEach((key, value) -> {
+			
+			if (this.accept(name, key, value)) {
+				
+				accepted.put(key, value);
+			}
+			else {
+				
+				this.remove(name, key);
+			}
+		});
+		
+		if (accepted.isEmpty()) {
+			
+			return;
+		}
+		
+		this.waitUntilUnlocked(name);
+		
+		RedisConnection connection = this.connectionFactory.getConnection();
+		
+		if (connection instanceof RedisClusterConnection) {
+			
+			try {
+				
+				this.put(name, (RedisClusterConnection) connection, accepted, ttl);
+			}
+			finally {
+				
+				connection.close();
+				
+				this.invalidateLocalCache(accepted.keySet());
+			}
+			
+			return;
+		}
+		
+		try {
+			
+			connection.openPipeline();
+			
+			int count = 0;
+			
+			for (Entry<byte[], byte[]> entry : accepted.entrySet()) {
+				
+				put(connection, entry.getKey(), entry.getValue(), ttl);
+				
+				if (++count % this.pipelineFlushSize == 0) {
+					
+					connection.closePipeline();
+					connection.openPipeline();
+				}
+			}
+		}
+		finally {
+			
+			try {
+				
+				connection.closePipeline();
+			}
+			finally {
+				
+				connection.close();
+				
+				this.invalidateLocalCache(accepted.keySet());
+			}
+		}
+	}
+	
+	/**
+	 * Get values from cluster by hash slot
+	 * 
+	 * @param name name
+	 * @param connection {@link RedisConnection}
+	 * @param keys keys
+	 * @return values in order of keys
+	 */
+	protected List<byte[]> mGet(String name, RedisConnection connection, byte[][] keys) {
+		
+		if (!(connection instanceof RedisClusterConnection) || ClusterSlotHashUtil.isSameSlotForAllKeys(keys)) {
+			
+			return connection.mGet(keys);
+		}
+		
+		byte[][] values = new byte[keys.length][];
+		
+		this.executeOnNodes(name, this.readConnectionFactory, groupBySlot((RedisClusterConnection) connection, keys),
+			(nodeConnection, indexes) -> {
+				
+				List<byte[]> slotValues = nodeConnection.mGet(select(keys, indexes));
+				
+				for (int index = 0; index < indexes.size(); index++) {
+					
+					values[indexes.get(index)] = slotValues.get(index);
+				}
+			});
+		
+		return Arrays.asList(values);
+	}
+	
+	/**
+	 * Put values in cluster in parallel per node
+	 * 
+	 * @param name name
+	 * @param connection {@link RedisClusterConnection}
+	 * @param values values by key
+	 * @param ttl time to live
+	 */
+	protected void put(String name, RedisClusterConnection connection, Map<byte[], byte[]> values, Duration ttl) {
+		
+		byte[][] keys = values.keySet().toArray(new byte[0][]);
+		byte[][] slotValues = values.values().toArray(new byte[0][]);
+		
+		this.executeOnNodes(name, this.connectionFactory, groupBySlot(connection, keys), (nodeConnection, indexes) -> {
+			
+			for (int index : indexes) {
+				
+				put(nodeConnection, keys[index], slotValues[index], ttl);
+			}
+		});
+	}
+	
+	/**
+	 * Clean cluster by scanning each master in parallel and deleting the keys of each hash slot
+	 * 
+	 * @param name name
+	 * @param connection {@link RedisClusterConnection}
+	 * @param pattern pattern of keys
+	 */
+	protected void clean(String name, RedisClusterConnection connection, byte[] pattern) {
+		
+		boolean locking = isPositive(this.sleepTime);
+		byte[] lockKey = createLockKey(name);
+		
+		this.waitUntilUnlocked(name);
+		
+		if (locking) {
+			
+			connection.setNX(lockKey, new byte[0]);
+		}
+		
+		try {
+			
+			List<Runnable> tasks = new ArrayList<>();
+			
+			for (RedisClusterNode node : connection.clusterGetNodes()) {
+				
+				if (!node.isMaster()) {
+					
+					continue;
+				}
+				
+				tasks.add(() -> {
+					
+					RedisConnection nodeConnection = this.connectionFactory.getConnection();
+					
+					try {
+						
+						this.scan((RedisClusterConnection) nodeConnection, node, pattern,
+							keys -> deleteBySlot(nodeConnection, keys));
+					}
+					finally {
+						
+						nodeConnection.close();
+					}
+				});
+			}
+			
+			this.executeInParallel(name, tasks);
+		}
+		finally {
+			
+			if (locking) {
+				
+				connection.del(lockKey);
+			}
+		}
+	}
+	
+	/**
+	 * Execute batches of hash slots in parallel per node
+	 * 
+	 * <p>
+	 * Each node uses its own {@link RedisConnection} since cluster connections are not safe for concurrent use.
+	 * </p>
+	 * 
+	 * @param name name
+	 * @param connectionFactory {@link RedisConnectionFactory}
+	 * @param nodes indexes of keys by hash slot by node
+	 * @param command command for indexes of keys in the same hash slot
+	 * @throws DataAccessException if failed
+	 */
+	protected void executeOnNodes(String name, RedisConnectionFactory connectionFactory,
+		Map<RedisClusterNode, Map<Integer, List<Integer>>> nodes, BiConsumer<RedisConnection, List<Integer>> command)
+		throws DataAccessException {
+		
+		List<Runnable> tasks = new ArrayList<>();
+		
+		for (Map<Integer, List<Integer>> slots : nodes.values()) {
+			
+			tasks.add(() -> {
+				
+				RedisConnection connection = connectionFactory.getConnection();
+				
+				try {
+					
+					for (List<Integer> indexes : slots.values()) {
+						
+						command.accept(connection, indexes);
+					}
+				}
+				finally {
+					
+					connection.close();
+				}
+			});
+		}
+		
+		this.executeInParallel(name, tasks);
+	}
+	
+	/**
+	 * Execute tasks in parallel by {@link #getClusterExecutor()} and wait for all
+	 * 
+	 * @param name name
+	 * @param tasks tasks
+	 * @throws DataAccessException if failed
+	 */
+	protected void executeInParallel(String name, List<Runnable> tasks) throws DataAccessException {
+		
+		Executor executor = this.getOrCreateClusterExecutor();
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		
+		for (Runnable task : tasks) {
+			
+			futures.add(CompletableFuture.runAsync(task, executor));
+		}
+		
+		try {
+			
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+		}
+		catch (CompletionException e) {
+			
+			if (e.getCause() instanceof RuntimeException) {
+				
+				throw (RuntimeException) e.getCause();
+			}
+			
+			throw new RedisSystemException(String.format("Failed bulk operation of cache %s", name), e.getCause());
+		}
+	}
+	
+	/**
+	 * Get {@link #getClusterExecutor()}, or create the own pool if not set
+	 * 
+	 * @return {@link Executor}
+	 */
+	protected synchronized Executor getOrCreateClusterExecutor() {
+		
+		if (this.clusterExecutor != null) {
+			
+			return this.clusterExecutor;
+		}
+		
+		if (this.ownClusterExecutor == null) {
+			
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-cluster-");
+			threadFactory.setDaemon(true);
+			
+			this.ownClusterExecutor = Executors.newFixedThreadPool(Math.max(1, this.clusterThreads), threadFactory);
+		}
+		
+		return this.ownClusterExecutor;
+	}
+	
+	/**
+	 * Scan keys of a cluster node in batches of about {@link #getPipelineFlushSize()}
+	 * 
+	 * <p>
+	 * Lettuce and Jedis scan the node by {@code SCAN}. Other clients fall back to {@code KEYS} of the node.
+	 * </p>
+	 * 
+	 * @param connection {@link RedisClusterConnection}
+	 * @param node master {@link RedisClusterNode}
+	 * @param pattern pattern of keys
+	 * @param batch consumer of each batch of keys
+	 */
+	@SuppressWarnings("unchecked")
+	protected void scan(RedisClusterConnection connection, RedisClusterNode node, byte[] pattern,
+		Consumer<List<byte[]>> batch) {
+		
+		Object nativeConnection = connection.getNativeConnection();
+		int count = Math.max(1, this.pipelineFlushSize);
+		
+		if (nativeConnection instanceof RedisAdvancedClusterAsyncCommands) {
+			
+			RedisAdvancedClusterAsyncCommands<byte[], byte[]> commands = (RedisAdvancedClusterAsyncCommands<byte[],
+				byte[]>) nativeConnection;
+			RedisClusterAsyncCommands<byte[], byte[]> nodeCommands = commands.getConnection(node.getId());
+			long timeout = commands.getStatefulConnection().getTimeout().toMillis();
+			ScanArgs args = ScanArgs.Builder.matches(new String(pattern, StandardCharsets.UTF_8)).limit(count);
+			ScanCursor cursor = ScanCursor.INITIAL;
+			
+			do {
+				
+				KeyScanCursor<byte[]> result = LettuceFutures.awaitOrCancel(nodeCommands.scan(cursor, args), timeout,
+					TimeUnit.MILLISECONDS);
+				
+				batch.accept(result.getKeys());
+				cursor = result;
+			}
+			while (!cursor.isFinished());
+			
+			return;
+		}
+		
+		if (JEDIS_PRESENT && XJedisScanner.scan(nativeConnection, node, pattern, count, batch)) {
+			
+			return;
+		}
+		
+		logger.debug("SCAN of node {} is not supported by {}, falling back to KEYS", node, connection);
+		
+		Set<byte[]> keys = connection.keys(node, pattern);
+		
+		if (keys != null) {
+			
+			batch.accept(new ArrayList<>(keys));
+		}
+	}
+	
+	/**
+	 * Get count of reads degraded to misses by timeout
+	 * 
+	 * @return count of degraded reads
+	 */
+	public long getDegradedReadCount() {
+		
+		return this.degradedReadCount.sum();
+	}
+	
+	/**
+	 * Execute read after waiting for the lock on master
+	 * 
+	 * <p>
+	 * If the timeout is positive and the connection is Lettuce, the command is executed asynchronously and a timeout
+	 * is treated as a miss. Otherwise the command is executed with the command timeout of the connection.
+	 * </p>
+	 * 
+	 * @param <T> type of result
+	 * @param name name
+	 * @param timeout timeout ({@link Duration#ZERO} for the command timeout)
+	 * @param command command
+	 * @param asyncCommand asynchronous command of Lettuce
+	 * @param degraded result on timeout
+	 * @return result
+	 */
+	@SuppressWarnings("unchecked")
+	protected <T> T executeRead(String name, Duration timeout, Function<RedisConnection, T> command,
+		Function<RedisClusterAsyncCommands<byte[], byte[]>, CompletionStage<T>> asyncCommand, T degraded) {
+		
+		this.waitUntilUnlocked(name);
+		
+		RedisConnection connection = this.readConnectionFactory.getConnection();
+		
+		try {
+			
+			Object nativeConnection = connection.getNativeConnection();
+			
+			if (!isPositive(timeout) || !(nativeConnection instanceof RedisClusterAsyncCommands)
+				|| connection.isPipelined() || connection.isQueueing()) {
+				
+				return command.apply(connection);
+			}
+			
+			CompletableFuture<T> future = asyncCommand
+				.apply((RedisClusterAsyncCommands<byte[], byte[]>) nativeConnection).toCompletableFuture();
+			
+			return this.await(name, future, timeout, degraded);
+		}
+		finally {
+			
+			connection.close();
+		}
+	}
+	
+	/**
+	 * Await result of read
+	 * 
+	 * @param <T> type of result
+	 * @param name name
+	 * @param future {@link CompletableFuture}
+	 * @param timeout timeout
+	 * @param degraded result on timeout
+	 * @return result or degraded result on timeout
+	 * @throws DataAccessException if failed
+	 */
+	protected <T> T await(String name, CompletableFuture<T> future, Duration timeout, T degraded)
+		throws DataAccessException {
+		
+		try {
+			
+			return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException e) {
+			
+			future.cancel(false);
+			
+			this.degradedReadCount.increment();
+			
+			logger.debug("Read of cache {} timed out in {} ms, treated as miss", name, timeout.toMillis());
+			
+			return degraded;
+		}
+		catch (InterruptedException e) {
+			
+			Thread.currentThread().interrupt();
+			
+			throw new RedisSystemException(String.format("Interrupted while reading cache %s", name), e);
+		}
+		catch (ExecutionException e) {
+			
+			Throwable cause = e.getCause();
+			
+			if (cause instanceof RuntimeException) {
+				
+				DataAccessException translated = this.readConnectionFactory
+					.translateExceptionIfPossible((RuntimeException) cause);
+				
+				if (translated != null) {
+					
+					throw translated;
+				}
+			}
+			
+			throw new RedisSystemException(String.format("Failed to read cache %s", name), cause);
+		}
+	}
+	
+	/**
+	 * Wait until the cache is unlocked on master
+	 * 
+	 * @param name name
+	 * @throws PessimisticLockingFailureException if interrupted
+	 */
+	protected void waitUntilUnlocked(String name) throws PessimisticLockingFailureException {
+		
+		if (this.sleepTime.isZero() || this.sleepTime.isNegative()) {
+			
+			return;
+		}
+		
+		RedisConnection connection = this.connectionFactory.getConnection();
+		
+		try {
+			
+			byte[] lockKey = createLockKey(name);
+			
+			while (Boolean.TRUE.equals(connection.exists(lockKey))) {
+				
+				Thread.sleep(this.sleepTime.toMillis());
+			}
+		}
+		catch (InterruptedException e) {
+			
+			Thread.currentThread().interrupt();
+			
+			throw new PessimisticLockingFailureException(
+				String.format("Interrupted while waiting to unlock cache %s", name), e);
+		}
+		finally {
+			
+			connection.close();
+		}
+	}
+	
+	/**
+	 * Put value
+	 * 
+	 * @param connection {@link RedisConnection}
+	 * @param key key
+	 * @param value value
+	 * @param ttl time to live ({@code null} or {@link Duration#ZERO} for no expiration)
+	 */
+	protected static void put(RedisConnection connection, byte[] key, byte[] value, Duration ttl) {
+		
+		if (ttl != null && isPositive(ttl)) {
+			
+			connection.set(key, value, Expiration.from(ttl.toMillis(), TimeUnit.MILLISECONDS), SetOption.upsert());
+		}
+		else {
+			
+			connection.set(key, value);
+		}
+	}
+	
+	/**
+	 * Group indexes of keys by hash slot and the node serving the slot
+	 * 
+	 * @param connection {@link RedisClusterConnection}
+	 * @param keys keys
+	 * @return indexes of keys by hash slot by node
+	 */
+	protected static Map<RedisClusterNode, Map<Integer, List<Integer>>> groupBySlot(RedisClusterConnection connection,
+		byte[][] keys) {
+		
+		Map<Integer, List<Integer>> slots = new TreeMap<>();
+		
+		for (int index = 0; index < keys.length; index++) {
+			
+			slots.computeIfAbsent(ClusterSlotHashUtil.calculateSlot(keys[index]), slot -> new ArrayList<>()).add(index);
+		}
+		
+		Map<RedisClusterNode, Map<Integer, List<Integer>>> nodes = new LinkedHashMap<>();
+		
+		for (Entry<Integer, List<Integer>> slot : slots.entrySet()) {
+			
+			nodes.computeIfAbsent(connection.clusterGetNodeForSlot(slot.getKey()), node -> new TreeMap<>())
+				.put(slot.getKey(), slot.getValue());
+		}
+		
+		return nodes;
+	}
+	
+	/**
+	 * Delete keys by hash slot
+	 * 
+	 * @param connection {@link RedisConnection}
+	 * @param keys keys
+	 */
+	protected static void deleteBySlot(RedisConnection connection, List<byte[]> keys) {
+		
+		Map<Integer, List<byte[]>> slots = new TreeMap<>();
+		
+		for (byte[] key : keys) {
+			
+			slots.computeIfAbsent(ClusterSlotHashUtil.calculateSlot(key), slot -> new ArrayList<>()).add(key);
+		}
+		
+		for (List<byte[]> slotKeys : slots.values()) {
+			
+			connection.del(slotKeys.toArray(new byte[0][]));
+		}
+	}
+	
+	/**
+	 * Select keys by indexes
+	 * 
+	 * @param keys keys
+	 * @param indexes indexes
+	 * @return selected keys
+	 */
+	protected static byte[][] select(byte[][] keys, Collection<Integer> indexes) {
+		
+		return indexes.stream().map(index -> keys[index]).toArray(byte[][]::new);
+	}
+	
+	/**
+	 * Create lock key
+	 * 
+	 * @param name name
+	 * @return lock key
+	 */
+	protected static byte[] createLockKey(String name) {
+		
+		return (name + LOCK_KEY_SUFFIX).getBytes(StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Create tag key
+	 * 
+	 * @param tag tag
+	 * @return tag key
+	 */
+	protected static byte[] createTagKey(String tag) {
+		
+		return (TAG_KEY_PREFIX + tag).getBytes(StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Update TTL of a tag set no shorter than TTL of its keys
+	 * 
+	 * @param connection {@link RedisConnection}
+	 * @param tagKey tag key
+	 * @param current TTL of the set in milliseconds before {@code SADD} ({@code -2} if new, {@code -1} if persistent)
+	 * @param ttl time to live of the added key ({@code null} or {@link Duration#ZERO} for no expiration)
+	 */
+	protected static void updateTagTtl(RedisConnection connection, byte[] tagKey, Long current, Duration ttl) {
+		
+		if (ttl == null || !isPositive(ttl)) {
+			
+			if (current == null || current >= 0) {
+				
+				connection.persist(tagKey);
+			}
+		}
+		else if (current == null || current == -2 || current >= 0 && current < ttl.toMillis()) {
+			
+			connection.pExpire(tagKey, ttl.toMillis());
+		}
+	}
+	
+	/**
+	 * Is positive duration?
+	 * 
+	 * @param duration {@link Duration}
+	 * @return {@code true} if positive
+	 */
+	protected static boolean isPositive(Duration duration) {
+		
+		return !duration.isZero() && !duration.isNegative();
+	}
+	
+	/**
+	 * Get {@link RedisConnectionFactory} for reads
+	 * 
+	 * @param connectionFactory {@link RedisConnectionFactory} of master
+	 * @return {@link RedisConnectionFactory} for reads
+	 */
+	public static RedisConnectionFactory getReadConnectionFactory(RedisConnectionFactory connectionFactory) {
+		
+		if (connectionFactory instanceof CustomLettuceConnectionFactory) {
+			
+			return ((CustomLettuceConnectionFactory) connectionFactory).getReadConnectionFactory();
+		}
+		
+		return connectionFactory;
+	}
+	
+	/**
+	 * Get sleep time between lock checks
+	 * 
+	 * @param cacheWriter {@link RedisCacheWriter}
+	 * @return sleep time
+	 */
+	public static Duration getSleepTime(RedisCacheWriter cacheWriter) {
+		
+		Assert.isTrue(cacheWriter instanceof DefaultRedisCacheWriter, "Unsupported RedisCacheWriter");
+		
+		Field field = ReflectionUtils.findField(DefaultRedisCacheWriter.class, SLEEP_TIME_NAME);
+		
+		Assert.notNull(field, String.format("Field '%s' not found", SLEEP_TIME_NAME));
+		
+		ReflectionUtils.makeAccessible(field);
+		
+		return (Duration) ReflectionUtils.getField(field, cacheWriter);
+	}
+	
+	/**
+	 * {@code SCAN} of a node by Jedis, loaded only if Jedis is present
+	 */
+	protected static class XJedisScanner {
+		
+		/**
+		 * Scan keys of a cluster node in batches
+		 * 
+		 * @param nativeConnection native connection
+		 * @param node {@link RedisClusterNode}
+		 * @param pattern pattern of keys
+		 * @param count count hint of each batch
+		 * @param batch consumer of each batch of keys
+		 * @return {@code false} if not supported
+		 */
+		public static boolean scan(Object nativeConnection, RedisClusterNode node, byte[] pattern, int count,
+			Consumer<List<byte[]>> batch) {
+			
+			if (!(nativeConnection instanceof JedisCluster)) {
+				
+				return false;
+			}
+			
+			JedisPool pool = ((JedisCluster) nativeConnection).getClusterNodes()
+				.get(node.getHost() + ":" + node.getPort());
+			
+			if (pool == null) {
+				
+				return false;
+			}
+			
+			ScanParams params = new ScanParams().match(pattern).count(count);
+			
+			try (Jedis jedis = pool.getResource()) {
+				
+				byte[] cursor = ScanParams.SCAN_POINTER_START_BINARY;
+				
+				do {
+					
+					ScanResult<byte[]> result = jedis.scan(cursor, params);
+					
+					batch.accept(result.getResult());
+					cursor = result.getCursorAsBytes();
+				}
+				while (!Arrays.equals(cursor, ScanParams.SCAN_POINTER_START_BINARY));
+			}
+			
+			return true;
+		}
+	}
+	
+	/**
+	 * Policy of values larger than the max value size
+	 */
+	public enum XOversizedValuePolicy {
+		
+		/**
+		 * Skip the write and remove the stale value
+		 */
+		SKIP,
+		
+		/**
+		 * Write with a warning
+		 */
+		LOG
+	}
+}
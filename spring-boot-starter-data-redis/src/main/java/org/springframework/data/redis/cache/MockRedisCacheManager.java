@@ -16,6 +16,8 @@
 
 package org.springframework.data.redis.cache;
 
+import org.springframework.data.redis.connection.FaultInjector;
+
 import lombok.NonNull;
 
 /**
@@ -30,6 +32,33 @@ public class MockRedisCacheManager extends CustomRedisCacheManager {
 	 */
 	public MockRedisCacheManager(@NonNull RedisCacheManager sourceCacheManager) {
 		
-		super(sourceCacheManager, new MockRedisCacheWriter(getCacheWriter(sourceCacheManager)));
+		this(sourceCacheManager, new FaultInjector());
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param sourceCacheManager source {@link RedisCacheManager}
+	 * @param faultInjector {@link FaultInjector}
+	 */
+	public MockRedisCacheManager(@NonNull RedisCacheManager sourceCacheManager, @NonNull FaultInjector faultInjector) {
+		
+		super(sourceCacheManager, createCacheWriter(sourceCacheManager, faultInjector));
+	}
+	
+	/**
+	 * Create {@link MockRedisCacheWriter}
+	 * 
+	 * @param sourceCacheManager source {@link RedisCacheManager}
+	 * @param faultInjector {@link FaultInjector}
+	 * @return {@link MockRedisCacheWriter}
+	 */
+	private static MockRedisCacheWriter createCacheWriter(RedisCacheManager sourceCacheManager,
+		FaultInjector faultInjector) {
+		
+		MockRedisCacheWriter cacheWriter = new MockRedisCacheWriter(getCacheWriter(sourceCacheManager));
+		cacheWriter.setFaultInjector(faultInjector);
+		
+		return cacheWriter;
 	}
 }
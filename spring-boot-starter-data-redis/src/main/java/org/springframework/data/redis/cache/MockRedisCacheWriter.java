@@ -16,30 +16,105 @@
 
 package org.springframework.data.redis.cache;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.cache.Cache.ValueWrapper;
 import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.connection.FaultInjector;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
 import org.springframework.util.ReflectionUtils;
 
 import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 
 /**
  * Mock {@link RedisCache}
+ * 
+ * <p>
+ * Entries are kept on heap, or in {@link #getOffHeapStore()} if set.
+ * </p>
+ * 
+ * <p>
+ * Entries can be saved to a snapshot file on {@link #close()} or periodically, and restored on start with their
+ * remaining TTL. See {@link #snapshot(Path)} for the format.
+ * </p>
  */
-public class MockRedisCacheWriter extends DefaultRedisCacheWriter {
+public class MockRedisCacheWriter extends DefaultRedisCacheWriter implements Closeable {
+	
+	/**
+	 * {@link Logger}
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(MockRedisCacheWriter.class);
+	
+	/**
+	 * Magic number of snapshot files
+	 */
+	private static final int SNAPSHOT_MAGIC = 0x4D524353;
+	
+	/**
+	 * Version of snapshot files
+	 */
+	private static final int SNAPSHOT_VERSION = 1;
 	
 	/**
 	 * Delegate
 	 */
 	private Map<String, ConcurrentMapCache> delegate = new ConcurrentHashMap<>();
 	
+	/**
+	 * {@link FaultInjector}
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private FaultInjector faultInjector = new FaultInjector();
+	
+	/**
+	 * {@link OffHeapCacheStore}, or on heap if {@code null}
+	 */
+	@Getter
+	@Setter
+	private OffHeapCacheStore offHeapStore;
+	
+	/**
+	 * Snapshot file, or disabled if {@code null}
+	 */
+	@Getter
+	private Path snapshotPath;
+	
+	/**
+	 * Scheduler of periodic snapshots
+	 */
+	private ScheduledExecutorService snapshotScheduler;
+	
 	/**
 	 * Constructor
 	 * 
@@ -63,7 +138,14 @@ public class MockRedisCacheWriter extends DefaultRedisCacheWriter {
 	@Override
 	public byte[] get(String name, byte[] key) {
 		
-		ValueWrapper wrapper = this.loadCache(name).get(key);
+		this.faultInjector.inject("GET");
+		
+		if (this.offHeapStore != null) {
+			
+			return this.offHeapStore.get(key);
+		}
+		
+		ValueWrapper wrapper = this.loadCache(name).get(this.toCacheKey(key));
 		
 		return this.toByteValue(wrapper);
 	}
@@ -71,13 +153,22 @@ public class MockRedisCacheWriter extends DefaultRedisCacheWriter {
 	@Override
 	public void put(String name, byte[] key, byte[] value, Duration ttl) {
 		
-		this.loadCache(name).put(key, this.toStoreValue(value, ttl));
+		this.faultInjector.inject("SET");
+		
+		this.store(name, key, value, ttl);
 	}
 	
 	@Override
 	public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
 		
-		ValueWrapper wrapper = this.loadCache(name).putIfAbsent(key, this.toStoreValue(value, ttl));
+		this.faultInjector.inject("SETNX");
+		
+		if (this.offHeapStore != null) {
+			
+			return this.offHeapStore.putIfAbsent(name, key, value, ttl);
+		}
+		
+		ValueWrapper wrapper = this.loadCache(name).putIfAbsent(this.toCacheKey(key), this.toStoreValue(value, ttl));
 		
 		return this.toByteValue(wrapper);
 	}
@@ -85,7 +176,16 @@ public class MockRedisCacheWriter extends DefaultRedisCacheWriter {
 	@Override
 	public void remove(String name, byte[] key) {
 		
-		this.loadCache(name).evict(key);
+		this.faultInjector.inject("DEL");
+		
+		if (this.offHeapStore != null) {
+			
+			this.offHeapStore.remove(key);
+			
+			return;
+		}
+		
+		this.loadCache(name).evict(this.toCacheKey(key));
 	}
 	
 	/**
@@ -98,9 +198,307 @@ public class MockRedisCacheWriter extends DefaultRedisCacheWriter {
 	@Override
 	public void clean(String name, byte[] pattern) {
 		
+		this.faultInjector.inject("KEYS");
+		
+		if (this.offHeapStore != null) {
+			
+			this.offHeapStore.clear(name);
+			
+			return;
+		}
+		
 		this.loadCache(name).clear();
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * <p>
+	 * Saves a final snapshot if enabled.
+	 * </p>
+	 */
+	@Override
+	public synchronized void close() {
+		
+		if (this.snapshotScheduler != null) {
+			
+			this.snapshotScheduler.shutdownNow();
+			this.snapshotScheduler = null;
+		}
+		
+		if (this.snapshotPath != null) {
+			
+			this.snapshotQuietly();
+			this.snapshotPath = null;
+		}
+		
+		if (this.offHeapStore != null) {
+			
+			this.offHeapStore.close();
+		}
+	}
+	
+	/**
+	 * Enable snapshots: restore entries from a file now, and save them to the file on {@link #close()} and
+	 * periodically
+	 * 
+	 * @param path snapshot file
+	 * @param interval interval of periodic snapshots, or only on {@link #close()} if {@code null} or not positive
+	 */
+	public synchronized void enableSnapshot(@NonNull Path path, Duration interval) {
+		
+		Assert.state(this.snapshotPath == null, "Snapshot is already enabled");
+		
+		try {
+			
+			this.restore(path);
+		}
+		catch (IOException | RuntimeException e) {
+			
+			logger.warn("Failed to restore cache snapshot: " + path, e);
+		}
+		
+		this.snapshotPath = path;
+		
+		if (interval != null && !interval.isZero() && !interval.isNegative()) {
+			
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-snapshot-");
+			threadFactory.setDaemon(true);
+			
+			long delay = interval.toMillis();
+			
+			this.snapshotScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+			this.snapshotScheduler.scheduleWithFixedDelay(this::snapshotQuietly, delay, delay, TimeUnit.MILLISECONDS);
+		}
+	}
+	
+	/**
+	 * Save live entries to a snapshot file
+	 * 
+	 * <p>
+	 * The file is written through a memory-mapped buffer to a temporary file, then moved to {@code path}. Format, in
+	 * big-endian: {@code [magic][version][cache count]}, then per cache {@code [name length][name][entry count]},
+	 * then per entry {@code [expiration][key length][key][value length][value]}. Lengths and counts are 4 bytes,
+	 * expiration is 8 bytes in epoch milliseconds or {@code 0} for no expiration.
+	 * </p>
+	 * 
+	 * @param path snapshot file
+	 * @return number of saved entries
+	 * @throws IOException if failed to write
+	 */
+	public synchronized int snapshot(@NonNull Path path) throws IOException {
+		
+		Map<String, List<XSnapshotEntry>> caches = this.collectEntries();
+		long size = 12;
+		int count = 0;
+		
+		for (Entry<String, List<XSnapshotEntry>> cache : caches.entrySet()) {
+			
+			size += 8 + cache.getKey().getBytes(StandardCharsets.UTF_8).length;
+			
+			for (XSnapshotEntry entry : cache.getValue()) {
+				
+				size += 16 + entry.key.length + entry.value.length;
+				count++;
+			}
+		}
+		
+		if (size > Integer.MAX_VALUE) {
+			
+			throw new IOException("Snapshot must not exceed 2 GB: " + size + " bytes");
+		}
+		
+		Path parent = path.toAbsolutePath().getParent();
+		
+		if (parent != null) {
+			
+			Files.createDirectories(parent);
+		}
+		
+		Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+			StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			
+			MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, size);
+			
+			buffer.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putInt(caches.size());
+			
+			for (Entry<String, List<XSnapshotEntry>> cache : caches.entrySet()) {
+				
+				byte[] name = cache.getKey().getBytes(StandardCharsets.UTF_8);
+				
+				buffer.putInt(name.length).put(name).putInt(cache.getValue().size());
+				
+				for (XSnapshotEntry entry : cache.getValue()) {
+					
+					buffer.putLong(entry.expiration);
+					buffer.putInt(entry.key.length).put(entry.key);
+					buffer.putInt(entry.value.length).put(entry.value);
+				}
+			}
+			
+			buffer.force();
+		}
+		
+		Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		
+		return count;
+	}
+	
+	/**
+	 * Restore entries from a snapshot file saved by {@link #snapshot(Path)}
+	 * 
+	 * <p>
+	 * Entries expired in the meantime are skipped, and the others get their remaining TTL. Faults are not injected.
+	 * </p>
+	 * 
+	 * @param path snapshot file
+	 * @return number of restored entries, {@code 0} if the file does not exist
+	 * @throws IOException if failed to read or the file is not a snapshot
+	 */
+	public synchronized int restore(@NonNull Path path) throws IOException {
+		
+		if (!Files.isRegularFile(path)) {
+			
+			return 0;
+		}
+		
+		long now = System.currentTimeMillis();
+		int count = 0;
+		
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			
+			if (buffer.remaining() < 12 || buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION) {
+				
+				throw new IOException("Not a cache snapshot: " + path);
+			}
+			
+			for (int caches = buffer.getInt(); caches > 0; caches--) {
+				
+				String name = new String(readBytes(buffer), StandardCharsets.UTF_8);
+				
+				for (int entries = buffer.getInt(); entries > 0; entries--) {
+					
+					long expiration = buffer.getLong();
+					byte[] key = readBytes(buffer);
+					byte[] value = readBytes(buffer);
+					
+					if (expiration == 0) {
+						
+						this.store(name, key, value, null);
+					}
+					else if (expiration > now) {
+						
+						this.store(name, key, value, Duration.ofMillis(expiration - now));
+					}
+					else {
+						
+						continue;
+					}
+					
+					count++;
+				}
+			}
+		}
+		catch (BufferUnderflowException e) {
+			
+			throw new IOException("Truncated cache snapshot: " + path, e);
+		}
+		
+		logger.info("Restored {} cache entries from {} in {} ms", count, path, System.currentTimeMillis() - now);
+		
+		return count;
+	}
+	
+	/**
+	 * Store a value without fault injection
+	 * 
+	 * @param name name
+	 * @param key key
+	 * @param value value
+	 * @param ttl TTL
+	 */
+	protected void store(String name, byte[] key, byte[] value, Duration ttl) {
+		
+		if (this.offHeapStore != null) {
+			
+			this.offHeapStore.put(name, key, value, ttl);
+			
+			return;
+		}
+		
+		this.loadCache(name).put(this.toCacheKey(key), this.toStoreValue(value, ttl));
+	}
+	
+	/**
+	 * Collect live entries by cache name
+	 * 
+	 * @return entries by cache name
+	 */
+	protected Map<String, List<XSnapshotEntry>> collectEntries() {
+		
+		Map<String, List<XSnapshotEntry>> caches = new LinkedHashMap<>();
+		
+		if (this.offHeapStore != null) {
+			
+			this.offHeapStore.forEach((name, key, value, expiration) -> caches
+				.computeIfAbsent(name, cacheName -> new ArrayList<>()).add(new XSnapshotEntry(key, value, expiration)));
+			
+			return caches;
+		}
+		
+		for (ConcurrentMapCache cache : this.delegate.values()) {
+			
+			List<XSnapshotEntry> entries = new ArrayList<>();
+			
+			cache.getNativeCache().forEach((key, value) -> {
+				
+				CacheStoreValue stored = (CacheStoreValue) value;
+				
+				if (key instanceof ByteBuffer && !stored.isExpired()) {
+					
+					ByteBuffer buffer = ((ByteBuffer) key).duplicate();
+					byte[] bytes = new byte[buffer.remaining()];
+					
+					buffer.get(bytes);
+					entries.add(new XSnapshotEntry(bytes, stored.getValue(), stored.getExpiration()));
+				}
+			});
+			
+			if (!entries.isEmpty()) {
+				
+				caches.put(cache.getName(), entries);
+			}
+		}
+		
+		return caches;
+	}
+	
+	/**
+	 * Save a snapshot to {@link #getSnapshotPath()}, logging failures
+	 */
+	private synchronized void snapshotQuietly() {
+		
+		if (this.snapshotPath == null) {
+			
+			return;
+		}
+		
+		try {
+			
+			int count = this.snapshot(this.snapshotPath);
+			
+			logger.debug("Saved {} cache entries to {}", count, this.snapshotPath);
+		}
+		catch (IOException | RuntimeException e) {
+			
+			logger.warn("Failed to save cache snapshot: " + this.snapshotPath, e);
+		}
+	}
+	
 	/**
 	 * Load cache
 	 * 
@@ -122,6 +520,17 @@ public class MockRedisCacheWriter extends DefaultRedisCacheWriter {
 		}
 	}
 	
+	/**
+	 * To cache key
+	 * 
+	 * @param key key
+	 * @return cache key compared by content
+	 */
+	protected Object toCacheKey(byte[] key) {
+		
+		return ByteBuffer.wrap(key);
+	}
+	
 	/**
 	 * To store value
 	 * 
@@ -174,6 +583,51 @@ public class MockRedisCacheWriter extends DefaultRedisCacheWriter {
 		return (RedisConnectionFactory) ReflectionUtils.getField(field, cacheWriter);
 	}
 	
+	/**
+	 * Read length-prefixed bytes
+	 * 
+	 * @param buffer {@link ByteBuffer}
+	 * @return bytes
+	 * @throws IOException if the length is invalid
+	 */
+	private static byte[] readBytes(ByteBuffer buffer) throws IOException {
+		
+		int length = buffer.getInt();
+		
+		if (length < 0 || length > buffer.remaining()) {
+			
+			throw new IOException("Invalid length in cache snapshot: " + length);
+		}
+		
+		byte[] bytes = new byte[length];
+		
+		buffer.get(bytes);
+		
+		return bytes;
+	}
+	
+	/**
+	 * Entry of snapshot
+	 */
+	@RequiredArgsConstructor
+	protected static class XSnapshotEntry {
+		
+		/**
+		 * Key
+		 */
+		private final byte[] key;
+		
+		/**
+		 * Value
+		 */
+		private final byte[] value;
+		
+		/**
+		 * Expiration in epoch milliseconds, {@code 0} for no expiration
+		 */
+		private final long expiration;
+	}
+	
 	/**
 	 * Cache store value
 	 */
@@ -186,9 +640,10 @@ public class MockRedisCacheWriter extends DefaultRedisCacheWriter {
 		private byte[] value;
 		
 		/**
-		 * Expiration
+		 * Expiration in epoch milliseconds, {@code 0} for no expiration
 		 */
-		private LocalDateTime expiration;
+		@Getter
+		private long expiration;
 		
 		/**
 		 * Constructor
@@ -202,7 +657,7 @@ public class MockRedisCacheWriter extends DefaultRedisCacheWriter {
 			
 			if (ttl != null && !ttl.isZero() && !ttl.isNegative()) {
 				
-				this.expiration = LocalDateTime.now().plus(ttl);
+				this.expiration = System.currentTimeMillis() + ttl.toMillis();
 			}
 		}
 		
@@ -213,12 +668,7 @@ public class MockRedisCacheWriter extends DefaultRedisCacheWriter {
 		 */
 		public boolean isExpired() {
 			
-			if (this.expiration == null) {
-				
-				return false;
-			}
-			
-			return this.expiration.isBefore(LocalDateTime.now());
+			return this.expiration != 0 && this.expiration < System.currentTimeMillis();
 		}
 	}
 }
@@ -0,0 +1,1046 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.cache;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.util.Assert;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Off-heap store of serialized cache entries
+ * 
+ * <p>
+ * Entries are kept in direct {@link ByteBuffer} slabs split into fixed-size blocks, so values do not add to the GC
+ * heap. Each segment has its own lock, slab and open-addressing index of primitive arrays. An entry is a chain of
+ * blocks, and when free blocks run out entries are evicted by the CLOCK (second chance) algorithm, expired entries
+ * first.
+ * </p>
+ * 
+ * <p>
+ * Entries are keyed by the serialized key like Redis. The cache name is kept for {@link #clear(String)}. Direct memory
+ * is released when the store becomes unreachable.
+ * </p>
+ */
+public class OffHeapCacheStore implements Closeable {
+	
+	/**
+	 * Size of entry header: name length, key length, value length and expiration
+	 */
+	private static final int HEADER_SIZE = 20;
+	
+	/**
+	 * Size of the link to the next block
+	 */
+	private static final int LINK_SIZE = 4;
+	
+	/**
+	 * Minimum block size
+	 */
+	private static final int MIN_BLOCK_SIZE = 64;
+	
+	/**
+	 * No block or slot
+	 */
+	private static final int NONE = -1;
+	
+	/**
+	 * {@link XSegment}s
+	 */
+	private final XSegment[] segments;
+	
+	/**
+	 * Shift of hash to select a segment
+	 */
+	private final int segmentShift;
+	
+	/**
+	 * Capacity in bytes
+	 */
+	@Getter
+	private final long capacity;
+	
+	/**
+	 * Block size in bytes
+	 */
+	@Getter
+	private final int blockSize;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param capacity capacity in bytes
+	 */
+	public OffHeapCacheStore(long capacity) {
+		
+		this(capacity, 16, 256);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param capacity capacity in bytes
+	 * @param concurrency number of segments, rounded up to a power of two
+	 * @param blockSize block size in bytes
+	 */
+	public OffHeapCacheStore(long capacity, int concurrency, int blockSize) {
+		
+		Assert.isTrue(concurrency > 0, "Concurrency must be positive");
+		Assert.isTrue(blockSize >= MIN_BLOCK_SIZE, String.format("Block size must be at least %d", MIN_BLOCK_SIZE));
+		
+		int count = 1;
+		
+		while (count < concurrency) {
+			
+			count <<= 1;
+		}
+		
+		long segmentCapacity = capacity / count / blockSize * blockSize;
+		
+		Assert.isTrue(segmentCapacity > 0, "Capacity must be at least concurrency * block size");
+		Assert.isTrue(segmentCapacity <= Integer.MAX_VALUE, "Capacity of a segment must not exceed 2 GB");
+		
+		this.segments = new XSegment[count];
+		
+		for (int i = 0; i < count; i++) {
+			
+			this.segments[i] = new XSegment((int) (segmentCapacity / blockSize), blockSize);
+		}
+		
+		this.segmentShift = 32 - Integer.numberOfTrailingZeros(count);
+		this.capacity = segmentCapacity * count;
+		this.blockSize = blockSize;
+	}
+	
+	/**
+	 * Get a value
+	 * 
+	 * @param key key
+	 * @return value, {@code null} if not found or expired
+	 */
+	public byte[] get(@NonNull byte[] key) {
+		
+		int hash = hash(key);
+		
+		return this.segment(hash).get(hash, key, System.currentTimeMillis());
+	}
+	
+	/**
+	 * Put a value
+	 * 
+	 * @param name cache name
+	 * @param key key
+	 * @param value value
+	 * @param ttl time to live ({@code null} or {@link Duration#ZERO} for no expiration)
+	 * @return {@code false} if the entry is larger than a segment and not stored
+	 */
+	public boolean put(@NonNull String name, @NonNull byte[] key, @NonNull byte[] value, Duration ttl) {
+		
+		int hash = hash(key);
+		
+		return this.segment(hash).put(hash, name.getBytes(StandardCharsets.UTF_8), key, value, ttl, false) != null;
+	}
+	
+	/**
+	 * Put a value if absent
+	 * 
+	 * @param name cache name
+	 * @param key key
+	 * @param value value
+	 * @param ttl time to live ({@code null} or {@link Duration#ZERO} for no expiration)
+	 * @return existing value, {@code null} if absent
+	 */
+	public byte[] putIfAbsent(@NonNull String name, @NonNull byte[] key, @NonNull byte[] value, Duration ttl) {
+		
+		int hash = hash(key);
+		byte[] existing = this.segment(hash).put(hash, name.getBytes(StandardCharsets.UTF_8), key, value, ttl, true);
+		
+		return existing == value ? null : existing;
+	}
+	
+	/**
+	 * Remove a value
+	 * 
+	 * @param key key
+	 */
+	public void remove(@NonNull byte[] key) {
+		
+		int hash = hash(key);
+		
+		this.segment(hash).remove(hash, key);
+	}
+	
+	/**
+	 * Remove all values of a cache
+	 * 
+	 * @param name cache name
+	 */
+	public void clear(@NonNull String name) {
+		
+		byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		
+		for (XSegment segment : this.segments) {
+			
+			segment.clear(nameBytes);
+		}
+	}
+	
+	/**
+	 * Remove all values
+	 */
+	public void clear() {
+		
+		for (XSegment segment : this.segments) {
+			
+			segment.clear();
+		}
+	}
+	
+	/**
+	 * Iterate over live entries, segment by segment
+	 * 
+	 * <p>
+	 * The consumer is called under the lock of a segment and must not access this store.
+	 * </p>
+	 * 
+	 * @param consumer {@link XEntryConsumer}
+	 */
+	public void forEach(@NonNull XEntryConsumer consumer) {
+		
+		long now = System.currentTimeMillis();
+		
+		for (XSegment segment : this.segments) {
+			
+			segment.forEach(consumer, now);
+		}
+	}
+	
+	/**
+	 * Get number of entries
+	 * 
+	 * @return number of entries
+	 */
+	public long getSize() {
+		
+		return Arrays.stream(this.segments).mapToLong(XSegment::getSize).sum();
+	}
+	
+	/**
+	 * Get used bytes
+	 * 
+	 * @return used bytes in blocks
+	 */
+	public long getUsedBytes() {
+		
+		return Arrays.stream(this.segments).mapToLong(XSegment::getUsedBlocks).sum() * this.blockSize;
+	}
+	
+	/**
+	 * Get number of evicted entries
+	 * 
+	 * @return number of evicted entries
+	 */
+	public long getEvictionCount() {
+		
+		return Arrays.stream(this.segments).mapToLong(XSegment::getEvictionCount).sum();
+	}
+	
+	@Override
+	public void close() {
+		
+		this.clear();
+	}
+	
+	/**
+	 * Select a segment
+	 * 
+	 * @param hash hash
+	 * @return {@link XSegment}
+	 */
+	private XSegment segment(int hash) {
+		
+		return this.segments.length == 1 ? this.segments[0] : this.segments[hash >>> this.segmentShift];
+	}
+	
+	/**
+	 * Hash of a key
+	 * 
+	 * @param key key
+	 * @return hash mixed by the finalizer of MurmurHash3
+	 */
+	private static int hash(byte[] key) {
+		
+		int hash = Arrays.hashCode(key);
+		
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		hash *= 0xc2b2ae35;
+		hash ^= hash >>> 16;
+		
+		return hash;
+	}
+	
+	/**
+	 * Consumer of entries
+	 */
+	@FunctionalInterface
+	public interface XEntryConsumer {
+		
+		/**
+		 * Accept an entry
+		 * 
+		 * @param name cache name
+		 * @param key key
+		 * @param value value
+		 * @param expiration expiration in epoch milliseconds, {@code 0} for no expiration
+		 */
+		void accept(String name, byte[] key, byte[] value, long expiration);
+	}
+	
+	/**
+	 * Segment
+	 * 
+	 * <p>
+	 * Block layout: {@code [next block][payload]}. Entry layout across the payloads of a chain:
+	 * {@code [name length][key length][value length][expiration][name][key][value]}.
+	 * </p>
+	 */
+	private static class XSegment {
+		
+		/**
+		 * Lock
+		 */
+		private final ReentrantLock lock = new ReentrantLock();
+		
+		/**
+		 * Slab
+		 */
+		private final ByteBuffer slab;
+		
+		/**
+		 * Block size
+		 */
+		private final int blockSize;
+		
+		/**
+		 * Payload size of a block
+		 */
+		private final int payloadSize;
+		
+		/**
+		 * Stack of free blocks
+		 */
+		private final int[] freeBlocks;
+		
+		/**
+		 * Number of free blocks
+		 */
+		private int freeCount;
+		
+		/**
+		 * Hashes by slot
+		 */
+		private final int[] hashes;
+		
+		/**
+		 * Head blocks by slot, {@link #NONE} if empty
+		 */
+		private final int[] heads;
+		
+		/**
+		 * Referenced bits of CLOCK by slot
+		 */
+		private final BitSet referenced;
+		
+		/**
+		 * Mask of slots
+		 */
+		private final int mask;
+		
+		/**
+		 * Number of entries
+		 */
+		private int size;
+		
+		/**
+		 * Hand of CLOCK
+		 */
+		private int hand;
+		
+		/**
+		 * Number of evicted entries
+		 */
+		private long evictionCount;
+		
+		/**
+		 * Block of cursor
+		 */
+		private int cursorBlock;
+		
+		/**
+		 * Offset in payload of cursor
+		 */
+		private int cursorOffset;
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param blockCount number of blocks
+		 * @param blockSize block size
+		 */
+		XSegment(int blockCount, int blockSize) {
+			
+			int slots = Integer.highestOneBit(blockCount + blockCount / 3 + 1) << 1;
+			
+			this.slab = ByteBuffer.allocateDirect(blockCount * blockSize);
+			this.blockSize = blockSize;
+			this.payloadSize = blockSize - LINK_SIZE;
+			this.freeBlocks = new int[blockCount];
+			this.hashes = new int[slots];
+			this.heads = new int[slots];
+			this.referenced = new BitSet(slots);
+			this.mask = slots - 1;
+			
+			this.clear();
+		}
+		
+		/**
+		 * Get a value
+		 * 
+		 * @param hash hash
+		 * @param key key
+		 * @param now current time in milliseconds
+		 * @return value or {@code null}
+		 */
+		byte[] get(int hash, byte[] key, long now) {
+			
+			this.lock.lock();
+			
+			try {
+				
+				int slot = this.find(hash, key);
+				
+				if (slot == NONE) {
+					
+					return null;
+				}
+				
+				if (this.isExpired(this.heads[slot], now)) {
+					
+					this.removeAt(slot);
+					
+					return null;
+				}
+				
+				this.referenced.set(slot);
+				
+				return this.readValue(this.heads[slot]);
+			}
+			finally {
+				
+				this.lock.unlock();
+			}
+		}
+		
+		/**
+		 * Put a value
+		 * 
+		 * @param hash hash
+		 * @param name name
+		 * @param key key
+		 * @param value value
+		 * @param ttl TTL
+		 * @param onlyIfAbsent keep an existing value
+		 * @return existing value if kept, {@code value} if stored, {@code null} if too large
+		 */
+		byte[] put(int hash, byte[] name, byte[] key, byte[] value, Duration ttl, boolean onlyIfAbsent) {
+			
+			long now = System.currentTimeMillis();
+			long length = (long) HEADER_SIZE + name.length + key.length + value.length;
+			long blocks = (length + this.payloadSize - 1) / this.payloadSize;
+			
+			this.lock.lock();
+			
+			try {
+				
+				int slot = this.find(hash, key);
+				
+				if (slot != NONE) {
+					
+					if (onlyIfAbsent && !this.isExpired(this.heads[slot], now)) {
+						
+						this.referenced.set(slot);
+						
+						return this.readValue(this.heads[slot]);
+					}
+					
+					this.removeAt(slot);
+				}
+				
+				if (blocks > this.freeBlocks.length) {
+					
+					return null;
+				}
+				
+				while (this.freeCount < blocks) {
+					
+					this.evict(now);
+				}
+				
+				long expiration = ttl != null && !ttl.isZero() && !ttl.isNegative() ? now + ttl.toMillis() : 0;
+				
+				this.insert(hash, this.write((int) blocks, name, key, value, expiration));
+				
+				return value;
+			}
+			finally {
+				
+				this.lock.unlock();
+			}
+		}
+		
+		/**
+		 * Remove a value
+		 * 
+		 * @param hash hash
+		 * @param key key
+		 */
+		void remove(int hash, byte[] key) {
+			
+			this.lock.lock();
+			
+			try {
+				
+				int slot = this.find(hash, key);
+				
+				if (slot != NONE) {
+					
+					this.removeAt(slot);
+				}
+			}
+			finally {
+				
+				this.lock.unlock();
+			}
+		}
+		
+		/**
+		 * Remove all values of a cache
+		 * 
+		 * @param name name
+		 */
+		void clear(byte[] name) {
+			
+			this.lock.lock();
+			
+			try {
+				
+				int[] hashes = new int[this.size];
+				int[] heads = new int[this.size];
+				int count = 0;
+				
+				for (int slot = 0; slot <= this.mask; slot++) {
+					
+					if (this.heads[slot] != NONE && this.nameEquals(this.heads[slot], name)) {
+						
+						hashes[count] = this.hashes[slot];
+						heads[count++] = this.heads[slot];
+					}
+				}
+				
+				for (int i = 0; i < count; i++) {
+					
+					this.removeAt(this.slotOf(hashes[i], heads[i]));
+				}
+			}
+			finally {
+				
+				this.lock.unlock();
+			}
+		}
+		
+		/**
+		 * Remove all values
+		 */
+		void clear() {
+			
+			this.lock.lock();
+			
+			try {
+				
+				for (int i = 0; i < this.freeBlocks.length; i++) {
+					
+					this.freeBlocks[i] = this.freeBlocks.length - 1 - i;
+				}
+				
+				Arrays.fill(this.heads, NONE);
+				this.referenced.clear();
+				this.freeCount = this.freeBlocks.length;
+				this.size = 0;
+			}
+			finally {
+				
+				this.lock.unlock();
+			}
+		}
+		
+		/**
+		 * Iterate over live entries
+		 * 
+		 * @param consumer {@link XEntryConsumer}
+		 * @param now current time in milliseconds
+		 */
+		void forEach(XEntryConsumer consumer, long now) {
+			
+			this.lock.lock();
+			
+			try {
+				
+				for (int slot = 0; slot <= this.mask; slot++) {
+					
+					int head = this.heads[slot];
+					
+					if (head == NONE || this.isExpired(head, now)) {
+						
+						continue;
+					}
+					
+					int base = head * this.blockSize + LINK_SIZE;
+					byte[] name = new byte[this.slab.getInt(base)];
+					byte[] key = new byte[this.slab.getInt(base + 4)];
+					byte[] value = new byte[this.slab.getInt(base + 8)];
+					
+					this.seek(head, HEADER_SIZE);
+					this.read(name);
+					this.read(key);
+					this.read(value);
+					
+					consumer.accept(new String(name, StandardCharsets.UTF_8), key, value,
+						this.slab.getLong(base + 12));
+				}
+			}
+			finally {
+				
+				this.lock.unlock();
+			}
+		}
+		
+		/**
+		 * Get number of entries
+		 * 
+		 * @return number of entries
+		 */
+		long getSize() {
+			
+			this.lock.lock();
+			
+			try {
+				
+				return this.size;
+			}
+			finally {
+				
+				this.lock.unlock();
+			}
+		}
+		
+		/**
+		 * Get number of used blocks
+		 * 
+		 * @return number of used blocks
+		 */
+		long getUsedBlocks() {
+			
+			this.lock.lock();
+			
+			try {
+				
+				return this.freeBlocks.length - this.freeCount;
+			}
+			finally {
+				
+				this.lock.unlock();
+			}
+		}
+		
+		/**
+		 * Get number of evicted entries
+		 * 
+		 * @return number of evicted entries
+		 */
+		long getEvictionCount() {
+			
+			this.lock.lock();
+			
+			try {
+				
+				return this.evictionCount;
+			}
+			finally {
+				
+				this.lock.unlock();
+			}
+		}
+		
+		/**
+		 * Find the slot of a key
+		 * 
+		 * @param hash hash
+		 * @param key key
+		 * @return slot or {@link #NONE}
+		 */
+		private int find(int hash, byte[] key) {
+			
+			for (int slot = hash & this.mask; this.heads[slot] != NONE; slot = (slot + 1) & this.mask) {
+				
+				if (this.hashes[slot] == hash && this.keyEquals(this.heads[slot], key)) {
+					
+					return slot;
+				}
+			}
+			
+			return NONE;
+		}
+		
+		/**
+		 * Find the slot of a head block
+		 * 
+		 * @param hash hash
+		 * @param head head block
+		 * @return slot
+		 */
+		private int slotOf(int hash, int head) {
+			
+			int slot = hash & this.mask;
+			
+			while (this.heads[slot] != head) {
+				
+				slot = (slot + 1) & this.mask;
+			}
+			
+			return slot;
+		}
+		
+		/**
+		 * Insert a head block
+		 * 
+		 * @param hash hash
+		 * @param head head block
+		 */
+		private void insert(int hash, int head) {
+			
+			int slot = hash & this.mask;
+			
+			while (this.heads[slot] != NONE) {
+				
+				slot = (slot + 1) & this.mask;
+			}
+			
+			this.hashes[slot] = hash;
+			this.heads[slot] = head;
+			this.referenced.clear(slot);
+			this.size++;
+		}
+		
+		/**
+		 * Remove the entry of a slot, shifting back the following entries of its probe sequence
+		 * 
+		 * @param slot slot
+		 */
+		private void removeAt(int slot) {
+			
+			for (int block = this.heads[slot]; block != NONE;) {
+				
+				int next = this.slab.getInt(block * this.blockSize);
+				
+				this.freeBlocks[this.freeCount++] = block;
+				block = next;
+			}
+			
+			int hole = slot;
+			
+			for (int i = (hole + 1) & this.mask; this.heads[i] != NONE; i = (i + 1) & this.mask) {
+				
+				int home = this.hashes[i] & this.mask;
+				boolean reachable = hole <= i ? hole < home && home <= i : hole < home || home <= i;
+				
+				if (!reachable) {
+					
+					this.hashes[hole] = this.hashes[i];
+					this.heads[hole] = this.heads[i];
+					this.referenced.set(hole, this.referenced.get(i));
+					hole = i;
+				}
+			}
+			
+			this.heads[hole] = NONE;
+			this.referenced.clear(hole);
+			this.size--;
+		}
+		
+		/**
+		 * Evict an entry by CLOCK
+		 * 
+		 * @param now current time in milliseconds
+		 */
+		private void evict(long now) {
+			
+			while (true) {
+				
+				this.hand = (this.hand + 1) & this.mask;
+				
+				if (this.heads[this.hand] == NONE) {
+					
+					continue;
+				}
+				
+				if (this.referenced.get(this.hand) && !this.isExpired(this.heads[this.hand], now)) {
+					
+					this.referenced.clear(this.hand);
+					
+					continue;
+				}
+				
+				this.removeAt(this.hand);
+				this.evictionCount++;
+				this.hand = (this.hand - 1) & this.mask;
+				
+				return;
+			}
+		}
+		
+		/**
+		 * Write an entry
+		 * 
+		 * @param blocks number of blocks
+		 * @param name name
+		 * @param key key
+		 * @param value value
+		 * @param expiration expiration in milliseconds, {@code 0} for no expiration
+		 * @return head block
+		 */
+		private int write(int blocks, byte[] name, byte[] key, byte[] value, long expiration) {
+			
+			int head = this.freeBlocks[--this.freeCount];
+			int block = head;
+			
+			for (int i = 1; i < blocks; i++) {
+				
+				int next = this.freeBlocks[--this.freeCount];
+				
+				this.slab.putInt(block * this.blockSize, next);
+				block = next;
+			}
+			
+			this.slab.putInt(block * this.blockSize, NONE);
+			
+			int base = head * this.blockSize + LINK_SIZE;
+			
+			this.slab.putInt(base, name.length);
+			this.slab.putInt(base + 4, key.length);
+			this.slab.putInt(base + 8, value.length);
+			this.slab.putLong(base + 12, expiration);
+			
+			this.seek(head, HEADER_SIZE);
+			this.write(name);
+			this.write(key);
+			this.write(value);
+			
+			return head;
+		}
+		
+		/**
+		 * Read the value of an entry
+		 * 
+		 * @param head head block
+		 * @return value
+		 */
+		private byte[] readValue(int head) {
+			
+			int base = head * this.blockSize + LINK_SIZE;
+			byte[] value = new byte[this.slab.getInt(base + 8)];
+			
+			this.seek(head, (long) HEADER_SIZE + this.slab.getInt(base) + this.slab.getInt(base + 4));
+			this.read(value);
+			
+			return value;
+		}
+		
+		/**
+		 * Whether the key of an entry is equal
+		 * 
+		 * @param head head block
+		 * @param key key
+		 * @return equal or not
+		 */
+		private boolean keyEquals(int head, byte[] key) {
+			
+			int base = head * this.blockSize + LINK_SIZE;
+			
+			if (this.slab.getInt(base + 4) != key.length) {
+				
+				return false;
+			}
+			
+			this.seek(head, HEADER_SIZE + this.slab.getInt(base));
+			
+			return this.matches(key);
+		}
+		
+		/**
+		 * Whether the name of an entry is equal
+		 * 
+		 * @param head head block
+		 * @param name name
+		 * @return equal or not
+		 */
+		private boolean nameEquals(int head, byte[] name) {
+			
+			if (this.slab.getInt(head * this.blockSize + LINK_SIZE) != name.length) {
+				
+				return false;
+			}
+			
+			this.seek(head, HEADER_SIZE);
+			
+			return this.matches(name);
+		}
+		
+		/**
+		 * Whether an entry is expired
+		 * 
+		 * @param head head block
+		 * @param now current time in milliseconds
+		 * @return expired or not
+		 */
+		private boolean isExpired(int head, long now) {
+			
+			long expiration = this.slab.getLong(head * this.blockSize + LINK_SIZE + 12);
+			
+			return expiration != 0 && expiration <= now;
+		}
+		
+		/**
+		 * Move the cursor
+		 * 
+		 * @param head head block
+		 * @param position position in the entry
+		 */
+		private void seek(int head, long position) {
+			
+			int block = head;
+			
+			while (position >= this.payloadSize) {
+				
+				block = this.slab.getInt(block * this.blockSize);
+				position -= this.payloadSize;
+			}
+			
+			this.cursorBlock = block;
+			this.cursorOffset = (int) position;
+		}
+		
+		/**
+		 * Write bytes at the cursor
+		 * 
+		 * @param source bytes
+		 */
+		private void write(byte[] source) {
+			
+			for (int done = 0; done < source.length;) {
+				
+				int length = this.advance(source.length - done);
+				
+				this.slab.put(source, done, length);
+				done += length;
+			}
+		}
+		
+		/**
+		 * Read bytes at the cursor
+		 * 
+		 * @param target bytes
+		 */
+		private void read(byte[] target) {
+			
+			for (int done = 0; done < target.length;) {
+				
+				int length = this.advance(target.length - done);
+				
+				this.slab.get(target, done, length);
+				done += length;
+			}
+		}
+		
+		/**
+		 * Whether bytes at the cursor match
+		 * 
+		 * @param bytes bytes
+		 * @return match or not
+		 */
+		private boolean matches(byte[] bytes) {
+			
+			for (int done = 0; done < bytes.length;) {
+				
+				int length = this.advance(bytes.length - done);
+				
+				for (int i = 0; i < length; i++) {
+					
+					if (this.slab.get() != bytes[done + i]) {
+						
+						return false;
+					}
+				}
+				
+				done += length;
+			}
+			
+			return true;
+		}
+		
+		/**
+		 * Position the slab at the cursor and advance the cursor in the current block
+		 * 
+		 * @param remaining remaining bytes
+		 * @return number of bytes available in the current block
+		 */
+		private int advance(int remaining) {
+			
+			if (this.cursorOffset == this.payloadSize) {
+				
+				this.cursorBlock = this.slab.getInt(this.cursorBlock * this.blockSize);
+				this.cursorOffset = 0;
+			}
+			
+			int length = Math.min(this.payloadSize - this.cursorOffset, remaining);
+			
+			this.slab.position(this.cursorBlock * this.blockSize + LINK_SIZE + this.cursorOffset);
+			this.cursorOffset += length;
+			
+			return length;
+		}
+	}
+}
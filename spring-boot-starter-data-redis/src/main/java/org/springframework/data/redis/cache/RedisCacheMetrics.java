@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.cache;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.redis.cache.CachePhaseRecorder.XHistogram;
+import org.springframework.data.redis.cache.CachePhaseRecorder.XPhase;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.NonNull;
+
+/**
+ * Redis cache {@link MeterBinder}
+ */
+public class RedisCacheMetrics implements MeterBinder {
+	
+	/**
+	 * Prefix of meter names
+	 */
+	public static final String PREFIX = "redis.cache";
+	
+	/**
+	 * Percentiles of phases
+	 */
+	private static final double[] PERCENTILES = { 0.5, 0.99 };
+	
+	/**
+	 * {@link RedisCacheManager}
+	 */
+	private final RedisCacheManager cacheManager;
+	
+	/**
+	 * Tags
+	 */
+	private final Iterable<Tag> tags;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param cacheManager {@link RedisCacheManager}
+	 */
+	public RedisCacheMetrics(RedisCacheManager cacheManager) {
+		
+		this(cacheManager, Collections.emptyList());
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param cacheManager {@link RedisCacheManager}
+	 * @param tags tags
+	 */
+	public RedisCacheMetrics(@NonNull RedisCacheManager cacheManager, @NonNull Iterable<Tag> tags) {
+		
+		this.cacheManager = cacheManager;
+		this.tags = tags;
+	}
+	
+	@Override
+	public void bindTo(@NonNull MeterRegistry registry) {
+		
+		RedisCacheWriter cacheWriter = CustomRedisCacheManager.getCacheWriter(this.cacheManager);
+		
+		if (this.cacheManager instanceof CustomRedisCacheManager) {
+			
+			this.bindCacheManagerTo((CustomRedisCacheManager) this.cacheManager, registry);
+		}
+		
+		if (cacheWriter instanceof CustomRedisCacheWriter) {
+			
+			this.bindCacheWriterTo((CustomRedisCacheWriter) cacheWriter, registry);
+		}
+	}
+	
+	/**
+	 * Bind metrics of {@link CustomRedisCacheManager}
+	 * 
+	 * @param cacheManager {@link CustomRedisCacheManager}
+	 * @param registry {@link MeterRegistry}
+	 */
+	protected void bindCacheManagerTo(CustomRedisCacheManager cacheManager, MeterRegistry registry) {
+		
+		FunctionCounter
+			.builder(PREFIX + ".gets.negative", cacheManager, CustomRedisCacheManager::getNegativeHitCount)
+			.tags(this.tags).description("Number of hits of negative entries").register(registry);
+		
+		CachePhaseRecorder phaseRecorder = cacheManager.getPhaseRecorder();
+		
+		if (phaseRecorder.getSampleRate() > 0) {
+			
+			phaseRecorder.addListener((name, phase) -> this.bindPhaseTo(phaseRecorder, name, phase, registry));
+		}
+	}
+	
+	/**
+	 * Bind metrics of a phase of {@link CachePhaseRecorder}
+	 * 
+	 * <p>
+	 * Percentiles are cumulative since startup.
+	 * </p>
+	 * 
+	 * @param phaseRecorder {@link CachePhaseRecorder}
+	 * @param name cache name
+	 * @param phase {@link XPhase}
+	 * @param registry {@link MeterRegistry}
+	 */
+	protected void bindPhaseTo(CachePhaseRecorder phaseRecorder, String name, XPhase phase, MeterRegistry registry) {
+		
+		XHistogram histogram = phaseRecorder.get(name, phase);
+		Tags tags = Tags.of(this.tags).and("cache", name).and("phase", phase.getTag());
+		
+		/* @formatter:off */
+		FunctionTimer.builder(PREFIX + ".phase", histogram, XHistogram::getCount, XHistogram::getTotal,
+			TimeUnit.NANOSECONDS)
+			.tags(tags).description("Sampled durations of a phase of cache operations").register(registry);
+		/* @formatter:on */
+		
+		Gauge.builder(PREFIX + ".phase.max", histogram, value -> value.getMax() / 1e9).tags(tags)
+			.description("Max duration of a phase in seconds").register(registry);
+		
+		for (double percentile : PERCENTILES) {
+			
+			Gauge.builder(PREFIX + ".phase.percentile", histogram, value -> value.getPercentile(percentile) / 1e9)
+				.tags(tags.and("phi", String.valueOf(percentile)))
+				.description("Percentile of durations of a phase in seconds").register(registry);
+		}
+	}
+	
+	/**
+	 * Bind metrics of {@link CustomRedisCacheWriter}
+	 * 
+	 * @param cacheWriter {@link CustomRedisCacheWriter}
+	 * @param registry {@link MeterRegistry}
+	 */
+	protected void bindCacheWriterTo(CustomRedisCacheWriter cacheWriter, MeterRegistry registry) {
+		
+		FunctionCounter
+			.builder(PREFIX + ".reads.degraded", cacheWriter, CustomRedisCacheWriter::getDegradedReadCount)
+			.tags(this.tags).description("Number of reads treated as misses by timeout").register(registry);
+	}
+}
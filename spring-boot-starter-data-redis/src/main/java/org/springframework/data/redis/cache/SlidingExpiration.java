@@ -0,0 +1,291 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.cache;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+/**
+ * Sliding expiration of caches
+ * 
+ * <p>
+ * Keys read from registered caches are recorded locally, and their TTL is refreshed by {@code PEXPIRE} in
+ * deduplicated batches every flush interval. Batches are pipelined except for {@link RedisClusterConnection}.
+ * </p>
+ */
+public class SlidingExpiration implements Closeable {
+	
+	/**
+	 * {@link Logger}
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(SlidingExpiration.class);
+	
+	/**
+	 * {@link RedisConnectionFactory}
+	 */
+	private final RedisConnectionFactory connectionFactory;
+	
+	/**
+	 * TTL by cache name
+	 */
+	private final Map<String, Duration> ttls = new ConcurrentHashMap<>();
+	
+	/**
+	 * Touched keys by cache name
+	 */
+	private final Map<String, Set<ByteBuffer>> touched = new ConcurrentHashMap<>();
+	
+	/**
+	 * Number of commands to sync a pipeline
+	 */
+	@Getter
+	@Setter
+	private int pipelineFlushSize = 128;
+	
+	/**
+	 * Count of refreshed keys
+	 */
+	private final LongAdder refreshCount = new LongAdder();
+	
+	/**
+	 * {@link ScheduledExecutorService} for interval flush
+	 */
+	private final ScheduledExecutorService scheduler;
+	
+	/**
+	 * {@link ScheduledFuture} of interval flush
+	 */
+	private final ScheduledFuture<?> scheduledFlush;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param connectionFactory {@link RedisConnectionFactory} of master
+	 * @param flushInterval interval of flush
+	 */
+	public SlidingExpiration(@NonNull RedisConnectionFactory connectionFactory, @NonNull Duration flushInterval) {
+		
+		Assert.isTrue(!flushInterval.isNegative() && !flushInterval.isZero(), "Flush interval must be positive");
+		
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-sliding-expiration-");
+		threadFactory.setDaemon(true);
+		
+		long interval = flushInterval.toMillis();
+		
+		this.connectionFactory = connectionFactory;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		this.scheduledFlush = this.scheduler.scheduleWithFixedDelay(this::flushQuietly, interval, interval,
+			TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Register a cache
+	 * 
+	 * @param name cache name
+	 * @param ttl TTL refreshed on reads
+	 */
+	public void register(@NonNull String name, @NonNull Duration ttl) {
+		
+		Assert.isTrue(!ttl.isNegative() && !ttl.isZero(), "TTL of sliding expiration must be positive");
+		
+		this.ttls.put(name, ttl);
+	}
+	
+	/**
+	 * Whether a cache is registered
+	 * 
+	 * @param name cache name
+	 * @return registered or not
+	 */
+	public boolean isRegistered(String name) {
+		
+		return this.ttls.containsKey(name);
+	}
+	
+	/**
+	 * Get TTL of a cache
+	 * 
+	 * @param name cache name
+	 * @return TTL refreshed on reads, {@code null} if not registered
+	 */
+	public Duration getTtl(String name) {
+		
+		return this.ttls.get(name);
+	}
+	
+	/**
+	 * Record a read key
+	 * 
+	 * @param name cache name
+	 * @param key key
+	 */
+	public void touch(String name, byte[] key) {
+		
+		if (this.ttls.containsKey(name)) {
+			
+			this.touched.computeIfAbsent(name, cacheName -> ConcurrentHashMap.newKeySet()).add(ByteBuffer.wrap(key));
+		}
+	}
+	
+	/**
+	 * Refresh TTL of touched keys
+	 */
+	public void flush() {
+		
+		for (Entry<String, Set<ByteBuffer>> entry : this.touched.entrySet()) {
+			
+			List<byte[]> keys = drain(entry.getValue());
+			
+			if (keys.isEmpty()) {
+				
+				continue;
+			}
+			
+			long ttl = this.ttls.get(entry.getKey()).toMillis();
+			RedisConnection connection = this.connectionFactory.getConnection();
+			
+			try {
+				
+				if (connection instanceof RedisClusterConnection) {
+					
+					keys.forEach(key -> connection.pExpire(key, ttl));
+				}
+				else {
+					
+					this.pExpire(connection, keys, ttl);
+				}
+			}
+			finally {
+				
+				connection.close();
+			}
+			
+			this.refreshCount.add(keys.size());
+		}
+	}
+	
+	/**
+	 * Get count of refreshed keys
+	 * 
+	 * @return count of refreshed keys
+	 */
+	public long getRefreshCount() {
+		
+		return this.refreshCount.sum();
+	}
+	
+	@Override
+	public void close() {
+		
+		this.scheduledFlush.cancel(false);
+		this.scheduler.shutdown();
+		
+		this.flushQuietly();
+	}
+	
+	/**
+	 * {@code PEXPIRE} in pipelines
+	 * 
+	 * @param connection {@link RedisConnection}
+	 * @param keys keys
+	 * @param ttl TTL in milliseconds
+	 */
+	protected void pExpire(RedisConnection connection, List<byte[]> keys, long ttl) {
+		
+		connection.openPipeline();
+		
+		try {
+			
+			int count = 0;
+			
+			for (byte[] key : keys) {
+				
+				connection.pExpire(key, ttl);
+				
+				if (++count % this.pipelineFlushSize == 0) {
+					
+					connection.closePipeline();
+					connection.openPipeline();
+				}
+			}
+		}
+		finally {
+			
+			connection.closePipeline();
+		}
+	}
+	
+	/**
+	 * Flush without exceptions
+	 */
+	private void flushQuietly() {
+		
+		try {
+			
+			this.flush();
+		}
+		catch (RuntimeException e) {
+			
+			logger.warn("Failed to refresh TTL of sliding expiration", e);
+		}
+	}
+	
+	/**
+	 * Drain keys
+	 * 
+	 * @param keys touched keys
+	 * @return drained keys
+	 */
+	private static List<byte[]> drain(Set<ByteBuffer> keys) {
+		
+		List<byte[]> drained = new ArrayList<>();
+		Iterator<ByteBuffer> iterator = keys.iterator();
+		
+		while (iterator.hasNext()) {
+			
+			drained.add(iterator.next().array());
+			iterator.remove();
+		}
+		
+		return drained;
+	}
+}
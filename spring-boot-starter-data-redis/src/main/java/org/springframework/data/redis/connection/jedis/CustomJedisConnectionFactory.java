@@ -0,0 +1,309 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.connection.jedis;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.pool2.impl.GenericObjectPool; // TODO @checkstyle:ignore
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+import lombok.Getter;
+import lombok.Setter;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPool;
+import redis.clients.util.Pool;
+
+/**
+ * Custom {@link JedisConnectionFactory}
+ */
+public class CustomJedisConnectionFactory extends JedisConnectionFactory {
+	
+	/**
+	 * {@link Logger}
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(CustomJedisConnectionFactory.class);
+	
+	/**
+	 * Name for {@link #getPools()}
+	 */
+	private static final String POOL_NAME = "pool";
+	
+	/**
+	 * Name for {@link #getPools()}
+	 */
+	private static final String CLUSTER_NAME = "cluster";
+	
+	/**
+	 * Name for {@link #getPools()}
+	 */
+	private static final String INTERNAL_POOL_NAME = "internalPool";
+	
+	/**
+	 * Count of exhausted borrows
+	 */
+	private final LongAdder exhaustedCount = new LongAdder();
+	
+	/**
+	 * Pre-warm minimum idle connections at startup
+	 */
+	@Getter
+	@Setter
+	private boolean prewarm;
+	
+	/**
+	 * Timeout of pre-warming
+	 */
+	@Getter
+	@Setter
+	private Duration prewarmTimeout = Duration.ofSeconds(10);
+	
+	/**
+	 * Fail startup if pre-warming failed
+	 */
+	@Getter
+	@Setter
+	private boolean prewarmFailFast;
+	
+	/**
+	 * Number of commands to sync a pipeline of bulk writes
+	 */
+	@Getter
+	@Setter
+	private int pipelineFlushSize = 128;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param standaloneConfig {@link RedisStandaloneConfiguration}
+	 * @param clientConfig {@link JedisClientConfiguration}
+	 */
+	public CustomJedisConnectionFactory(RedisStandaloneConfiguration standaloneConfig,
+		JedisClientConfiguration clientConfig) {
+		
+		super(standaloneConfig, clientConfig);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param sentinelConfiguration {@link RedisSentinelConfiguration}
+	 * @param clientConfig {@link JedisClientConfiguration}
+	 */
+	public CustomJedisConnectionFactory(RedisSentinelConfiguration sentinelConfiguration,
+		JedisClientConfiguration clientConfig) {
+		
+		super(sentinelConfiguration, clientConfig);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param clusterConfiguration {@link RedisClusterConfiguration}
+	 * @param clientConfig {@link JedisClientConfiguration}
+	 */
+	public CustomJedisConnectionFactory(RedisClusterConfiguration clusterConfiguration,
+		JedisClientConfiguration clientConfig) {
+		
+		super(clusterConfiguration, clientConfig);
+	}
+	
+	@Override
+	public void afterPropertiesSet() {
+		
+		super.afterPropertiesSet();
+		
+		if (this.prewarm) {
+			
+			this.prewarm();
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * <p>
+	 * Borrows failed by the exhausted pool are counted. Note that connections of cluster are borrowed by
+	 * {@link JedisCluster} and not counted.
+	 * </p>
+	 */
+	@Override
+	protected Jedis fetchJedisConnector() {
+		
+		try {
+			
+			return super.fetchJedisConnector();
+		}
+		catch (RedisConnectionFailureException e) {
+			
+			if (e.contains(NoSuchElementException.class)) {
+				
+				this.exhaustedCount.increment();
+			}
+			
+			throw e;
+		}
+	}
+	
+	/**
+	 * Pre-warm minimum idle connections of the pools
+	 * 
+	 * @throws IllegalStateException if failed and {@link #isPrewarmFailFast()}
+	 */
+	protected void prewarm() throws IllegalStateException {
+		
+		List<GenericObjectPool<?>> pools = this.getPools();
+		
+		if (pools.isEmpty()) {
+			
+			return;
+		}
+		
+		long start = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(pools.size());
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		
+		try {
+			
+			for (GenericObjectPool<?> pool : pools) {
+				
+				futures.add(CompletableFuture.runAsync(() -> {
+					
+					try {
+						
+						pool.preparePool();
+					}
+					catch (Exception e) {
+						
+						throw new CompletionException(e);
+					}
+					
+				}, executor));
+			}
+			
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+				.get(this.prewarmTimeout.toMillis(), TimeUnit.MILLISECONDS);
+			
+			logger.info("Pre-warmed {} Redis connections in {} ms",
+				pools.stream().mapToInt(GenericObjectPool::getNumIdle).sum(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		}
+		catch (Exception e) {
+			
+			if (e instanceof InterruptedException) {
+				
+				Thread.currentThread().interrupt();
+			}
+			
+			if (this.prewarmFailFast) {
+				
+				throw new IllegalStateException("Failed to pre-warm Redis connections", e);
+			}
+			
+			logger.warn("Failed to pre-warm Redis connections, continue with lazy connections", e);
+		}
+		finally {
+			
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Get count of exhausted borrows
+	 * 
+	 * @return count of exhausted borrows
+	 */
+	public long getExhaustedCount() {
+		
+		return this.exhaustedCount.sum();
+	}
+	
+	/**
+	 * Get pools of connections
+	 * 
+	 * @return pools of connections or empty if not pooled
+	 */
+	public List<GenericObjectPool<?>> getPools() {
+		
+		Field internalPoolField = getAccessibleField(Pool.class, INTERNAL_POOL_NAME);
+		
+		if (this.isRedisClusterAware()) {
+			
+			JedisCluster cluster = (JedisCluster) ReflectionUtils
+				.getField(getAccessibleField(JedisConnectionFactory.class, CLUSTER_NAME), this);
+			
+			if (cluster == null) {
+				
+				return Collections.emptyList();
+			}
+			
+			List<GenericObjectPool<?>> pools = new ArrayList<>();
+			
+			for (JedisPool pool : cluster.getClusterNodes().values()) {
+				
+				pools.add((GenericObjectPool<?>) ReflectionUtils.getField(internalPoolField, pool));
+			}
+			
+			return pools;
+		}
+		
+		Object pool = ReflectionUtils.getField(getAccessibleField(JedisConnectionFactory.class, POOL_NAME), this);
+		
+		if (pool == null) {
+			
+			return Collections.emptyList();
+		}
+		
+		return Collections.singletonList((GenericObjectPool<?>) ReflectionUtils.getField(internalPoolField, pool));
+	}
+	
+	/**
+	 * Get accessible {@link Field}
+	 * 
+	 * @param type type
+	 * @param name {@link Field}
+	 * @return {@link Field}
+	 */
+	protected static Field getAccessibleField(Class<?> type, String name) {
+		
+		Field field = ReflectionUtils.findField(type, name);
+		
+		Assert.notNull(field, String.format("Field '%s' not found", name));
+		
+		ReflectionUtils.makeAccessible(field);
+		
+		return field;
+	}
+}
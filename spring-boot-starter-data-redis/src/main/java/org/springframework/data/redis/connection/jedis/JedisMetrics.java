@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.connection.jedis;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import org.apache.commons.pool2.impl.GenericObjectPool; // TODO @checkstyle:ignore
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.NonNull;
+
+/**
+ * Jedis {@link MeterBinder}
+ * 
+ * <p>
+ * Pool meters are named as {@code LettuceMetrics} with prefix {@value #PREFIX}. Jedis has no command latency
+ * collector, so {@code command.latency} is not reported.
+ * </p>
+ */
+public class JedisMetrics implements MeterBinder {
+	
+	/**
+	 * Prefix of meter names
+	 */
+	public static final String PREFIX = "jedis";
+	
+	/**
+	 * {@link CustomJedisConnectionFactory}
+	 */
+	private final CustomJedisConnectionFactory connectionFactory;
+	
+	/**
+	 * Tags
+	 */
+	private final Iterable<Tag> tags;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param connectionFactory {@link CustomJedisConnectionFactory}
+	 */
+	public JedisMetrics(CustomJedisConnectionFactory connectionFactory) {
+		
+		this(connectionFactory, Collections.emptyList());
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param connectionFactory {@link CustomJedisConnectionFactory}
+	 * @param tags tags
+	 */
+	public JedisMetrics(@NonNull CustomJedisConnectionFactory connectionFactory, @NonNull Iterable<Tag> tags) {
+		
+		this.connectionFactory = connectionFactory;
+		this.tags = tags;
+	}
+	
+	@Override
+	public void bindTo(@NonNull MeterRegistry registry) {
+		
+		CustomJedisConnectionFactory factory = this.connectionFactory;
+		
+		Gauge.builder(PREFIX + ".pool.active", factory, sum(GenericObjectPool::getNumActive)).tags(this.tags)
+			.description("Number of connections borrowed from the pool").register(registry);
+		
+		Gauge.builder(PREFIX + ".pool.idle", factory, sum(GenericObjectPool::getNumIdle)).tags(this.tags)
+			.description("Number of idle connections in the pool").register(registry);
+		
+		Gauge.builder(PREFIX + ".pool.waiters", factory, sum(GenericObjectPool::getNumWaiters)).tags(this.tags)
+			.description("Number of threads waiting to borrow a connection").register(registry);
+		
+		TimeGauge
+			.builder(PREFIX + ".pool.borrow.wait.mean", factory, TimeUnit.MILLISECONDS, JedisMetrics::meanBorrowWait)
+			.tags(this.tags).description("Mean time waiting to borrow a connection").register(registry);
+		
+		TimeGauge
+			.builder(PREFIX + ".pool.borrow.wait.max", factory, TimeUnit.MILLISECONDS, JedisMetrics::maxBorrowWait)
+			.tags(this.tags).description("Maximum time waiting to borrow a connection").register(registry);
+		
+		FunctionCounter.builder(PREFIX + ".pool.exhausted", factory, CustomJedisConnectionFactory::getExhaustedCount)
+			.tags(this.tags).description("Number of borrows failed by the exhausted pool").register(registry);
+	}
+	
+	/**
+	 * Sum of pools
+	 * 
+	 * @param function function for each pool
+	 * @return function for {@link CustomJedisConnectionFactory}
+	 */
+	protected static ToDoubleFunction<CustomJedisConnectionFactory> sum(
+		ToDoubleFunction<GenericObjectPool<?>> function) {
+		
+		return factory -> factory.getPools().stream().mapToDouble(function).sum();
+	}
+	
+	/**
+	 * Mean borrow wait time weighted by borrowed count
+	 * 
+	 * @param factory {@link CustomJedisConnectionFactory}
+	 * @return mean borrow wait time in milliseconds
+	 */
+	protected static double meanBorrowWait(CustomJedisConnectionFactory factory) {
+		
+		double total = 0;
+		long count = 0;
+		
+		for (GenericObjectPool<?> pool : factory.getPools()) {
+			
+			total += pool.getMeanBorrowWaitTimeMillis() * pool.getBorrowedCount();
+			count += pool.getBorrowedCount();
+		}
+		
+		return count == 0 ? 0 : total / count;
+	}
+	
+	/**
+	 * Maximum borrow wait time
+	 * 
+	 * @param factory {@link CustomJedisConnectionFactory}
+	 * @return maximum borrow wait time in milliseconds
+	 */
+	protected static double maxBorrowWait(CustomJedisConnectionFactory factory) {
+		
+		return factory.getPools().stream().mapToLong(GenericObjectPool::getMaxBorrowWaitTimeMillis).max().orElse(0);
+	}
+}
@@ -0,0 +1,910 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.connection.lettuce;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.apache.commons.pool2.impl.GenericObjectPool; // TODO @checkstyle:ignore
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig; // TODO @checkstyle:ignore
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.PassThroughExceptionTranslationStrategy;
+import org.springframework.data.redis.connection.ClusterCommandExecutor;
+import org.springframework.data.redis.connection.PoolException;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisNode;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.masterslave.MasterSlave;
+import io.lettuce.core.masterslave.StatefulRedisMasterSlaveConnection;
+import io.lettuce.core.resource.ClientResources;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Custom {@link LettuceConnectionFactory}
+ */
+public class CustomLettuceConnectionFactory extends LettuceConnectionFactory {
+	
+	/**
+	 * {@link Logger}
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(CustomLettuceConnectionFactory.class);
+	
+	/**
+	 * Name for {@link #getConnectionProvider()}
+	 */
+	private static final String CONNECTION_PROVIDER_NAME = "connectionProvider";
+	
+	/**
+	 * Name for {@link #getPools()}
+	 */
+	private static final String POOLS_NAME = "pools";
+	
+	/**
+	 * Name for {@link #applyTopologyRefreshOptions()}
+	 */
+	private static final String CLIENT_NAME = "client";
+	
+	/**
+	 * Count of exhausted borrows
+	 */
+	private final LongAdder exhaustedCount = new LongAdder();
+	
+	/**
+	 * Pre-warm minimum idle connections at startup
+	 */
+	@Getter
+	@Setter
+	private boolean prewarm;
+	
+	/**
+	 * Timeout of pre-warming
+	 */
+	@Getter
+	@Setter
+	private Duration prewarmTimeout = Duration.ofSeconds(10);
+	
+	/**
+	 * Fail startup if pre-warming failed
+	 */
+	@Getter
+	@Setter
+	private boolean prewarmFailFast;
+	
+	/**
+	 * Number of commands to flush a {@link LettucePipeline}
+	 */
+	@Getter
+	@Setter
+	private int pipelineFlushSize = 128;
+	
+	/**
+	 * Interval to flush a {@link LettucePipeline}
+	 */
+	@Getter
+	@Setter
+	private Duration pipelineFlushInterval = Duration.ofMillis(10);
+	
+	/**
+	 * {@link ReadFrom} for {@link #getReadConnection()} ({@code null} for master)
+	 */
+	@Getter
+	@Setter
+	private ReadFrom readFrom;
+	
+	/**
+	 * {@link AbstractRedisClient} for {@link #getReadConnection()}
+	 */
+	private AbstractRedisClient readClient;
+	
+	/**
+	 * {@link LettuceConnectionProvider} for {@link #getReadConnection()}
+	 */
+	private XReadFromConnectionProvider readConnectionProvider;
+	
+	/**
+	 * {@link ClusterCommandExecutor} for {@link #getReadClusterConnection()}
+	 */
+	private ClusterCommandExecutor readClusterCommandExecutor;
+	
+	/**
+	 * {@link ClusterTopologyRefreshOptions} of cluster ({@code null} for {@link LettuceClientConfiguration})
+	 */
+	@Getter
+	@Setter
+	private ClusterTopologyRefreshOptions topologyRefreshOptions;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param standaloneConfig {@link RedisStandaloneConfiguration}
+	 * @param clientConfig {@link LettuceClientConfiguration}
+	 */
+	public CustomLettuceConnectionFactory(RedisStandaloneConfiguration standaloneConfig,
+		LettuceClientConfiguration clientConfig) {
+		
+		super(standaloneConfig, clientConfig);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param sentinelConfiguration {@link RedisSentinelConfiguration}
+	 * @param clientConfig {@link LettuceClientConfiguration}
+	 */
+	public CustomLettuceConnectionFactory(RedisSentinelConfiguration sentinelConfiguration,
+		LettuceClientConfiguration clientConfig) {
+		
+		super(sentinelConfiguration, clientConfig);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param clusterConfiguration {@link RedisClusterConfiguration}
+	 * @param clientConfig {@link LettuceClientConfiguration}
+	 */
+	public CustomLettuceConnectionFactory(RedisClusterConfiguration clusterConfiguration,
+		LettuceClientConfiguration clientConfig) {
+		
+		super(clusterConfiguration, clientConfig);
+	}
+	
+	@Override
+	public void afterPropertiesSet() {
+		
+		super.afterPropertiesSet();
+		
+		if (this.isClusterAware() && this.topologyRefreshOptions != null) {
+			
+			this.applyTopologyRefreshOptions();
+		}
+		
+		LettuceConnectionProvider connectionProvider = this.getConnectionProvider();
+		
+		if (connectionProvider instanceof LettucePoolingConnectionProvider) {
+			
+			this.setConnectionProvider(new XCountingConnectionProvider(connectionProvider, this.exhaustedCount));
+			
+			if (this.prewarm) {
+				
+				this.prewarm();
+			}
+		}
+		
+		if (this.isReadFromReplica()) {
+			
+			this.readClient = this.createReadClient();
+			this.readConnectionProvider = new XReadFromConnectionProvider(this::connectReadConnection);
+			
+			if (this.readClient instanceof RedisClusterClient) {
+				
+				/* @formatter:off */
+				this.readClusterCommandExecutor = new ClusterCommandExecutor(
+					new LettuceClusterTopologyProvider((RedisClusterClient) this.readClient),
+					new LettuceClusterConnection.LettuceClusterNodeResourceProvider(this.readConnectionProvider),
+					new PassThroughExceptionTranslationStrategy(LettuceConverters.exceptionConverter())
+				);
+				/* @formatter:on */
+			}
+		}
+	}
+	
+	@Override
+	public void destroy() {
+		
+		if (this.readClusterCommandExecutor != null) {
+			
+			try {
+				
+				this.readClusterCommandExecutor.destroy();
+			}
+			catch (Exception e) {
+				
+				logger.warn("Failed to destroy ClusterCommandExecutor of read connections", e);
+			}
+			
+			this.readClusterCommandExecutor = null;
+		}
+		
+		if (this.readConnectionProvider != null) {
+			
+			this.readConnectionProvider.destroy();
+			this.readConnectionProvider = null;
+		}
+		
+		if (this.readClient != null) {
+			
+			this.readClient.shutdown(0, this.getShutdownTimeout(), TimeUnit.MILLISECONDS);
+			this.readClient = null;
+		}
+		
+		super.destroy();
+	}
+	
+	/**
+	 * Apply {@link #getTopologyRefreshOptions()} to {@link RedisClusterClient}
+	 */
+	protected void applyTopologyRefreshOptions() {
+		
+		Field field = getAccessibleField(LettuceConnectionFactory.class, CLIENT_NAME);
+		RedisClusterClient client = (RedisClusterClient) ReflectionUtils.getField(field, this);
+		
+		ClientOptions options = this.getClientConfiguration().getClientOptions()
+			.orElseGet(ClusterClientOptions::create);
+		
+		client.setOptions(withTopologyRefreshOptions(options, this.topologyRefreshOptions));
+	}
+	
+	/**
+	 * Pre-warm minimum idle connections of the pool
+	 * 
+	 * @throws IllegalStateException if failed and {@link #isPrewarmFailFast()}
+	 */
+	protected void prewarm() throws IllegalStateException {
+		
+		GenericObjectPoolConfig poolConfig = ((LettucePoolingClientConfiguration) this.getClientConfiguration())
+			.getPoolConfig();
+		
+		int size = poolConfig.getMaxTotal() < 0 ? poolConfig.getMinIdle()
+			: Math.min(poolConfig.getMinIdle(), poolConfig.getMaxTotal());
+		
+		if (size <= 0) {
+			
+			return;
+		}
+		
+		LettuceConnectionProvider connectionProvider = this.getConnectionProvider();
+		boolean cluster = this.isClusterAware();
+		
+		long start = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(size);
+		List<CompletableFuture<StatefulConnection<?, ?>>> futures = new ArrayList<>();
+		
+		try {
+			
+			for (int index = 0; index < size; index++) {
+				
+				futures.add(CompletableFuture.supplyAsync(() -> {
+					
+					StatefulConnection<?, ?> connection = cluster
+						? connectionProvider.getConnection(StatefulRedisClusterConnection.class)
+						: connectionProvider.getConnection(StatefulRedisConnection.class);
+					
+					try {
+						
+						validate(connection);
+					}
+					catch (RuntimeException e) {
+						
+						connectionProvider.release(connection);
+						
+						throw e;
+					}
+					
+					return connection;
+					
+				}, executor));
+			}
+			
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+				.get(this.prewarmTimeout.toMillis(), TimeUnit.MILLISECONDS);
+			
+			logger.info("Pre-warmed {} Redis connections in {} ms", size,
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		}
+		catch (Exception e) {
+			
+			if (e instanceof InterruptedException) {
+				
+				Thread.currentThread().interrupt();
+			}
+			
+			if (this.prewarmFailFast) {
+				
+				throw new IllegalStateException("Failed to pre-warm Redis connections", e);
+			}
+			
+			logger.warn("Failed to pre-warm Redis connections, continue with lazy connections", e);
+		}
+		finally {
+			
+			for (CompletableFuture<StatefulConnection<?, ?>> future : futures) {
+				
+				future.thenAccept(connectionProvider::release);
+			}
+			
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Open a {@link LettucePipeline} with {@link #getPipelineFlushSize()} and {@link #getPipelineFlushInterval()}
+	 * 
+	 * @return {@link LettucePipeline} to be closed by the caller
+	 */
+	public LettucePipeline openPipeline() {
+		
+		return this.openPipeline(this.pipelineFlushSize, this.pipelineFlushInterval);
+	}
+	
+	/**
+	 * Open a {@link LettucePipeline} on a dedicated connection
+	 * 
+	 * @param flushSize number of commands to flush
+	 * @param flushInterval interval to flush ({@link Duration#ZERO} to disable)
+	 * @return {@link LettucePipeline} to be closed by the caller
+	 * @throws IllegalStateException if not initialized
+	 */
+	@SuppressWarnings("unchecked")
+	public LettucePipeline openPipeline(int flushSize, Duration flushInterval) throws IllegalStateException {
+		
+		LettuceConnectionProvider connectionProvider = this.getConnectionProvider();
+		ClientResources clientResources = this.getClientResources();
+		
+		Assert.state(connectionProvider != null, "LettuceConnectionFactory is not initialized");
+		Assert.state(clientResources != null, "ClientResources is required for pipeline");
+		
+		StatefulConnection<byte[], byte[]> connection = this.isClusterAware()
+			? connectionProvider.getConnection(StatefulRedisClusterConnection.class)
+			: connectionProvider.getConnection(StatefulRedisConnection.class);
+		
+		try {
+			
+			return new LettucePipeline(connectionProvider, connection, clientResources.eventExecutorGroup(),
+				flushSize, flushInterval);
+		}
+		catch (RuntimeException e) {
+			
+			connectionProvider.release(connection);
+			
+			throw e;
+		}
+	}
+	
+	/**
+	 * Get {@link RedisConnectionFactory} whose connections read from {@link #getReadFrom()}
+	 * 
+	 * @return {@link RedisConnectionFactory}
+	 */
+	public RedisConnectionFactory getReadConnectionFactory() {
+		
+		return this.isReadFromReplica() ? new XReadConnectionFactory(this) : this;
+	}
+	
+	/**
+	 * Get {@link RedisConnection} whose read-only commands are routed by {@link #getReadFrom()}
+	 * 
+	 * <p>
+	 * The connection shares a native connection and is intended for read-only commands. Write commands are still
+	 * routed to master.
+	 * </p>
+	 * 
+	 * @return {@link RedisConnection}
+	 */
+	public RedisConnection getReadConnection() {
+		
+		if (this.readConnectionProvider == null) {
+			
+			return this.getConnection();
+		}
+		
+		if (this.isClusterAware()) {
+			
+			return this.getReadClusterConnection();
+		}
+		
+		@SuppressWarnings("unchecked")
+		StatefulRedisConnection<byte[], byte[]> sharedConnection = this.readConnectionProvider
+			.getConnection(StatefulRedisConnection.class);
+		
+		LettuceConnection connection = new LettuceConnection(
+		/* @formatter:off */
+			sharedConnection,
+			this.readConnectionProvider,
+			this.getClientConfiguration().getCommandTimeout().toMillis(),
+			this.getDatabase()
+			/* @formatter:on */
+		);
+		
+		connection.setConvertPipelineAndTxResults(this.getConvertPipelineAndTxResults());
+		
+		return connection;
+	}
+	
+	/**
+	 * Get {@link RedisClusterConnection} whose read-only commands are routed by {@link #getReadFrom()}
+	 * 
+	 * @return {@link RedisClusterConnection}
+	 * @throws InvalidDataAccessApiUsageException if not cluster
+	 */
+	public RedisClusterConnection getReadClusterConnection() throws InvalidDataAccessApiUsageException {
+		
+		if (this.readConnectionProvider == null) {
+			
+			return this.getClusterConnection();
+		}
+		
+		if (!this.isClusterAware()) {
+			
+			throw new InvalidDataAccessApiUsageException("Cluster is not configured!");
+		}
+		
+		return new LettuceClusterConnection(this.readConnectionProvider, this.readClusterCommandExecutor,
+			this.getClientConfiguration().getCommandTimeout());
+	}
+	
+	/**
+	 * Is {@link #getReadFrom()} other than master?
+	 * 
+	 * @return {@code true} if other than master
+	 */
+	protected boolean isReadFromReplica() {
+		
+		return this.readFrom != null && this.readFrom != ReadFrom.MASTER;
+	}
+	
+	/**
+	 * Create {@link AbstractRedisClient} of read connections from the configuration of this factory
+	 * 
+	 * <p>
+	 * The client is separate from the one of this factory, with the same {@link ClientResources} and
+	 * {@link ClientOptions}, and {@link #getTopologyRefreshOptions()} of cluster.
+	 * </p>
+	 * 
+	 * @return {@link RedisClusterClient} of cluster, or {@link RedisClient} of standalone or sentinel
+	 */
+	protected AbstractRedisClient createReadClient() {
+		
+		LettuceClientConfiguration clientConfig = this.getClientConfiguration();
+		
+		if (this.isClusterAware()) {
+			
+			List<RedisURI> redisURIs = new ArrayList<>();
+			
+			for (RedisNode node : this.getClusterConfiguration().getClusterNodes()) {
+				
+				redisURIs.add(this.createRedisURI(node.getHost(), node.getPort()));
+			}
+			
+			RedisClusterClient client = clientConfig.getClientResources()
+				.map(clientResources -> RedisClusterClient.create(clientResources, redisURIs))
+				.orElseGet(() -> RedisClusterClient.create(redisURIs));
+			
+			ClientOptions options = clientConfig.getClientOptions().orElseGet(ClusterClientOptions::create);
+			
+			if (this.topologyRefreshOptions != null) {
+				
+				client.setOptions(withTopologyRefreshOptions(options, this.topologyRefreshOptions));
+			}
+			else if (options instanceof ClusterClientOptions) {
+				
+				client.setOptions((ClusterClientOptions) options);
+			}
+			
+			return client;
+		}
+		
+		RedisClient client = clientConfig.getClientResources().map(RedisClient::create)
+			.orElseGet(RedisClient::create);
+		
+		clientConfig.getClientOptions().ifPresent(client::setOptions);
+		
+		return client;
+	}
+	
+	/**
+	 * Connect a native connection routed by {@link #getReadFrom()}
+	 * 
+	 * @return {@link StatefulRedisMasterSlaveConnection} or {@link StatefulRedisClusterConnection}
+	 */
+	protected StatefulConnection<byte[], byte[]> connectReadConnection() {
+		
+		Assert.state(this.readClient != null, "Read connections are not initialized");
+		
+		if (this.readClient instanceof RedisClusterClient) {
+			
+			StatefulRedisClusterConnection<byte[], byte[]> connection = ((RedisClusterClient) this.readClient)
+				.connect(ByteArrayCodec.INSTANCE);
+			connection.setReadFrom(this.readFrom);
+			
+			return connection;
+		}
+		
+		StatefulRedisMasterSlaveConnection<byte[], byte[]> connection = MasterSlave
+			.connect((RedisClient) this.readClient, ByteArrayCodec.INSTANCE, this.getRedisURI());
+		connection.setReadFrom(this.readFrom);
+		
+		return connection;
+	}
+	
+	/**
+	 * Get {@link RedisURI} of standalone or sentinel
+	 * 
+	 * @return {@link RedisURI}
+	 */
+	protected RedisURI getRedisURI() {
+		
+		RedisURI redisURI;
+		
+		if (this.isRedisSentinelAware()) {
+			
+			redisURI = LettuceConverters.sentinelConfigurationToRedisURI(this.getSentinelConfiguration());
+			
+			if (this.getPassword() != null) {
+				
+				redisURI.setPassword(this.getPassword());
+			}
+			
+			redisURI.setTimeout(this.getClientConfiguration().getCommandTimeout());
+		}
+		else {
+			
+			redisURI = this.createRedisURI(this.getHostName(), this.getPort());
+		}
+		
+		redisURI.setDatabase(this.getDatabase());
+		
+		return redisURI;
+	}
+	
+	/**
+	 * Create {@link RedisURI} of a node with the password, SSL and timeout of this factory
+	 * 
+	 * @param host host
+	 * @param port port
+	 * @return {@link RedisURI}
+	 */
+	protected RedisURI createRedisURI(String host, int port) {
+		
+		LettuceClientConfiguration clientConfig = this.getClientConfiguration();
+		RedisURI redisURI = RedisURI.create(host, port);
+		
+		if (this.getPassword() != null) {
+			
+			redisURI.setPassword(this.getPassword());
+		}
+		
+		redisURI.setSsl(clientConfig.isUseSsl());
+		redisURI.setVerifyPeer(clientConfig.isVerifyPeer());
+		redisURI.setStartTls(clientConfig.isStartTls());
+		redisURI.setTimeout(clientConfig.getCommandTimeout());
+		
+		return redisURI;
+	}
+	
+	/**
+	 * Get count of exhausted borrows
+	 * 
+	 * @return count of exhausted borrows
+	 */
+	public long getExhaustedCount() {
+		
+		return this.exhaustedCount.sum();
+	}
+	
+	/**
+	 * Get pools of connections
+	 * 
+	 * @return pools of connections or empty if not pooled
+	 */
+	public List<GenericObjectPool<?>> getPools() {
+		
+		LettuceConnectionProvider connectionProvider = this.getConnectionProvider();
+		
+		if (connectionProvider instanceof XCountingConnectionProvider) {
+			
+			connectionProvider = ((XCountingConnectionProvider) connectionProvider).delegate;
+		}
+		
+		if (!(connectionProvider instanceof LettucePoolingConnectionProvider)) {
+			
+			return Collections.emptyList();
+		}
+		
+		Field field = getAccessibleField(LettucePoolingConnectionProvider.class, POOLS_NAME);
+		
+		List<GenericObjectPool<?>> pools = new ArrayList<>();
+		
+		for (Object pool : ((Map<?, ?>) ReflectionUtils.getField(field, connectionProvider)).values()) {
+			
+			pools.add((GenericObjectPool<?>) pool);
+		}
+		
+		return pools;
+	}
+	
+	/**
+	 * Get {@link LettuceConnectionProvider}
+	 * 
+	 * @return {@link LettuceConnectionProvider} or {@code null} if not initialized
+	 */
+	protected LettuceConnectionProvider getConnectionProvider() {
+		
+		Field field = getAccessibleField(LettuceConnectionFactory.class, CONNECTION_PROVIDER_NAME);
+		
+		return (LettuceConnectionProvider) ReflectionUtils.getField(field, this);
+	}
+	
+	/**
+	 * Set {@link LettuceConnectionProvider}
+	 * 
+	 * @param connectionProvider {@link LettuceConnectionProvider}
+	 */
+	protected void setConnectionProvider(LettuceConnectionProvider connectionProvider) {
+		
+		Field field = getAccessibleField(LettuceConnectionFactory.class, CONNECTION_PROVIDER_NAME);
+		
+		ReflectionUtils.setField(field, this, connectionProvider);
+	}
+	
+	/**
+	 * Copy {@link ClientOptions} with {@link ClusterTopologyRefreshOptions}
+	 * 
+	 * @param options {@link ClientOptions}
+	 * @param topologyRefreshOptions {@link ClusterTopologyRefreshOptions}
+	 * @return {@link ClusterClientOptions}
+	 */
+	protected static ClusterClientOptions withTopologyRefreshOptions(@NonNull ClientOptions options,
+		@NonNull ClusterTopologyRefreshOptions topologyRefreshOptions) {
+		
+		ClusterClientOptions.Builder builder = ClusterClientOptions.builder();
+		
+		if (options instanceof ClusterClientOptions) {
+			
+			ClusterClientOptions clusterOptions = (ClusterClientOptions) options;
+			
+			builder.validateClusterNodeMembership(clusterOptions.isValidateClusterNodeMembership());
+			builder.maxRedirects(clusterOptions.getMaxRedirects());
+		}
+		
+		/* @formatter:off */
+		return builder
+			.pingBeforeActivateConnection(options.isPingBeforeActivateConnection())
+			.autoReconnect(options.isAutoReconnect())
+			.cancelCommandsOnReconnectFailure(options.isCancelCommandsOnReconnectFailure())
+			.suspendReconnectOnProtocolFailure(options.isSuspendReconnectOnProtocolFailure())
+			.requestQueueSize(options.getRequestQueueSize())
+			.disconnectedBehavior(options.getDisconnectedBehavior())
+			.socketOptions(options.getSocketOptions())
+			.sslOptions(options.getSslOptions())
+			.topologyRefreshOptions(topologyRefreshOptions)
+			.build();
+		/* @formatter:on */
+	}
+	
+	/**
+	 * Validate connection
+	 * 
+	 * @param connection {@link StatefulConnection}
+	 */
+	protected static void validate(StatefulConnection<?, ?> connection) {
+		
+		if (connection instanceof StatefulRedisClusterConnection) {
+			
+			((StatefulRedisClusterConnection<?, ?>) connection).sync().ping();
+		}
+		else if (connection instanceof StatefulRedisConnection) {
+			
+			((StatefulRedisConnection<?, ?>) connection).sync().ping();
+		}
+	}
+	
+	/**
+	 * Get accessible {@link Field}
+	 * 
+	 * @param type type
+	 * @param name {@link Field}
+	 * @return {@link Field}
+	 */
+	protected static Field getAccessibleField(Class<?> type, String name) {
+		
+		Field field = ReflectionUtils.findField(type, name);
+		
+		Assert.notNull(field, String.format("Field '%s' not found", name));
+		
+		ReflectionUtils.makeAccessible(field);
+		
+		return field;
+	}
+	
+	/**
+	 * {@link LettuceConnectionProvider} counting exhausted borrows
+	 */
+	@RequiredArgsConstructor
+	protected static class XCountingConnectionProvider
+		implements LettuceConnectionProvider, RedisClientProvider, DisposableBean {
+		
+		/**
+		 * Delegate
+		 */
+		@NonNull
+		private final LettuceConnectionProvider delegate;
+		
+		/**
+		 * Count of exhausted borrows
+		 */
+		@NonNull
+		private final LongAdder exhaustedCount;
+		
+		@Override
+		public <T extends StatefulConnection<?, ?>> T getConnection(Class<T> connectionType) {
+			
+			try {
+				
+				return this.delegate.getConnection(connectionType);
+			}
+			catch (PoolException e) {
+				
+				if (e.getCause() instanceof NoSuchElementException) {
+					
+					this.exhaustedCount.increment();
+				}
+				
+				throw e;
+			}
+		}
+		
+		@Override
+		public void release(StatefulConnection<?, ?> connection) {
+			
+			this.delegate.release(connection);
+		}
+		
+		@Override
+		public AbstractRedisClient getRedisClient() {
+			
+			Assert.isInstanceOf(RedisClientProvider.class, this.delegate, "Unsupported LettuceConnectionProvider");
+			
+			return ((RedisClientProvider) this.delegate).getRedisClient();
+		}
+		
+		@Override
+		public void destroy() throws Exception {
+			
+			if (this.delegate instanceof DisposableBean) {
+				
+				((DisposableBean) this.delegate).destroy();
+			}
+		}
+	}
+	
+	/**
+	 * {@link LettuceConnectionProvider} sharing a native connection routed by {@link ReadFrom}
+	 */
+	@RequiredArgsConstructor
+	protected static class XReadFromConnectionProvider implements LettuceConnectionProvider, DisposableBean {
+		
+		/**
+		 * Connector
+		 */
+		@NonNull
+		private final Supplier<StatefulConnection<byte[], byte[]>> connector;
+		
+		/**
+		 * Shared connection
+		 */
+		private StatefulConnection<byte[], byte[]> connection;
+		
+		@Override
+		public synchronized <T extends StatefulConnection<?, ?>> T getConnection(Class<T> connectionType) {
+			
+			if (this.connection == null || !this.connection.isOpen()) {
+				
+				this.connection = this.connector.get();
+			}
+			
+			return connectionType.cast(this.connection);
+		}
+		
+		@Override
+		public void release(StatefulConnection<?, ?> connection) {
+			
+			/* NOP: shared */
+		}
+		
+		@Override
+		public synchronized void destroy() {
+			
+			if (this.connection != null) {
+				
+				this.connection.close();
+				this.connection = null;
+			}
+		}
+	}
+	
+	/**
+	 * {@link RedisConnectionFactory} of read connections
+	 */
+	@RequiredArgsConstructor
+	protected static class XReadConnectionFactory implements RedisConnectionFactory {
+		
+		/**
+		 * {@link CustomLettuceConnectionFactory}
+		 */
+		@NonNull
+		private final CustomLettuceConnectionFactory delegate;
+		
+		@Override
+		public RedisConnection getConnection() {
+			
+			return this.delegate.getReadConnection();
+		}
+		
+		@Override
+		public RedisClusterConnection getClusterConnection() {
+			
+			return this.delegate.getReadClusterConnection();
+		}
+		
+		@Override
+		public boolean getConvertPipelineAndTxResults() {
+			
+			return this.delegate.getConvertPipelineAndTxResults();
+		}
+		
+		@Override
+		public RedisSentinelConnection getSentinelConnection() {
+			
+			return this.delegate.getSentinelConnection();
+		}
+		
+		@Override
+		public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+			
+			return this.delegate.translateExceptionIfPossible(ex);
+		}
+	}
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.connection.lettuce;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+import org.apache.commons.pool2.impl.GenericObjectPool; // TODO @checkstyle:ignore
+
+import io.lettuce.core.event.metrics.CommandLatencyEvent;
+import io.lettuce.core.metrics.CommandLatencyId;
+import io.lettuce.core.metrics.CommandMetrics;
+import io.lettuce.core.metrics.CommandMetrics.CommandLatency;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.NonNull;
+import reactor.core.Disposable;
+
+/**
+ * Lettuce {@link MeterBinder}
+ * 
+ * <p>
+ * Subscriptions to {@link CommandLatencyEvent}s are disposed on {@link #close()}.
+ * </p>
+ */
+public class LettuceMetrics implements MeterBinder, Closeable {
+	
+	/**
+	 * Prefix of meter names
+	 */
+	public static final String PREFIX = "lettuce";
+	
+	/**
+	 * Phase: first response
+	 */
+	protected static final String PHASE_FIRST_RESPONSE = "first-response";
+	
+	/**
+	 * Phase: completion
+	 */
+	protected static final String PHASE_COMPLETION = "completion";
+	
+	/**
+	 * {@link CustomLettuceConnectionFactory}
+	 */
+	private final CustomLettuceConnectionFactory connectionFactory;
+	
+	/**
+	 * Tags
+	 */
+	private final Iterable<Tag> tags;
+	
+	/**
+	 * Subscriptions to {@link CommandLatencyEvent}s
+	 */
+	private final List<Disposable> subscriptions = new CopyOnWriteArrayList<>();
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param connectionFactory {@link CustomLettuceConnectionFactory}
+	 */
+	public LettuceMetrics(CustomLettuceConnectionFactory connectionFactory) {
+		
+		this(connectionFactory, Collections.emptyList());
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param connectionFactory {@link CustomLettuceConnectionFactory}
+	 * @param tags tags
+	 */
+	public LettuceMetrics(@NonNull CustomLettuceConnectionFactory connectionFactory, @NonNull Iterable<Tag> tags) {
+		
+		this.connectionFactory = connectionFactory;
+		this.tags = tags;
+	}
+	
+	@Override
+	public void bindTo(@NonNull MeterRegistry registry) {
+		
+		this.bindPoolTo(registry);
+		
+		ClientResources clientResources = this.connectionFactory.getClientResources();
+		
+		if (clientResources != null && clientResources.commandLatencyCollector().isEnabled()) {
+			
+			XCommandLatencyRecorder recorder = new XCommandLatencyRecorder(registry, this.tags);
+			
+			this.subscriptions
+				.add(clientResources.eventBus().get().ofType(CommandLatencyEvent.class).subscribe(recorder::record));
+		}
+	}
+	
+	@Override
+	public void close() {
+		
+		for (Disposable subscription : this.subscriptions) {
+			
+			subscription.dispose();
+			this.subscriptions.remove(subscription);
+		}
+	}
+	
+	/**
+	 * Bind pool metrics
+	 * 
+	 * @param registry {@link MeterRegistry}
+	 */
+	protected void bindPoolTo(MeterRegistry registry) {
+		
+		CustomLettuceConnectionFactory factory = this.connectionFactory;
+		
+		Gauge.builder(PREFIX + ".pool.active", factory, sum(GenericObjectPool::getNumActive)).tags(this.tags)
+			.description("Number of connections borrowed from the pool").register(registry);
+		
+		Gauge.builder(PREFIX + ".pool.idle", factory, sum(GenericObjectPool::getNumIdle)).tags(this.tags)
+			.description("Number of idle connections in the pool").register(registry);
+		
+		Gauge.builder(PREFIX + ".pool.waiters", factory, sum(GenericObjectPool::getNumWaiters)).tags(this.tags)
+			.description("Number of threads waiting to borrow a connection").register(registry);
+		
+		TimeGauge
+			.builder(PREFIX + ".pool.borrow.wait.mean", factory, TimeUnit.MILLISECONDS, LettuceMetrics::meanBorrowWait)
+			.tags(this.tags).description("Mean time waiting to borrow a connection").register(registry);
+		
+		TimeGauge
+			.builder(PREFIX + ".pool.borrow.wait.max", factory, TimeUnit.MILLISECONDS, LettuceMetrics::maxBorrowWait)
+			.tags(this.tags).description("Maximum time waiting to borrow a connection").register(registry);
+		
+		FunctionCounter.builder(PREFIX + ".pool.exhausted", factory, CustomLettuceConnectionFactory::getExhaustedCount)
+			.tags(this.tags).description("Number of borrows failed by the exhausted pool").register(registry);
+	}
+	
+	/**
+	 * Sum of pools
+	 * 
+	 * @param function function for each pool
+	 * @return function for {@link CustomLettuceConnectionFactory}
+	 */
+	protected static ToDoubleFunction<CustomLettuceConnectionFactory> sum(
+		ToDoubleFunction<GenericObjectPool<?>> function) {
+		
+		return factory -> factory.getPools().stream().mapToDouble(function).sum();
+	}
+	
+	/**
+	 * Mean borrow wait time weighted by borrowed count
+	 * 
+	 * @param factory {@link CustomLettuceConnectionFactory}
+	 * @return mean borrow wait time in milliseconds
+	 */
+	protected static double meanBorrowWait(CustomLettuceConnectionFactory factory) {
+		
+		double total = 0;
+		long count = 0;
+		
+		for (GenericObjectPool<?> pool : factory.getPools()) {
+			
+			total += pool.getMeanBorrowWaitTimeMillis() * pool.getBorrowedCount();
+			count += pool.getBorrowedCount();
+		}
+		
+		return count == 0 ? 0 : total / count;
+	}
+	
+	/**
+	 * Maximum borrow wait time
+	 * 
+	 * @param factory {@link CustomLettuceConnectionFactory}
+	 * @return maximum borrow wait time in milliseconds
+	 */
+	protected static double maxBorrowWait(CustomLettuceConnectionFactory factory) {
+		
+		return factory.getPools().stream().mapToLong(GenericObjectPool::getMaxBorrowWaitTimeMillis).max().orElse(0);
+	}
+	
+	/**
+	 * Recorder of {@link CommandLatencyEvent}
+	 */
+	protected static class XCommandLatencyRecorder {
+		
+		/**
+		 * {@link MeterRegistry}
+		 */
+		private final MeterRegistry registry;
+		
+		/**
+		 * Tags
+		 */
+		private final Iterable<Tag> tags;
+		
+		/**
+		 * Latest latencies in nanoseconds
+		 */
+		private final Map<Tags, AtomicLong> latencies = new ConcurrentHashMap<>();
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param registry {@link MeterRegistry}
+		 * @param tags tags
+		 */
+		public XCommandLatencyRecorder(MeterRegistry registry, Iterable<Tag> tags) {
+			
+			this.registry = registry;
+			this.tags = tags;
+		}
+		
+		/**
+		 * Record
+		 * 
+		 * @param event {@link CommandLatencyEvent}
+		 */
+		public void record(@NonNull CommandLatencyEvent event) {
+			
+			for (Entry<CommandLatencyId, CommandMetrics> entry : event.getLatencies().entrySet()) {
+				
+				Tags commandTags = Tags.of(this.tags).and("command", entry.getKey().commandType().name());
+				CommandMetrics metrics = entry.getValue();
+				
+				this.record(commandTags.and("phase", PHASE_FIRST_RESPONSE), metrics.getFirstResponse(),
+					metrics.getTimeUnit());
+				this.record(commandTags.and("phase", PHASE_COMPLETION), metrics.getCompletion(),
+					metrics.getTimeUnit());
+			}
+		}
+		
+		/**
+		 * Record
+		 * 
+		 * @param phaseTags tags of phase
+		 * @param latency {@link CommandLatency}
+		 * @param unit {@link TimeUnit}
+		 */
+		protected void record(Tags phaseTags, CommandLatency latency, TimeUnit unit) {
+			
+			for (Entry<Double, Long> percentile : latency.getPercentiles().entrySet()) {
+				
+				this.latency(phaseTags.and("percentile", String.valueOf(percentile.getKey())))
+					.set(unit.toNanos(percentile.getValue()));
+			}
+			
+			this.latency(phaseTags.and("percentile", "max")).set(unit.toNanos(latency.getMax()));
+		}
+		
+		/**
+		 * Get or register latency
+		 * 
+		 * @param latencyTags tags of latency
+		 * @return latency in nanoseconds
+		 */
+		protected AtomicLong latency(Tags latencyTags) {
+			
+			return this.latencies.computeIfAbsent(latencyTags, key -> {
+				
+				AtomicLong latency = new AtomicLong();
+				
+				TimeGauge.builder(PREFIX + ".command.latency", latency, TimeUnit.NANOSECONDS, AtomicLong::get)
+					.tags(key).description("Latency of Redis commands").register(this.registry);
+				
+				return latency;
+			});
+		}
+	}
+}
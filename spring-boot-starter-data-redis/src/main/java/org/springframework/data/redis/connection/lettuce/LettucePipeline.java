@@ -0,0 +1,287 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.connection.lettuce;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Pipeline on a dedicated Lettuce connection with auto-flush disabled
+ * 
+ * <p>
+ * Commands are flushed when {@link #getFlushSize()} commands are queued or every {@link #getFlushInterval()}.
+ * Futures are held only until their replies arrive, unless results are requested by {@link #collect()}.
+ * </p>
+ */
+public class LettucePipeline implements Closeable {
+	
+	/**
+	 * {@link Logger}
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(LettucePipeline.class);
+	
+	/**
+	 * {@link LettuceConnectionProvider}
+	 */
+	private final LettuceConnectionProvider connectionProvider;
+	
+	/**
+	 * {@link StatefulConnection}
+	 */
+	private final StatefulConnection<byte[], byte[]> connection;
+	
+	/**
+	 * {@link RedisClusterAsyncCommands}
+	 */
+	private final RedisClusterAsyncCommands<byte[], byte[]> commands;
+	
+	/**
+	 * Number of commands to flush
+	 */
+	@Getter
+	private final int flushSize;
+	
+	/**
+	 * Interval to flush
+	 */
+	@Getter
+	private final Duration flushInterval;
+	
+	/**
+	 * Number of commands not flushed
+	 */
+	private final AtomicInteger pending = new AtomicInteger();
+	
+	/**
+	 * Futures of replies not arrived
+	 */
+	private final Set<CompletableFuture<?>> inflight = ConcurrentHashMap.newKeySet();
+	
+	/**
+	 * Futures to collect by {@link #results()}, or {@code null} if not collecting
+	 */
+	private List<CompletableFuture<?>> collected;
+	
+	/**
+	 * {@link ScheduledFuture} of interval flush
+	 */
+	private final ScheduledFuture<?> scheduledFlush;
+	
+	/**
+	 * Closed
+	 */
+	private volatile boolean closed;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param connectionProvider {@link LettuceConnectionProvider}
+	 * @param connection {@link StatefulRedisConnection} or {@link StatefulRedisClusterConnection}
+	 * @param scheduler {@link ScheduledExecutorService} for interval flush
+	 * @param flushSize number of commands to flush
+	 * @param flushInterval interval to flush ({@link Duration#ZERO} to disable)
+	 */
+	public LettucePipeline(@NonNull LettuceConnectionProvider connectionProvider,
+		@NonNull StatefulConnection<byte[], byte[]> connection, @NonNull ScheduledExecutorService scheduler,
+		int flushSize, @NonNull Duration flushInterval) {
+		
+		Assert.isTrue(flushSize > 0, "Flush size must be positive");
+		Assert.isTrue(!flushInterval.isNegative(), "Flush interval must not be negative");
+		
+		this.connectionProvider = connectionProvider;
+		this.connection = connection;
+		this.commands = commands(connection);
+		this.flushSize = flushSize;
+		this.flushInterval = flushInterval;
+		
+		this.connection.setAutoFlushCommands(false);
+		
+		long interval = flushInterval.toMillis();
+		
+		this.scheduledFlush = interval <= 0 ? null
+			: scheduler.scheduleAtFixedRate(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Execute a command
+	 * 
+	 * @param <T> type of result
+	 * @param command command, e.g. {@code commands -> commands.set(key, value)}
+	 * @return {@link CompletableFuture} completed when the reply arrives
+	 * @throws IllegalStateException if closed
+	 */
+	public <T> CompletableFuture<T> execute(
+		@NonNull Function<RedisClusterAsyncCommands<byte[], byte[]>, RedisFuture<T>> command)
+		throws IllegalStateException {
+		
+		Assert.state(!this.closed, "Pipeline is closed");
+		
+		CompletableFuture<T> future = command.apply(this.commands).toCompletableFuture();
+		
+		this.inflight.add(future);
+		future.whenComplete((result, e) -> this.inflight.remove(future));
+		
+		synchronized (this) {
+			
+			if (this.collected != null) {
+				
+				this.collected.add(future);
+			}
+		}
+		
+		if (this.pending.incrementAndGet() >= this.flushSize) {
+			
+			this.flush();
+		}
+		
+		return future;
+	}
+	
+	/**
+	 * Flush queued commands
+	 */
+	public void flush() {
+		
+		if (this.pending.getAndSet(0) > 0) {
+			
+			this.connection.flushCommands();
+		}
+	}
+	
+	/**
+	 * Start collecting futures of subsequent commands for {@link #results()}
+	 */
+	public synchronized void collect() {
+		
+		if (this.collected == null) {
+			
+			this.collected = new ArrayList<>();
+		}
+	}
+	
+	/**
+	 * Flush and collect results of commands executed since {@link #collect()}, and stop collecting
+	 * 
+	 * @return {@link CompletableFuture} of results in order of execution, completed exceptionally if any command
+	 *         failed
+	 */
+	public CompletableFuture<List<Object>> results() {
+		
+		List<CompletableFuture<?>> results;
+		
+		synchronized (this) {
+			
+			results = this.collected != null ? this.collected : new ArrayList<>();
+			this.collected = null;
+		}
+		
+		this.flush();
+		
+		/* @formatter:off */
+		return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+			.thenApply(none -> results.stream()
+				.map(CompletableFuture::join)
+				.collect(Collectors.<Object> toList()));
+		/* @formatter:on */
+	}
+	
+	/**
+	 * Flush, await pending replies, restore auto-flush and release the connection
+	 */
+	@Override
+	public void close() {
+		
+		if (this.closed) {
+			
+			return;
+		}
+		
+		this.closed = true;
+		
+		if (this.scheduledFlush != null) {
+			
+			this.scheduledFlush.cancel(false);
+		}
+		
+		try {
+			
+			this.flush();
+			
+			CompletableFuture.allOf(this.inflight.toArray(new CompletableFuture<?>[0]))
+				.get(this.connection.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+			
+			Thread.currentThread().interrupt();
+		}
+		catch (Exception e) {
+			
+			logger.debug("Pending commands of pipeline failed", e);
+		}
+		finally {
+			
+			this.connection.setAutoFlushCommands(true);
+			this.connectionProvider.release(this.connection);
+		}
+	}
+	
+	/**
+	 * Get {@link RedisClusterAsyncCommands}
+	 * 
+	 * @param connection {@link StatefulConnection}
+	 * @return {@link RedisClusterAsyncCommands}
+	 * @throws IllegalArgumentException if unsupported
+	 */
+	protected static RedisClusterAsyncCommands<byte[], byte[]> commands(StatefulConnection<byte[], byte[]> connection)
+		throws IllegalArgumentException {
+		
+		if (connection instanceof StatefulRedisClusterConnection) {
+			
+			return ((StatefulRedisClusterConnection<byte[], byte[]>) connection).async();
+		}
+		
+		if (connection instanceof StatefulRedisConnection) {
+			
+			return ((StatefulRedisConnection<byte[], byte[]>) connection).async();
+		}
+		
+		throw new IllegalArgumentException("Unsupported connection: " + connection.getClass().getName());
+	}
+}
@@ -0,0 +1,759 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * {@link SessionRepository} of Redis with lazy attributes
+ * 
+ * <p>
+ * A session is a hash of metadata fields and one {@code sessionAttr:<name>} field per attribute. Attributes are read by
+ * {@code HGET} on first access, and only changed fields are written on {@link #save(XSession)}, pipelined except for
+ * {@link RedisClusterConnection} and followed by the expiration. The last accessed time is written once per touch
+ * interval, so a request that changes nothing writes nothing.
+ * </p>
+ * 
+ * <p>
+ * Metadata is cached locally for a short TTL, so a request costs one {@code HMGET} unless cached, one {@code HGET} per
+ * attribute read, and one write if changed. Changes on other nodes, including deletion, may be seen late by the TTL of
+ * the cache.
+ * </p>
+ */
+@RequiredArgsConstructor
+public class LazyRedisSessionRepository implements SessionRepository<LazyRedisSessionRepository.XSession> {
+	
+	/**
+	 * Field of creation time
+	 */
+	public static final String CREATION_TIME = "creationTime";
+	
+	/**
+	 * Field of last accessed time
+	 */
+	public static final String LAST_ACCESSED_TIME = "lastAccessedTime";
+	
+	/**
+	 * Field of max inactive interval
+	 */
+	public static final String MAX_INACTIVE_INTERVAL = "maxInactiveInterval";
+	
+	/**
+	 * Prefix of attribute fields
+	 */
+	public static final String ATTRIBUTE_PREFIX = "sessionAttr:";
+	
+	/**
+	 * {@link Logger}
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(LazyRedisSessionRepository.class);
+	
+	/**
+	 * {@link RedisConnectionFactory}
+	 */
+	@NonNull
+	private final RedisConnectionFactory connectionFactory;
+	
+	/**
+	 * Namespace of keys
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private String namespace = "spring:session";
+	
+	/**
+	 * Default max inactive interval, or no expiration if negative
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private Duration defaultMaxInactiveInterval = Duration.ofMinutes(30);
+	
+	/**
+	 * Minimum interval to write the last accessed time
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private Duration touchInterval = Duration.ofSeconds(10);
+	
+	/**
+	 * TTL of the local cache of metadata, or disabled if zero
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private Duration metadataCacheTtl = Duration.ofSeconds(1);
+	
+	/**
+	 * Maximum number of sessions in the local cache of metadata
+	 */
+	@Getter
+	@Setter
+	private int metadataCacheSize = 10000;
+	
+	/**
+	 * {@link RedisSerializer} of attributes
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private RedisSerializer<Object> serializer = new JdkSerializationRedisSerializer();
+	
+	/**
+	 * Local cache of {@link XMetadata} by session ID
+	 */
+	private final Map<String, XMetadata> metadataCache = new ConcurrentHashMap<>();
+	
+	@Override
+	public XSession createSession() {
+		
+		long now = System.currentTimeMillis();
+		
+		return new XSession(newId(), new XMetadata(now, now, this.defaultMaxInactiveInterval.toMillis(), 0), true);
+	}
+	
+	@Override
+	public void save(@NonNull XSession session) {
+		
+		XMetadata saved = session.saved;
+		Map<byte[], byte[]> fields = new LinkedHashMap<>();
+		List<byte[]> removed = new ArrayList<>();
+		
+		if (session.isNew || saved.creationTime != session.creationTime) {
+			
+			fields.put(toBytes(CREATION_TIME), toBytes(Long.toString(session.creationTime)));
+		}
+		
+		boolean touched = session.isNew
+			|| session.lastAccessedTime - saved.lastAccessedTime >= this.touchInterval.toMillis();
+		
+		if (touched) {
+			
+			fields.put(toBytes(LAST_ACCESSED_TIME), toBytes(Long.toString(session.lastAccessedTime)));
+		}
+		
+		if (session.isNew || saved.maxInactiveInterval != session.maxInactiveInterval) {
+			
+			fields.put(toBytes(MAX_INACTIVE_INTERVAL), toBytes(Long.toString(session.maxInactiveInterval)));
+		}
+		
+		for (Entry<String, Object> entry : session.delta.entrySet()) {
+			
+			if (entry.getValue() == null) {
+				
+				removed.add(toBytes(ATTRIBUTE_PREFIX + entry.getKey()));
+			}
+			else {
+				
+				fields.put(toBytes(ATTRIBUTE_PREFIX + entry.getKey()), this.serializer.serialize(entry.getValue()));
+			}
+		}
+		
+		boolean renamed = !session.isNew && !session.id.equals(session.savedId);
+		
+		if (fields.isEmpty() && removed.isEmpty() && !renamed) {
+			
+			return;
+		}
+		
+		byte[] key = this.getKey(session.id);
+		RedisConnection connection = this.connectionFactory.getConnection();
+		
+		try {
+			
+			if (renamed && !this.rename(connection, session.savedId, session.id)) {
+				
+				// Old key expired, so write the session as a new one
+				fields.put(toBytes(CREATION_TIME), toBytes(Long.toString(session.creationTime)));
+				fields.put(toBytes(LAST_ACCESSED_TIME), toBytes(Long.toString(session.lastAccessedTime)));
+				fields.put(toBytes(MAX_INACTIVE_INTERVAL), toBytes(Long.toString(session.maxInactiveInterval)));
+				
+				session.attributeNames = new LinkedHashSet<>();
+				session.attributes.forEach((name, value) -> {
+					
+					if (value != null && !session.delta.containsKey(name)) {
+						
+						fields.put(toBytes(ATTRIBUTE_PREFIX + name), this.serializer.serialize(value));
+						session.attributeNames.add(name);
+					}
+				});
+				
+				touched = true;
+			}
+			
+			boolean pipelined = !(connection instanceof RedisClusterConnection);
+			
+			if (pipelined) {
+				
+				connection.openPipeline();
+			}
+			
+			try {
+				
+				if (!fields.isEmpty()) {
+					
+					connection.hMSet(key, fields);
+				}
+				
+				if (!removed.isEmpty()) {
+					
+					connection.hDel(key, removed.toArray(new byte[removed.size()][]));
+				}
+				
+				// Note: Expire on every write, since the key may be gone and recreated without metadata
+				if (session.maxInactiveInterval < 0) {
+					
+					connection.persist(key);
+				}
+				else {
+					
+					connection.pExpire(key, session.maxInactiveInterval + this.touchInterval.toMillis());
+				}
+			}
+			finally {
+				
+				if (pipelined) {
+					
+					connection.closePipeline();
+				}
+			}
+		}
+		finally {
+			
+			connection.close();
+		}
+		
+		session.markSaved(touched ? session.lastAccessedTime : saved.lastAccessedTime);
+		
+		this.cacheMetadata(session.id, session.saved);
+	}
+	
+	@Override
+	public XSession findById(@NonNull String id) {
+		
+		XMetadata metadata = this.loadMetadata(id);
+		
+		if (metadata == null) {
+			
+			return null;
+		}
+		
+		if (metadata.maxInactiveInterval >= 0 && metadata.lastAccessedTime + metadata.maxInactiveInterval
+			+ this.touchInterval.toMillis() < System.currentTimeMillis()) {
+			
+			this.deleteById(id);
+			
+			return null;
+		}
+		
+		return new XSession(id, metadata, false);
+	}
+	
+	@Override
+	public void deleteById(@NonNull String id) {
+		
+		this.metadataCache.remove(id);
+		
+		RedisConnection connection = this.connectionFactory.getConnection();
+		
+		try {
+			
+			connection.del(this.getKey(id));
+		}
+		finally {
+			
+			connection.close();
+		}
+	}
+	
+	/**
+	 * Get key of a session
+	 * 
+	 * @param id session ID
+	 * @return key
+	 */
+	public byte[] getKey(String id) {
+		
+		return toBytes(this.namespace + ":sessions:" + id);
+	}
+	
+	/**
+	 * Load {@link XMetadata} from the local cache or by {@code HMGET}
+	 * 
+	 * @param id session ID
+	 * @return {@link XMetadata} or {@code null} if not found
+	 */
+	protected XMetadata loadMetadata(String id) {
+		
+		long now = System.currentTimeMillis();
+		XMetadata cached = this.metadataCache.get(id);
+		
+		if (cached != null && cached.cachedUntil > now) {
+			
+			return cached;
+		}
+		
+		List<byte[]> values;
+		RedisConnection connection = this.connectionFactory.getConnection();
+		
+		try {
+			
+			values = connection.hMGet(this.getKey(id), toBytes(CREATION_TIME), toBytes(LAST_ACCESSED_TIME),
+				toBytes(MAX_INACTIVE_INTERVAL));
+		}
+		finally {
+			
+			connection.close();
+		}
+		
+		if (values == null || values.size() != 3 || values.contains(null)) {
+			
+			this.metadataCache.remove(id);
+			
+			return null;
+		}
+		
+		XMetadata metadata = new XMetadata(toLong(values.get(0)), toLong(values.get(1)), toLong(values.get(2)), 0);
+		
+		this.cacheMetadata(id, metadata);
+		
+		return metadata;
+	}
+	
+	/**
+	 * Cache {@link XMetadata} locally
+	 * 
+	 * @param id session ID
+	 * @param metadata {@link XMetadata}
+	 */
+	protected void cacheMetadata(String id, XMetadata metadata) {
+		
+		long ttl = this.metadataCacheTtl.toMillis();
+		
+		if (ttl <= 0) {
+			
+			return;
+		}
+		
+		long now = System.currentTimeMillis();
+		
+		if (!this.metadataCache.containsKey(id) && this.metadataCache.size() >= this.metadataCacheSize) {
+			
+			this.metadataCache.values().removeIf(cached -> cached.cachedUntil <= now);
+			
+			if (this.metadataCache.size() >= this.metadataCacheSize) {
+				
+				return;
+			}
+		}
+		
+		this.metadataCache.put(id, new XMetadata(metadata.creationTime, metadata.lastAccessedTime,
+			metadata.maxInactiveInterval, now + ttl));
+	}
+	
+	/**
+	 * Read an attribute by {@code HGET}
+	 * 
+	 * @param id session ID
+	 * @param name attribute name
+	 * @return value or {@code null}
+	 */
+	protected Object readAttribute(String id, String name) {
+		
+		byte[] value;
+		RedisConnection connection = this.connectionFactory.getConnection();
+		
+		try {
+			
+			value = connection.hGet(this.getKey(id), toBytes(ATTRIBUTE_PREFIX + name));
+		}
+		finally {
+			
+			connection.close();
+		}
+		
+		return value != null ? this.serializer.deserialize(value) : null;
+	}
+	
+	/**
+	 * Read attribute names by {@code HKEYS}
+	 * 
+	 * @param id session ID
+	 * @return attribute names
+	 */
+	protected Set<String> readAttributeNames(String id) {
+		
+		Set<byte[]> fields;
+		RedisConnection connection = this.connectionFactory.getConnection();
+		
+		try {
+			
+			fields = connection.hKeys(this.getKey(id));
+		}
+		finally {
+			
+			connection.close();
+		}
+		
+		Set<String> names = new LinkedHashSet<>();
+		
+		if (fields != null) {
+			
+			for (byte[] field : fields) {
+				
+				String name = new String(field, StandardCharsets.UTF_8);
+				
+				if (name.startsWith(ATTRIBUTE_PREFIX)) {
+					
+					names.add(name.substring(ATTRIBUTE_PREFIX.length()));
+				}
+			}
+		}
+		
+		return names;
+	}
+	
+	/**
+	 * Rename the key of a session
+	 * 
+	 * @param connection {@link RedisConnection}
+	 * @param oldId old session ID
+	 * @param newId new session ID
+	 * @return renamed, or {@code false} if the old key is gone
+	 */
+	private boolean rename(RedisConnection connection, String oldId, String newId) {
+		
+		this.metadataCache.remove(oldId);
+		
+		try {
+			
+			connection.rename(this.getKey(oldId), this.getKey(newId));
+			
+			return true;
+		}
+		catch (DataAccessException e) {
+			
+			logger.debug("Failed to rename session: " + oldId, e);
+			
+			return false;
+		}
+	}
+	
+	/**
+	 * New session ID
+	 * 
+	 * @return session ID
+	 */
+	private static String newId() {
+		
+		return UUID.randomUUID().toString();
+	}
+	
+	/**
+	 * To bytes
+	 * 
+	 * @param value string
+	 * @return bytes
+	 */
+	private static byte[] toBytes(String value) {
+		
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * To long
+	 * 
+	 * @param value bytes of a decimal
+	 * @return long
+	 */
+	private static long toLong(byte[] value) {
+		
+		return Long.parseLong(new String(value, StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * Metadata of a session
+	 */
+	@RequiredArgsConstructor
+	protected static class XMetadata {
+		
+		/**
+		 * Creation time in epoch milliseconds
+		 */
+		private final long creationTime;
+		
+		/**
+		 * Last accessed time in epoch milliseconds
+		 */
+		private final long lastAccessedTime;
+		
+		/**
+		 * Max inactive interval in milliseconds, or no expiration if negative
+		 */
+		private final long maxInactiveInterval;
+		
+		/**
+		 * Time until cached in epoch milliseconds
+		 */
+		private final long cachedUntil;
+	}
+	
+	/**
+	 * {@link Session} with lazy attributes
+	 */
+	public class XSession implements Session {
+		
+		/**
+		 * ID
+		 */
+		private String id;
+		
+		/**
+		 * ID in Redis
+		 */
+		private String savedId;
+		
+		/**
+		 * New or not
+		 */
+		private boolean isNew;
+		
+		/**
+		 * Creation time in epoch milliseconds
+		 */
+		private long creationTime;
+		
+		/**
+		 * Last accessed time in epoch milliseconds
+		 */
+		private long lastAccessedTime;
+		
+		/**
+		 * Max inactive interval in milliseconds
+		 */
+		private long maxInactiveInterval;
+		
+		/**
+		 * {@link XMetadata} in Redis
+		 */
+		private XMetadata saved;
+		
+		/**
+		 * Loaded attributes, {@code null} if absent
+		 */
+		private final Map<String, Object> attributes = new HashMap<>();
+		
+		/**
+		 * Changed attributes, {@code null} if removed
+		 */
+		private final Map<String, Object> delta = new LinkedHashMap<>();
+		
+		/**
+		 * Attribute names in Redis, {@code null} if not loaded
+		 */
+		private Set<String> attributeNames;
+		
+		/**
+		 * Constructor
+		 * 
+		 * @param id ID
+		 * @param metadata {@link XMetadata}
+		 * @param isNew new or not
+		 */
+		XSession(String id, XMetadata metadata, boolean isNew) {
+			
+			this.id = id;
+			this.savedId = id;
+			this.isNew = isNew;
+			this.creationTime = metadata.creationTime;
+			this.lastAccessedTime = metadata.lastAccessedTime;
+			this.maxInactiveInterval = metadata.maxInactiveInterval;
+			this.saved = metadata;
+			
+			if (isNew) {
+				
+				this.attributeNames = new LinkedHashSet<>();
+			}
+		}
+		
+		@Override
+		public String getId() {
+			
+			return this.id;
+		}
+		
+		@Override
+		public String changeSessionId() {
+			
+			this.id = newId();
+			
+			if (this.isNew) {
+				
+				this.savedId = this.id;
+			}
+			
+			return this.id;
+		}
+		
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T getAttribute(String attributeName) {
+			
+			if (!this.attributes.containsKey(attributeName)) {
+				
+				boolean absent = this.isNew
+					|| this.attributeNames != null && !this.attributeNames.contains(attributeName);
+				
+				this.attributes.put(attributeName,
+					absent ? null : LazyRedisSessionRepository.this.readAttribute(this.savedId, attributeName));
+			}
+			
+			return (T) this.attributes.get(attributeName);
+		}
+		
+		@Override
+		public Set<String> getAttributeNames() {
+			
+			if (this.attributeNames == null) {
+				
+				this.attributeNames = LazyRedisSessionRepository.this.readAttributeNames(this.savedId);
+			}
+			
+			Set<String> names = new LinkedHashSet<>(this.attributeNames);
+			
+			this.delta.forEach((name, value) -> {
+				
+				if (value != null) {
+					
+					names.add(name);
+				}
+				else {
+					
+					names.remove(name);
+				}
+			});
+			
+			return names;
+		}
+		
+		@Override
+		public void setAttribute(String attributeName, Object attributeValue) {
+			
+			if (attributeValue == null) {
+				
+				this.removeAttribute(attributeName);
+				
+				return;
+			}
+			
+			this.attributes.put(attributeName, attributeValue);
+			this.delta.put(attributeName, attributeValue);
+		}
+		
+		@Override
+		public void removeAttribute(String attributeName) {
+			
+			this.attributes.put(attributeName, null);
+			this.delta.put(attributeName, null);
+		}
+		
+		@Override
+		public Instant getCreationTime() {
+			
+			return Instant.ofEpochMilli(this.creationTime);
+		}
+		
+		@Override
+		public void setLastAccessedTime(Instant lastAccessedTime) {
+			
+			this.lastAccessedTime = lastAccessedTime.toEpochMilli();
+		}
+		
+		@Override
+		public Instant getLastAccessedTime() {
+			
+			return Instant.ofEpochMilli(this.lastAccessedTime);
+		}
+		
+		@Override
+		public void setMaxInactiveInterval(Duration interval) {
+			
+			this.maxInactiveInterval = interval.toMillis();
+		}
+		
+		@Override
+		public Duration getMaxInactiveInterval() {
+			
+			return Duration.ofMillis(this.maxInactiveInterval);
+		}
+		
+		@Override
+		public boolean isExpired() {
+			
+			return this.maxInactiveInterval >= 0
+				&& this.lastAccessedTime + this.maxInactiveInterval < System.currentTimeMillis();
+		}
+		
+		/**
+		 * Mark as saved
+		 * 
+		 * @param savedLastAccessedTime last accessed time in Redis
+		 */
+		void markSaved(long savedLastAccessedTime) {
+			
+			if (this.attributeNames != null) {
+				
+				this.attributeNames = this.getAttributeNames();
+			}
+			
+			this.saved = new XMetadata(this.creationTime, savedLastAccessedTime, this.maxInactiveInterval, 0);
+			this.savedId = this.id;
+			this.isNew = false;
+			this.delta.clear();
+		}
+	}
+}
@@ -25,6 +25,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.cache.CustomCacheAutoConfigurationTests.XOptionalConfiguration;
+import org.springframework.boot.autoconfigure.cache.CustomRedisCacheConfiguration.RedisCacheMetricsConfiguration;
 import org.springframework.boot.autoconfigure.cache.CustomRedisCacheConfiguration.RedisKeyGeneratorConfiguration;
 import org.springframework.boot.autoconfigure.data.redis.CustomRedisAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -34,7 +35,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.data.redis.cache.CustomRedisCacheManager;
+import org.springframework.data.redis.cache.CustomRedisCacheWriter;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheMetrics;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.serializer.GenericToStringSerializer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
@@ -42,6 +45,8 @@ import org.springframework.data.redis.serializer.OxmSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 /**
  * {@link Test}: {@link CustomCacheAutoConfiguration}
  */
@@ -67,13 +72,20 @@ public class CustomCacheAutoConfigurationTests {
 	@Autowired
 	private CachingConfigurer cachingConfigurer;
 	
+	/**
+	 * {@link RedisCacheMetrics}
+	 */
+	@Autowired
+	private RedisCacheMetrics redisCacheMetrics;
+	
 	/**
 	 * {@link CustomRedisCacheConfiguration#cacheManager(RedisConnectionFactory, ResourceLoader)}
 	 */
 	@Test
 	public void cacheManager() {
 		
-		assertThat(CustomRedisCacheManager.getCacheWriter(this.cacheManager)).isNotNull();
+		assertThat(CustomRedisCacheManager.getCacheWriter(this.cacheManager))
+			.isInstanceOf(CustomRedisCacheWriter.class);
 		assertThat(CustomRedisCacheManager.getDefaultCacheConfiguration(this.cacheManager)).isNotNull();
 		assertThat(CustomRedisCacheManager.getInitialCacheConfigurations(this.cacheManager)).isNotNull();
 		
@@ -101,6 +113,19 @@ public class CustomCacheAutoConfigurationTests {
 		}
 	}
 	
+	/**
+	 * {@link RedisCacheMetricsConfiguration#redisCacheMetrics(org.springframework.data.redis.cache.RedisCacheManager)}
+	 */
+	@Test
+	public void redisCacheMetrics() {
+		
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		
+		this.redisCacheMetrics.bindTo(registry);
+		
+		assertThat(registry.get("redis.cache.reads.degraded").functionCounter().count()).isEqualTo(0.0);
+	}
+	
 	/**
 	 * {@link RedisKeyGeneratorConfiguration#keyGenerator()}
 	 */
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.function.BiConsumer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CustomCacheAutoConfigurationWithMockFeaturesTests.XWarmUpConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.CustomRedisAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.CacheWarmUp;
+import org.springframework.data.redis.cache.CacheWarmUpLoader;
+import org.springframework.data.redis.cache.CustomRedisCacheManager;
+import org.springframework.data.redis.cache.MockRedisCacheWriter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * {@link Test}: {@link CustomCacheAutoConfiguration} with mock, off-heap store, negative TTLs and warm-up
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = {
+	/* @formatter:off */
+	XWarmUpConfiguration.class,
+	CustomRedisAutoConfiguration.class,
+	CustomCacheAutoConfiguration.class
+	/* @formatter:on */
+})
+@ActiveProfiles({ "test", "test-cache-config-with-mock", "test-cache-config-with-mock-features" })
+public class CustomCacheAutoConfigurationWithMockFeaturesTests {
+	
+	/**
+	 * {@link CustomRedisCacheManager}
+	 */
+	@Autowired
+	private CustomRedisCacheManager cacheManager;
+	
+	/**
+	 * {@link CacheWarmUp}
+	 */
+	@Autowired
+	private CacheWarmUp cacheWarmUp;
+	
+	/**
+	 * {@link MockRedisCacheWriter#getOffHeapStore()}
+	 */
+	@Test
+	public void offHeapStore() {
+		
+		MockRedisCacheWriter cacheWriter = (MockRedisCacheWriter) CustomRedisCacheManager
+			.getCacheWriter(this.cacheManager);
+		
+		assertThat(cacheWriter.getOffHeapStore()).isNotNull();
+	}
+	
+	/**
+	 * {@link CustomRedisCacheManager#getNegativeTtl(String)}
+	 */
+	@Test
+	public void negativeTtl() {
+		
+		assertThat(this.cacheManager.getNegativeTtl("foo")).isEqualTo(Duration.ofSeconds(1));
+		assertThat(this.cacheManager.getNegativeTtl("bar")).isEqualTo(Duration.ofSeconds(5));
+	}
+	
+	/**
+	 * {@link CacheWarmUp}
+	 */
+	@Test
+	public void cacheWarmUp() {
+		
+		assertThat(this.cacheWarmUp.getParallelism()).isEqualTo(2);
+		assertThat(this.cacheWarmUp.getBatchSize()).isEqualTo(2);
+		assertThat(this.cacheWarmUp.isCompleted()).isTrue();
+		assertThat(this.cacheWarmUp.getProgress()).containsEntry("bar", 5L);
+		
+		assertThat(this.cacheManager.getCache("bar").get("key1").get()).isEqualTo("value1");
+	}
+	
+	/**
+	 * {@link Configuration} for {@link CacheWarmUp}
+	 */
+	@Configuration
+	protected static class XWarmUpConfiguration {
+		
+		/**
+		 * {@link CacheWarmUpLoader}
+		 * 
+		 * @return {@link CacheWarmUpLoader}
+		 */
+		@Bean
+		public CacheWarmUpLoader cacheWarmUpLoader() {
+			
+			return new CacheWarmUpLoader() {
+				
+				@Override
+				public String getCacheName() {
+					
+					return "bar";
+				}
+				
+				@Override
+				public void load(BiConsumer<Object, Object> writer) {
+					
+					for (int i = 1; i <= 5; i++) {
+						
+						writer.accept("key" + i, "value" + i);
+					}
+				}
+			};
+		}
+	}
+}
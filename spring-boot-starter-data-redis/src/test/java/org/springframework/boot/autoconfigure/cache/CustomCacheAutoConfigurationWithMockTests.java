@@ -23,6 +23,7 @@ import java.time.Duration;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.cache.RedisCachePayloadEndpoint;
 import org.springframework.boot.autoconfigure.cache.CustomCacheAutoConfigurationWithMockTests.XOptionalConfiguration;
 import org.springframework.boot.autoconfigure.cache.CustomRedisCacheConfiguration.RedisKeyGeneratorConfiguration;
 import org.springframework.boot.autoconfigure.data.redis.CustomRedisAutoConfiguration;
@@ -31,7 +32,11 @@ import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.redis.cache.CachePhaseRecorder;
+import org.springframework.data.redis.cache.CacheWarmUp;
+import org.springframework.data.redis.cache.CacheWarmUpLoader;
 import org.springframework.data.redis.cache.CustomRedisCacheManager;
+import org.springframework.data.redis.cache.MockRedisCacheWriter;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.test.context.ActiveProfiles;
@@ -43,9 +48,9 @@ import org.springframework.test.context.junit4.SpringRunner;
 @RunWith(SpringRunner.class)
 @SpringBootTest(classes = {
 	/* @formatter:off */
+	XOptionalConfiguration.class,
 	CustomRedisAutoConfiguration.class,
-	CustomCacheAutoConfiguration.class,
-	XOptionalConfiguration.class
+	CustomCacheAutoConfiguration.class
 	/* @formatter:on */
 })
 @ActiveProfiles({ "test", "test-cache-config-with-mock" })
@@ -57,12 +62,30 @@ public class CustomCacheAutoConfigurationWithMockTests {
 	@Autowired
 	private CustomRedisCacheManager cacheManager;
 	
+	/**
+	 * {@link CachePhaseRecorder}
+	 */
+	@Autowired
+	private CachePhaseRecorder phaseRecorder;
+	
 	/**
 	 * {@link CachingConfigurer}
 	 */
 	@Autowired(required = false)
 	private CachingConfigurer cachingConfigurer;
 	
+	/**
+	 * {@link CacheWarmUp}
+	 */
+	@Autowired(required = false)
+	private CacheWarmUp cacheWarmUp;
+	
+	/**
+	 * {@link RedisCachePayloadEndpoint}
+	 */
+	@Autowired
+	private RedisCachePayloadEndpoint payloadEndpoint;
+	
 	/**
 	 * {@link CustomRedisCacheConfiguration#cacheManager(RedisConnectionFactory, ResourceLoader)}
 	 */
@@ -73,6 +96,10 @@ public class CustomCacheAutoConfigurationWithMockTests {
 		assertThat(CustomRedisCacheManager.getDefaultCacheConfiguration(this.cacheManager)).isNotNull();
 		assertThat(CustomRedisCacheManager.getInitialCacheConfigurations(this.cacheManager)).isNotNull();
 		assertThat(this.cacheManager.getDynamicCacheConfigurations()).isNotEmpty();
+		assertThat(this.cacheManager.getNegativeTtl("foo")).isNull();
+		assertThat(((MockRedisCacheWriter) CustomRedisCacheManager.getCacheWriter(this.cacheManager)).getOffHeapStore())
+			.isNull();
+		assertThat(this.cacheManager.getPhaseRecorder()).isSameAs(this.phaseRecorder);
 	}
 	
 	/**
@@ -84,6 +111,25 @@ public class CustomCacheAutoConfigurationWithMockTests {
 		assertThat(this.cachingConfigurer).isNull();
 	}
 	
+	/**
+	 * {@link CacheWarmUp} without {@link CacheWarmUpLoader}
+	 */
+	@Test
+	public void cacheWarmUp() {
+		
+		assertThat(this.cacheWarmUp).isNull();
+	}
+	
+	/**
+	 * {@link RedisCachePayloadEndpoint}
+	 */
+	@Test
+	public void payloadEndpoint() {
+		
+		assertThat(this.payloadEndpoint.caches()).isEmpty();
+		assertThat(this.payloadEndpoint.cache("bar")).isNull();
+	}
+	
 	/**
 	 * {@link Configuration} for optional
 	 */
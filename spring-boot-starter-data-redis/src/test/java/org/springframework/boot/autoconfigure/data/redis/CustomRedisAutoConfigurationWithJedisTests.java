@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure.data.redis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig; // TODO @checkstyle:ignore
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.jedis.CustomJedisConnectionFactory;
+import org.springframework.data.redis.connection.jedis.JedisMetrics;
+import org.springframework.data.redis.connection.lettuce.LettuceMetrics;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * {@link Test}: {@link CustomRedisAutoConfiguration} with Jedis
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = CustomRedisAutoConfiguration.class)
+@ActiveProfiles({ "test", "test-redis-config-with-jedis" })
+public class CustomRedisAutoConfigurationWithJedisTests {
+	
+	/**
+	 * {@link RedisConnectionFactory}
+	 */
+	@Autowired
+	private RedisConnectionFactory redisConnectionFactory;
+	
+	/**
+	 * {@link JedisMetrics}
+	 */
+	@Autowired(required = false)
+	private JedisMetrics jedisMetrics;
+	
+	/**
+	 * {@link LettuceMetrics}
+	 */
+	@Autowired(required = false)
+	private LettuceMetrics lettuceMetrics;
+	
+	/**
+	 * {@link CustomJedisConnectionConfiguration#redisConnectionFactory()}
+	 */
+	@Test
+	public void redisConnectionFactory() {
+		
+		assertThat(this.redisConnectionFactory).isInstanceOf(CustomJedisConnectionFactory.class);
+		
+		CustomJedisConnectionFactory factory = (CustomJedisConnectionFactory) this.redisConnectionFactory;
+		GenericObjectPoolConfig pool = factory.getClientConfiguration().getPoolConfig().get();
+		
+		assertThat(factory.getClientConfiguration().getReadTimeout()).isEqualTo(Duration.ofSeconds(3));
+		assertThat(factory.getClientConfiguration().getConnectTimeout()).isEqualTo(Duration.ofSeconds(3));
+		assertThat(pool.getMaxTotal()).isEqualTo(16);
+		assertThat(pool.getMinEvictableIdleTimeMillis()).isEqualTo(30000L);
+		assertThat(pool.getSoftMinEvictableIdleTimeMillis()).isEqualTo(0L);
+		assertThat(pool.getNumTestsPerEvictionRun()).isEqualTo(4);
+		assertThat(pool.getTestOnCreate()).isEqualTo(true);
+		assertThat(pool.getTestOnBorrow()).isEqualTo(true);
+		assertThat(pool.getTestOnReturn()).isEqualTo(true);
+		assertThat(pool.getTestWhileIdle()).isEqualTo(true);
+		assertThat(pool.getTimeBetweenEvictionRunsMillis()).isEqualTo(0L);
+		assertThat(pool.getBlockWhenExhausted()).isEqualTo(false);
+		
+		assertThat(factory.getPipelineFlushSize()).isEqualTo(64);
+		assertThat(factory.getPools()).hasSize(1);
+	}
+	
+	/**
+	 * {@link JedisMetrics}
+	 */
+	@Test
+	public void jedisMetrics() {
+		
+		assertThat(this.jedisMetrics).isNotNull();
+		assertThat(this.lettuceMetrics).isNull();
+	}
+}
@@ -18,16 +18,29 @@ package org.springframework.boot.autoconfigure.data.redis;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig; // TODO @checkstyle:ignore
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.lettuce.CustomLettuceConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceMetrics;
 import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions.RefreshTrigger;
+import io.lettuce.core.metrics.CommandLatencyCollector;
+import io.lettuce.core.metrics.CommandMetrics;
+import io.lettuce.core.protocol.CommandType;
+import io.lettuce.core.resource.ClientResources;
+
 /**
  * {@link Test}: {@link CustomRedisAutoConfiguration} with Lettuce
  */
@@ -42,6 +55,43 @@ public class CustomRedisAutoConfigurationWithLettuceTests {
 	@Autowired
 	private LettuceConnectionFactory redisConnectionFactory;
 	
+	/**
+	 * {@link ClientResources}
+	 */
+	@Autowired
+	private ClientResources clientResources;
+	
+	/**
+	 * {@link LettuceMetrics}
+	 */
+	@Autowired(required = false)
+	private LettuceMetrics lettuceMetrics;
+	
+	/**
+	 * {@link CustomLettuceConnectionConfiguration#lettuceClientResources()}
+	 */
+	@Test
+	public void lettuceClientResources() {
+		
+		CommandLatencyCollector collector = this.clientResources.commandLatencyCollector();
+		
+		assertThat(collector.isEnabled()).isTrue();
+		
+		InetSocketAddress address = new InetSocketAddress("localhost", 6379);
+		
+		collector.recordCommandLatency(address, address, CommandType.GET, 1000L, 2000L);
+		
+		CommandMetrics metrics = collector.retrieveMetrics().values().iterator().next();
+		
+		assertThat(metrics.getCompletion().getPercentiles().keySet()).containsExactlyInAnyOrder(50.0, 99.0);
+		assertThat(collector.retrieveMetrics()).isNotEmpty();
+		assertThat(this.clientResources.commandLatencyPublisherOptions().eventEmitInterval().toMillis())
+			.isEqualTo(5000L);
+		
+		assertThat(this.clientResources.ioThreadPoolSize()).isEqualTo(5);
+		assertThat(this.clientResources.computationThreadPoolSize()).isEqualTo(4);
+	}
+	
 	/**
 	 * {@link CustomLettuceConnectionConfiguration#redisConnectionFactory(io.lettuce.core.resource.ClientResources)}
 	 */
@@ -51,6 +101,11 @@ public class CustomRedisAutoConfigurationWithLettuceTests {
 		GenericObjectPoolConfig pool = ((LettucePoolingClientConfiguration) this.redisConnectionFactory
 			.getClientConfiguration()).getPoolConfig();
 		
+		assertThat(this.redisConnectionFactory.getClientConfiguration().getCommandTimeout())
+			.isEqualTo(Duration.ofSeconds(3));
+		assertThat(this.redisConnectionFactory.getClientConfiguration().getClientResources())
+			.contains(this.clientResources);
+		assertThat(pool.getMaxTotal()).isEqualTo(16);
 		assertThat(pool.getMinEvictableIdleTimeMillis()).isEqualTo(30000L);
 		assertThat(pool.getSoftMinEvictableIdleTimeMillis()).isEqualTo(0L);
 		assertThat(pool.getNumTestsPerEvictionRun()).isEqualTo(4);
@@ -60,5 +115,29 @@ public class CustomRedisAutoConfigurationWithLettuceTests {
 		assertThat(pool.getTestWhileIdle()).isEqualTo(true);
 		assertThat(pool.getTimeBetweenEvictionRunsMillis()).isEqualTo(0L);
 		assertThat(pool.getBlockWhenExhausted()).isEqualTo(false);
+		
+		assertThat(this.redisConnectionFactory).isInstanceOf(CustomLettuceConnectionFactory.class);
+		
+		CustomLettuceConnectionFactory factory = (CustomLettuceConnectionFactory) this.redisConnectionFactory;
+		
+		assertThat(factory.getPipelineFlushSize()).isEqualTo(64);
+		assertThat(factory.getPipelineFlushInterval()).isEqualTo(Duration.ofMillis(5));
+		assertThat(factory.getReadFrom()).isEqualTo(ReadFrom.SLAVE_PREFERRED);
+		
+		ClusterTopologyRefreshOptions topologyRefresh = factory.getTopologyRefreshOptions();
+		
+		assertThat(topologyRefresh.isPeriodicRefreshEnabled()).isTrue();
+		assertThat(topologyRefresh.getRefreshPeriod()).isEqualTo(Duration.ofMinutes(1));
+		assertThat(topologyRefresh.getAdaptiveRefreshTriggers()).containsExactlyInAnyOrder(RefreshTrigger.values());
+		assertThat(topologyRefresh.getAdaptiveRefreshTimeout()).isEqualTo(Duration.ofSeconds(10));
+	}
+	
+	/**
+	 * {@link LettuceMetrics}
+	 */
+	@Test
+	public void lettuceMetrics() {
+		
+		assertThat(this.lettuceMetrics).isNotNull();
 	}
 }
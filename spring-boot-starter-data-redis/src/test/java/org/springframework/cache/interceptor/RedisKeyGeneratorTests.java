@@ -19,10 +19,13 @@ package org.springframework.cache.interceptor;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.lang.reflect.Method;
+import java.util.Collections;
 
 import org.junit.Test;
 import org.springframework.beans.BeanUtils;
 import org.springframework.cache.annotation.CacheParam;
+import org.springframework.data.redis.cache.CachePhaseRecorder;
+import org.springframework.data.redis.cache.CachePhaseRecorder.XPhase;
 
 /**
  * {@link Test}: {@link RedisKeyGenerator}
@@ -60,6 +63,72 @@ public class RedisKeyGeneratorTests {
 			assertThat(this.keyGenerator.generate(service, method, "bar", 1, true))
 				.isEqualTo("first:bar:second:1:third:true");
 		}
+		
+		{
+			Method method = BeanUtils.findDeclaredMethodWithMinimalParameters(TestService.class, "withHashTag");
+			
+			assertThat(this.keyGenerator.generate(service, method, "foo", 1)).isEqualTo("first:foo:{second:1}");
+		}
+	}
+	
+	/**
+	 * {@link RedisKeyGenerator#isHashTag()}
+	 */
+	@Test
+	public void hashTag() {
+		
+		TestService service = new TestService();
+		RedisKeyGenerator keyGenerator = new RedisKeyGenerator(true);
+		
+		{
+			Method method = BeanUtils.findDeclaredMethodWithMinimalParameters(TestService.class, "withoutParameters");
+			
+			assertThat(keyGenerator.generate(service, method)).isEqualTo("");
+		}
+		
+		{
+			Method method = BeanUtils.findDeclaredMethodWithMinimalParameters(TestService.class, "withoutAnnotation");
+			
+			assertThat(keyGenerator.generate(service, method, "bar", 1, true))
+				.isEqualTo("{first:bar}:second:1:third:true");
+		}
+		
+		{
+			Method method = BeanUtils.findDeclaredMethodWithMinimalParameters(TestService.class, "withHashTag");
+			
+			assertThat(keyGenerator.generate(service, method, "foo", 1)).isEqualTo("first:foo:{second:1}");
+		}
+	}
+	
+	/**
+	 * {@link CacheParam#tag()}
+	 */
+	@Test
+	public void tag() {
+		
+		TestService service = new TestService();
+		Method method = BeanUtils.findDeclaredMethodWithMinimalParameters(TestService.class, "withTag");
+		Object key = this.keyGenerator.generate(service, method, 42, "ja");
+		
+		assertThat(key).isInstanceOf(TaggedCacheKey.class).hasToString("productId:42:locale:ja");
+		assertThat(((TaggedCacheKey) key).getTags()).containsExactly("productId:42");
+		assertThat(key).isEqualTo(new TaggedCacheKey("productId:42:locale:ja", Collections.emptyList()));
+	}
+	
+	/**
+	 * {@link RedisKeyGenerator#setPhaseRecorder(CachePhaseRecorder)}
+	 */
+	@Test
+	public void phaseRecorder() {
+		
+		RedisKeyGenerator keyGenerator = new RedisKeyGenerator();
+		CachePhaseRecorder phaseRecorder = new CachePhaseRecorder(1);
+		Method method = BeanUtils.findDeclaredMethodWithMinimalParameters(TestService.class, "withTag");
+		
+		keyGenerator.setPhaseRecorder(phaseRecorder);
+		keyGenerator.generate(new TestService(), method, 42, "ja");
+		
+		assertThat(phaseRecorder.get(CachePhaseRecorder.ALL, XPhase.KEY_GENERATION).getCount()).isEqualTo(1);
 	}
 	
 	/**
@@ -95,6 +164,38 @@ public class RedisKeyGeneratorTests {
 			return new Object();
 		}
 		
+		/**
+		 * With hash tag
+		 * 
+		 * @param first first
+		 * @param second second
+		 * @return {@link Object}
+		 */
+		public Object withHashTag(
+		/* @formatter:off */
+			String first,
+			@CacheParam(hashTag = true) int second) {
+			/* @formatter:on */
+			
+			return new Object();
+		}
+		
+		/**
+		 * With tag
+		 * 
+		 * @param productId product ID
+		 * @param locale locale
+		 * @return {@link Object}
+		 */
+		public Object withTag(
+		/* @formatter:off */
+			@CacheParam(tag = true) int productId,
+			String locale) {
+			/* @formatter:on */
+			
+			return new Object();
+		}
+		
 		/**
 		 * Without annotation
 		 * 
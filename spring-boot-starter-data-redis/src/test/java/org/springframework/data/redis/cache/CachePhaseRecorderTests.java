@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.springframework.data.redis.cache.CachePhaseRecorder.XHistogram;
+import org.springframework.data.redis.cache.CachePhaseRecorder.XPhase;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * {@link Test}: {@link CachePhaseRecorder}
+ */
+public class CachePhaseRecorderTests {
+	
+	/**
+	 * Name
+	 */
+	private static final String NAME = "name";
+	
+	/**
+	 * {@link CachePhaseRecorder#stop(XPhase, String, long)}
+	 */
+	@Test
+	public void stop() {
+		
+		CachePhaseRecorder phaseRecorder = new CachePhaseRecorder(1);
+		
+		phaseRecorder.stop(XPhase.REDIS, NAME, phaseRecorder.start());
+		phaseRecorder.stop(XPhase.REDIS, NAME, CachePhaseRecorder.NOT_SAMPLED);
+		
+		assertThat(phaseRecorder.getNames()).containsExactly(NAME);
+		assertThat(phaseRecorder.get(NAME, XPhase.REDIS).getCount()).isEqualTo(1);
+		assertThat(phaseRecorder.get(NAME, XPhase.SERIALIZATION).getCount()).isZero();
+		assertThat(CachePhaseRecorder.DISABLED.start()).isEqualTo(CachePhaseRecorder.NOT_SAMPLED);
+	}
+	
+	/**
+	 * Sampling
+	 */
+	@Test
+	public void sampleRate() {
+		
+		CachePhaseRecorder phaseRecorder = new CachePhaseRecorder(10);
+		
+		for (int i = 0; i < 10000; i++) {
+			
+			phaseRecorder.stop(XPhase.REDIS, NAME, phaseRecorder.start());
+		}
+		
+		assertThat(phaseRecorder.get(NAME, XPhase.REDIS).getCount()).isBetween(500L, 1500L);
+	}
+	
+	/**
+	 * {@link XHistogram}
+	 */
+	@Test
+	public void histogram() {
+		
+		for (long value : new long[] { 0, 7, 8, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE }) {
+			
+			int index = XHistogram.index(value);
+			
+			assertThat(XHistogram.upperBound(index)).isGreaterThanOrEqualTo(value);
+			assertThat(index == 0 || XHistogram.upperBound(index - 1) < value).isTrue();
+		}
+		
+		XHistogram histogram = new XHistogram();
+		
+		for (long i = 1; i <= 100; i++) {
+			
+			histogram.record(i * 1000);
+		}
+		
+		assertThat(histogram.getCount()).isEqualTo(100);
+		assertThat(histogram.getTotal()).isEqualTo(5050000);
+		assertThat(histogram.getMax()).isEqualTo(100000);
+		assertThat(histogram.getPercentile(0.5)).isBetween(50000L, 57000L);
+		assertThat(histogram.getPercentile(0.99)).isBetween(99000L, 100000L);
+	}
+	
+	/**
+	 * {@link RedisCacheMetrics#bindTo(io.micrometer.core.instrument.MeterRegistry)}
+	 */
+	@Test
+	public void metrics() {
+		
+		CustomRedisCacheManager cacheManager = new MockRedisCacheManager(
+			RedisCacheManager.builder(new LettuceConnectionFactory()).build());
+		CachePhaseRecorder phaseRecorder = new CachePhaseRecorder(1);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		
+		cacheManager.setPhaseRecorder(phaseRecorder);
+		new RedisCacheMetrics(cacheManager).bindTo(registry);
+		
+		cacheManager.getCache(NAME).put("key", "value");
+		
+		FunctionTimer timer = registry.get(RedisCacheMetrics.PREFIX + ".phase").tag("cache", NAME)
+			.tag("phase", "serialization").functionTimer();
+		
+		assertThat(timer.count()).isEqualTo(1);
+		assertThat(registry.get(RedisCacheMetrics.PREFIX + ".phase.percentile").tag("phi", "0.99").gauges())
+			.isNotEmpty();
+	}
+}
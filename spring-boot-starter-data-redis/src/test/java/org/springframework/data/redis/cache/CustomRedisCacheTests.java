@@ -0,0 +1,207 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * {@link Test}: {@link CustomRedisCache}
+ */
+public class CustomRedisCacheTests {
+	
+	/**
+	 * Name
+	 */
+	private static final String NAME = "name";
+	
+	/**
+	 * Key
+	 */
+	private static final String KEY = "key";
+	
+	/**
+	 * {@link MockRedisCacheManager}
+	 */
+	private MockRedisCacheManager cacheManager;
+	
+	/**
+	 * {@link CustomRedisCache}
+	 */
+	private CustomRedisCache cache;
+	
+	/**
+	 * {@link Before}
+	 */
+	@Before
+	public void before() {
+		
+		this.cacheManager = new MockRedisCacheManager(
+			RedisCacheManager.builder(new LettuceConnectionFactory()).build());
+		
+		this.cache = (CustomRedisCache) this.cacheManager.getCache(NAME);
+	}
+	
+	/**
+	 * {@link CustomRedisCache#put(Object, Object)} with {@link CompletableFuture}
+	 */
+	@Test
+	public void putAsync() {
+		
+		CompletableFuture<String> future = new CompletableFuture<>();
+		
+		this.cache.put(KEY, future);
+		
+		assertThat(this.cache.getInFlightCount()).isEqualTo(1);
+		assertThat(this.cache.get(KEY).get()).isSameAs(future);
+		
+		future.complete("value");
+		
+		assertThat(this.cache.getInFlightCount()).isZero();
+		
+		Object value = this.cache.get(KEY).get();
+		
+		assertThat(value).isInstanceOf(CompletableFuture.class).isNotSameAs(future);
+		assertThat(((CompletableFuture<?>) value).isDone()).isTrue();
+		assertThat(((CompletableFuture<?>) value).join()).isEqualTo("value");
+	}
+	
+	/**
+	 * {@link CustomRedisCache#put(Object, Object)} with exceptionally completed {@link CompletableFuture}
+	 */
+	@Test
+	public void putAsyncExceptionally() {
+		
+		CompletableFuture<String> future = new CompletableFuture<>();
+		
+		this.cache.put(KEY, future);
+		
+		future.completeExceptionally(new IllegalStateException());
+		
+		assertThat(this.cache.getInFlightCount()).isZero();
+		assertThat(this.cache.get(KEY)).isNull();
+	}
+	
+	/**
+	 * {@link CustomRedisCache#putIfAbsent(Object, Object)} with {@link CompletableFuture}
+	 */
+	@Test
+	public void putIfAbsentAsync() {
+		
+		CompletableFuture<String> future = new CompletableFuture<>();
+		
+		assertThat(this.cache.putIfAbsent(KEY, future)).isNull();
+		
+		ValueWrapper wrapper = this.cache.putIfAbsent(KEY, new CompletableFuture<>());
+		
+		assertThat(wrapper).isNotNull();
+		assertThat(wrapper.get()).isSameAs(future);
+	}
+	
+	/**
+	 * {@link CustomRedisCache#get(Object, java.util.concurrent.Callable)} with {@link CompletableFuture}
+	 */
+	@Test
+	public void getAsync() {
+		
+		CompletableFuture<String> future = new CompletableFuture<>();
+		
+		assertThat(this.cache.get(KEY, () -> future)).isSameAs(future);
+		assertThat(this.cache.get(KEY, () -> new CompletableFuture<>())).isSameAs(future);
+		
+		this.cache.evict(KEY);
+		future.complete("value");
+		
+		assertThat(this.cache.getInFlightCount()).isZero();
+		assertThat(this.cache.get(KEY)).isNull();
+	}
+	
+	/**
+	 * Negative caching
+	 */
+	@Test
+	public void negative() throws InterruptedException {
+		
+		this.cacheManager.setNegativeTtl(NAME, Duration.ofMillis(100));
+		this.cache.put(KEY, null);
+		
+		RedisCacheWriter cacheWriter = this.cache.getNativeCache();
+		
+		assertThat(cacheWriter.get(NAME, this.cache.serializeCacheKey(this.cache.createCacheKey(KEY))))
+			.isEqualTo(CustomRedisCache.NEGATIVE_VALUE);
+		
+		ValueWrapper wrapper = this.cache.get(KEY);
+		
+		assertThat(wrapper).isNotNull();
+		assertThat(wrapper.get()).isNull();
+		assertThat(this.cache.getNegativeHitCount()).isEqualTo(1);
+		assertThat(this.cacheManager.getNegativeHitCount()).isEqualTo(1);
+		assertThat(this.cache.putIfAbsent(KEY, null).get()).isNull();
+		
+		Thread.sleep(200);
+		
+		assertThat(this.cache.get(KEY)).isNull();
+		assertThat(this.cache.putIfAbsent(KEY, null)).isNull();
+		
+		this.cacheManager.setNegativeTtl(NAME, null);
+		
+		assertThat(this.cache.getNegativeTtl()).isNull();
+	}
+	
+	/**
+	 * Values serialized to {@link CustomRedisCache#NEGATIVE_VALUE}
+	 */
+	@Test
+	public void negativeSentinel() {
+		
+		RedisSerializer<byte[]> serializer = new RedisSerializer<byte[]>() {
+			
+			@Override
+			public byte[] serialize(byte[] value) {
+				
+				return value;
+			}
+			
+			@Override
+			public byte[] deserialize(byte[] bytes) {
+				
+				return bytes;
+			}
+		};
+		CustomRedisCache cache = (CustomRedisCache) new MockRedisCacheManager(
+			RedisCacheManager.builder(new LettuceConnectionFactory())
+				.cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+					.serializeValuesWith(SerializationPair.fromSerializer(serializer)))
+				.build()).getCache(NAME);
+		
+		cache.put(KEY, new byte[] { 0 });
+		
+		assertThat(cache.get(KEY).get()).isEqualTo(new byte[] { 0 });
+		assertThatThrownBy(() -> cache.put(KEY, CustomRedisCache.NEGATIVE_VALUE.clone()))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+}
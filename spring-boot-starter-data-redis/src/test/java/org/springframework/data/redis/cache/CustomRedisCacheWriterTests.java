@@ -0,0 +1,533 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.cache.CachePayloadStatistics.XStatistics;
+import org.springframework.data.redis.cache.CustomRedisCacheWriter.XOversizedValuePolicy;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisNode.NodeType;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.types.Expiration;
+
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisAdvancedClusterAsyncCommands;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+
+/**
+ * {@link Test}: {@link CustomRedisCacheWriter}
+ */
+public class CustomRedisCacheWriterTests {
+	
+	/**
+	 * Name
+	 */
+	private static final String NAME = "name";
+	
+	/**
+	 * Key
+	 */
+	private static final byte[] KEY = "key".getBytes();
+	
+	/**
+	 * Value
+	 */
+	private static final byte[] VALUE = "value".getBytes();
+	
+	/**
+	 * {@link RedisConnectionFactory} of master
+	 */
+	private RedisConnectionFactory connectionFactory;
+	
+	/**
+	 * {@link RedisConnection} of master
+	 */
+	private RedisConnection connection;
+	
+	/**
+	 * {@link RedisConnectionFactory} for reads
+	 */
+	private RedisConnectionFactory readConnectionFactory;
+	
+	/**
+	 * {@link RedisConnection} for reads
+	 */
+	private RedisConnection readConnection;
+	
+	/**
+	 * {@link Before}
+	 */
+	@Before
+	public void before() {
+		
+		this.connectionFactory = mock(RedisConnectionFactory.class);
+		this.connection = mock(RedisConnection.class);
+		this.readConnectionFactory = mock(RedisConnectionFactory.class);
+		this.readConnection = mock(RedisConnection.class);
+		
+		when(this.connectionFactory.getConnection()).thenReturn(this.connection);
+		when(this.readConnectionFactory.getConnection()).thenReturn(this.readConnection);
+		when(this.readConnection.get(KEY)).thenReturn(VALUE);
+		when(this.readConnection.mGet(any())).thenReturn(Arrays.asList(VALUE, null));
+	}
+	
+	/**
+	 * {@link CustomRedisCacheWriter#get(String, byte[])}
+	 */
+	@Test
+	public void get() {
+		
+		{
+			CustomRedisCacheWriter cacheWriter = new CustomRedisCacheWriter(
+				RedisCacheWriter.nonLockingRedisCacheWriter(this.connectionFactory), this.readConnectionFactory);
+			
+			assertThat(cacheWriter.get(NAME, KEY)).isEqualTo(VALUE);
+			
+			verify(this.connectionFactory, never()).getConnection();
+			verify(this.readConnection).close();
+		}
+		
+		{
+			CustomRedisCacheWriter cacheWriter = new CustomRedisCacheWriter(
+				RedisCacheWriter.lockingRedisCacheWriter(this.connectionFactory), this.readConnectionFactory);
+			
+			when(this.connection.exists(CustomRedisCacheWriter.createLockKey(NAME))).thenReturn(false);
+			
+			assertThat(cacheWriter.get(NAME, KEY)).isEqualTo(VALUE);
+			
+			verify(this.connection).exists(CustomRedisCacheWriter.createLockKey(NAME));
+			verify(this.connection, never()).get(KEY);
+		}
+	}
+	
+	/**
+	 * {@link CustomRedisCacheWriter#get(String, java.util.List)}
+	 */
+	@Test
+	public void mget() {
+		
+		CustomRedisCacheWriter cacheWriter = new CustomRedisCacheWriter(
+			RedisCacheWriter.nonLockingRedisCacheWriter(this.connectionFactory), this.readConnectionFactory);
+		
+		assertThat(cacheWriter.get(NAME, Arrays.asList(KEY, "other".getBytes()))).containsExactly(VALUE, null);
+		assertThat(cacheWriter.get(NAME, Arrays.asList())).isEmpty();
+		
+		verify(this.connectionFactory, never()).getConnection();
+	}
+	
+	/**
+	 * {@link CustomRedisCacheWriter#get(String, java.util.List)} in cluster
+	 */
+	@Test
+	public void mgetInCluster() {
+		
+		RedisClusterConnection connection = this.mockClusterConnection();
+		
+		byte[] key1 = "{a}1".getBytes();
+		byte[] key2 = "{b}1".getBytes();
+		byte[] key3 = "{a}2".getBytes();
+		
+		when(this.readConnectionFactory.getConnection()).thenReturn(connection);
+		when(connection.mGet(key1, key3)).thenReturn(Arrays.asList(VALUE, null));
+		when(connection.mGet(key2)).thenReturn(Arrays.asList(KEY));
+		
+		CustomRedisCacheWriter cacheWriter = new CustomRedisCacheWriter(
+			RedisCacheWriter.nonLockingRedisCacheWriter(this.connectionFactory), this.readConnectionFactory);
+		
+		cacheWriter.setClusterExecutor(Runnable::run);
+		
+		assertThat(cacheWriter.get(NAME, Arrays.asList(key1, key2, key3))).containsExactly(VALUE, KEY, null);
+		
+		verify(connection, never()).mGet(key1, key2, key3);
+		verify(connection, times(3)).close();
+	}
+	
+	/**
+	 * {@link CustomRedisCacheWriter#clean(String, byte[])} in cluster
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void cleanInCluster() throws Exception {
+		
+		RedisClusterConnection connection = this.mockClusterConnection();
+		RedisAdvancedClusterAsyncCommands<byte[], byte[]> commands = mock(RedisAdvancedClusterAsyncCommands.class);
+		StatefulRedisClusterConnection<byte[], byte[]> statefulConnection = mock(StatefulRedisClusterConnection.class);
+		
+		byte[] pattern = "name::*".getBytes();
+		byte[] key1 = "{a}1".getBytes();
+		byte[] key2 = "{b}1".getBytes();
+		byte[] key3 = "{a}2".getBytes();
+		
+		when(this.connectionFactory.getConnection()).thenReturn(connection);
+		when(connection.getNativeConnection()).thenReturn(commands);
+		when(connection.clusterGetNodes()).thenReturn(Arrays.asList(node("node1", NodeType.MASTER),
+			node("node2", NodeType.MASTER), node("node3", NodeType.SLAVE)));
+		when(commands.getStatefulConnection()).thenReturn(statefulConnection);
+		when(statefulConnection.getTimeout()).thenReturn(Duration.ofSeconds(1));
+		RedisClusterAsyncCommands<byte[], byte[]> node1Commands = scanCommands(key1, key3);
+		RedisClusterAsyncCommands<byte[], byte[]> node2Commands = scanCommands(key2);
+		
+		when(commands.getConnection("node1")).thenReturn(node1Commands);
+		when(commands.getConnection("node2")).thenReturn(node2Commands);
+		
+		CustomRedisCacheWriter cacheWriter = new CustomRedisCacheWriter(
+			RedisCacheWriter.nonLockingRedisCacheWriter(this.connectionFactory), this.readConnectionFactory);
+		
+		cacheWriter.clean(NAME, pattern);
+		cacheWriter.close();
+		
+		verify(commands, never()).getConnection("node3");
+		verify(connection, never()).keys(any());
+		verify(connection).del(key1, key3);
+		verify(connection).del(key2);
+		verify(connection, times(3)).close();
+	}
+	
+	/**
+	 * {@link CustomRedisCacheWriter#getReadTimeout()}
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void readTimeout() {
+		
+		RedisClusterAsyncCommands<byte[], byte[]> commands = mock(RedisClusterAsyncCommands.class);
+		RedisFuture<byte[]> getFuture = mock(RedisFuture.class);
+		RedisFuture<List<KeyValue<byte[], byte[]>>> mgetFuture = mock(RedisFuture.class);
+		
+		when(this.readConnection.getNativeConnection()).thenReturn(commands);
+		when(commands.get(KEY)).thenReturn(getFuture);
+		when(commands.mget(any())).thenReturn(mgetFuture);
+		when(getFuture.toCompletableFuture()).thenReturn(new CompletableFuture<>());
+		when(mgetFuture.thenApply(any())).thenReturn(new CompletableFuture<>());
+		
+		CustomRedisCacheWriter cacheWriter = new CustomRedisCacheWriter(
+			RedisCacheWriter.nonLockingRedisCacheWriter(this.connectionFactory), this.readConnectionFactory);
+		
+		cacheWriter.setReadTimeout(Duration.ofMillis(20));
+		cacheWriter.setBulkReadTimeout(Duration.ofMillis(20));
+		
+		assertThat(cacheWriter.get(NAME, KEY)).isNull();
+		assertThat(cacheWriter.get(NAME, Arrays.asList(KEY, KEY))).containsExactly(null, null);
+		assertThat(cacheWriter.getDegradedReadCount()).isEqualTo(2L);
+		
+		verify(this.readConnection, never()).get(KEY);
+		verify(this.readConnection, times(2)).close();
+	}
+	
+	/**
+	 * {@link CustomRedisCacheWriter#put(String, byte[], byte[], Duration)}
+	 */
+	@Test
+	public void put() {
+		
+		CustomRedisCacheWriter cacheWriter = new CustomRedisCacheWriter(
+			RedisCacheWriter.nonLockingRedisCacheWriter(this.connectionFactory), this.readConnectionFactory);
+		
+		cacheWriter.put(NAME, KEY, VALUE, Duration.ZERO);
+		
+		verify(this.connection).set(KEY, VALUE);
+		verify(this.readConnectionFactory, never()).getConnection();
+	}
+	
+	/**
+	 * {@link CustomRedisCacheWriter#put(String, Map, Duration)}
+	 */
+	@Test
+	public void putAll() {
+		
+		CustomRedisCacheWriter cacheWriter = new CustomRedisCacheWriter(
+			RedisCacheWriter.nonLockingRedisCacheWriter(this.connectionFactory), this.readConnectionFactory);
+		
+		cacheWriter.setPipelineFlushSize(2);
+		
+		Map<byte[], byte[]> values = new LinkedHashMap<>();
+		
+		for (int index = 0; index < 5; index++) {
+			
+			values.put(("key" + index).getBytes(), VALUE);
+		}
+		
+		cacheWriter.put(NAME, values, Duration.ofSeconds(1));
+		
+		verify(this.connection, times(3)).openPipeline();
+		verify(this.connection, times(3)).closePipeline();
+		verify(this.connection, times(5)).set(any(), any(), any(Expiration.class), any(SetOption.class));
+		verify(this.connection).close();
+		
+		cacheWriter.put(NAME, values, Duration.ZERO);
+		
+		verify(this.connection, times(5)).set(any(), any());
+		verify(this.readConnectionFactory, never()).getConnection();
+	}
+	
+	/**
+	 * {@link CustomRedisCacheWriter#enableSlidingExpiration(String, Duration)}
+	 */
+	@Test
+	public void slidingExpiration() {
+		
+		try (CustomRedisCacheWriter cacheWriter = new CustomRedisCacheWriter(
+			RedisCacheWriter.nonLockingRedisCacheWriter(this.connectionFactory), this.readConnectionFactory)) {
+			
+			cacheWriter.setSlidingFlushInterval(Duration.ofHours(1));
+			cacheWriter.get(NAME, KEY);
+			
+			assertThat(cacheWriter.getSlidingExpiration()).isNull();
+			
+			cacheWriter.enableSlidingExpiration(NAME, Duration.ofMinutes(1));
+			cacheWriter.get(NAME, KEY);
+			cacheWriter.get(NAME, "missing".getBytes());
+			cacheWriter.get(NAME, Arrays.asList(KEY, "missing".getBytes()));
+			cacheWriter.getSlidingExpiration().flush();
+			
+			verify(this.connection).pExpire(KEY, 60000L);
+			verify(this.connection, never()).pExpire("missing".getBytes(), 60000L);
+			
+			assertThat(cacheWriter.getSlidingExpiration().getRefreshCount()).isEqualTo(1L);
+		}
+	}
+	
+	/**
+	 * {@link CustomRedisCacheWriter#tag(String, byte[], java.util.Collection, Duration)}
+	 */
+	@Test
+	public void tag() {
+		
+		CustomRedisCacheWriter cacheWriter = new CustomRedisCacheWriter(
+			RedisCacheWriter.nonLockingRedisCacheWriter(this.connectionFactory), this.readConnectionFactory);
+		byte[] newTag = CustomRedisCacheWriter.createTagKey("new");
+		byte[] longerTag = CustomRedisCacheWriter.createTagKey("longer");
+		byte[] persistentTag = CustomRedisCacheWriter.createTagKey("persistent");
+		
+		when(this.connection.closePipeline()).thenReturn(Arrays.asList(-2L, 1L, 600000L, 1L, -1L, 1L),
+			Arrays.asList());
+		
+		cacheWriter.tag(NAME, KEY, Arrays.asList("new", "longer", "persistent"), Duration.ofMinutes(1));
+		
+		verify(this.connection).sAdd(newTag, KEY);
+		verify(this.connection).sAdd(longerTag, KEY);
+		verify(this.connection).sAdd(persistentTag, KEY);
+		verify(this.connection).pExpire(newTag, 60000L);
+		verify(this.connection, never()).pExpire(longerTag, 60000L);
+		verify(this.connection, never()).pExpire(persistentTag, 60000L);
+		verify(this.connection, never()).persist(any());
+		verify(this.connection).close();
+	}
+	
+	/**
+	 * {@link CustomRedisCacheWriter#evictByTag(String)}
+	 */
+	@Test
+	public void evictByTag() {
+		
+		CustomRedisCacheWriter cacheWriter = new CustomRedisCacheWriter(
+			RedisCacheWriter.nonLockingRedisCacheWriter(this.connectionFactory), this.readConnectionFactory);
+		byte[] tagKey = CustomRedisCacheWriter.createTagKey("productId:42");
+		
+		cacheWriter.setPipelineFlushSize(2);
+		
+		when(this.connection.sPop(tagKey, 2)).thenReturn(Arrays.asList(KEY, VALUE), Arrays.asList(NAME.getBytes()),
+			Arrays.asList());
+		when(this.connection.del(any())).thenReturn(2L, 1L);
+		
+		assertThat(cacheWriter.evictByTag("productId:42")).isEqualTo(3L);
+		
+		verify(this.connection).del(KEY, VALUE);
+		verify(this.connection).del(NAME.getBytes());
+		verify(this.connection).close();
+	}
+	
+	/**
+	 * {@link CustomRedisCacheWriter#setLocalCache(OffHeapCacheStore)}
+	 */
+	@Test
+	public void localCache() {
+		
+		CustomRedisCacheWriter cacheWriter = new CustomRedisCacheWriter(
+			RedisCacheWriter.nonLockingRedisCacheWriter(this.connectionFactory), this.readConnectionFactory);
+		
+		cacheWriter.setLocalCache(new OffHeapCacheStore(64 * 1024));
+		
+		when(this.readConnection.pTtl(KEY)).thenReturn(-2L, 60_000L);
+		
+		assertThat(cacheWriter.get(NAME, KEY)).isEqualTo(VALUE);
+		assertThat(cacheWriter.get(NAME, KEY)).isEqualTo(VALUE);
+		assertThat(cacheWriter.get(NAME, KEY)).isEqualTo(VALUE);
+		
+		verify(this.readConnection, times(2)).get(KEY);
+		verify(this.readConnection, times(2)).pTtl(KEY);
+		
+		cacheWriter.remove(NAME, KEY);
+		
+		assertThat(cacheWriter.get(NAME, KEY)).isEqualTo(VALUE);
+		
+		verify(this.readConnection, times(3)).get(KEY);
+		
+		assertThat(cacheWriter.toLocalCacheTtl(1000L)).isEqualTo(Duration.ofSeconds(1));
+		assertThat(cacheWriter.toLocalCacheTtl(-1L)).isEqualTo(cacheWriter.getLocalCacheTtl());
+		assertThat(cacheWriter.toLocalCacheTtl(-2L)).isNull();
+		
+		cacheWriter.setLocalCacheNames(new LinkedHashSet<>(Arrays.asList("other")));
+		
+		assertThat(cacheWriter.getLocalCache(NAME)).isNull();
+		assertThat(cacheWriter.getLocalCacheTtl(Duration.ofSeconds(1))).isEqualTo(Duration.ofSeconds(1));
+		assertThat(cacheWriter.getLocalCacheTtl(Duration.ZERO)).isEqualTo(cacheWriter.getLocalCacheTtl());
+	}
+	
+	/**
+	 * {@link CustomRedisCacheWriter#setMaxValueSize(int)}
+	 */
+	@Test
+	public void maxValueSize() {
+		
+		CustomRedisCacheWriter cacheWriter = new CustomRedisCacheWriter(
+			RedisCacheWriter.nonLockingRedisCacheWriter(this.connectionFactory), this.readConnectionFactory);
+		byte[] large = new byte[VALUE.length + 1];
+		
+		cacheWriter.setMaxValueSize(VALUE.length);
+		cacheWriter.put(NAME, KEY, VALUE, null);
+		cacheWriter.put(NAME, KEY, large, null);
+		
+		verify(this.connection).set(KEY, VALUE);
+		verify(this.connection, never()).set(KEY, large);
+		verify(this.connection).del(KEY);
+		
+		assertThat(cacheWriter.putIfAbsent(NAME, KEY, large, null)).isEqualTo(VALUE);
+		
+		verify(this.connection, never()).setNX(KEY, large);
+		
+		cacheWriter.setOversizedValuePolicy(XOversizedValuePolicy.LOG);
+		cacheWriter.put(NAME, KEY, large, null);
+		
+		verify(this.connection).set(KEY, large);
+		
+		XStatistics statistics = cacheWriter.getPayloadStatistics().get(NAME);
+		
+		assertThat(statistics.getCount()).isEqualTo(2);
+		assertThat(statistics.getTotalBytes()).isEqualTo(VALUE.length + large.length);
+		assertThat(statistics.getAverageBytes()).isEqualTo(5);
+		assertThat(statistics.getMaxBytes()).isEqualTo(large.length);
+		assertThat(statistics.getSkipped()).isEqualTo(2);
+		assertThat(statistics.getHistogram()).containsEntry(8L, 2L);
+		assertThat(cacheWriter.getPayloadStatistics().getAll()).containsExactly(statistics);
+	}
+	
+	/**
+	 * {@link CustomRedisCacheWriter#getReadConnectionFactory(RedisConnectionFactory)}
+	 */
+	@Test
+	public void getReadConnectionFactory() {
+		
+		CustomRedisCacheWriter cacheWriter = new CustomRedisCacheWriter(
+			RedisCacheWriter.nonLockingRedisCacheWriter(this.connectionFactory));
+		
+		assertThat(cacheWriter.getReadConnectionFactory()).isSameAs(this.connectionFactory);
+		assertThat(cacheWriter.get(NAME, KEY)).isNull();
+		
+		verify(this.connection).get(KEY);
+		verify(this.readConnectionFactory, never()).getConnection();
+	}
+	
+	/**
+	 * Mock {@link RedisClusterConnection} whose hash tags {@code a} and {@code b} are served by different nodes
+	 * 
+	 * @return {@link RedisClusterConnection}
+	 */
+	private RedisClusterConnection mockClusterConnection() {
+		
+		RedisClusterConnection connection = mock(RedisClusterConnection.class);
+		
+		when(connection.clusterGetNodeForSlot(ClusterSlotHashUtil.calculateSlot("a")))
+			.thenReturn(new RedisClusterNode("node1", 6379));
+		when(connection.clusterGetNodeForSlot(ClusterSlotHashUtil.calculateSlot("b")))
+			.thenReturn(new RedisClusterNode("node2", 6379));
+		
+		return connection;
+	}
+	
+	/**
+	 * Create {@link RedisClusterNode}
+	 * 
+	 * @param id ID
+	 * @param type {@link NodeType}
+	 * @return {@link RedisClusterNode}
+	 */
+	private static RedisClusterNode node(String id, NodeType type) {
+		
+		return RedisClusterNode.newRedisClusterNode().listeningAt(id, 6379).withId(id).promotedAs(type).build();
+	}
+	
+	/**
+	 * Mock {@link RedisClusterAsyncCommands} of a node scanning keys in two batches
+	 * 
+	 * @param keys keys of the first batch
+	 * @return {@link RedisClusterAsyncCommands}
+	 * @throws Exception if failed
+	 */
+	@SuppressWarnings("unchecked")
+	private static RedisClusterAsyncCommands<byte[], byte[]> scanCommands(byte[]... keys) throws Exception {
+		
+		RedisClusterAsyncCommands<byte[], byte[]> commands = mock(RedisClusterAsyncCommands.class);
+		RedisFuture<KeyScanCursor<byte[]>> first = mock(RedisFuture.class);
+		RedisFuture<KeyScanCursor<byte[]>> last = mock(RedisFuture.class);
+		
+		KeyScanCursor<byte[]> firstCursor = new KeyScanCursor<>();
+		firstCursor.getKeys().addAll(Arrays.asList(keys));
+		firstCursor.setCursor("1");
+		
+		KeyScanCursor<byte[]> lastCursor = new KeyScanCursor<>();
+		lastCursor.setCursor("0");
+		lastCursor.setFinished(true);
+		
+		when(first.await(anyLong(), any())).thenReturn(true);
+		when(first.get()).thenReturn(firstCursor);
+		when(last.await(anyLong(), any())).thenReturn(true);
+		when(last.get()).thenReturn(lastCursor);
+		when(commands.scan(eq(ScanCursor.INITIAL), any(ScanArgs.class))).thenReturn(first);
+		when(commands.scan(eq(firstCursor), any(ScanArgs.class))).thenReturn(last);
+		
+		return commands;
+	}
+}
@@ -17,11 +17,19 @@
 package org.springframework.data.redis.cache;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.FaultInjector;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 
 /**
@@ -54,6 +62,12 @@ public class MockRedisCacheWriterTests {
 	 */
 	private MockRedisCacheWriter cacheWriter;
 	
+	/**
+	 * {@link TemporaryFolder}
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
 	/**
 	 * {@link Before}
 	 */
@@ -108,6 +122,23 @@ public class MockRedisCacheWriterTests {
 		assertThat(this.cacheWriter.get(NAME, KEY)).isEqualTo(temporary);
 	}
 	
+	/**
+	 * {@link MockRedisCacheWriter#toCacheKey(byte[])}
+	 */
+	@Test
+	public void toCacheKey() {
+		
+		this.cacheWriter.put(NAME, KEY, VALUE, TTL);
+		
+		// Keys serialized again are equal but not identical
+		assertThat(this.cacheWriter.get(NAME, KEY.clone())).isEqualTo(VALUE);
+		assertThat(this.cacheWriter.putIfAbsent(NAME, KEY.clone(), "other".getBytes(), TTL)).isEqualTo(VALUE);
+		
+		this.cacheWriter.remove(NAME, KEY.clone());
+		
+		assertThat(this.cacheWriter.get(NAME, KEY)).isNull();
+	}
+	
 	/**
 	 * {@link MockRedisCacheWriter#remove(String, byte[])}
 	 */
@@ -131,4 +162,141 @@ public class MockRedisCacheWriterTests {
 		
 		assertThat(this.cacheWriter.get(NAME, KEY)).isNull();
 	}
+	
+	/**
+	 * {@link MockRedisCacheWriter#setFaultInjector(FaultInjector)}
+	 */
+	@Test
+	public void faultInjector() {
+		
+		FaultInjector faultInjector = new FaultInjector();
+		faultInjector.setEnabled(true);
+		faultInjector.setErrorRate(1.0);
+		
+		this.cacheWriter.setFaultInjector(faultInjector);
+		
+		assertThatThrownBy(() -> this.cacheWriter.get(NAME, KEY))
+			.isInstanceOf(RedisConnectionFailureException.class);
+		
+		faultInjector.setErrorRate(0);
+		faultInjector.setLatency(50);
+		
+		long start = System.nanoTime();
+		
+		this.cacheWriter.put(NAME, KEY, VALUE, TTL);
+		
+		assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(50_000_000L);
+	}
+	
+	/**
+	 * {@link MockRedisCacheWriter#setOffHeapStore(OffHeapCacheStore)}
+	 */
+	@Test
+	public void offHeapStore() {
+		
+		this.cacheWriter.setOffHeapStore(new OffHeapCacheStore(64 * 1024));
+		this.cacheWriter.put(NAME, KEY, VALUE, null);
+		
+		assertThat(this.cacheWriter.get(NAME, KEY)).isEqualTo(VALUE);
+		assertThat(this.cacheWriter.putIfAbsent(NAME, KEY, "other".getBytes(), null)).isEqualTo(VALUE);
+		
+		this.cacheWriter.remove(NAME, KEY);
+		
+		assertThat(this.cacheWriter.get(NAME, KEY)).isNull();
+		
+		this.cacheWriter.put(NAME, KEY, VALUE, null);
+		this.cacheWriter.clean(NAME, "*".getBytes());
+		
+		assertThat(this.cacheWriter.get(NAME, KEY)).isNull();
+		assertThat(this.cacheWriter.getOffHeapStore().getSize()).isZero();
+	}
+	
+	/**
+	 * {@link MockRedisCacheWriter#snapshot(Path)}
+	 * 
+	 * @throws IOException if failed
+	 * @throws InterruptedException if interrupted
+	 */
+	@Test
+	public void snapshot() throws IOException, InterruptedException {
+		
+		Path path = this.folder.getRoot().toPath().resolve("snapshot.bin");
+		
+		this.cacheWriter.put(NAME, KEY, VALUE, null);
+		this.cacheWriter.put(NAME, "expiring".getBytes(), VALUE, TTL);
+		this.cacheWriter.put("other", KEY, "other".getBytes(), Duration.ofMinutes(1));
+		
+		assertThat(this.cacheWriter.snapshot(path)).isEqualTo(3);
+		
+		MockRedisCacheWriter restored = new MockRedisCacheWriter(new LettuceConnectionFactory());
+		
+		assertThat(restored.restore(path)).isEqualTo(3);
+		assertThat(restored.get(NAME, KEY)).isEqualTo(VALUE);
+		assertThat(restored.get(NAME, "expiring".getBytes())).isEqualTo(VALUE);
+		assertThat(restored.get("other", KEY)).isEqualTo("other".getBytes());
+		
+		// Remaining TTL
+		Thread.sleep(200);
+		
+		assertThat(restored.get(NAME, "expiring".getBytes())).isNull();
+		assertThat(new MockRedisCacheWriter(new LettuceConnectionFactory()).restore(path)).isEqualTo(2);
+	}
+	
+	/**
+	 * {@link MockRedisCacheWriter#snapshot(Path)} with {@link OffHeapCacheStore}
+	 * 
+	 * @throws IOException if failed
+	 */
+	@Test
+	public void snapshotOffHeapStore() throws IOException {
+		
+		Path path = this.folder.getRoot().toPath().resolve("snapshot.bin");
+		
+		this.cacheWriter.setOffHeapStore(new OffHeapCacheStore(64 * 1024));
+		this.cacheWriter.put(NAME, KEY, VALUE, null);
+		this.cacheWriter.put(NAME, "other".getBytes(), new byte[1000], Duration.ofMinutes(1));
+		
+		assertThat(this.cacheWriter.snapshot(path)).isEqualTo(2);
+		
+		// Into the heap
+		MockRedisCacheWriter restored = new MockRedisCacheWriter(new LettuceConnectionFactory());
+		
+		assertThat(restored.restore(path)).isEqualTo(2);
+		assertThat(restored.get(NAME, KEY)).isEqualTo(VALUE);
+		assertThat(restored.get(NAME, "other".getBytes())).hasSize(1000);
+	}
+	
+	/**
+	 * {@link MockRedisCacheWriter#enableSnapshot(Path, Duration)}
+	 * 
+	 * @throws IOException if failed
+	 */
+	@Test
+	public void enableSnapshot() throws IOException {
+		
+		Path path = this.folder.getRoot().toPath().resolve("snapshot.bin");
+		
+		this.cacheWriter.enableSnapshot(path, null);
+		this.cacheWriter.put(NAME, KEY, VALUE, null);
+		
+		assertThat(path).doesNotExist();
+		
+		this.cacheWriter.close();
+		
+		assertThat(path).exists();
+		
+		MockRedisCacheWriter restored = new MockRedisCacheWriter(new LettuceConnectionFactory());
+		
+		restored.enableSnapshot(path, Duration.ofMinutes(1));
+		
+		assertThat(restored.get(NAME, KEY)).isEqualTo(VALUE);
+		assertThatThrownBy(() -> restored.enableSnapshot(path, null)).isInstanceOf(IllegalStateException.class);
+		
+		restored.close();
+		
+		// Invalid file
+		Files.write(path, "invalid".getBytes());
+		
+		assertThatThrownBy(() -> restored.restore(path)).isInstanceOf(IOException.class);
+	}
 }
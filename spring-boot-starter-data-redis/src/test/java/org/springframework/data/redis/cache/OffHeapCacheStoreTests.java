@@ -0,0 +1,182 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * {@link Test}: {@link OffHeapCacheStore}
+ */
+public class OffHeapCacheStoreTests {
+	
+	/**
+	 * Name
+	 */
+	private static final String NAME = "name";
+	
+	/**
+	 * Key
+	 */
+	private static final byte[] KEY = "key".getBytes();
+	
+	/**
+	 * Value
+	 */
+	private static final byte[] VALUE = "value".getBytes();
+	
+	/**
+	 * {@link OffHeapCacheStore#get(byte[])}
+	 */
+	@Test
+	public void get() {
+		
+		OffHeapCacheStore store = new OffHeapCacheStore(64 * 1024, 4, 64);
+		byte[] large = new byte[1000];
+		
+		Arrays.fill(large, (byte) 7);
+		
+		assertThat(store.get(KEY)).isNull();
+		assertThat(store.put(NAME, KEY, VALUE, null)).isTrue();
+		assertThat(store.put(NAME, "large".getBytes(), large, Duration.ZERO)).isTrue();
+		
+		assertThat(store.get(KEY)).isEqualTo(VALUE);
+		assertThat(store.get("large".getBytes())).isEqualTo(large);
+		assertThat(store.getSize()).isEqualTo(2);
+		assertThat(store.getUsedBytes()).isEqualTo((1 + 18) * 64);
+		
+		assertThat(store.put(NAME, KEY, "other".getBytes(), null)).isTrue();
+		assertThat(store.get(KEY)).isEqualTo("other".getBytes());
+		assertThat(store.getSize()).isEqualTo(2);
+		
+		assertThat(store.put(NAME, KEY, new byte[64 * 1024], null)).isFalse();
+		assertThat(store.get(KEY)).isNull();
+	}
+	
+	/**
+	 * {@link OffHeapCacheStore#putIfAbsent(String, byte[], byte[], Duration)}
+	 */
+	@Test
+	public void putIfAbsent() {
+		
+		OffHeapCacheStore store = new OffHeapCacheStore(64 * 1024);
+		
+		assertThat(store.putIfAbsent(NAME, KEY, VALUE, null)).isNull();
+		assertThat(store.putIfAbsent(NAME, KEY, "other".getBytes(), null)).isEqualTo(VALUE);
+		assertThat(store.get(KEY)).isEqualTo(VALUE);
+	}
+	
+	/**
+	 * {@link OffHeapCacheStore#remove(byte[])}
+	 */
+	@Test
+	public void remove() {
+		
+		OffHeapCacheStore store = new OffHeapCacheStore(64 * 1024, 1, 64);
+		
+		for (int i = 0; i < 100; i++) {
+			
+			store.put(NAME, ("key" + i).getBytes(), ("value" + i).getBytes(), null);
+		}
+		
+		for (int i = 0; i < 100; i += 2) {
+			
+			store.remove(("key" + i).getBytes());
+		}
+		
+		for (int i = 0; i < 100; i++) {
+			
+			assertThat(store.get(("key" + i).getBytes())).isEqualTo(i % 2 == 0 ? null : ("value" + i).getBytes());
+		}
+		
+		assertThat(store.getSize()).isEqualTo(50);
+	}
+	
+	/**
+	 * {@link OffHeapCacheStore#clear(String)}
+	 */
+	@Test
+	public void clear() {
+		
+		OffHeapCacheStore store = new OffHeapCacheStore(64 * 1024, 2, 64);
+		
+		for (int i = 0; i < 100; i++) {
+			
+			store.put(i % 2 == 0 ? NAME : "other", ("key" + i).getBytes(), VALUE, null);
+		}
+		
+		store.clear(NAME);
+		
+		for (int i = 0; i < 100; i++) {
+			
+			assertThat(store.get(("key" + i).getBytes())).isEqualTo(i % 2 == 0 ? null : VALUE);
+		}
+		
+		store.clear();
+		
+		assertThat(store.getSize()).isZero();
+		assertThat(store.getUsedBytes()).isZero();
+	}
+	
+	/**
+	 * Expiration
+	 */
+	@Test
+	public void expiration() throws InterruptedException {
+		
+		OffHeapCacheStore store = new OffHeapCacheStore(64 * 1024);
+		
+		store.put(NAME, KEY, VALUE, Duration.ofMillis(50));
+		
+		assertThat(store.get(KEY)).isEqualTo(VALUE);
+		
+		Thread.sleep(100);
+		
+		assertThat(store.get(KEY)).isNull();
+		assertThat(store.putIfAbsent(NAME, KEY, VALUE, null)).isNull();
+	}
+	
+	/**
+	 * Eviction by CLOCK
+	 */
+	@Test
+	public void eviction() {
+		
+		OffHeapCacheStore store = new OffHeapCacheStore(16 * 64, 1, 64);
+		
+		for (int i = 0; i < 16; i++) {
+			
+			store.put(NAME, ("key" + i).getBytes(), VALUE, null);
+		}
+		
+		assertThat(store.getEvictionCount()).isZero();
+		assertThat(store.get("key0".getBytes())).isEqualTo(VALUE);
+		
+		for (int i = 16; i < 32; i++) {
+			
+			store.put(NAME, ("key" + i).getBytes(), VALUE, null);
+		}
+		
+		assertThat(store.getSize()).isEqualTo(16);
+		assertThat(store.getEvictionCount()).isEqualTo(16);
+		assertThat(store.get("key0".getBytes())).isEqualTo(VALUE);
+	}
+}
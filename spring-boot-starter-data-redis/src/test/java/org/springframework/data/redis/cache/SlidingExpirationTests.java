@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * {@link Test}: {@link SlidingExpiration}
+ */
+public class SlidingExpirationTests {
+	
+	/**
+	 * Name
+	 */
+	private static final String NAME = "name";
+	
+	/**
+	 * {@link RedisConnection}
+	 */
+	private RedisConnection connection;
+	
+	/**
+	 * {@link SlidingExpiration}
+	 */
+	private SlidingExpiration slidingExpiration;
+	
+	/**
+	 * {@link Before}
+	 */
+	@Before
+	public void before() {
+		
+		RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+		
+		this.connection = mock(RedisConnection.class);
+		
+		when(connectionFactory.getConnection()).thenReturn(this.connection);
+		
+		this.slidingExpiration = new SlidingExpiration(connectionFactory, Duration.ofHours(1));
+		this.slidingExpiration.setPipelineFlushSize(2);
+	}
+	
+	/**
+	 * {@link After}
+	 */
+	@After
+	public void after() {
+		
+		this.slidingExpiration.close();
+	}
+	
+	/**
+	 * {@link SlidingExpiration#flush()}
+	 */
+	@Test
+	public void flush() {
+		
+		this.slidingExpiration.register(NAME, Duration.ofMinutes(1));
+		
+		assertThat(this.slidingExpiration.isRegistered(NAME)).isTrue();
+		assertThat(this.slidingExpiration.isRegistered("other")).isFalse();
+		
+		this.slidingExpiration.touch(NAME, "key1".getBytes());
+		this.slidingExpiration.touch(NAME, "key1".getBytes());
+		this.slidingExpiration.touch(NAME, "key2".getBytes());
+		this.slidingExpiration.touch(NAME, "key3".getBytes());
+		this.slidingExpiration.touch("other", "key1".getBytes());
+		
+		this.slidingExpiration.flush();
+		
+		verify(this.connection).pExpire("key1".getBytes(), 60000L);
+		verify(this.connection).pExpire("key2".getBytes(), 60000L);
+		verify(this.connection).pExpire("key3".getBytes(), 60000L);
+		verify(this.connection, times(2)).openPipeline();
+		verify(this.connection, times(2)).closePipeline();
+		verify(this.connection).close();
+		
+		assertThat(this.slidingExpiration.getRefreshCount()).isEqualTo(3L);
+		
+		this.slidingExpiration.flush();
+		
+		verify(this.connection, times(3)).pExpire(any(), anyLong());
+	}
+	
+	/**
+	 * {@link SlidingExpiration#flush()} without touched keys
+	 */
+	@Test
+	public void flushWithoutKeys() {
+		
+		this.slidingExpiration.register(NAME, Duration.ofMinutes(1));
+		this.slidingExpiration.flush();
+		
+		verify(this.connection, never()).openPipeline();
+	}
+}
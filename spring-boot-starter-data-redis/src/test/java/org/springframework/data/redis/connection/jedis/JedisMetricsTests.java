@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.connection.jedis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * {@link Test}: {@link JedisMetrics}
+ */
+public class JedisMetricsTests {
+	
+	/**
+	 * {@link CustomJedisConnectionFactory}
+	 */
+	private CustomJedisConnectionFactory connectionFactory;
+	
+	/**
+	 * {@link SimpleMeterRegistry}
+	 */
+	private SimpleMeterRegistry registry;
+	
+	/**
+	 * {@link Before}
+	 */
+	@Before
+	public void before() {
+		
+		this.connectionFactory = new CustomJedisConnectionFactory(new RedisStandaloneConfiguration(),
+			JedisClientConfiguration.builder().usePooling().build());
+		this.connectionFactory.afterPropertiesSet();
+		
+		this.registry = new SimpleMeterRegistry();
+		
+		new JedisMetrics(this.connectionFactory).bindTo(this.registry);
+	}
+	
+	/**
+	 * {@link After}
+	 */
+	@After
+	public void after() {
+		
+		this.connectionFactory.destroy();
+	}
+	
+	/**
+	 * {@link JedisMetrics#bindTo(io.micrometer.core.instrument.MeterRegistry)}
+	 */
+	@Test
+	public void bindTo() {
+		
+		assertThat(this.connectionFactory.getPools()).hasSize(1);
+		
+		assertThat(this.registry.get("jedis.pool.active").gauge().value()).isEqualTo(0.0);
+		assertThat(this.registry.get("jedis.pool.idle").gauge().value()).isEqualTo(0.0);
+		assertThat(this.registry.get("jedis.pool.waiters").gauge().value()).isEqualTo(0.0);
+		assertThat(this.registry.get("jedis.pool.borrow.wait.mean").timeGauge().value()).isEqualTo(0.0);
+		assertThat(this.registry.get("jedis.pool.borrow.wait.max").timeGauge().value()).isEqualTo(0.0);
+		assertThat(this.registry.get("jedis.pool.exhausted").functionCounter().count()).isEqualTo(0.0);
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.connection.lettuce;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig; // TODO @checkstyle:ignore
+import org.junit.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.util.SocketUtils;
+
+import com.github.tonivade.claudb.ClauDB;
+import com.github.tonivade.resp.RespServer;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+
+/**
+ * {@link Test}: {@link CustomLettuceConnectionFactory}
+ */
+public class CustomLettuceConnectionFactoryTests {
+	
+	/**
+	 * {@link CustomLettuceConnectionFactory#afterPropertiesSet()}
+	 */
+	@Test
+	public void afterPropertiesSet() {
+		
+		CustomLettuceConnectionFactory factory = this.createConnectionFactory();
+		
+		try {
+			
+			factory.afterPropertiesSet();
+			
+			assertThat(factory.getPools()).isEmpty();
+			assertThat(factory.getExhaustedCount()).isEqualTo(0L);
+		}
+		finally {
+			
+			factory.destroy();
+		}
+	}
+	
+	/**
+	 * {@link CustomLettuceConnectionFactory#withTopologyRefreshOptions(ClientOptions, ClusterTopologyRefreshOptions)}
+	 */
+	@Test
+	public void withTopologyRefreshOptions() {
+		
+		ClusterTopologyRefreshOptions topologyRefreshOptions = ClusterTopologyRefreshOptions.builder()
+			.enablePeriodicRefresh(Duration.ofSeconds(30)).enableAllAdaptiveRefreshTriggers().build();
+		
+		{
+			ClusterClientOptions options = CustomLettuceConnectionFactory.withTopologyRefreshOptions(
+				ClientOptions.builder().autoReconnect(false).requestQueueSize(100).build(), topologyRefreshOptions);
+			
+			assertThat(options.isAutoReconnect()).isFalse();
+			assertThat(options.getRequestQueueSize()).isEqualTo(100);
+			assertThat(options.getTopologyRefreshOptions()).isSameAs(topologyRefreshOptions);
+		}
+		
+		{
+			ClusterClientOptions options = CustomLettuceConnectionFactory.withTopologyRefreshOptions(
+				ClusterClientOptions.builder().maxRedirects(2).validateClusterNodeMembership(false).build(),
+				topologyRefreshOptions);
+			
+			assertThat(options.getMaxRedirects()).isEqualTo(2);
+			assertThat(options.isValidateClusterNodeMembership()).isFalse();
+			assertThat(options.getTopologyRefreshOptions().isPeriodicRefreshEnabled()).isTrue();
+			assertThat(options.getTopologyRefreshOptions().getRefreshPeriod()).isEqualTo(Duration.ofSeconds(30));
+		}
+	}
+	
+	/**
+	 * {@link CustomLettuceConnectionFactory#prewarm()}
+	 */
+	@Test
+	public void prewarm() {
+		
+		{
+			CustomLettuceConnectionFactory factory = this.createConnectionFactory();
+			
+			factory.setPrewarm(true);
+			factory.setPrewarmTimeout(Duration.ofSeconds(5));
+			factory.setPrewarmFailFast(false);
+			
+			try {
+				
+				factory.afterPropertiesSet();
+			}
+			finally {
+				
+				factory.destroy();
+			}
+		}
+		
+		{
+			CustomLettuceConnectionFactory factory = this.createConnectionFactory();
+			
+			factory.setPrewarm(true);
+			factory.setPrewarmTimeout(Duration.ofSeconds(5));
+			factory.setPrewarmFailFast(true);
+			
+			try {
+				
+				factory.afterPropertiesSet();
+				
+				fail();
+			}
+			catch (IllegalStateException e) {
+				
+				/* NOP */
+			}
+			finally {
+				
+				factory.destroy();
+			}
+		}
+	}
+	
+	/**
+	 * {@link CustomLettuceConnectionFactory#getReadConnection()}
+	 */
+	@Test
+	public void getReadConnection() {
+		
+		int port = SocketUtils.findAvailableTcpPort();
+		RespServer respServer = ClauDB.builder().port(port).build();
+		respServer.start();
+		
+		CustomLettuceConnectionFactory factory = new CustomLettuceConnectionFactory(
+			new RedisStandaloneConfiguration("localhost", port), LettuceClientConfiguration.defaultConfiguration());
+		
+		factory.setReadFrom(ReadFrom.SLAVE_PREFERRED);
+		
+		try {
+			
+			factory.afterPropertiesSet();
+			
+			RedisConnection connection = factory.getConnection();
+			
+			connection.set("key".getBytes(), "value".getBytes());
+			connection.close();
+			
+			// Note: Falls back to master without replicas
+			RedisConnection readConnection = factory.getReadConnection();
+			
+			assertThat(readConnection.get("key".getBytes())).isEqualTo("value".getBytes());
+			readConnection.close();
+			
+			assertThat(factory.getReadConnectionFactory()).isNotSameAs(factory);
+		}
+		finally {
+			
+			factory.destroy();
+			respServer.stop();
+		}
+	}
+	
+	/**
+	 * Create {@link CustomLettuceConnectionFactory} for unavailable server
+	 * 
+	 * @return {@link CustomLettuceConnectionFactory}
+	 */
+	private CustomLettuceConnectionFactory createConnectionFactory() {
+		
+		GenericObjectPoolConfig poolConfig = new GenericObjectPoolConfig();
+		poolConfig.setMinIdle(2);
+		
+		return new CustomLettuceConnectionFactory(
+		/* @formatter:off */
+			new RedisStandaloneConfiguration("localhost", SocketUtils.findAvailableTcpPort()),
+			LettucePoolingClientConfiguration.builder().poolConfig(poolConfig).build()
+			/* @formatter:on */
+		);
+	}
+}
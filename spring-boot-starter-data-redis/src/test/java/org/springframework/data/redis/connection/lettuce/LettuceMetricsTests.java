@@ -0,0 +1,164 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.connection.lettuce;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+
+import io.lettuce.core.event.metrics.CommandLatencyEvent;
+import io.lettuce.core.metrics.CommandLatencyId;
+import io.lettuce.core.metrics.CommandMetrics;
+import io.lettuce.core.metrics.CommandMetrics.CommandLatency;
+import io.lettuce.core.protocol.CommandType;
+import io.lettuce.core.resource.DefaultClientResources;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * {@link Test}: {@link LettuceMetrics}
+ */
+public class LettuceMetricsTests {
+	
+	/**
+	 * {@link DefaultClientResources}
+	 */
+	private DefaultClientResources clientResources;
+	
+	/**
+	 * {@link SimpleMeterRegistry}
+	 */
+	private SimpleMeterRegistry registry;
+	
+	/**
+	 * {@link LettuceMetrics}
+	 */
+	private LettuceMetrics metrics;
+	
+	/**
+	 * {@link Before}
+	 */
+	@Before
+	public void before() {
+		
+		this.clientResources = DefaultClientResources.create();
+		this.registry = new SimpleMeterRegistry();
+		
+		CustomLettuceConnectionFactory connectionFactory = new CustomLettuceConnectionFactory(
+			new RedisStandaloneConfiguration(),
+			LettuceClientConfiguration.builder().clientResources(this.clientResources).build());
+		
+		this.metrics = new LettuceMetrics(connectionFactory);
+		this.metrics.bindTo(this.registry);
+	}
+	
+	/**
+	 * {@link After}
+	 */
+	@After
+	public void after() {
+		
+		this.metrics.close();
+		this.clientResources.shutdown();
+	}
+	
+	/**
+	 * {@link LettuceMetrics#bindPoolTo(io.micrometer.core.instrument.MeterRegistry)}
+	 */
+	@Test
+	public void bindPoolTo() {
+		
+		assertThat(this.registry.get("lettuce.pool.active").gauge().value()).isEqualTo(0.0);
+		assertThat(this.registry.get("lettuce.pool.idle").gauge().value()).isEqualTo(0.0);
+		assertThat(this.registry.get("lettuce.pool.waiters").gauge().value()).isEqualTo(0.0);
+		assertThat(this.registry.get("lettuce.pool.borrow.wait.mean").timeGauge().value()).isEqualTo(0.0);
+		assertThat(this.registry.get("lettuce.pool.borrow.wait.max").timeGauge().value()).isEqualTo(0.0);
+		assertThat(this.registry.get("lettuce.pool.exhausted").functionCounter().count()).isEqualTo(0.0);
+	}
+	
+	/**
+	 * {@link LettuceMetrics#bindTo(io.micrometer.core.instrument.MeterRegistry)}
+	 * 
+	 * @throws InterruptedException if interrupted
+	 */
+	@Test
+	public void bindTo() throws InterruptedException {
+		
+		this.publish(CommandType.GET);
+		
+		TimeGauge gauge = null;
+		
+		for (int count = 0; gauge == null && count < 50; count++) {
+			
+			Thread.sleep(100L);
+			
+			gauge = this.registry.find("lettuce.command.latency")
+			/* @formatter:off */
+				.tag("command", "GET")
+				.tag("phase", "completion")
+				.tag("percentile", "50.0")
+				.timeGauge();
+				/* @formatter:on */
+		}
+		
+		assertThat(gauge).isNotNull();
+		assertThat(gauge.value(TimeUnit.MILLISECONDS)).isEqualTo(3.0);
+		
+		assertThat(this.registry.get("lettuce.command.latency").tag("phase", "first-response")
+			.tag("percentile", "max").timeGauge().value(TimeUnit.MILLISECONDS)).isEqualTo(2.0);
+	}
+	
+	/**
+	 * {@link LettuceMetrics#close()}
+	 * 
+	 * @throws InterruptedException if interrupted
+	 */
+	@Test
+	public void close() throws InterruptedException {
+		
+		this.metrics.close();
+		this.publish(CommandType.SET);
+		
+		Thread.sleep(500L);
+		
+		assertThat(this.registry.find("lettuce.command.latency").tag("command", "SET").timeGauge()).isNull();
+	}
+	
+	/**
+	 * Publish {@link CommandLatencyEvent}
+	 * 
+	 * @param type {@link CommandType}
+	 */
+	private void publish(CommandType type) {
+		
+		InetSocketAddress address = new InetSocketAddress("localhost", 6379);
+		
+		CommandLatency firstResponse = new CommandLatency(1L, 2L, Collections.singletonMap(50.0, 1L));
+		CommandLatency completion = new CommandLatency(3L, 4L, Collections.singletonMap(50.0, 3L));
+		
+		this.clientResources.eventBus().publish(new CommandLatencyEvent(Collections.singletonMap(
+			CommandLatencyId.create(address, address, type),
+			new CommandMetrics(1L, TimeUnit.MILLISECONDS, firstResponse, completion))));
+	}
+}
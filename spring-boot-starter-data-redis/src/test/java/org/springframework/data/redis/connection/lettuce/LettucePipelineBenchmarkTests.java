@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.connection.lettuce;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.util.SocketUtils;
+
+import com.github.tonivade.claudb.ClauDB;
+import com.github.tonivade.resp.RespServer;
+
+import io.lettuce.core.resource.DefaultClientResources;
+
+/**
+ * {@link Test}: throughput of {@link LettucePipeline} against embedded ClauDB
+ */
+public class LettucePipelineBenchmarkTests {
+	
+	/**
+	 * {@link Logger}
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(LettucePipelineBenchmarkTests.class);
+	
+	/**
+	 * Number of commands
+	 */
+	private static final int COMMANDS = 10000;
+	
+	/**
+	 * {@link RespServer}
+	 */
+	private RespServer respServer;
+	
+	/**
+	 * {@link DefaultClientResources}
+	 */
+	private DefaultClientResources clientResources;
+	
+	/**
+	 * {@link CustomLettuceConnectionFactory}
+	 */
+	private CustomLettuceConnectionFactory connectionFactory;
+	
+	/**
+	 * {@link Before}
+	 */
+	@Before
+	public void before() {
+		
+		int port = SocketUtils.findAvailableTcpPort();
+		
+		this.respServer = ClauDB.builder().port(port).build();
+		this.respServer.start();
+		
+		this.clientResources = DefaultClientResources.create();
+		
+		this.connectionFactory = new CustomLettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port),
+			LettuceClientConfiguration.builder().clientResources(this.clientResources).build());
+		this.connectionFactory.afterPropertiesSet();
+	}
+	
+	/**
+	 * {@link After}
+	 */
+	@After
+	public void after() {
+		
+		this.connectionFactory.destroy();
+		this.clientResources.shutdown();
+		this.respServer.stop();
+	}
+	
+	/**
+	 * Compare sequential commands with {@link LettucePipeline}
+	 * 
+	 * @throws Exception if failed
+	 */
+	@Test
+	public void throughput() throws Exception {
+		
+		RedisConnection connection = this.connectionFactory.getConnection();
+		long sequential;
+		
+		try {
+			
+			long start = System.nanoTime();
+			
+			for (int index = 0; index < COMMANDS; index++) {
+				
+				connection.set(key("sequential", index), value(index));
+			}
+			
+			sequential = System.nanoTime() - start;
+		}
+		finally {
+			
+			connection.close();
+		}
+		
+		long pipelined;
+		List<Object> results;
+		
+		try (LettucePipeline pipeline = this.connectionFactory.openPipeline(256, Duration.ofMillis(5))) {
+			
+			long start = System.nanoTime();
+			
+			pipeline.collect();
+			
+			for (int index = 0; index < COMMANDS; index++) {
+				
+				byte[] key = key("pipelined", index);
+				byte[] value = value(index);
+				
+				pipeline.execute(commands -> commands.set(key, value));
+			}
+			
+			results = pipeline.results().get(30, TimeUnit.SECONDS);
+			
+			pipelined = System.nanoTime() - start;
+		}
+		
+		logger.info("Sequential: {} commands/s, pipelined: {} commands/s", throughput(sequential),
+			throughput(pipelined));
+		
+		assertThat(results).hasSize(COMMANDS).containsOnly("OK");
+		
+		connection = this.connectionFactory.getConnection();
+		
+		try {
+			
+			assertThat(connection.get(key("pipelined", COMMANDS - 1))).isEqualTo(value(COMMANDS - 1));
+		}
+		finally {
+			
+			connection.close();
+		}
+	}
+	
+	/**
+	 * Key
+	 * 
+	 * @param prefix prefix
+	 * @param index index
+	 * @return key
+	 */
+	private static byte[] key(String prefix, int index) {
+		
+		return (prefix + ":" + index).getBytes();
+	}
+	
+	/**
+	 * Value
+	 * 
+	 * @param index index
+	 * @return value
+	 */
+	private static byte[] value(int index) {
+		
+		return String.valueOf(index).getBytes();
+	}
+	
+	/**
+	 * Throughput
+	 * 
+	 * @param nanos elapsed time in nanoseconds
+	 * @return commands per second
+	 */
+	private static long throughput(long nanos) {
+		
+		return COMMANDS * TimeUnit.SECONDS.toNanos(1) / Math.max(nanos, 1);
+	}
+}
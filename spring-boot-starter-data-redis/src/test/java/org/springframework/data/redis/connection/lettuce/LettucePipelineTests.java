@@ -0,0 +1,207 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.redis.connection.lettuce;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+
+/**
+ * {@link Test}: {@link LettucePipeline}
+ */
+public class LettucePipelineTests {
+	
+	/**
+	 * {@link LettuceConnectionProvider}
+	 */
+	private LettuceConnectionProvider connectionProvider;
+	
+	/**
+	 * {@link StatefulRedisConnection}
+	 */
+	private StatefulRedisConnection<byte[], byte[]> connection;
+	
+	/**
+	 * {@link ScheduledExecutorService}
+	 */
+	private ScheduledExecutorService scheduler;
+	
+	/**
+	 * {@link Before}
+	 */
+	@Before
+	@SuppressWarnings("unchecked")
+	public void before() {
+		
+		this.connectionProvider = mock(LettuceConnectionProvider.class);
+		this.connection = mock(StatefulRedisConnection.class);
+		this.scheduler = Executors.newSingleThreadScheduledExecutor();
+		
+		RedisAsyncCommands<byte[], byte[]> commands = mock(RedisAsyncCommands.class);
+		
+		when(this.connection.async()).thenReturn(commands);
+		when(this.connection.getTimeout()).thenReturn(Duration.ofSeconds(1));
+		when(commands.get(any())).thenAnswer(invocation -> future(invocation.getArgument(0)));
+	}
+	
+	/**
+	 * {@link After}
+	 */
+	@After
+	public void after() {
+		
+		this.scheduler.shutdownNow();
+	}
+	
+	/**
+	 * {@link LettucePipeline#execute(java.util.function.Function)}
+	 * 
+	 * @throws Exception if failed
+	 */
+	@Test
+	public void execute() throws Exception {
+		
+		try (LettucePipeline pipeline = this.createPipeline(2, Duration.ZERO)) {
+			
+			verify(this.connection).setAutoFlushCommands(false);
+			
+			CompletableFuture<byte[]> future = pipeline.execute(commands -> commands.get("a".getBytes()));
+			
+			verify(this.connection, never()).flushCommands();
+			
+			pipeline.execute(commands -> commands.get("b".getBytes()));
+			
+			verify(this.connection, times(1)).flushCommands();
+			
+			assertThat(future.get()).isEqualTo("a".getBytes());
+		}
+	}
+	
+	/**
+	 * {@link LettucePipeline#getFlushInterval()}
+	 */
+	@Test
+	public void flushInterval() {
+		
+		try (LettucePipeline pipeline = this.createPipeline(100, Duration.ofMillis(10))) {
+			
+			pipeline.execute(commands -> commands.get("a".getBytes()));
+			
+			verify(this.connection, timeout(1000L).times(1)).flushCommands();
+		}
+	}
+	
+	/**
+	 * {@link LettucePipeline#results()}
+	 * 
+	 * @throws Exception if failed
+	 */
+	@Test
+	public void results() throws Exception {
+		
+		try (LettucePipeline pipeline = this.createPipeline(100, Duration.ZERO)) {
+			
+			pipeline.execute(commands -> commands.get("a".getBytes()));
+			pipeline.collect();
+			pipeline.execute(commands -> commands.get("b".getBytes()));
+			pipeline.execute(commands -> commands.get("c".getBytes()));
+			
+			assertThat(pipeline.results().get()).containsExactly("b".getBytes(), "c".getBytes());
+			
+			pipeline.execute(commands -> commands.get("d".getBytes()));
+			
+			assertThat(pipeline.results().get()).isEmpty();
+			
+			verify(this.connection, times(2)).flushCommands();
+		}
+	}
+	
+	/**
+	 * {@link LettucePipeline#close()}
+	 */
+	@Test
+	public void close() {
+		
+		LettucePipeline pipeline = this.createPipeline(100, Duration.ZERO);
+		
+		pipeline.execute(commands -> commands.get("a".getBytes()));
+		pipeline.close();
+		pipeline.close();
+		
+		verify(this.connection, times(1)).flushCommands();
+		verify(this.connection, times(1)).setAutoFlushCommands(true);
+		verify(this.connectionProvider, times(1)).release(this.connection);
+		
+		try {
+			
+			pipeline.execute(commands -> commands.get("b".getBytes()));
+			
+			fail();
+		}
+		catch (IllegalStateException e) {
+			
+			/* NOP */
+		}
+	}
+	
+	/**
+	 * Create {@link LettucePipeline}
+	 * 
+	 * @param flushSize number of commands to flush
+	 * @param flushInterval interval to flush
+	 * @return {@link LettucePipeline}
+	 */
+	private LettucePipeline createPipeline(int flushSize, Duration flushInterval) {
+		
+		return new LettucePipeline(this.connectionProvider, this.connection, this.scheduler, flushSize, flushInterval);
+	}
+	
+	/**
+	 * Create completed {@link RedisFuture}
+	 * 
+	 * @param value value
+	 * @return {@link RedisFuture}
+	 */
+	@SuppressWarnings("unchecked")
+	private static RedisFuture<byte[]> future(byte[] value) {
+		
+		RedisFuture<byte[]> future = mock(RedisFuture.class);
+		
+		when(future.toCompletableFuture()).thenReturn(CompletableFuture.completedFuture(value));
+		
+		return future;
+	}
+}
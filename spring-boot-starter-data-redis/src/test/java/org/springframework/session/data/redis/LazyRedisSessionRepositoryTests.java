@@ -0,0 +1,247 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.session.data.redis.LazyRedisSessionRepository.XSession;
+
+/**
+ * {@link Test}: {@link LazyRedisSessionRepository}
+ */
+public class LazyRedisSessionRepositoryTests {
+	
+	/**
+	 * Session ID
+	 */
+	private static final String ID = "id";
+	
+	/**
+	 * Key
+	 */
+	private static final byte[] KEY = "spring:session:sessions:id".getBytes();
+	
+	/**
+	 * {@link RedisConnectionFactory}
+	 */
+	private RedisConnectionFactory connectionFactory;
+	
+	/**
+	 * {@link RedisConnection}
+	 */
+	private RedisConnection connection;
+	
+	/**
+	 * {@link LazyRedisSessionRepository}
+	 */
+	private LazyRedisSessionRepository sessionRepository;
+	
+	/**
+	 * {@link Before}
+	 */
+	@Before
+	public void before() {
+		
+		this.connectionFactory = mock(RedisConnectionFactory.class);
+		this.connection = mock(RedisConnection.class);
+		
+		when(this.connectionFactory.getConnection()).thenReturn(this.connection);
+		
+		this.sessionRepository = new LazyRedisSessionRepository(this.connectionFactory);
+	}
+	
+	/**
+	 * {@link LazyRedisSessionRepository#save(XSession)} of a new session
+	 */
+	@Test
+	public void saveNewSession() {
+		
+		XSession session = this.sessionRepository.createSession();
+		
+		session.setAttribute("foo", "bar");
+		
+		assertThat((Object) session.getAttribute("other")).isNull();
+		assertThat(session.getAttributeNames()).containsExactly("foo");
+		
+		this.sessionRepository.save(session);
+		
+		verify(this.connection).openPipeline();
+		verify(this.connection).hMSet(any(), anyMap());
+		verify(this.connection).pExpire(any(), anyLong());
+		verify(this.connection).closePipeline();
+		verify(this.connection, never()).hGet(any(), any());
+		
+		// Nothing changed
+		this.sessionRepository.save(session);
+		
+		verify(this.connection).hMSet(any(), anyMap());
+		
+		// From the local cache
+		XSession found = this.sessionRepository.findById(session.getId());
+		
+		assertThat(found.getCreationTime()).isEqualTo(session.getCreationTime());
+		assertThat(found.getMaxInactiveInterval()).isEqualTo(Duration.ofMinutes(30));
+		verify(this.connection, never()).hMGet(any(), any());
+	}
+	
+	/**
+	 * {@link LazyRedisSessionRepository#findById(String)}
+	 */
+	@Test
+	public void findById() {
+		
+		long now = System.currentTimeMillis();
+		
+		this.mockMetadata(now);
+		when(this.connection.hGet(KEY, "sessionAttr:foo".getBytes()))
+			.thenReturn(new JdkSerializationRedisSerializer().serialize("bar"));
+		
+		XSession session = this.sessionRepository.findById(ID);
+		
+		assertThat(session.getId()).isEqualTo(ID);
+		assertThat(session.getLastAccessedTime()).isEqualTo(Instant.ofEpochMilli(now));
+		
+		// Lazy and loaded once
+		verify(this.connection, never()).hGet(any(), any());
+		
+		assertThat((String) session.getAttribute("foo")).isEqualTo("bar");
+		assertThat((String) session.getAttribute("foo")).isEqualTo("bar");
+		verify(this.connection, times(1)).hGet(any(), any());
+		
+		// Metadata cached
+		this.sessionRepository.findById(ID);
+		
+		verify(this.connection, times(1)).hMGet(any(), any());
+		
+		// Touch within the interval
+		session.setLastAccessedTime(Instant.ofEpochMilli(now + 1000));
+		this.sessionRepository.save(session);
+		
+		verify(this.connection, never()).hMSet(any(), anyMap());
+		
+		// Delta of attributes
+		session.removeAttribute("foo");
+		session.setAttribute("baz", 1);
+		this.sessionRepository.save(session);
+		
+		verify(this.connection).hMSet(any(), anyMap());
+		verify(this.connection).hDel(any(), any());
+		verify(this.connection).pExpire(KEY, Duration.ofMinutes(30).plusSeconds(10).toMillis());
+		
+		// Touch after the interval
+		session.setLastAccessedTime(Instant.ofEpochMilli(now + 20000));
+		this.sessionRepository.save(session);
+		
+		verify(this.connection, times(2)).hMSet(any(), anyMap());
+		verify(this.connection, times(2)).pExpire(KEY, Duration.ofMinutes(30).plusSeconds(10).toMillis());
+	}
+	
+	/**
+	 * {@link LazyRedisSessionRepository#findById(String)} of a missing or expired session
+	 */
+	@Test
+	public void findByIdNotFound() {
+		
+		when(this.connection.hMGet(any(), any())).thenReturn(Arrays.asList(null, null, null));
+		
+		assertThat(this.sessionRepository.findById(ID)).isNull();
+		
+		this.mockMetadata(System.currentTimeMillis() - Duration.ofHours(1).toMillis());
+		
+		assertThat(this.sessionRepository.findById(ID)).isNull();
+		verify(this.connection).del(KEY);
+	}
+	
+	/**
+	 * {@link XSession#changeSessionId()}
+	 */
+	@Test
+	public void changeSessionId() {
+		
+		this.mockMetadata(System.currentTimeMillis());
+		when(this.connection.hKeys(KEY)).thenReturn(Collections.singleton("sessionAttr:foo".getBytes()));
+		
+		XSession session = this.sessionRepository.findById(ID);
+		String id = session.changeSessionId();
+		
+		assertThat(session.getAttributeNames()).containsExactly("foo");
+		
+		this.sessionRepository.save(session);
+		
+		verify(this.connection).rename(KEY, ("spring:session:sessions:" + id).getBytes());
+	}
+	
+	/**
+	 * {@link XSession#changeSessionId()} after the old key expired
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void changeSessionIdExpired() {
+		
+		this.mockMetadata(System.currentTimeMillis());
+		
+		XSession session = this.sessionRepository.findById(ID);
+		String id = session.changeSessionId();
+		byte[] key = ("spring:session:sessions:" + id).getBytes();
+		
+		doThrow(new InvalidDataAccessApiUsageException("ERR no such key")).when(this.connection).rename(KEY, key);
+		
+		this.sessionRepository.save(session);
+		
+		ArgumentCaptor<Map<byte[], byte[]>> fields = ArgumentCaptor.forClass(Map.class);
+		
+		verify(this.connection).hMSet(eq(key), fields.capture());
+		verify(this.connection).pExpire(eq(key), anyLong());
+		
+		assertThat(fields.getValue().keySet()).extracting(String::new).containsExactlyInAnyOrder("creationTime",
+			"lastAccessedTime", "maxInactiveInterval");
+	}
+	
+	/**
+	 * Mock metadata
+	 * 
+	 * @param lastAccessedTime last accessed time
+	 */
+	private void mockMetadata(long lastAccessedTime) {
+		
+		when(this.connection.hMGet(any(), any())).thenReturn(Arrays.asList(String.valueOf(lastAccessedTime).getBytes(),
+			String.valueOf(lastAccessedTime).getBytes(), String.valueOf(Duration.ofMinutes(30).toMillis()).getBytes()));
+	}
+}
@@ -0,0 +1,541 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authentication;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.util.Assert;
+import org.springframework.util.SerializationUtils;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Caching {@link AuthenticationProvider}
+ * 
+ * <p>
+ * Successful authentications of the delegate are cached for a short TTL, so repeated Basic or API key credentials skip
+ * password hashing and user lookups. Entries are keyed by a keyed hash (HMAC-SHA256) of the principal name and hold a
+ * keyed hash of the credentials, compared in constant time. Raw credentials are never stored, and failures are never
+ * cached.
+ * </p>
+ * 
+ * <p>
+ * Results are cached as a copy of the principal and authorities made by
+ * {@link #copyAuthentication(Authentication, Object)}, which supports {@link UsernamePasswordAuthenticationToken}
+ * and can be overridden for other types. A {@link CredentialsContainer} principal is copied by serialization with
+ * its credentials erased, or not cached if it is not {@link Serializable}. Each hit returns a new copy.
+ * </p>
+ * 
+ * <p>
+ * Hits do not call the delegate, so its account status checks (locked, disabled or expired accounts and
+ * credentials) are skipped until the entry expires after {@link #getTtl()}. Call {@link #invalidate(String)} when an
+ * account is locked or disabled to apply it at once.
+ * </p>
+ * 
+ * <p>
+ * Entries are kept in a bounded local LRU cache, and in {@link #getSharedCache()} if set, such as a Redis cache shared
+ * by nodes with the same secret. Call {@link #invalidate(String)} when credentials or authorities of a user change.
+ * </p>
+ */
+public class XCachingAuthenticationProvider implements AuthenticationProvider {
+	
+	/**
+	 * {@link Logger}
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(XCachingAuthenticationProvider.class);
+	
+	/**
+	 * Algorithm of keyed hashes
+	 */
+	private static final String ALGORITHM = "HmacSHA256";
+	
+	/**
+	 * Delegate
+	 */
+	@Getter
+	private final AuthenticationProvider delegate;
+	
+	/**
+	 * {@link Mac}s by thread
+	 */
+	private final ThreadLocal<Mac> macs;
+	
+	/**
+	 * Local cache of {@link XEntry}s in access order
+	 */
+	private final Map<String, XEntry> localCache = new LinkedHashMap<>(16, 0.75f, true);
+	
+	/**
+	 * TTL
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private Duration ttl = Duration.ofMinutes(1);
+	
+	/**
+	 * Maximum number of entries in the local cache
+	 */
+	@Getter
+	@Setter
+	private int maxSize = 10000;
+	
+	/**
+	 * Shared {@link Cache}, or disabled if {@code null}
+	 */
+	@Getter
+	@Setter
+	private Cache sharedCache;
+	
+	/**
+	 * Count of hits
+	 */
+	private final LongAdder hitCount = new LongAdder();
+	
+	/**
+	 * Count of misses
+	 */
+	private final LongAdder missCount = new LongAdder();
+	
+	/**
+	 * Constructor with a random secret
+	 * 
+	 * @param delegate delegate
+	 */
+	public XCachingAuthenticationProvider(AuthenticationProvider delegate) {
+		
+		this(delegate, randomSecret());
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param delegate delegate
+	 * @param secret secret of keyed hashes, shared by nodes of {@link #getSharedCache()}
+	 */
+	public XCachingAuthenticationProvider(@NonNull AuthenticationProvider delegate, @NonNull byte[] secret) {
+		
+		Assert.isTrue(secret.length >= 16, "Secret must be at least 16 bytes");
+		
+		SecretKeySpec key = new SecretKeySpec(secret.clone(), ALGORITHM);
+		
+		this.delegate = delegate;
+		this.macs = ThreadLocal.withInitial(() -> createMac(key));
+	}
+	
+	@Override
+	public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+		
+		Object credentials = authentication.getCredentials();
+		
+		if (!(credentials instanceof CharSequence) && !(credentials instanceof char[])) {
+			
+			return this.delegate.authenticate(authentication);
+		}
+		
+		String key = this.getKey(authentication.getClass(), authentication.getName());
+		String password = credentials instanceof char[] ? new String((char[]) credentials) : credentials.toString();
+		byte[] credentialsHash = this.hash(authentication.getName() + '\0' + password);
+		XEntry entry = this.getEntry(key);
+		
+		if (entry != null && MessageDigest.isEqual(entry.credentialsHash, credentialsHash)) {
+			
+			this.hitCount.increment();
+			
+			return this.createSuccessAuthentication(authentication, entry.authentication);
+		}
+		
+		this.missCount.increment();
+		
+		Authentication result = this.delegate.authenticate(authentication);
+		
+		Authentication cacheable = result != null && result.isAuthenticated()
+			? this.createCacheableAuthentication(result) : null;
+		
+		if (cacheable != null) {
+			
+			long expiration = System.currentTimeMillis() + this.ttl.toMillis();
+			
+			this.putEntry(key, new XEntry(credentialsHash, cacheable, expiration));
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public boolean supports(Class<?> authentication) {
+		
+		return this.delegate.supports(authentication);
+	}
+	
+	/**
+	 * Invalidate entries of a user
+	 * 
+	 * @param authenticationType type of {@link Authentication} requests
+	 * @param name principal name
+	 */
+	public void invalidate(@NonNull Class<? extends Authentication> authenticationType, @NonNull String name) {
+		
+		String key = this.getKey(authenticationType, name);
+		
+		synchronized (this.localCache) {
+			
+			this.localCache.remove(key);
+		}
+		
+		if (this.sharedCache != null) {
+			
+			this.sharedCache.evict(key);
+		}
+	}
+	
+	/**
+	 * Invalidate entries of a user authenticated by {@link UsernamePasswordAuthenticationToken}
+	 * 
+	 * @param name principal name
+	 */
+	public void invalidate(String name) {
+		
+		this.invalidate(UsernamePasswordAuthenticationToken.class, name);
+	}
+	
+	/**
+	 * Invalidate all entries
+	 */
+	public void invalidateAll() {
+		
+		synchronized (this.localCache) {
+			
+			this.localCache.clear();
+		}
+		
+		if (this.sharedCache != null) {
+			
+			this.sharedCache.clear();
+		}
+	}
+	
+	/**
+	 * Get count of hits
+	 * 
+	 * @return count of hits
+	 */
+	public long getHitCount() {
+		
+		return this.hitCount.sum();
+	}
+	
+	/**
+	 * Get count of misses
+	 * 
+	 * @return count of misses
+	 */
+	public long getMissCount() {
+		
+		return this.missCount.sum();
+	}
+	
+	/**
+	 * Get number of entries in the local cache
+	 * 
+	 * @return number of entries
+	 */
+	public int getSize() {
+		
+		synchronized (this.localCache) {
+			
+			return this.localCache.size();
+		}
+	}
+	
+	/**
+	 * Create a credential-free copy of a successful {@link Authentication} to cache
+	 * 
+	 * @param result successful {@link Authentication} of the delegate
+	 * @return {@link Authentication} to cache, or {@code null} if not cacheable
+	 */
+	protected Authentication createCacheableAuthentication(Authentication result) {
+		
+		if (this.copyAuthentication(result, result.getPrincipal()) == null) {
+			
+			return null;
+		}
+		
+		Object principal = result.getPrincipal();
+		
+		if (principal instanceof CredentialsContainer) {
+			
+			if (!(principal instanceof Serializable)) {
+				
+				return null;
+			}
+			
+			principal = SerializationUtils.deserialize(SerializationUtils.serialize(principal));
+			
+			((CredentialsContainer) principal).eraseCredentials();
+		}
+		
+		return this.copyAuthentication(result, principal);
+	}
+	
+	/**
+	 * Create a successful {@link Authentication} from a cached one
+	 * 
+	 * @param authentication {@link Authentication} request
+	 * @param cached cached {@link Authentication}
+	 * @return new {@link Authentication} with details of the request
+	 */
+	protected Authentication createSuccessAuthentication(Authentication authentication, Authentication cached) {
+		
+		Authentication result = this.copyAuthentication(cached, cached.getPrincipal());
+		
+		Assert.state(result != null, "Cached authentication must be copyable: " + cached.getClass().getName());
+		
+		if (result instanceof AbstractAuthenticationToken) {
+			
+			((AbstractAuthenticationToken) result).setDetails(authentication.getDetails());
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Copy a successful {@link Authentication} with another principal, without credentials and details
+	 * 
+	 * <p>
+	 * Override to cache types other than {@link UsernamePasswordAuthenticationToken}. Copies must be authenticated and
+	 * {@link Serializable} if {@link #getSharedCache()} is set.
+	 * </p>
+	 * 
+	 * @param authentication successful {@link Authentication}
+	 * @param principal principal of the copy
+	 * @return copy, or {@code null} if the type is not supported
+	 */
+	protected Authentication copyAuthentication(Authentication authentication, Object principal) {
+		
+		if (authentication.getClass() != UsernamePasswordAuthenticationToken.class) {
+			
+			return null;
+		}
+		
+		return new UsernamePasswordAuthenticationToken(principal, null, authentication.getAuthorities());
+	}
+	
+	/**
+	 * Get an {@link XEntry} from the local cache or {@link #getSharedCache()}
+	 * 
+	 * @param key key
+	 * @return {@link XEntry}, or {@code null} if absent or expired
+	 */
+	private XEntry getEntry(String key) {
+		
+		long now = System.currentTimeMillis();
+		XEntry entry;
+		
+		synchronized (this.localCache) {
+			
+			entry = this.localCache.get(key);
+			
+			if (entry != null && entry.expiration <= now) {
+				
+				this.localCache.remove(key);
+				entry = null;
+			}
+		}
+		
+		if (entry != null || this.sharedCache == null) {
+			
+			return entry;
+		}
+		
+		try {
+			
+			entry = this.sharedCache.get(key, XEntry.class);
+		}
+		catch (RuntimeException e) {
+			
+			logger.warn("Failed to get authentication from shared cache", e);
+			
+			return null;
+		}
+		
+		if (entry == null || entry.expiration <= now) {
+			
+			return null;
+		}
+		
+		this.putLocal(key, entry);
+		
+		return entry;
+	}
+	
+	/**
+	 * Put an {@link XEntry} to the local cache and {@link #getSharedCache()}
+	 * 
+	 * @param key key
+	 * @param entry {@link XEntry}
+	 */
+	private void putEntry(String key, XEntry entry) {
+		
+		this.putLocal(key, entry);
+		
+		if (this.sharedCache != null) {
+			
+			try {
+				
+				this.sharedCache.put(key, entry);
+			}
+			catch (RuntimeException e) {
+				
+				logger.warn("Failed to put authentication to shared cache", e);
+			}
+		}
+	}
+	
+	/**
+	 * Put an {@link XEntry} to the local cache, evicting the least recently used
+	 * 
+	 * @param key key
+	 * @param entry {@link XEntry}
+	 */
+	private void putLocal(String key, XEntry entry) {
+		
+		synchronized (this.localCache) {
+			
+			this.localCache.put(key, entry);
+			
+			while (this.localCache.size() > this.maxSize) {
+				
+				this.localCache.remove(this.localCache.keySet().iterator().next());
+			}
+		}
+	}
+	
+	/**
+	 * Get key of a user
+	 * 
+	 * @param authenticationType type of {@link Authentication} requests
+	 * @param name principal name
+	 * @return hex of keyed hash
+	 */
+	private String getKey(Class<?> authenticationType, String name) {
+		
+		byte[] hash = this.hash(authenticationType.getName() + '\0' + name);
+		StringBuilder key = new StringBuilder(hash.length * 2);
+		
+		for (byte value : hash) {
+			
+			key.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+		}
+		
+		return key.toString();
+	}
+	
+	/**
+	 * Keyed hash
+	 * 
+	 * @param value value
+	 * @return hash
+	 */
+	private byte[] hash(String value) {
+		
+		return this.macs.get().doFinal(value.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * Create {@link Mac}
+	 * 
+	 * @param key {@link SecretKeySpec}
+	 * @return {@link Mac}
+	 */
+	private static Mac createMac(SecretKeySpec key) {
+		
+		try {
+			
+			Mac mac = Mac.getInstance(ALGORITHM);
+			
+			mac.init(key);
+			
+			return mac;
+		}
+		catch (GeneralSecurityException e) {
+			
+			throw new IllegalStateException("Failed to create " + ALGORITHM, e);
+		}
+	}
+	
+	/**
+	 * Random secret
+	 * 
+	 * @return 32 bytes
+	 */
+	private static byte[] randomSecret() {
+		
+		byte[] secret = new byte[32];
+		
+		new SecureRandom().nextBytes(secret);
+		
+		return secret;
+	}
+	
+	/**
+	 * Cache entry
+	 */
+	@RequiredArgsConstructor
+	protected static class XEntry implements Serializable {
+		
+		/**
+		 * Serial version UID
+		 */
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * Keyed hash of credentials
+		 */
+		private final byte[] credentialsHash;
+		
+		/**
+		 * {@link Authentication}
+		 */
+		private final Authentication authentication;
+		
+		/**
+		 * Expiration in epoch milliseconds
+		 */
+		private final long expiration;
+	}
+}
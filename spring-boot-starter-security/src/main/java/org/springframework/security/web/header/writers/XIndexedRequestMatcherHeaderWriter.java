@@ -0,0 +1,303 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.header.writers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.security.web.header.HeaderWriter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Indexed {@link XOrDelegatingRequestMatcherHeaderWriter}
+ * 
+ * <p>
+ * {@link AntPathRequestMatcher}s are indexed in a trie by the literal segments before the first wildcard of their
+ * patterns, and other matchers are candidates of every path. Candidates of a request path are merged in the order of
+ * {@link #add(RequestMatcher, HeaderWriter)}, cached by path, and matched in order, so the first matching writer wins
+ * as in {@link XOrDelegatingRequestMatcherHeaderWriter}.
+ * </p>
+ * 
+ * <p>
+ * The trie is case-insensitive, and Ant paths are assumed to be matched against the servlet path and path info as by
+ * default. The cache is cleared when full.
+ * </p>
+ */
+public class XIndexedRequestMatcherHeaderWriter implements HeaderWriter {
+	
+	/**
+	 * Matchers
+	 */
+	private final List<RequestMatcher> matchers = new ArrayList<>();
+	
+	/**
+	 * Writers
+	 */
+	private final List<HeaderWriter> writers = new ArrayList<>();
+	
+	/**
+	 * Indexes by matcher
+	 */
+	private final Map<RequestMatcher, Integer> indexes = new LinkedHashMap<>();
+	
+	/**
+	 * Root of trie
+	 */
+	private final XNode root = new XNode();
+	
+	/**
+	 * Candidates by request path
+	 */
+	private final Map<String, int[]> candidates = new ConcurrentHashMap<>();
+	
+	/**
+	 * Maximum number of cached request paths
+	 */
+	@Getter
+	@Setter
+	private int cacheSize = 1024;
+	
+	/**
+	 * Add
+	 * 
+	 * @param matcher {@link RequestMatcher}
+	 * @param writer {@link HeaderWriter}
+	 * @return {@link XIndexedRequestMatcherHeaderWriter}
+	 */
+	public XIndexedRequestMatcherHeaderWriter add(RequestMatcher matcher, HeaderWriter writer) {
+		
+		Integer index = this.indexes.get(matcher);
+		
+		if (index != null) {
+			
+			this.writers.set(index, writer);
+			
+			return this;
+		}
+		
+		index = this.matchers.size();
+		
+		this.indexes.put(matcher, index);
+		this.matchers.add(matcher);
+		this.writers.add(writer);
+		
+		XNode node = this.root;
+		
+		for (String segment : literalSegments(matcher)) {
+			
+			node = node.children.computeIfAbsent(segment, key -> new XNode());
+		}
+		
+		node.add(index);
+		this.candidates.clear();
+		
+		return this;
+	}
+	
+	@Override
+	public void writeHeaders(HttpServletRequest request, HttpServletResponse response) {
+		
+		for (int index : this.getCandidates(getRequestPath(request))) {
+			
+			if (this.matchers.get(index).matches(request)) {
+				
+				this.writers.get(index).writeHeaders(request, response);
+				
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Get candidates of a request path
+	 * 
+	 * @param path request path
+	 * @return indexes of candidates in order
+	 */
+	protected int[] getCandidates(String path) {
+		
+		int[] cached = this.candidates.get(path);
+		
+		if (cached != null) {
+			
+			return cached;
+		}
+		
+		int[] found = this.root.copy();
+		XNode node = this.root;
+		
+		for (String segment : tokenize(path.toLowerCase())) {
+			
+			node = node.children.get(segment);
+			
+			if (node == null) {
+				
+				break;
+			}
+			
+			int[] merged = Arrays.copyOf(found, found.length + node.size);
+			
+			System.arraycopy(node.indexes, 0, merged, found.length, node.size);
+			found = merged;
+		}
+		
+		Arrays.sort(found);
+		
+		if (this.candidates.size() >= this.cacheSize) {
+			
+			this.candidates.clear();
+		}
+		
+		this.candidates.put(path, found);
+		
+		return found;
+	}
+	
+	/**
+	 * Get literal segments of a matcher
+	 * 
+	 * @param matcher {@link RequestMatcher}
+	 * @return lower case segments before the first wildcard, or empty if not indexed
+	 */
+	protected static List<String> literalSegments(RequestMatcher matcher) {
+		
+		List<String> segments = new ArrayList<>();
+		
+		if (!(matcher instanceof AntPathRequestMatcher)) {
+			
+			return segments;
+		}
+		
+		for (String segment : tokenize(((AntPathRequestMatcher) matcher).getPattern().toLowerCase())) {
+			
+			if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0) {
+				
+				break;
+			}
+			
+			segments.add(segment);
+		}
+		
+		return segments;
+	}
+	
+	/**
+	 * Get request path like {@link AntPathRequestMatcher}
+	 * 
+	 * @param request {@link HttpServletRequest}
+	 * @return servlet path and path info
+	 */
+	protected static String getRequestPath(HttpServletRequest request) {
+		
+		String servletPath = request.getServletPath();
+		String pathInfo = request.getPathInfo();
+		
+		if (pathInfo == null) {
+			
+			return servletPath != null ? servletPath : "";
+		}
+		
+		return servletPath != null && !servletPath.isEmpty() ? servletPath + pathInfo : pathInfo;
+	}
+	
+	/**
+	 * Tokenize a path like {@link org.springframework.util.AntPathMatcher}, ignoring empty segments
+	 * 
+	 * @param path path
+	 * @return segments
+	 */
+	private static List<String> tokenize(String path) {
+		
+		List<String> segments = new ArrayList<>();
+		int start = 0;
+		
+		for (int end = path.indexOf('/'); start <= path.length(); end = path.indexOf('/', start)) {
+			
+			if (end < 0) {
+				
+				end = path.length();
+			}
+			
+			if (end > start) {
+				
+				segments.add(path.substring(start, end));
+			}
+			
+			start = end + 1;
+		}
+		
+		return segments;
+	}
+	
+	/**
+	 * Node of trie
+	 */
+	protected static class XNode {
+		
+		/**
+		 * Children by segment
+		 */
+		private final Map<String, XNode> children = new HashMap<>();
+		
+		/**
+		 * Indexes of matchers
+		 */
+		private int[] indexes = new int[0];
+		
+		/**
+		 * Number of indexes
+		 */
+		private int size;
+		
+		/**
+		 * Add an index
+		 * 
+		 * @param index index
+		 */
+		void add(int index) {
+			
+			if (this.size == this.indexes.length) {
+				
+				this.indexes = Arrays.copyOf(this.indexes, Math.max(4, this.size * 2));
+			}
+			
+			this.indexes[this.size++] = index;
+		}
+		
+		/**
+		 * Copy indexes
+		 * 
+		 * @return indexes
+		 */
+		int[] copy() {
+			
+			return Arrays.copyOf(this.indexes, this.size);
+		}
+	}
+}
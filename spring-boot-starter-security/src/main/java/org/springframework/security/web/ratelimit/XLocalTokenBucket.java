@@ -0,0 +1,183 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Local pre-check of {@link XRedisTokenBucket}
+ * 
+ * <p>
+ * Keeps the remaining tokens last returned by Redis, including the fraction, and refills them locally. Other nodes
+ * only consume tokens of the shared bucket, so it has no more tokens than the local copy as long as clocks of nodes
+ * are synchronized, and a request is rejected without a round trip when the local copy is empty.
+ * </p>
+ * 
+ * <p>
+ * New keys beyond {@link #getMaxSize()} are not pre-checked. Full buckets, which are the same as absent ones, are
+ * swept at most once per {@link #getSweepInterval()} to make room.
+ * </p>
+ */
+public class XLocalTokenBucket {
+	
+	/**
+	 * {@link XState}s by rule name and key
+	 */
+	private final Map<String, XState> states = new ConcurrentHashMap<>();
+	
+	/**
+	 * Maximum number of keys, or no pre-check of new keys beyond
+	 */
+	@Getter
+	@Setter
+	private int maxSize = 10000;
+	
+	/**
+	 * Minimum interval of sweeps in milliseconds
+	 */
+	@Getter
+	@Setter
+	private long sweepInterval = 1000;
+	
+	/**
+	 * Time of the next sweep in milliseconds
+	 */
+	private final AtomicLong nextSweep = new AtomicLong();
+	
+	/**
+	 * Whether a token may be available
+	 * 
+	 * @param rule {@link XRateLimitRule}
+	 * @param key key
+	 * @param now current time in milliseconds
+	 * @return {@code false} if surely not available
+	 */
+	public boolean mayConsume(@NonNull XRateLimitRule rule, @NonNull String key, long now) {
+		
+		return this.getRetryAfter(rule, key, now) == 0;
+	}
+	
+	/**
+	 * Get milliseconds until a token is refilled locally
+	 * 
+	 * @param rule {@link XRateLimitRule}
+	 * @param key key
+	 * @param now current time in milliseconds
+	 * @return milliseconds to retry, or {@code 0} if a token may be available
+	 */
+	public long getRetryAfter(@NonNull XRateLimitRule rule, @NonNull String key, long now) {
+		
+		XState state = this.states.get(rule.getName() + ":" + key);
+		double tokens = state != null ? state.getTokens(now) : rule.getCapacity();
+		
+		return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / rule.getRefillRate());
+	}
+	
+	/**
+	 * Update by the result of {@link XRedisTokenBucket}
+	 * 
+	 * @param rule {@link XRateLimitRule}
+	 * @param key key
+	 * @param tokens remaining tokens
+	 * @param now current time in milliseconds
+	 */
+	public void update(@NonNull XRateLimitRule rule, @NonNull String key, double tokens, long now) {
+		
+		String stateKey = rule.getName() + ":" + key;
+		
+		if (!this.states.containsKey(stateKey) && this.states.size() >= this.maxSize) {
+			
+			this.sweep(now);
+			
+			if (this.states.size() >= this.maxSize) {
+				
+				return;
+			}
+		}
+		
+		this.states.put(stateKey, new XState(rule, tokens, now));
+	}
+	
+	/**
+	 * Remove full buckets, unless swept within {@link #getSweepInterval()}
+	 * 
+	 * @param now current time in milliseconds
+	 */
+	protected void sweep(long now) {
+		
+		long next = this.nextSweep.get();
+		
+		if (now < next || !this.nextSweep.compareAndSet(next, now + this.sweepInterval)) {
+			
+			return;
+		}
+		
+		// Full buckets are the same as absent
+		this.states.values().removeIf(state -> state.getTokens(now) >= state.rule.getCapacity());
+	}
+	
+	/**
+	 * Get number of keys
+	 * 
+	 * @return number of keys
+	 */
+	public int getSize() {
+		
+		return this.states.size();
+	}
+	
+	/**
+	 * State of a bucket
+	 */
+	@RequiredArgsConstructor
+	protected static class XState {
+		
+		/**
+		 * {@link XRateLimitRule}
+		 */
+		private final XRateLimitRule rule;
+		
+		/**
+		 * Tokens
+		 */
+		private final double tokens;
+		
+		/**
+		 * Time of tokens in milliseconds
+		 */
+		private final long timestamp;
+		
+		/**
+		 * Get refilled tokens
+		 * 
+		 * @param now current time in milliseconds
+		 * @return tokens
+		 */
+		double getTokens(long now) {
+			
+			return Math.min(this.rule.getCapacity(),
+				this.tokens + Math.max(0, now - this.timestamp) * this.rule.getRefillRate());
+		}
+	}
+}
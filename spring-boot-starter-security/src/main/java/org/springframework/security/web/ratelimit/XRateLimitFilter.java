@@ -0,0 +1,290 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.ratelimit;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.web.ratelimit.XRedisTokenBucket.XResult;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+/**
+ * Rate limiting filter by token buckets in Redis
+ * 
+ * <p>
+ * Rules are selected by the first matching {@link RequestMatcher} like
+ * {@link org.springframework.security.web.header.writers.XOrDelegatingRequestMatcherHeaderWriter}. A limited request
+ * costs one Lua script call of {@link XRedisTokenBucket}, or none if rejected by {@link #getLocalTokenBucket()}.
+ * Rejected requests get {@code 429 Too Many Requests} with {@code Retry-After}.
+ * </p>
+ */
+public class XRateLimitFilter extends OncePerRequestFilter {
+	
+	/**
+	 * Rules
+	 */
+	private final Map<RequestMatcher, XRateLimitRule> rules = new LinkedHashMap<>();
+	
+	/**
+	 * {@link XCounters} by rule name
+	 */
+	private final Map<String, XCounters> counters = new ConcurrentHashMap<>();
+	
+	/**
+	 * {@link XRedisTokenBucket}
+	 */
+	@Getter
+	private final XRedisTokenBucket tokenBucket;
+	
+	/**
+	 * {@link XLocalTokenBucket}, or disabled if {@code null}
+	 */
+	@Getter
+	@Setter
+	private XLocalTokenBucket localTokenBucket;
+	
+	/**
+	 * Allow requests if Redis fails
+	 */
+	@Getter
+	@Setter
+	private boolean failOpen = true;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param tokenBucket {@link XRedisTokenBucket}
+	 */
+	public XRateLimitFilter(@NonNull XRedisTokenBucket tokenBucket) {
+		
+		this.tokenBucket = tokenBucket;
+	}
+	
+	/**
+	 * Add
+	 * 
+	 * @param matcher {@link RequestMatcher}
+	 * @param rule {@link XRateLimitRule}
+	 * @return {@link XRateLimitFilter}
+	 */
+	public XRateLimitFilter add(@NonNull RequestMatcher matcher, @NonNull XRateLimitRule rule) {
+		
+		this.rules.put(matcher, rule);
+		this.counters.putIfAbsent(rule.getName(), new XCounters());
+		
+		return this;
+	}
+	
+	/**
+	 * Get rule names
+	 * 
+	 * @return rule names
+	 */
+	public Set<String> getRuleNames() {
+		
+		return Collections.unmodifiableSet(this.counters.keySet());
+	}
+	
+	/**
+	 * Get count of allowed requests
+	 * 
+	 * @param name rule name
+	 * @return count
+	 */
+	public long getAllowedCount(String name) {
+		
+		return this.counters.get(name).allowed.sum();
+	}
+	
+	/**
+	 * Get count of rejected requests
+	 * 
+	 * @param name rule name
+	 * @return count including {@link #getLocallyRejectedCount(String)}
+	 */
+	public long getRejectedCount(String name) {
+		
+		return this.counters.get(name).rejected.sum();
+	}
+	
+	/**
+	 * Get count of requests rejected by {@link #getLocalTokenBucket()}
+	 * 
+	 * @param name rule name
+	 * @return count
+	 */
+	public long getLocallyRejectedCount(String name) {
+		
+		return this.counters.get(name).locallyRejected.sum();
+	}
+	
+	/**
+	 * Get count of failures of Redis
+	 * 
+	 * @param name rule name
+	 * @return count
+	 */
+	public long getErrorCount(String name) {
+		
+		return this.counters.get(name).errors.sum();
+	}
+	
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+		throws ServletException, IOException {
+		
+		XRateLimitRule rule = this.findRule(request);
+		String key = rule != null ? rule.getKeyResolver().resolve(request) : null;
+		
+		if (key == null) {
+			
+			filterChain.doFilter(request, response);
+			
+			return;
+		}
+		
+		XCounters counters = this.counters.get(rule.getName());
+		long now = System.currentTimeMillis();
+		
+		long localRetryAfter = this.localTokenBucket != null ? this.localTokenBucket.getRetryAfter(rule, key, now) : 0;
+		
+		if (localRetryAfter > 0) {
+			
+			counters.rejected.increment();
+			counters.locallyRejected.increment();
+			
+			this.reject(response, localRetryAfter);
+			
+			return;
+		}
+		
+		XResult result;
+		
+		try {
+			
+			result = this.tokenBucket.tryConsume(rule, key, now);
+		}
+		catch (RuntimeException e) {
+			
+			counters.errors.increment();
+			
+			if (!this.failOpen) {
+				
+				throw e;
+			}
+			
+			this.logger.warn("Failed to consume token of rate limit: " + rule.getName(), e);
+			
+			filterChain.doFilter(request, response);
+			
+			return;
+		}
+		
+		if (this.localTokenBucket != null) {
+			
+			this.localTokenBucket.update(rule, key, result.getTokens(), now);
+		}
+		
+		if (!result.isAllowed()) {
+			
+			counters.rejected.increment();
+			
+			this.reject(response, result.getRetryAfter());
+			
+			return;
+		}
+		
+		counters.allowed.increment();
+		
+		filterChain.doFilter(request, response);
+	}
+	
+	/**
+	 * Find a rule
+	 * 
+	 * @param request {@link HttpServletRequest}
+	 * @return {@link XRateLimitRule} or {@code null}
+	 */
+	protected XRateLimitRule findRule(HttpServletRequest request) {
+		
+		for (Entry<RequestMatcher, XRateLimitRule> entry : this.rules.entrySet()) {
+			
+			if (entry.getKey().matches(request)) {
+				
+				return entry.getValue();
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Reject a request
+	 * 
+	 * @param response {@link HttpServletResponse}
+	 * @param retryAfter milliseconds to retry
+	 */
+	protected void reject(HttpServletResponse response, long retryAfter) {
+		
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (retryAfter + 999) / 1000)));
+	}
+	
+	/**
+	 * Counters of a rule
+	 */
+	protected static class XCounters {
+		
+		/**
+		 * Allowed
+		 */
+		private final LongAdder allowed = new LongAdder();
+		
+		/**
+		 * Rejected
+		 */
+		private final LongAdder rejected = new LongAdder();
+		
+		/**
+		 * Rejected locally
+		 */
+		private final LongAdder locallyRejected = new LongAdder();
+		
+		/**
+		 * Errors
+		 */
+		private final LongAdder errors = new LongAdder();
+	}
+}
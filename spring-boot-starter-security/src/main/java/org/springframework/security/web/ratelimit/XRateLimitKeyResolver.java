@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.ratelimit;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.codec.Hex;
+
+import lombok.NonNull;
+
+/**
+ * Resolver of keys of {@link XRateLimitRule}
+ */
+@FunctionalInterface
+public interface XRateLimitKeyResolver {
+	
+	/**
+	 * Resolve a key
+	 * 
+	 * @param request {@link HttpServletRequest}
+	 * @return key, or {@code null} not to limit the request
+	 */
+	String resolve(HttpServletRequest request);
+	
+	/**
+	 * Key by remote IP address
+	 * 
+	 * @return {@link XRateLimitKeyResolver}
+	 */
+	static XRateLimitKeyResolver ip() {
+		
+		return HttpServletRequest::getRemoteAddr;
+	}
+	
+	/**
+	 * Key by name of authenticated user
+	 * 
+	 * @return {@link XRateLimitKeyResolver}, resolving {@code null} for anonymous users
+	 */
+	static XRateLimitKeyResolver user() {
+		
+		return request -> {
+			
+			Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+			
+			if (authentication == null || !authentication.isAuthenticated()
+				|| authentication instanceof AnonymousAuthenticationToken) {
+				
+				return null;
+			}
+			
+			return authentication.getName();
+		};
+	}
+	
+	/**
+	 * Key by a header, hashed with SHA-256 so that values such as API keys are not stored as they are and keys are of
+	 * fixed length
+	 * 
+	 * @param name header name
+	 * @return {@link XRateLimitKeyResolver}, resolving hex of the hash, or {@code null} without the header
+	 */
+	static XRateLimitKeyResolver header(@NonNull String name) {
+		
+		return request -> {
+			
+			String value = request.getHeader(name);
+			
+			if (value == null) {
+				
+				return null;
+			}
+			
+			try {
+				
+				byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+				
+				return new String(Hex.encode(hash));
+			}
+			catch (NoSuchAlgorithmException e) {
+				
+				throw new IllegalStateException("Failed to create SHA-256", e);
+			}
+		};
+	}
+}
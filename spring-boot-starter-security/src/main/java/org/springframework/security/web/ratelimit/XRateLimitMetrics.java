@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.ratelimit;
+
+import java.util.Collections;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.NonNull;
+
+/**
+ * {@link XRateLimitFilter} {@link MeterBinder}
+ */
+public class XRateLimitMetrics implements MeterBinder {
+	
+	/**
+	 * Prefix of meter names
+	 */
+	public static final String PREFIX = "http.server.rate.limit";
+	
+	/**
+	 * {@link XRateLimitFilter}
+	 */
+	private final XRateLimitFilter filter;
+	
+	/**
+	 * Tags
+	 */
+	private final Iterable<Tag> tags;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param filter {@link XRateLimitFilter}
+	 */
+	public XRateLimitMetrics(XRateLimitFilter filter) {
+		
+		this(filter, Collections.emptyList());
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param filter {@link XRateLimitFilter}
+	 * @param tags tags
+	 */
+	public XRateLimitMetrics(@NonNull XRateLimitFilter filter, @NonNull Iterable<Tag> tags) {
+		
+		this.filter = filter;
+		this.tags = tags;
+	}
+	
+	@Override
+	public void bindTo(@NonNull MeterRegistry registry) {
+		
+		for (String name : this.filter.getRuleNames()) {
+			
+			Tags tags = Tags.of(this.tags).and("rule", name);
+			
+			FunctionCounter.builder(PREFIX + ".requests", this.filter, filter -> filter.getAllowedCount(name))
+				.tags(tags.and("result", "allowed")).description("Number of allowed requests").register(registry);
+			
+			FunctionCounter.builder(PREFIX + ".requests", this.filter, filter -> filter.getRejectedCount(name))
+				.tags(tags.and("result", "rejected")).description("Number of rejected requests").register(registry);
+			
+			FunctionCounter
+				.builder(PREFIX + ".requests.local", this.filter, filter -> filter.getLocallyRejectedCount(name))
+				.tags(tags).description("Number of requests rejected without Redis").register(registry);
+			
+			FunctionCounter.builder(PREFIX + ".errors", this.filter, filter -> filter.getErrorCount(name)).tags(tags)
+				.description("Number of failures of Redis").register(registry);
+		}
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.ratelimit;
+
+import java.time.Duration;
+
+import org.springframework.util.Assert;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Rule of {@link XRateLimitFilter}
+ * 
+ * <p>
+ * A token bucket of {@link #getCapacity()} tokens per key, refilled by {@link #getCapacity()} tokens per
+ * {@link #getPeriod()}. A request consumes a token.
+ * </p>
+ */
+@Getter
+public class XRateLimitRule {
+	
+	/**
+	 * Name
+	 */
+	private final String name;
+	
+	/**
+	 * Capacity of a bucket
+	 */
+	private final long capacity;
+	
+	/**
+	 * Period to refill a bucket
+	 */
+	private final Duration period;
+	
+	/**
+	 * {@link XRateLimitKeyResolver}
+	 */
+	private final XRateLimitKeyResolver keyResolver;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param name name
+	 * @param capacity capacity of a bucket
+	 * @param period period to refill a bucket
+	 * @param keyResolver {@link XRateLimitKeyResolver}
+	 */
+	public XRateLimitRule(@NonNull String name, long capacity, @NonNull Duration period,
+		@NonNull XRateLimitKeyResolver keyResolver) {
+		
+		Assert.isTrue(capacity > 0, "Capacity must be positive");
+		Assert.isTrue(period.toMillis() > 0, "Period must be at least 1 millisecond");
+		
+		this.name = name;
+		this.capacity = capacity;
+		this.period = period;
+		this.keyResolver = keyResolver;
+	}
+	
+	/**
+	 * Get refill rate
+	 * 
+	 * @return tokens per millisecond
+	 */
+	public double getRefillRate() {
+		
+		return (double) this.capacity / this.period.toMillis();
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.ratelimit;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Token buckets in Redis
+ * 
+ * <p>
+ * A bucket is a hash of tokens and the last refill time, refilled and consumed atomically by one Lua script call
+ * ({@code EVALSHA}, falling back to {@code EVAL}). Time is given by the caller, so clocks of nodes should be
+ * synchronized. Idle buckets expire when full, in seconds with {@code EXPIRE}, since ClauDB does not support
+ * {@code PEXPIRE} in scripts.
+ * </p>
+ */
+public class XRedisTokenBucket {
+	
+	/**
+	 * Lua script: {@code KEYS[1]} bucket, {@code ARGV} capacity, tokens per millisecond, now in milliseconds and
+	 * requested tokens. Returns allowed or not, remaining tokens as a string to keep the fraction, and milliseconds to
+	 * retry.
+	 */
+	/* @formatter:off */
+	private static final String SCRIPT =
+		"local capacity = tonumber(ARGV[1])\n" +
+		"local rate = tonumber(ARGV[2])\n" +
+		"local now = tonumber(ARGV[3])\n" +
+		"local requested = tonumber(ARGV[4])\n" +
+		"local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'timestamp')\n" +
+		"local tokens = tonumber(bucket[1]) or capacity\n" +
+		"local timestamp = tonumber(bucket[2]) or now\n" +
+		"tokens = math.min(capacity, tokens + math.max(0, now - timestamp) * rate)\n" +
+		"local allowed = 0\n" +
+		"local retry = 0\n" +
+		"if tokens >= requested then\n" +
+		"  tokens = tokens - requested\n" +
+		"  allowed = 1\n" +
+		"else\n" +
+		"  retry = math.ceil((requested - tokens) / rate)\n" +
+		"end\n" +
+		"redis.call('HMSET', KEYS[1], 'tokens', tostring(tokens), 'timestamp', tostring(math.max(now, timestamp)))\n" +
+		"redis.call('EXPIRE', KEYS[1], math.ceil(capacity / rate / 1000))\n" +
+		"return { allowed, tostring(tokens), retry }";
+	/* @formatter:on */
+	
+	/**
+	 * {@link RedisScript}
+	 */
+	private static final RedisScript<List<Object>> REDIS_SCRIPT = createScript();
+	
+	/**
+	 * {@link StringRedisTemplate}
+	 */
+	private final StringRedisTemplate redisTemplate;
+	
+	/**
+	 * Prefix of keys
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private String keyPrefix = "rate-limit:";
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param connectionFactory {@link RedisConnectionFactory}
+	 */
+	public XRedisTokenBucket(@NonNull RedisConnectionFactory connectionFactory) {
+		
+		this.redisTemplate = new StringRedisTemplate(connectionFactory);
+	}
+	
+	/**
+	 * Try to consume a token
+	 * 
+	 * @param rule {@link XRateLimitRule}
+	 * @param key key
+	 * @param now current time in milliseconds
+	 * @return {@link XResult}
+	 */
+	public XResult tryConsume(@NonNull XRateLimitRule rule, @NonNull String key, long now) {
+		
+		/* @formatter:off */
+		List<Object> result = this.redisTemplate.execute(REDIS_SCRIPT,
+			Collections.singletonList(this.keyPrefix + rule.getName() + ":" + key),
+			String.valueOf(rule.getCapacity()), String.valueOf(rule.getRefillRate()), String.valueOf(now), "1");
+		/* @formatter:on */
+		
+		if (result == null || result.size() != 3) {
+			
+			throw new IllegalStateException("Unexpected result of token bucket: " + result);
+		}
+		
+		return new XResult(((Number) result.get(0)).longValue() == 1, Double.parseDouble(String.valueOf(result.get(1))),
+			((Number) result.get(2)).longValue());
+	}
+	
+	/**
+	 * Create {@link RedisScript}
+	 * 
+	 * @return {@link RedisScript}
+	 */
+	@SuppressWarnings("unchecked")
+	private static RedisScript<List<Object>> createScript() {
+		
+		return new DefaultRedisScript<>(SCRIPT, (Class<List<Object>>) (Class<?>) List.class);
+	}
+	
+	/**
+	 * Result
+	 */
+	@RequiredArgsConstructor
+	@Getter
+	public static class XResult {
+		
+		/**
+		 * Allowed or not
+		 */
+		private final boolean allowed;
+		
+		/**
+		 * Remaining tokens
+		 */
+		private final double tokens;
+		
+		/**
+		 * Milliseconds to retry if not allowed
+		 */
+		private final long retryAfter;
+		
+		/**
+		 * Get remaining tokens, rounded down
+		 * 
+		 * @return remaining tokens
+		 */
+		public long getRemaining() {
+			
+			return (long) Math.floor(this.tokens);
+		}
+	}
+}
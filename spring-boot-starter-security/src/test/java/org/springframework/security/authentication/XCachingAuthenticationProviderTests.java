@@ -0,0 +1,277 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.authentication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * {@link Test}: {@link XCachingAuthenticationProvider}
+ */
+public class XCachingAuthenticationProviderTests {
+	
+	/**
+	 * Secret
+	 */
+	private static final byte[] SECRET = "0123456789abcdef".getBytes();
+	
+	/**
+	 * Delegate
+	 */
+	private AuthenticationProvider delegate;
+	
+	/**
+	 * {@link XCachingAuthenticationProvider}
+	 */
+	private XCachingAuthenticationProvider authenticationProvider;
+	
+	/**
+	 * {@link Before}
+	 */
+	@Before
+	public void before() {
+		
+		this.delegate = mock(AuthenticationProvider.class);
+		
+		when(this.delegate.authenticate(any())).thenAnswer(invocation -> {
+			
+			Authentication authentication = invocation.getArgument(0);
+			
+			if (!"password".equals(authentication.getCredentials())) {
+				
+				throw new BadCredentialsException("Bad credentials");
+			}
+			
+			User user = new User(authentication.getName(), "{noop}password",
+				AuthorityUtils.createAuthorityList("ROLE_USER"));
+			
+			return new UsernamePasswordAuthenticationToken(user, authentication.getCredentials(),
+				user.getAuthorities());
+		});
+		
+		this.authenticationProvider = new XCachingAuthenticationProvider(this.delegate, SECRET);
+	}
+	
+	/**
+	 * {@link XCachingAuthenticationProvider#authenticate(Authentication)} hit
+	 */
+	@Test
+	public void hit() {
+		
+		Authentication first = this.authenticationProvider.authenticate(this.request("user", "password"));
+		UsernamePasswordAuthenticationToken request = this.request("user", "password");
+		
+		request.setDetails("details");
+		
+		Authentication second = this.authenticationProvider.authenticate(request);
+		Authentication third = this.authenticationProvider.authenticate(this.request("user", "password"));
+		
+		verify(this.delegate, times(1)).authenticate(any());
+		
+		assertThat(this.authenticationProvider.getHitCount()).isEqualTo(2);
+		assertThat(this.authenticationProvider.getMissCount()).isEqualTo(1);
+		assertThat(second).isNotSameAs(first).isNotSameAs(third);
+		assertThat(second.isAuthenticated()).isTrue();
+		assertThat(second.getName()).isEqualTo("user");
+		assertThat(second.getCredentials()).isNull();
+		assertThat(second.getDetails()).isEqualTo("details");
+		assertThat(AuthorityUtils.authorityListToSet(second.getAuthorities())).containsExactly("ROLE_USER");
+		
+		// Credentials erased in the cache, not in the result of the delegate
+		assertThat(((User) first.getPrincipal()).getPassword()).isEqualTo("{noop}password");
+		assertThat(((User) second.getPrincipal()).getPassword()).isNull();
+	}
+	
+	/**
+	 * {@link XCachingAuthenticationProvider#authenticate(Authentication)} with changed credentials
+	 */
+	@Test
+	public void credentialsChanged() {
+		
+		this.authenticationProvider.authenticate(this.request("user", "password"));
+		
+		assertThatThrownBy(() -> this.authenticationProvider.authenticate(this.request("user", "other")))
+			.isInstanceOf(BadCredentialsException.class);
+		assertThatThrownBy(() -> this.authenticationProvider.authenticate(this.request("user", "other")))
+			.isInstanceOf(BadCredentialsException.class);
+		
+		// Failures are not cached
+		verify(this.delegate, times(3)).authenticate(any());
+		
+		assertThat(this.authenticationProvider.getMissCount()).isEqualTo(3);
+	}
+	
+	/**
+	 * {@link XCachingAuthenticationProvider#setTtl(Duration)}
+	 */
+	@Test
+	public void ttl() throws InterruptedException {
+		
+		this.authenticationProvider.setTtl(Duration.ofMillis(50));
+		this.authenticationProvider.authenticate(this.request("user", "password"));
+		
+		Thread.sleep(100);
+		
+		this.authenticationProvider.authenticate(this.request("user", "password"));
+		
+		verify(this.delegate, times(2)).authenticate(any());
+		
+		assertThat(this.authenticationProvider.getHitCount()).isZero();
+	}
+	
+	/**
+	 * {@link XCachingAuthenticationProvider#setMaxSize(int)} and
+	 * {@link XCachingAuthenticationProvider#invalidate(String)}
+	 */
+	@Test
+	public void eviction() {
+		
+		this.authenticationProvider.setMaxSize(1);
+		this.authenticationProvider.authenticate(this.request("user", "password"));
+		this.authenticationProvider.authenticate(this.request("other", "password"));
+		
+		assertThat(this.authenticationProvider.getSize()).isEqualTo(1);
+		
+		this.authenticationProvider.authenticate(this.request("other", "password"));
+		this.authenticationProvider.authenticate(this.request("user", "password"));
+		
+		verify(this.delegate, times(3)).authenticate(any());
+		
+		this.authenticationProvider.invalidate("user");
+		
+		assertThat(this.authenticationProvider.getSize()).isZero();
+		
+		this.authenticationProvider.authenticate(this.request("user", "password"));
+		
+		verify(this.delegate, times(4)).authenticate(any());
+	}
+	
+	/**
+	 * {@link XCachingAuthenticationProvider#setSharedCache(org.springframework.cache.Cache)}
+	 */
+	@Test
+	public void sharedCache() {
+		
+		ConcurrentMapCache sharedCache = new ConcurrentMapCache("authentication", true);
+		
+		this.authenticationProvider.setSharedCache(sharedCache);
+		this.authenticationProvider.authenticate(this.request("user", "password"));
+		
+		// Another node with the same secret
+		AuthenticationProvider otherDelegate = mock(AuthenticationProvider.class);
+		XCachingAuthenticationProvider other = new XCachingAuthenticationProvider(otherDelegate, SECRET);
+		
+		other.setSharedCache(sharedCache);
+		
+		Authentication result = other.authenticate(this.request("user", "password"));
+		
+		verify(otherDelegate, times(0)).authenticate(any());
+		
+		assertThat(other.getHitCount()).isEqualTo(1);
+		assertThat(result.getCredentials()).isNull();
+		assertThat(((User) result.getPrincipal()).getPassword()).isNull();
+	}
+	
+	/**
+	 * {@link Authentication}s other than {@link UsernamePasswordAuthenticationToken} are not cached
+	 */
+	@Test
+	public void notCacheable() {
+		
+		doAnswer(invocation -> new TestingAuthenticationToken("user", "password", "ROLE_USER")).when(this.delegate)
+			.authenticate(any());
+		
+		Authentication first = this.authenticationProvider.authenticate(this.request("user", "password"));
+		Authentication second = this.authenticationProvider.authenticate(this.request("user", "password"));
+		
+		verify(this.delegate, times(2)).authenticate(any());
+		
+		assertThat(second).isNotSameAs(first);
+		assertThat(this.authenticationProvider.getSize()).isZero();
+	}
+	
+	/**
+	 * {@link XCachingAuthenticationProvider#copyAuthentication(Authentication, Object)} overridden for other types
+	 */
+	@Test
+	public void copyAuthentication() {
+		
+		doAnswer(invocation -> new TestingAuthenticationToken("user", "password", "ROLE_USER")).when(this.delegate)
+			.authenticate(any());
+		
+		XCachingAuthenticationProvider authenticationProvider = new XCachingAuthenticationProvider(this.delegate,
+			SECRET) {
+			
+			@Override
+			protected Authentication copyAuthentication(Authentication authentication, Object principal) {
+				
+				if (authentication instanceof TestingAuthenticationToken) {
+					
+					return new TestingAuthenticationToken(principal, null,
+						new ArrayList<>(authentication.getAuthorities()));
+				}
+				
+				return super.copyAuthentication(authentication, principal);
+			}
+		};
+		
+		authenticationProvider.authenticate(this.request("user", "password"));
+		
+		UsernamePasswordAuthenticationToken request = this.request("user", "password");
+		
+		request.setDetails("details");
+		
+		Authentication result = authenticationProvider.authenticate(request);
+		
+		verify(this.delegate, times(1)).authenticate(any());
+		
+		assertThat(result).isInstanceOf(TestingAuthenticationToken.class);
+		assertThat(result.isAuthenticated()).isTrue();
+		assertThat(result.getName()).isEqualTo("user");
+		assertThat(result.getCredentials()).isNull();
+		assertThat(result.getDetails()).isEqualTo("details");
+		assertThat(AuthorityUtils.authorityListToSet(result.getAuthorities())).containsExactly("ROLE_USER");
+	}
+	
+	/**
+	 * Create an {@link Authentication} request
+	 * 
+	 * @param name name
+	 * @param password password
+	 * @return {@link UsernamePasswordAuthenticationToken}
+	 */
+	private UsernamePasswordAuthenticationToken request(String name, String password) {
+		
+		return new UsernamePasswordAuthenticationToken(name, password);
+	}
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.header.writers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.header.HeaderWriter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+/**
+ * {@link Test}: throughput of {@link XIndexedRequestMatcherHeaderWriter} compared with
+ * {@link XOrDelegatingRequestMatcherHeaderWriter}
+ */
+public class XIndexedRequestMatcherHeaderWriterBenchmarkTests {
+	
+	/**
+	 * {@link Logger}
+	 */
+	private static final Logger logger = LoggerFactory
+		.getLogger(XIndexedRequestMatcherHeaderWriterBenchmarkTests.class);
+	
+	/**
+	 * Number of areas
+	 */
+	private static final int AREAS = 20;
+	
+	/**
+	 * Number of resources by area
+	 */
+	private static final int RESOURCES = 10;
+	
+	/**
+	 * Number of requests
+	 */
+	private static final int REQUESTS = 50000;
+	
+	/**
+	 * Header name
+	 */
+	private static final String HEADER = "X-Rule";
+	
+	/**
+	 * {@link XOrDelegatingRequestMatcherHeaderWriter}
+	 */
+	private XOrDelegatingRequestMatcherHeaderWriter linearWriter;
+	
+	/**
+	 * {@link XIndexedRequestMatcherHeaderWriter}
+	 */
+	private XIndexedRequestMatcherHeaderWriter indexedWriter;
+	
+	/**
+	 * Requests
+	 */
+	private List<MockHttpServletRequest> requests;
+	
+	/**
+	 * {@link Before}
+	 */
+	@Before
+	public void before() {
+		
+		this.linearWriter = new XOrDelegatingRequestMatcherHeaderWriter();
+		this.indexedWriter = new XIndexedRequestMatcherHeaderWriter();
+		
+		int rule = 0;
+		
+		for (int area = 0; area < AREAS; area++) {
+			
+			for (int resource = 0; resource < RESOURCES; resource++) {
+				
+				this.add(new AntPathRequestMatcher("/area" + area + "/resource" + resource + "/**", "GET"), rule++);
+				this.add(new AntPathRequestMatcher("/area" + area + "/resource" + resource + "/*.json"), rule++);
+			}
+			
+			this.add(new AntPathRequestMatcher("/area" + area + "/**"), rule++);
+		}
+		
+		this.add(new AntPathRequestMatcher("/**/*.css"), rule++);
+		this.add(request -> request.getHeader("X-Any") != null, rule++);
+		this.add(new AntPathRequestMatcher("/**"), rule++);
+		
+		this.requests = new ArrayList<>();
+		
+		for (int area = 0; area < AREAS + 1; area++) {
+			
+			for (int resource = 0; resource < RESOURCES + 1; resource++) {
+				
+				String path = "/area" + area + "/resource" + resource;
+				
+				this.requests.add(request("GET", path + "/1"));
+				this.requests.add(request("POST", path + "/1.json"));
+				this.requests.add(request("POST", path + "/style.css"));
+				this.requests.add(request("DELETE", path.toUpperCase() + "/1"));
+			}
+		}
+	}
+	
+	/**
+	 * Compare linear dispatch with indexed dispatch
+	 */
+	@Test
+	public void throughput() {
+		
+		for (MockHttpServletRequest request : this.requests) {
+			
+			assertThat(write(this.indexedWriter, request)).as(request.getMethod() + " " + request.getServletPath())
+				.isEqualTo(write(this.linearWriter, request));
+		}
+		
+		// Warm up
+		this.run(this.linearWriter, REQUESTS / 10);
+		this.run(this.indexedWriter, REQUESTS / 10);
+		
+		long linear = this.run(this.linearWriter, REQUESTS);
+		long indexed = this.run(this.indexedWriter, REQUESTS);
+		
+		logger.info("{} rules, linear: {} requests/s, indexed: {} requests/s", AREAS * (RESOURCES * 2 + 1) + 3,
+			throughput(linear), throughput(indexed));
+	}
+	
+	/**
+	 * Add a rule to both writers
+	 * 
+	 * @param matcher {@link RequestMatcher}
+	 * @param rule rule number
+	 */
+	private void add(RequestMatcher matcher, int rule) {
+		
+		HeaderWriter writer = new StaticHeadersWriter(HEADER, String.valueOf(rule));
+		
+		this.linearWriter.add(matcher, writer);
+		this.indexedWriter.add(matcher, writer);
+	}
+	
+	/**
+	 * Run requests
+	 * 
+	 * @param writer {@link HeaderWriter}
+	 * @param count number of requests
+	 * @return elapsed time in nanoseconds
+	 */
+	private long run(HeaderWriter writer, int count) {
+		
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		long start = System.nanoTime();
+		
+		for (int index = 0; index < count; index++) {
+			
+			writer.writeHeaders(this.requests.get(index % this.requests.size()), response);
+		}
+		
+		return System.nanoTime() - start;
+	}
+	
+	/**
+	 * Write headers
+	 * 
+	 * @param writer {@link HeaderWriter}
+	 * @param request {@link MockHttpServletRequest}
+	 * @return written rule number
+	 */
+	private static String write(HeaderWriter writer, MockHttpServletRequest request) {
+		
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		
+		writer.writeHeaders(request, response);
+		
+		return response.getHeader(HEADER);
+	}
+	
+	/**
+	 * Request
+	 * 
+	 * @param method method
+	 * @param path servlet path
+	 * @return {@link MockHttpServletRequest}
+	 */
+	private static MockHttpServletRequest request(String method, String path) {
+		
+		MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+		
+		request.setServletPath(path);
+		
+		return request;
+	}
+	
+	/**
+	 * Throughput
+	 * 
+	 * @param nanos elapsed time in nanoseconds
+	 * @return requests per second
+	 */
+	private static long throughput(long nanos) {
+		
+		return REQUESTS * TimeUnit.SECONDS.toNanos(1) / Math.max(nanos, 1);
+	}
+}
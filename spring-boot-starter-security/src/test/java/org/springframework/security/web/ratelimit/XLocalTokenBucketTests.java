@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * {@link Test}: {@link XLocalTokenBucket}
+ */
+public class XLocalTokenBucketTests {
+	
+	/**
+	 * {@link XRateLimitRule} of 10 tokens per second
+	 */
+	private final XRateLimitRule rule = new XRateLimitRule("rule", 10, Duration.ofSeconds(1),
+		XRateLimitKeyResolver.ip());
+	
+	/**
+	 * {@link XLocalTokenBucket}
+	 */
+	private XLocalTokenBucket tokenBucket;
+	
+	/**
+	 * {@link Before}
+	 */
+	@Before
+	public void before() {
+		
+		this.tokenBucket = new XLocalTokenBucket();
+	}
+	
+	/**
+	 * {@link XLocalTokenBucket#getRetryAfter(XRateLimitRule, String, long)}
+	 */
+	@Test
+	public void getRetryAfter() {
+		
+		assertThat(this.tokenBucket.mayConsume(this.rule, "key", 0)).isTrue();
+		
+		this.tokenBucket.update(this.rule, "key", 0.5, 0);
+		
+		assertThat(this.tokenBucket.mayConsume(this.rule, "key", 0)).isFalse();
+		assertThat(this.tokenBucket.getRetryAfter(this.rule, "key", 0)).isEqualTo(50);
+		assertThat(this.tokenBucket.getRetryAfter(this.rule, "key", 40)).isEqualTo(10);
+		assertThat(this.tokenBucket.getRetryAfter(this.rule, "key", 50)).isZero();
+		assertThat(this.tokenBucket.getRetryAfter(this.rule, "other", 0)).isZero();
+	}
+	
+	/**
+	 * Fraction of tokens returned by Redis
+	 */
+	@Test
+	public void fraction() {
+		
+		// Rounded down, 0.999 would wait for 100 ms while Redis allows after 1 ms
+		this.tokenBucket.update(this.rule, "key", 0.999, 0);
+		
+		assertThat(this.tokenBucket.getRetryAfter(this.rule, "key", 0)).isEqualTo(1);
+		assertThat(this.tokenBucket.mayConsume(this.rule, "key", 1)).isTrue();
+	}
+	
+	/**
+	 * {@link XLocalTokenBucket#setMaxSize(int)}
+	 */
+	@Test
+	public void maxSize() {
+		
+		this.tokenBucket.setMaxSize(2);
+		this.tokenBucket.update(this.rule, "empty", 0, 0);
+		this.tokenBucket.update(this.rule, "full", 10, 0);
+		
+		// Full bucket swept
+		this.tokenBucket.update(this.rule, "new", 0, 0);
+		
+		assertThat(this.tokenBucket.getSize()).isEqualTo(2);
+		assertThat(this.tokenBucket.mayConsume(this.rule, "new", 0)).isFalse();
+		
+		// Not swept again within the interval
+		this.tokenBucket.update(this.rule, "other", 0, 500);
+		
+		assertThat(this.tokenBucket.getSize()).isEqualTo(2);
+		assertThat(this.tokenBucket.mayConsume(this.rule, "other", 500)).isTrue();
+		
+		// Refilled buckets swept after the interval
+		this.tokenBucket.update(this.rule, "other", 0, 1000);
+		
+		assertThat(this.tokenBucket.getSize()).isEqualTo(1);
+		assertThat(this.tokenBucket.mayConsume(this.rule, "other", 1000)).isFalse();
+	}
+}
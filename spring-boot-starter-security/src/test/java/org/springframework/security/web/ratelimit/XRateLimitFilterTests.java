@@ -0,0 +1,207 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.ratelimit.XRedisTokenBucket.XResult;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+/**
+ * {@link Test}: {@link XRateLimitFilter}
+ */
+public class XRateLimitFilterTests {
+	
+	/**
+	 * Header of keys
+	 */
+	private static final String HEADER = "X-Api-Key";
+	
+	/**
+	 * Key resolved from the header value {@code key}, hex of its SHA-256
+	 */
+	private static final String KEY = "2c70e12b7a0646f92279f427c7b38e7334d8e5389cff167a1dc30e73f826b683";
+	
+	/**
+	 * {@link XRateLimitRule} of 1 token per 10 seconds
+	 */
+	private final XRateLimitRule rule = new XRateLimitRule("rule", 1, Duration.ofSeconds(10),
+		XRateLimitKeyResolver.header(HEADER));
+	
+	/**
+	 * {@link XRedisTokenBucket}
+	 */
+	private XRedisTokenBucket tokenBucket;
+	
+	/**
+	 * {@link XRateLimitFilter}
+	 */
+	private XRateLimitFilter filter;
+	
+	/**
+	 * {@link Before}
+	 */
+	@Before
+	public void before() {
+		
+		this.tokenBucket = mock(XRedisTokenBucket.class);
+		this.filter = new XRateLimitFilter(this.tokenBucket).add(new AntPathRequestMatcher("/api/**"), this.rule);
+	}
+	
+	/**
+	 * Allowed request
+	 */
+	@Test
+	public void allowed() throws Exception {
+		
+		when(this.tokenBucket.tryConsume(eq(this.rule), eq(KEY), anyLong())).thenReturn(new XResult(true, 0, 0));
+		
+		MockFilterChain filterChain = new MockFilterChain();
+		
+		this.filter.doFilter(this.request("/api/foo", "key"), new MockHttpServletResponse(), filterChain);
+		
+		assertThat(filterChain.getRequest()).isNotNull();
+		assertThat(this.filter.getAllowedCount("rule")).isEqualTo(1);
+	}
+	
+	/**
+	 * Requests without a rule or a key
+	 */
+	@Test
+	public void notLimited() throws Exception {
+		
+		MockFilterChain filterChain = new MockFilterChain();
+		
+		this.filter.doFilter(this.request("/other", "key"), new MockHttpServletResponse(), filterChain);
+		
+		assertThat(filterChain.getRequest()).isNotNull();
+		
+		filterChain = new MockFilterChain();
+		
+		this.filter.doFilter(this.request("/api/foo", null), new MockHttpServletResponse(), filterChain);
+		
+		assertThat(filterChain.getRequest()).isNotNull();
+		verify(this.tokenBucket, never()).tryConsume(any(), any(), anyLong());
+	}
+	
+	/**
+	 * Request rejected by Redis
+	 */
+	@Test
+	public void rejected() throws Exception {
+		
+		when(this.tokenBucket.tryConsume(eq(this.rule), eq(KEY), anyLong()))
+			.thenReturn(new XResult(false, 0.75, 2500));
+		
+		MockFilterChain filterChain = new MockFilterChain();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		
+		this.filter.doFilter(this.request("/api/foo", "key"), response, filterChain);
+		
+		assertThat(filterChain.getRequest()).isNull();
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+		assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+		assertThat(this.filter.getRejectedCount("rule")).isEqualTo(1);
+	}
+	
+	/**
+	 * Request rejected by {@link XLocalTokenBucket}
+	 */
+	@Test
+	public void rejectedLocally() throws Exception {
+		
+		this.filter.setLocalTokenBucket(new XLocalTokenBucket());
+		
+		when(this.tokenBucket.tryConsume(eq(this.rule), eq(KEY), anyLong()))
+			.thenReturn(new XResult(false, 0.5, 5000));
+		
+		this.filter.doFilter(this.request("/api/foo", "key"), new MockHttpServletResponse(), new MockFilterChain());
+		
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		
+		this.filter.doFilter(this.request("/api/foo", "key"), response, new MockFilterChain());
+		
+		// Deficit of half a token, not a full token of 10 seconds
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+		assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("5");
+		assertThat(this.filter.getRejectedCount("rule")).isEqualTo(2);
+		assertThat(this.filter.getLocallyRejectedCount("rule")).isEqualTo(1);
+		verify(this.tokenBucket, times(1)).tryConsume(any(), any(), anyLong());
+	}
+	
+	/**
+	 * {@link XRateLimitFilter#setFailOpen(boolean)}
+	 */
+	@Test
+	public void failOpen() throws Exception {
+		
+		when(this.tokenBucket.tryConsume(eq(this.rule), eq(KEY), anyLong()))
+			.thenThrow(new RedisConnectionFailureException("failed"));
+		
+		MockFilterChain filterChain = new MockFilterChain();
+		
+		this.filter.doFilter(this.request("/api/foo", "key"), new MockHttpServletResponse(), filterChain);
+		
+		assertThat(filterChain.getRequest()).isNotNull();
+		assertThat(this.filter.getErrorCount("rule")).isEqualTo(1);
+		
+		this.filter.setFailOpen(false);
+		
+		assertThatThrownBy(() -> this.filter.doFilter(this.request("/api/foo", "key"),
+			new MockHttpServletResponse(), new MockFilterChain())).isInstanceOf(RedisConnectionFailureException.class);
+	}
+	
+	/**
+	 * Create {@link MockHttpServletRequest}
+	 * 
+	 * @param path path
+	 * @param key key, or {@code null} without the header
+	 * @return {@link MockHttpServletRequest}
+	 */
+	private MockHttpServletRequest request(String path, String key) {
+		
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		
+		request.setServletPath(path);
+		
+		if (key != null) {
+			
+			request.addHeader(HEADER, key);
+		}
+		
+		return request;
+	}
+}
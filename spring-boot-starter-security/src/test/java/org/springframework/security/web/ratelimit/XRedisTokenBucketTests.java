@@ -0,0 +1,173 @@
+/*
+ * Copyright 2017-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.claudb.ClauDbConnectionFactory;
+import org.springframework.security.web.ratelimit.XRedisTokenBucket.XResult;
+import org.springframework.util.SocketUtils;
+
+import com.github.tonivade.claudb.ClauDB;
+import com.github.tonivade.resp.RespServer;
+
+/**
+ * {@link Test}: {@link XRedisTokenBucket}
+ */
+public class XRedisTokenBucketTests {
+	
+	/**
+	 * {@link XRateLimitRule} of 10 tokens per second
+	 */
+	private final XRateLimitRule rule = new XRateLimitRule("rule", 10, Duration.ofSeconds(1),
+		XRateLimitKeyResolver.ip());
+	
+	/**
+	 * Arguments of {@code EVALSHA}, keys and arguments of the script expanded
+	 */
+	private final List<Object> arguments = new ArrayList<>();
+	
+	/**
+	 * Reply of the script
+	 */
+	private List<Object> reply;
+	
+	/**
+	 * {@link XRedisTokenBucket}
+	 */
+	private XRedisTokenBucket tokenBucket;
+	
+	/**
+	 * {@link Before}
+	 */
+	@Before
+	public void before() {
+		
+		RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+		RedisConnection connection = mock(RedisConnection.class, invocation -> {
+			
+			if (!invocation.getMethod().getName().equals("evalSha")) {
+				
+				return RETURNS_DEFAULTS.answer(invocation);
+			}
+			
+			this.arguments.addAll(Arrays.asList(invocation.getArguments()));
+			
+			return this.reply;
+		});
+		
+		when(connectionFactory.getConnection()).thenReturn(connection);
+		
+		this.tokenBucket = new XRedisTokenBucket(connectionFactory);
+	}
+	
+	/**
+	 * {@link XRedisTokenBucket#tryConsume(XRateLimitRule, String, long)}
+	 */
+	@Test
+	public void tryConsume() {
+		
+		this.reply = Arrays.asList(1L, "8.75".getBytes(StandardCharsets.UTF_8), 0L);
+		
+		XResult result = this.tokenBucket.tryConsume(this.rule, "key", 1000);
+		
+		assertThat(result.isAllowed()).isTrue();
+		assertThat(result.getTokens()).isEqualTo(8.75);
+		assertThat(result.getRemaining()).isEqualTo(8);
+		
+		assertThat(this.arguments.get(1)).isEqualTo(ReturnType.MULTI);
+		assertThat(this.arguments.get(2)).isEqualTo(1);
+		assertThat(this.arguments.subList(3, this.arguments.size()).stream().map(key -> new String((byte[]) key))
+			.collect(Collectors.toList())).containsExactly("rate-limit:rule:key", "10", "0.01", "1000", "1");
+	}
+	
+	/**
+	 * {@link XRedisTokenBucket#tryConsume(XRateLimitRule, String, long)} if rejected
+	 */
+	@Test
+	public void tryConsumeRejected() {
+		
+		this.reply = Arrays.asList(0L, "0.25".getBytes(StandardCharsets.UTF_8), 75L);
+		
+		XResult result = this.tokenBucket.tryConsume(this.rule, "key", 1000);
+		
+		assertThat(result.isAllowed()).isFalse();
+		assertThat(result.getTokens()).isEqualTo(0.25);
+		assertThat(result.getRemaining()).isZero();
+		assertThat(result.getRetryAfter()).isEqualTo(75);
+	}
+	
+	/**
+	 * {@link XRedisTokenBucket#tryConsume(XRateLimitRule, String, long)} with the script run by ClauDB
+	 */
+	@Test
+	public void tryConsumeClauDb() {
+		
+		RespServer respServer = ClauDB.builder().port(SocketUtils.findAvailableTcpPort()).build();
+		respServer.start();
+		
+		try {
+			
+			// Note: 1 token per 1024 ms to keep the fractions exact
+			XRateLimitRule rule = new XRateLimitRule("rule", 2, Duration.ofMillis(2048), XRateLimitKeyResolver.ip());
+			ClauDbConnectionFactory connectionFactory = new ClauDbConnectionFactory(respServer);
+			XRedisTokenBucket tokenBucket = new XRedisTokenBucket(connectionFactory);
+			
+			assertThat(tokenBucket.tryConsume(rule, "key", 1000).getTokens()).isEqualTo(1);
+			assertThat(tokenBucket.tryConsume(rule, "key", 1000).getTokens()).isZero();
+			
+			XResult rejected = tokenBucket.tryConsume(rule, "key", 1000);
+			
+			assertThat(rejected.isAllowed()).isFalse();
+			assertThat(rejected.getRetryAfter()).isEqualTo(1024);
+			
+			XResult refilled = tokenBucket.tryConsume(rule, "key", 1512);
+			
+			assertThat(refilled.isAllowed()).isFalse();
+			assertThat(refilled.getTokens()).isEqualTo(0.5);
+			assertThat(refilled.getRetryAfter()).isEqualTo(512);
+			
+			XResult allowed = tokenBucket.tryConsume(rule, "key", 2024);
+			
+			assertThat(allowed.isAllowed()).isTrue();
+			assertThat(allowed.getTokens()).isZero();
+			assertThat(tokenBucket.tryConsume(rule, "other", 2024).getTokens()).isEqualTo(1);
+			
+			// Idle buckets expire when full
+			assertThat(connectionFactory.getConnection().ttl("rate-limit:rule:key".getBytes())).isBetween(1L, 3L);
+		}
+		finally {
+			
+			respServer.stop();
+		}
+	}
+}